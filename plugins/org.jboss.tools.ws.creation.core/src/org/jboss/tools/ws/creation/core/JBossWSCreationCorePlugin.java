@@ -1,6 +1,16 @@
 package org.jboss.tools.ws.creation.core;
 
+import java.io.File;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.jface.util.IPropertyChangeListener;
+import org.eclipse.jface.util.PropertyChangeEvent;
 import org.jboss.tools.common.log.BaseUIPlugin;
+import org.jboss.tools.ws.core.JBossWSCorePlugin;
+import org.jboss.tools.ws.core.messages.JBossWSCoreMessages;
+import org.jboss.tools.ws.creation.core.commands.JBossWSToolsRunner;
 import org.osgi.framework.BundleContext;
 
 /**
@@ -14,7 +24,19 @@ public class JBossWSCreationCorePlugin extends BaseUIPlugin {
 	// The shared instance
 	private static JBossWSCreationCorePlugin plugin;
 	
-	private long generateTime;
+	private volatile long generateTime;
+
+	private final Set<File> generatedFiles = new HashSet<File>();
+
+	// the tools classes loaded from a runtime are dropped when the runtimes
+	// are edited
+	private final IPropertyChangeListener runtimesListener = new IPropertyChangeListener() {
+		public void propertyChange(PropertyChangeEvent event) {
+			if (JBossWSCoreMessages.WS_Location.equals(event.getProperty())) {
+				JBossWSToolsRunner.clearCache();
+			}
+		}
+	};
 	
 	/**
 	 * The constructor
@@ -29,6 +51,7 @@ public class JBossWSCreationCorePlugin extends BaseUIPlugin {
 	public void start(BundleContext context) throws Exception {
 		super.start(context);
 		plugin = this;
+		JBossWSCorePlugin.getDefault().getPreferenceStore().addPropertyChangeListener(runtimesListener);
 	}
 
 	/*
@@ -36,6 +59,8 @@ public class JBossWSCreationCorePlugin extends BaseUIPlugin {
 	 * @see org.eclipse.ui.plugin.AbstractUIPlugin#stop(org.osgi.framework.BundleContext)
 	 */
 	public void stop(BundleContext context) throws Exception {
+		JBossWSCorePlugin.getDefault().getPreferenceStore().removePropertyChangeListener(runtimesListener);
+		JBossWSToolsRunner.clearCache();
 		plugin = null;
 		super.stop(context);
 	}
@@ -53,8 +78,38 @@ public class JBossWSCreationCorePlugin extends BaseUIPlugin {
 		return generateTime;
 	}
 
+	/**
+	 * Starts a new generation: the files produced from now on are the
+	 * generated files. The generations run together record it once.
+	 */
 	public void setGenerateTime(long generateTime) {
 		this.generateTime = generateTime;
+		synchronized (generatedFiles) {
+			generatedFiles.clear();
+		}
+	}
+
+	/**
+	 * Records files produced by the last generation which were not rewritten
+	 * (because their content did not change), so that they are still found
+	 * as generated files although they are older than the generate time.
+	 */
+	public void addGeneratedFiles(Collection<File> files) {
+		synchronized (generatedFiles) {
+			generatedFiles.addAll(files);
+		}
+	}
+
+	/**
+	 * @return true if the given file was produced by the last generation
+	 */
+	public boolean isGenerated(File file) {
+		if (file.lastModified() > generateTime) {
+			return true;
+		}
+		synchronized (generatedFiles) {
+			return generatedFiles.contains(file.getAbsoluteFile());
+		}
 	}
 
 }
@@ -29,6 +29,8 @@ import org.jboss.tools.ws.creation.core.JBossWSCreationCorePlugin;
 import org.jboss.tools.ws.creation.core.data.ServiceModel;
 import org.jboss.tools.ws.creation.core.messages.JBossWSCreationCoreMessages;
 import org.jboss.tools.ws.creation.core.utils.JBossWSCreationUtils;
+import org.jboss.tools.ws.creation.core.utils.ProcessOutputCollector;
+import org.jboss.tools.ws.creation.core.utils.ProcessTreeKiller;
 
 abstract class AbstractGenerateCodeCommand extends AbstractDataModelOperation {
 
@@ -36,6 +38,21 @@ abstract class AbstractGenerateCodeCommand extends AbstractDataModelOperation {
 	private String cmdFileName_linux;
 	private String cmdFileName_win;
 	private static String JAVA_HOME = "JAVA_HOME"; //$NON-NLS-1$
+	private boolean refresh = true;
+	private boolean recordGenerateTime = true;
+	private volatile boolean runAbandoned = false;
+
+	/** System property giving the maximum duration of a generation, in seconds. */
+	public static final String TIMEOUT_PROPERTY = "org.jboss.tools.ws.creation.core.timeout"; //$NON-NLS-1$
+
+	/** Number of lines of output kept in memory, the whole output is in a log file. */
+	private static final int MAX_OUTPUT_LINES = 2000;
+	/** Lines of output always kept, since they determine the status. */
+	private static final String[] OUTPUT_MARKERS = { "error:", "[ERROR]", "javac -d", "compilation failed" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	private static final long DRAIN_TIMEOUT = 5000;
+	private static final long POLL_INTERVAL = 100;
+
+	private long timeout = Long.getLong(TIMEOUT_PROPERTY, 0).longValue() * 1000;
 
 	public AbstractGenerateCodeCommand(ServiceModel model) {
 		this.model = model;
@@ -43,26 +60,196 @@ abstract class AbstractGenerateCodeCommand extends AbstractDataModelOperation {
 		cmdFileName_win = getCommandLineFileName_win();
 	}
 
+	/**
+	 * @param refresh
+	 *            false if the caller refreshes the project itself, for
+	 *            instance once after several generations
+	 */
+	public void setRefreshProject(boolean refresh) {
+		this.refresh = refresh;
+	}
+
+	public boolean isRefreshProject() {
+		return refresh;
+	}
+
+	/**
+	 * @return true if the last generation was aborted but its in-process
+	 *         tool did not stop in time, and may still write to the project,
+	 *         which is then not refreshed
+	 */
+	public boolean isRunAbandoned() {
+		return runAbandoned;
+	}
+
+	/**
+	 * @param recordGenerateTime
+	 *            false if the caller records the generate time itself, for
+	 *            instance once before several concurrent generations
+	 */
+	public void setRecordGenerateTime(boolean recordGenerateTime) {
+		this.recordGenerateTime = recordGenerateTime;
+	}
+
+	/**
+	 * Starts a new generation, unless the caller records the generate time.
+	 *
+	 * @see JBossWSCreationCorePlugin#setGenerateTime(long)
+	 */
+	protected void recordGenerateTime() {
+		if (recordGenerateTime) {
+			JBossWSCreationCorePlugin.getDefault().setGenerateTime(System.currentTimeMillis());
+		}
+	}
+
+	/**
+	 * @param timeout
+	 *            the time after which the script is killed, in milliseconds,
+	 *            0 to wait until it ends
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = Math.max(0, timeout);
+	}
+
+	/**
+	 * Waits for the end of the process, reporting the progress of the tool,
+	 * and kills it when the monitor is canceled or after the timeout. The
+	 * processes started by the script (the VM running the tool) are killed
+	 * with it.
+	 *
+	 * @return the exit value, or null if the process was killed
+	 */
+	protected Integer waitFor(final Process proc, ProgressParser progress, IProgressMonitor monitor) throws InterruptedException {
+		final int[] exitValue = new int[1];
+		boolean ended = waitFor(new Run() {
+			public boolean hasEnded() {
+				try {
+					exitValue[0] = proc.exitValue();
+					return true;
+				} catch (IllegalThreadStateException e) {
+					return false;
+				}
+			}
+
+			public void abort() {
+				if (!ProcessTreeKiller.destroyTree(proc)) {
+					JBossWSCreationCorePlugin.getDefault().logWarning(
+							"Only the script was killed, the VM it started may still run"); //$NON-NLS-1$
+				}
+			}
+		}, progress, monitor);
+		return ended ? Integer.valueOf(exitValue[0]) : null;
+	}
+
+	/**
+	 * A generation in progress: a script or a tool run in process.
+	 */
+	private interface Run {
+		boolean hasEnded();
+
+		void abort();
+	}
+
+	/**
+	 * @return true if the run ended, false if it was aborted
+	 */
+	private boolean waitFor(Run run, ProgressParser progress, IProgressMonitor monitor) throws InterruptedException {
+		long start = System.currentTimeMillis();
+		int reported = 0;
+		while (true) {
+			if (run.hasEnded()) {
+				return true;
+			}
+			if (monitor.isCanceled() || (timeout > 0 && System.currentTimeMillis() - start > timeout)) {
+				run.abort();
+				return false;
+			}
+			int worked = progress.getWorked();
+			if (worked > reported) {
+				monitor.worked(worked - reported);
+				monitor.subTask(progress.getPhase());
+				reported = worked;
+			}
+			Thread.sleep(POLL_INTERVAL);
+		}
+	}
+
+	/**
+	 * @return a collector of the output of the script, spilling into the
+	 *         state location of the plug-in
+	 */
+	private ProcessOutputCollector newOutputCollector(ProcessOutputCollector.LineListener listener) {
+		File logFolder = null;
+		try {
+			logFolder = JBossWSCreationCorePlugin.getDefault().getStateLocation().append("logs").toFile(); //$NON-NLS-1$
+		} catch (IllegalStateException e) {
+			// no state location: use the temp folder
+		}
+		return new ProcessOutputCollector(MAX_OUTPUT_LINES, OUTPUT_MARKERS, logFolder, listener);
+	}
+
+	/**
+	 * Follows the phases of the tools in their verbose output (wsimport:
+	 * "parsing WSDL...", "generating code...", "compiling code...").
+	 */
+	protected static class ProgressParser implements ProcessOutputCollector.LineListener {
+
+		private static final String[] PHASES = { "parsing", "generating", "compiling" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		private static final int[] WORKED = { 10, 40, 70 };
+
+		private volatile int worked = 0;
+		private volatile String phase = ""; //$NON-NLS-1$
+
+		public void lineRead(String line) {
+			String lowerCase = line.trim().toLowerCase();
+			for (int i = 0; i < PHASES.length; i++) {
+				if (lowerCase.startsWith(PHASES[i]) && WORKED[i] > worked) {
+					phase = line.trim();
+					worked = WORKED[i];
+				}
+			}
+		}
+
+		/** @return the amount of work done, out of 100 */
+		public int getWorked() {
+			return worked;
+		}
+
+		/** @return the line of the current phase */
+		public String getPhase() {
+			return phase;
+		}
+	}
+
 	@Override
 	public IStatus execute(IProgressMonitor monitor, IAdaptable info)
 			throws ExecutionException {
 		if (monitor == null) {
 			monitor = new NullProgressMonitor();
 		}
+		runAbandoned = false;
 		try {
 			monitor.beginTask("", 100); //$NON-NLS-1$
 			monitor.subTask(JBossWSCreationCoreMessages.Progress_Message_Generating);
 			IStatus status = Status.OK_STATUS;
 
 			IProject project = model.getJavaProject().getProject();
-			JBossWSCreationCorePlugin.getDefault().setGenerateTime(System.currentTimeMillis());
+			recordGenerateTime();
 			try {
 				String runtimeLocation = JBossWSCreationUtils.getJBossWSRuntimeLocation(project);
+				List<String> args = new ArrayList<String>();
+				addCommandlineArgs(args);
+				addCommonArgs(args, model.getJavaProject());
+				IStatus inProcessStatus = runInProcess(runtimeLocation, args, monitor);
+				if (inProcessStatus != null) {
+					return inProcessStatus;
+				}
+
 				String commandLocation = runtimeLocation + Path.SEPARATOR+ "bin"; //$NON-NLS-1$
+				String[] env = getEnvironmentVariables(model.getJavaProject());
 				IPath path = new Path(commandLocation);
 				List<String> command = new ArrayList<String>();
-				String[] env = getEnvironmentVariables(model.getJavaProject());
-				if (System.getProperty("os.name").toLowerCase().indexOf("win") >= 0) { //$NON-NLS-1$ //$NON-NLS-2$
+				if (isWindows()) {
 					command.add("cmd.exe"); //$NON-NLS-1$
 					command.add("/c"); //$NON-NLS-1$
 					command.add(cmdFileName_win);
@@ -75,41 +262,22 @@ abstract class AbstractGenerateCodeCommand extends AbstractDataModelOperation {
 				if (!path.toFile().getAbsoluteFile().exists()) {
 					return StatusUtils.errorStatus(NLS.bind(JBossWSCreationCoreMessages.Error_Message_Command_File_Not_Found, new String[] { path.toOSString() }));
 				}
-				addCommandlineArgs(command);
-				addCommonArgs(command, model.getJavaProject());
+				command.addAll(args);
 
 				Process proc = DebugPlugin.exec(command.toArray(new String[command.size()]), new File(commandLocation), env);
-				StringBuffer errorResult = new StringBuffer();
-				StringBuffer inputResult = new StringBuffer();
-				convertInputStreamToString(errorResult, proc.getErrorStream());
-				convertInputStreamToString(inputResult, proc.getInputStream());
-				int exitValue = proc.waitFor();
-				String resultInput = inputResult.toString();
-				if (exitValue != 0) {
-					JBossWSCreationCorePlugin.getDefault().logError(errorResult.toString());
-					JBossWSCreationCorePlugin.getDefault().logError(inputResult.toString());
-					// the resultInput containing "javac -d", means the java
-					// code generating is complete and there is only a javac error.
-					if (resultInput != null && resultInput.indexOf("javac -d") >= 0) {//$NON-NLS-1$
-						return StatusUtils.warningStatus(errorResult.toString());
-					}
-					return StatusUtils.errorStatus(errorResult.toString());
-				} else {
-					if (resultInput != null) {
-						// there are errors, but not complication error.
-						if (resultInput.indexOf("error:") >= 0 && !(resultInput.indexOf("compilation failed") >= 0)) { //$NON-NLS-1$ //$NON-NLS-2$
-							JBossWSCreationCorePlugin.getDefault().logError(resultInput);
-							IStatus errorStatus = StatusUtils.errorStatus(resultInput);
-							status = StatusUtils.errorStatus(JBossWSCreationCoreMessages.Error_Message_Failed_To_Generate_Code,new CoreException(errorStatus));
-							return status;
-						}
-						if (resultInput.indexOf("[ERROR]") >= 0) { //$NON-NLS-1$
-							JBossWSCreationCorePlugin.getDefault().logWarning(resultInput);
-							IStatus errorStatus = StatusUtils.warningStatus(resultInput);
-							status = StatusUtils.warningStatus(JBossWSCreationCoreMessages.Error_Message_Failed_To_Generate_Code, new CoreException(errorStatus));
-						}
-					}
+				ProgressParser progress = new ProgressParser();
+				ProcessOutputCollector errorResult = newOutputCollector(null);
+				ProcessOutputCollector inputResult = newOutputCollector(progress);
+				errorResult.drain(proc.getErrorStream());
+				inputResult.drain(proc.getInputStream());
+				Integer exitValue = waitFor(proc, progress, monitor);
+				// the streams end with the process
+				inputResult.await(DRAIN_TIMEOUT);
+				errorResult.await(DRAIN_TIMEOUT);
+				if (exitValue == null) {
+					return getAbortedStatus(inputResult.getText(), monitor);
 				}
+				status = getResultStatus(exitValue, inputResult.getText(), errorResult.getText());
 			} catch (InterruptedException e) {
 				JBossWSCreationCorePlugin.getDefault().logError(e);
 				return StatusUtils.errorStatus(e);
@@ -123,12 +291,127 @@ abstract class AbstractGenerateCodeCommand extends AbstractDataModelOperation {
 			}
 			return status;
 		} finally {
-			refreshProject(model.getJavaProject(), monitor);
+			if (refresh) {
+				refreshProject(model.getJavaProject(), monitor);
+			}
 			monitor.done();
 		}
 
 	}
 
+	/**
+	 * Converts the exit value and outputs of the tool into a status.
+	 */
+	protected IStatus getResultStatus(int exitValue, String resultInput, String errorResult) {
+		if (exitValue != 0) {
+			JBossWSCreationCorePlugin.getDefault().logError(errorResult);
+			JBossWSCreationCorePlugin.getDefault().logError(resultInput);
+			// the resultInput containing "javac -d", means the java
+			// code generating is complete and there is only a javac error.
+			if (resultInput != null && resultInput.indexOf("javac -d") >= 0) {//$NON-NLS-1$
+				return StatusUtils.warningStatus(errorResult);
+			}
+			return StatusUtils.errorStatus(errorResult);
+		}
+		if (resultInput != null) {
+			// there are errors, but not complication error.
+			if (resultInput.indexOf("error:") >= 0 && !(resultInput.indexOf("compilation failed") >= 0)) { //$NON-NLS-1$ //$NON-NLS-2$
+				JBossWSCreationCorePlugin.getDefault().logError(resultInput);
+				IStatus errorStatus = StatusUtils.errorStatus(resultInput);
+				return StatusUtils.errorStatus(JBossWSCreationCoreMessages.Error_Message_Failed_To_Generate_Code,new CoreException(errorStatus));
+			}
+			if (resultInput.indexOf("[ERROR]") >= 0) { //$NON-NLS-1$
+				JBossWSCreationCorePlugin.getDefault().logWarning(resultInput);
+				IStatus errorStatus = StatusUtils.warningStatus(resultInput);
+				return StatusUtils.warningStatus(JBossWSCreationCoreMessages.Error_Message_Failed_To_Generate_Code, new CoreException(errorStatus));
+			}
+		}
+		return Status.OK_STATUS;
+	}
+
+	/**
+	 * @return the status of a generation canceled by the user or stopped
+	 *         after the timeout
+	 */
+	private IStatus getAbortedStatus(String output, IProgressMonitor monitor) {
+		if (monitor.isCanceled()) {
+			return Status.CANCEL_STATUS;
+		}
+		String message = NLS.bind(JBossWSCreationCoreMessages.Error_Message_Generation_Timeout, timeout / 1000);
+		JBossWSCreationCorePlugin.getDefault().logError(message);
+		JBossWSCreationCorePlugin.getDefault().logError(output);
+		return StatusUtils.errorStatus(message);
+	}
+
+	/**
+	 * Runs the tool in the workbench VM, with the tools classes of the runtime
+	 * (loaded once and shared by the following generations). The progress is
+	 * reported and the run aborted as for the scripts.
+	 *
+	 * @return the status of the generation, or null if the tool must be run
+	 *         by its script
+	 */
+	protected IStatus runInProcess(String runtimeLocation, List<String> args, IProgressMonitor monitor)
+			throws InterruptedException {
+		JBossWSToolsRunner.Tool tool = getInProcessTool();
+		if (tool == null || !JBossWSToolsRunner.isEnabled()) {
+			return null;
+		}
+		List<String> jars = JBossWSToolsRunner.getRuntimeJars(runtimeLocation);
+		if (jars.isEmpty()) {
+			return null;
+		}
+		jars = new ArrayList<String>(jars);
+		// wsconsume compiles the generated classes with the javac of this VM
+		String toolsJar = JBossWSToolsRunner.getToolsJar(System.getProperty("java.home")); //$NON-NLS-1$
+		if (toolsJar != null) {
+			jars.add(toolsJar);
+		} else if (JBossWSToolsRunner.isCompiling(tool, args)) {
+			return null;
+		}
+		ProgressParser progress = new ProgressParser();
+		final JBossWSToolsRunner.Execution execution = new JBossWSToolsRunner.Execution(tool,
+				JBossWSToolsRunner.getClassLoader(jars), args, progress);
+		execution.start();
+		boolean ended = waitFor(new Run() {
+			public boolean hasEnded() {
+				return execution.hasEnded();
+			}
+
+			public void abort() {
+				execution.abort();
+			}
+		}, progress, monitor);
+		if (!ended) {
+			// the tool stops at its next message, don't refresh while it
+			// writes (it is abandoned if it does not stop in time)
+			if (!execution.join(DRAIN_TIMEOUT)) {
+				runAbandoned = true;
+				JBossWSCreationCorePlugin.getDefault().logWarning(
+						"The aborted generation did not stop, the project is not refreshed"); //$NON-NLS-1$
+			}
+			return getAbortedStatus("", monitor); //$NON-NLS-1$
+		}
+		try {
+			JBossWSToolsRunner.Result result = execution.getResult();
+			return getResultStatus(result.getExitValue(), result.getOutput(), result.getError());
+		} catch (JBossWSToolsRunner.UnsupportedException e) {
+			JBossWSCreationCorePlugin.getDefault().logWarning("Running the script of the runtime: " + e.getMessage()); //$NON-NLS-1$
+			return null;
+		}
+	}
+
+	private static boolean isWindows() {
+		return System.getProperty("os.name").toLowerCase().indexOf("win") >= 0; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * @return the tool to run in process, or null to always run the script
+	 */
+	protected JBossWSToolsRunner.Tool getInProcessTool() {
+		return null;
+	}
+
 	// SET JAVA_HOME environment variable to the location of java runtime of the
 	// project if the user
 	// doesn't set the env variable
@@ -152,15 +435,30 @@ abstract class AbstractGenerateCodeCommand extends AbstractDataModelOperation {
 		return env;
 	}
 
+	/**
+	 * @return the folder in which the sources are generated
+	 */
+	protected String getSourceDirectory() throws Exception {
+		return JBossWSCreationUtils.getCustomSrcLocation(model.getJavaSourceFolder());
+	}
+
+	/**
+	 * @return the folder in which the classes are compiled
+	 */
+	protected String getOutputDirectory() throws Exception {
+		IJavaProject javaProject = model.getJavaProject();
+		String projectRoot = javaProject.getProject().getLocation().toOSString();
+		StringBuffer opDir = new StringBuffer();
+		opDir.append(projectRoot).append(Path.SEPARATOR).append(javaProject.getOutputLocation().removeFirstSegments(1).toOSString());
+		return opDir.toString();
+	}
+
 	protected void addCommonArgs(List<String> command, IJavaProject javaProject) throws Exception {
-		String projectRoot = model.getJavaProject().getProject().getLocation().toOSString();
 		command.add("-k"); //$NON-NLS-1$
 		command.add("-s"); //$NON-NLS-1$
-		command.add(JBossWSCreationUtils.getCustomSrcLocation(model.getJavaSourceFolder()));
+		command.add(getSourceDirectory());
 		command.add("-o"); //$NON-NLS-1$
-		StringBuffer opDir = new StringBuffer();
-		opDir.append(projectRoot).append(Path.SEPARATOR).append(javaProject.getOutputLocation().removeFirstSegments(1).toOSString());
-		command.add(opDir.toString());
+		command.add(getOutputDirectory());
 		if (model.getAddOptions() != null && !"".equals(model.getAddOptions())) { //$NON-NLS-1$
 			String str = model.getAddOptions().trim();
 			String[] strArray = str.split(" +"); //$NON-NLS-1$
@@ -173,6 +471,10 @@ abstract class AbstractGenerateCodeCommand extends AbstractDataModelOperation {
 		}
 	}
 
+	/**
+	 * @deprecated the output of the scripts is collected by a
+	 *             {@link ProcessOutputCollector}
+	 */
 	protected void convertInputStreamToString(final StringBuffer result,
 			final InputStream input) {
 		Thread thread = new Thread() {
@@ -196,6 +498,10 @@ abstract class AbstractGenerateCodeCommand extends AbstractDataModelOperation {
 	}
 
 	protected void refreshProject(IJavaProject project, IProgressMonitor monitor) {
+		if (runAbandoned) {
+			// the tool may still be writing
+			return;
+		}
 		try {
 			project.getProject().refreshLocal(2,monitor);
 		} catch (CoreException e) {
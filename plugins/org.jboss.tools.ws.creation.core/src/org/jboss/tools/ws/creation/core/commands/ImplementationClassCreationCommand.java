@@ -1,26 +1,42 @@
 package org.jboss.tools.ws.creation.core.commands;
 
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.wsdl.Port;
 import javax.wsdl.Service;
 
 import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.ToolFactory;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTRequestor;
 import org.eclipse.jdt.core.dom.ArrayType;
 import org.eclipse.jdt.core.dom.Block;
 import org.eclipse.jdt.core.dom.BooleanLiteral;
@@ -43,6 +59,7 @@ import org.eclipse.jdt.core.dom.StringLiteral;
 import org.eclipse.jdt.core.dom.Type;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.eclipse.jdt.core.dom.WildcardType;
+import org.eclipse.jdt.core.formatter.CodeFormatter;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.Document;
@@ -116,24 +133,15 @@ public class ImplementationClassCreationCommand extends
 			ptList.add(port.getBinding().getPortType().getQName().getLocalPart().toLowerCase());
 		}
 		
-		boolean isOverWrite = false;
+		List<ICompilationUnit> ptUnits = new ArrayList<ICompilationUnit>();
+		for (ICompilationUnit portType : portTypeUnits) {
+			if (ptList.contains(getClassName(portType.getElementName()).toLowerCase())) {
+				ptUnits.add(portType);
+			}
+		}
+
 		try {
-			for (ICompilationUnit portType : portTypeUnits) {
-				if (!portType.findPrimaryType().isInterface()) {
-					continue;
-				}
-				String clsName = getClassName(portType.getElementName());
-				String implClsName = getImplClassName(clsName);
-				if (!ptList.contains(clsName.toLowerCase())) {
-					continue;
-				}				
-				if (!isOverWrite && findImplClass(implClsName)) {
-					if (!isOverwriteClass()) {
-						break;
-					} 
-				    isOverWrite = true;
-				}
-				generateImplClass(portType, pack, clsName, implClsName);
+			for (String implClsName : generateImplClasses(ptUnits, pack, monitor)) {
 				model.addServiceClasses(new StringBuffer(packageName).append(".").append(implClsName).toString()); //$NON-NLS-1$
 			}
 		} catch (CoreException e) {
@@ -152,35 +160,101 @@ public class ImplementationClassCreationCommand extends
 		return status;
 	}
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * Generates the implementation classes of the given port types in one
+	 * pass: the port types are parsed together, all the implementation classes
+	 * are built in memory, and then written in a single workspace operation.
+	 * The user is asked once whether the existing implementation classes
+	 * should be overwritten; if not, they are left as they are.
+	 *
+	 * @return the names of the generated implementation classes
+	 */
+	protected List<String> generateImplClasses(List<ICompilationUnit> portTypes, IPackageFragment pack,
+			IProgressMonitor monitor) throws CoreException, BadLocationException {
+		List<String> implClasses = new ArrayList<String>();
+		if (portTypes.isEmpty()) {
+			return implClasses;
+		}
+		Map<ICompilationUnit, CompilationUnit> asts = parsePortTypes(portTypes, monitor);
+		Set<String> existingUnits = getExistingUnits(pack);
+		Map<?, ?> options = project.getOptions(true);
+		CodeFormatter formatter = ToolFactory.createCodeFormatter(options);
+		Map<String, String> sources = new LinkedHashMap<String, String>();
+		Boolean isOverWrite = null;
+		for (ICompilationUnit portType : portTypes) {
+			CompilationUnit cu = asts.get(portType);
+			if (cu == null || cu.types().isEmpty() || !(cu.types().get(0) instanceof TypeDeclaration)
+					|| !((TypeDeclaration) cu.types().get(0)).isInterface()) {
+				continue;
+			}
+			String clsName = getClassName(portType.getElementName());
+			String implClsName = getImplClassName(clsName);
+			String implFileName = getJavaFileName(implClsName);
+			if (existingUnits.contains(implFileName)) {
+				if (isOverWrite == null) {
+					isOverWrite = Boolean.valueOf(isOverwriteClass());
+				}
+				if (!isOverWrite.booleanValue()) {
+					continue;
+				}
+			}
+			String source = createImplSource(portType, cu, pack.getElementName(), clsName, implClsName, options);
+			sources.put(implFileName, formatSource(formatter, source));
+			implClasses.add(implClsName);
+		}
+		writeImplClasses(pack, sources, monitor);
+		return implClasses;
+	}
+
 	protected void generateImplClass(ICompilationUnit portType, IPackageFragment pack, String ptCls, String clsName)
 			throws CoreException, BadLocationException {
-		ASTParser astp = ASTParser.newParser(AST.JLS3);
-		astp.setKind(ASTParser.K_COMPILATION_UNIT);
-		astp.setSource(portType);
-		CompilationUnit cu = (CompilationUnit) astp.createAST(null);
-		String implFileName = getJavaFileName(clsName);
-		ICompilationUnit icu = pack.createCompilationUnit(implFileName,"", true, null); //$NON-NLS-1$
-		
-		// create a working copy with a new owner
-		icu.becomeWorkingCopy(null);
+		CompilationUnit cu = parsePortTypes(Collections.singletonList(portType), null).get(portType);
+		Map<?, ?> options = project.getOptions(true);
+		CodeFormatter formatter = ToolFactory.createCodeFormatter(options);
+		String source = createImplSource(portType, cu, pack.getElementName(), ptCls, clsName, options);
+		writeImplClasses(pack, Collections.singletonMap(getJavaFileName(clsName), formatSource(formatter, source)), null);
+	}
+
+	/*
+	 * parse all the port types with a single parser
+	 */
+	private Map<ICompilationUnit, CompilationUnit> parsePortTypes(List<ICompilationUnit> portTypes,
+			IProgressMonitor monitor) {
+		final Map<ICompilationUnit, CompilationUnit> asts = new HashMap<ICompilationUnit, CompilationUnit>();
 		ASTParser parser = ASTParser.newParser(AST.JLS3);
-		parser.setSource(icu);
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setProject(project);
 		parser.setResolveBindings(false);
-		parser.setFocalPosition(0);
+		parser.createASTs(portTypes.toArray(new ICompilationUnit[portTypes.size()]), new String[0],
+				new ASTRequestor() {
+					@Override
+					public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+						asts.put(source, ast);
+					}
+				}, monitor);
+		return asts;
+	}
+
+	/*
+	 * build the implementation class in an empty compilation unit, and write it
+	 * into an empty document
+	 */
+	@SuppressWarnings("unchecked")
+	private String createImplSource(ICompilationUnit portType, CompilationUnit cu, String implPackageName,
+			String ptCls, String clsName, Map<?, ?> options) throws BadLocationException {
+		ASTParser parser = ASTParser.newParser(AST.JLS3);
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setSource(new char[0]);
 		CompilationUnit implCu = (CompilationUnit) parser.createAST(null);
 		AST ast = implCu.getAST();
-
-		// creation of a Document and ASTRewrite
-		String source = icu.getBuffer().getContents();
-		Document document = new Document(source);
+		Document document = new Document();
 		implCu.recordModifications();
 
 		// start to add content into implementation class
 
 		// add package declaration for impl class:
 		PackageDeclaration implPackage = ast.newPackageDeclaration();
-		implPackage.setName(ast.newName(pack.getElementName()));
+		implPackage.setName(ast.newName(implPackageName));
 		implCu.setPackage(implPackage);
 
 		// add imports for implementation class
@@ -218,21 +292,52 @@ public class ImplementationClassCreationCommand extends
 		}
 		implCu.types().add(type);
 
-		// try to save the Java file
-		TextEdit edits = implCu.rewrite(document, icu.getJavaProject()
-				.getOptions(true));
+		TextEdit edits = implCu.rewrite(document, options);
 		edits.apply(document);
-		String newSource = document.get();
-		icu.getBuffer().setContents(newSource);
-		icu.reconcile(ICompilationUnit.NO_AST, false, null, null);
-
-		icu.commitWorkingCopy(true, null);
-		icu.discardWorkingCopy();
+		return document.get();
+	}
 
+	private String formatSource(CodeFormatter formatter, String source) throws BadLocationException {
+		TextEdit edits = formatter.format(CodeFormatter.K_COMPILATION_UNIT, source, 0, source.length(), 0,
+				LINE_SEPARATOR);
+		if (edits == null) {
+			return source;
+		}
+		Document document = new Document(source);
+		edits.apply(document);
+		return document.get();
 	}
 
-	private String getImplPackageName() {
-		return packageName;
+	/*
+	 * write all the implementation classes in one workspace operation, so that
+	 * the builders and the listeners only run once
+	 */
+	private void writeImplClasses(IPackageFragment pack, final Map<String, String> sources,
+			IProgressMonitor monitor) throws CoreException {
+		if (sources.isEmpty()) {
+			return;
+		}
+		final IContainer folder = (IContainer) pack.getResource();
+		IWorkspaceRunnable runnable = new IWorkspaceRunnable() {
+			public void run(IProgressMonitor monitor) throws CoreException {
+				String charset = folder.getDefaultCharset();
+				for (Map.Entry<String, String> entry : sources.entrySet()) {
+					IFile file = folder.getFile(new Path(entry.getKey()));
+					ByteArrayInputStream content;
+					try {
+						content = new ByteArrayInputStream(entry.getValue().getBytes(charset));
+					} catch (UnsupportedEncodingException e) {
+						throw new CoreException(StatusUtils.errorStatus(e));
+					}
+					if (file.exists()) {
+						file.setContents(content, true, false, monitor);
+					} else {
+						file.create(content, true, monitor);
+					}
+				}
+			}
+		};
+		ResourcesPlugin.getWorkspace().run(runnable, folder, IWorkspace.AVOID_UPDATE, monitor);
 	}
 
 	private String getJavaFileName(String className) {
@@ -449,15 +554,12 @@ public class ImplementationClassCreationCommand extends
 		return b;
 	}
 
-	private boolean findImplClass(String claName) throws JavaModelException {
-		boolean b = false;
-		IPackageFragmentRoot root = JBossWSCreationUtils.getPackageFragmentRoot(project, model.getJavaSourceFolder());
-		String implPackageName = getImplPackageName();
-		IPackageFragment pack = root.getPackageFragment(implPackageName);
-		if (pack.getCompilationUnit(claName + ".java").exists()) { //$NON-NLS-1$
-			b = true;
+	private Set<String> getExistingUnits(IPackageFragment pack) throws JavaModelException {
+		Set<String> names = new HashSet<String>();
+		for (ICompilationUnit unit : pack.getCompilationUnits()) {
+			names.add(unit.getElementName());
 		}
-		return b;
+		return names;
 	}
 
 	protected List<ImportDeclaration> getImportsWithoutJaxwsAnnotation(
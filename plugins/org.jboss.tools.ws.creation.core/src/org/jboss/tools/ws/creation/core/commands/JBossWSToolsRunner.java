@@ -0,0 +1,778 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.creation.core.commands;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jboss.tools.ws.core.classpath.JBossWSRuntime;
+import org.jboss.tools.ws.core.classpath.JBossWSRuntimeManager;
+import org.jboss.tools.ws.creation.core.utils.ProcessOutputCollector;
+
+/**
+ * Runs wsconsume and wsprovide inside the workbench VM, instead of forking the
+ * shell scripts of the runtime (and a new VM) for each generation.
+ *
+ * The JBossWS tools classes are loaded once per runtime, in an isolated class
+ * loader built from the jars of the runtime, and driven through the
+ * <code>WSContractConsumer</code> and <code>WSContractProvider</code> SPI with
+ * the same arguments as the scripts. The class loaders are cached until the
+ * jars of the runtime change, and closed once they are no longer used.
+ *
+ * javac does not compile against the classpath of the class loader: the jars
+ * of the class loader (the runtime jars and tools.jar) are passed to the
+ * consumer as its additional compiler classpath, as the script does with
+ * its classpath.
+ *
+ * The generation falls back to the wsconsume and wsprovide scripts of the
+ * runtime, with their own classpath, JAVA_OPTS and endorsed folder, when the
+ * runtime does not ship the SPI, when an argument has no equivalent in the
+ * SPI, when the SPI fails to load, or when the {@link #FORK_PROPERTY} system
+ * property is set to <code>true</code>. An aborted script is killed with the
+ * VM it started.
+ *
+ * A run can't be killed like a script: an {@link Execution} is aborted at
+ * the next message of the tool, and abandoned if the tool does not write
+ * any.
+ */
+public class JBossWSToolsRunner {
+
+	/** System property forcing the generation through the shell scripts. */
+	public static final String FORK_PROPERTY = "org.jboss.tools.ws.creation.core.forkTools"; //$NON-NLS-1$
+
+	private static final String CONSUMER_CLASS = "org.jboss.wsf.spi.tools.WSContractConsumer"; //$NON-NLS-1$
+	private static final String PROVIDER_CLASS = "org.jboss.wsf.spi.tools.WSContractProvider"; //$NON-NLS-1$
+	private static final String LINE_SEPARATOR = "\t\r"; //$NON-NLS-1$
+
+	/** The tools run in process. */
+	public enum Tool {
+		CONSUME(CONSUMER_CLASS), PROVIDE(PROVIDER_CLASS);
+
+		private final String className;
+
+		private Tool(String className) {
+			this.className = className;
+		}
+
+		public String getClassName() {
+			return className;
+		}
+	}
+
+	/** The result of a run: same exit value and outputs as the scripts. */
+	public static class Result {
+
+		private final int exitValue;
+		private final String output;
+		private final String error;
+
+		Result(int exitValue, String output, String error) {
+			this.exitValue = exitValue;
+			this.output = output;
+			this.error = error;
+		}
+
+		public int getExitValue() {
+			return exitValue;
+		}
+
+		/** @return the messages of the tool, one line per "\t\r" */
+		public String getOutput() {
+			return output;
+		}
+
+		/** @return the stack trace of the failure, or an empty string */
+		public String getError() {
+			return error;
+		}
+	}
+
+	/** Thrown when a generation can't be run in process and must be forked. */
+	public static class UnsupportedException extends Exception {
+
+		private static final long serialVersionUID = 1L;
+
+		public UnsupportedException(String message) {
+			super(message);
+		}
+
+		public UnsupportedException(String message, Throwable cause) {
+			super(message);
+			initCause(cause);
+		}
+	}
+
+	/** Thrown into the tool, from its message stream, when its run is aborted. */
+	private static class AbortError extends Error {
+
+		private static final long serialVersionUID = 1L;
+	}
+
+	/**
+	 * A run of a tool in its own thread, so that the caller can report its
+	 * progress and abort it.
+	 */
+	public static class Execution {
+
+		private final AtomicBoolean aborted = new AtomicBoolean();
+		private final Thread thread;
+		private volatile Result result;
+		private volatile UnsupportedException unsupported;
+		private volatile RuntimeException failure;
+
+		/**
+		 * @param listener
+		 *            notified of each line of the messages of the tool, or null
+		 */
+		public Execution(final Tool tool, final ClassLoader loader, final List<String> args,
+				final ProcessOutputCollector.LineListener listener) {
+			thread = new Thread("JBossWS " + tool.name().toLowerCase()) { //$NON-NLS-1$
+				public void run() {
+					try {
+						result = JBossWSToolsRunner.run(tool, loader, args, listener, aborted);
+					} catch (UnsupportedException e) {
+						unsupported = e;
+					} catch (RuntimeException e) {
+						failure = e;
+					}
+				}
+			};
+			// an abandoned run does not prevent the VM from exiting
+			thread.setDaemon(true);
+		}
+
+		public void start() {
+			thread.start();
+		}
+
+		/**
+		 * @return true if the run has ended
+		 */
+		public boolean hasEnded() {
+			return !thread.isAlive();
+		}
+
+		/**
+		 * Waits for the end of the run.
+		 *
+		 * @param millis
+		 *            the maximum time to wait, 0 to wait until the end
+		 * @return true if the run has ended
+		 */
+		public boolean join(long millis) throws InterruptedException {
+			thread.join(millis);
+			return hasEnded();
+		}
+
+		/**
+		 * Makes the tool fail at its next message, and interrupts it.
+		 */
+		public void abort() {
+			aborted.set(true);
+			thread.interrupt();
+		}
+
+		/**
+		 * @return the result of the ended run, or null if it was aborted
+		 * @throws UnsupportedException
+		 *             if the script must be run instead
+		 */
+		public Result getResult() throws UnsupportedException {
+			if (unsupported != null) {
+				throw unsupported;
+			}
+			if (failure != null) {
+				throw failure;
+			}
+			return result;
+		}
+	}
+
+	/** Class loaders by runtime jars. */
+	private static final Map<String, ToolsClassLoader> loaders = new HashMap<String, ToolsClassLoader>();
+
+	/**
+	 * @return true if the generation may run in process
+	 */
+	public static boolean isEnabled() {
+		return !Boolean.getBoolean(FORK_PROPERTY);
+	}
+
+	/**
+	 * Returns the jars of the runtime installed in the given folder: the ones
+	 * configured by the user if the folder is the one of a JBossWS runtime,
+	 * the ones of the lib and client folders otherwise.
+	 *
+	 * @param runtimeLocation
+	 *            the home folder of the runtime
+	 * @return the jars
+	 */
+	public static List<String> getRuntimeJars(String runtimeLocation) {
+		JBossWSRuntimeManager manager = JBossWSRuntimeManager.getInstance();
+		File home = new File(runtimeLocation).getAbsoluteFile();
+		for (JBossWSRuntime runtime : manager.getRuntimes()) {
+			if (runtime.getHomeDir() != null && home.equals(new File(runtime.getHomeDir()).getAbsoluteFile())) {
+				return manager.getAllRuntimeJars(runtime);
+			}
+		}
+		JBossWSRuntime runtime = new JBossWSRuntime();
+		runtime.setHomeDir(runtimeLocation);
+		return manager.getAllRuntimeJars(runtime);
+	}
+
+	/**
+	 * Returns the class loader of the tools in the given jars, which is
+	 * created on the first call and shared by the following ones until one of
+	 * the jars is modified.
+	 *
+	 * @param jars
+	 *            the jars of the runtime, followed by the extra jars (such as
+	 *            the tools.jar of the JDK)
+	 * @return the class loader
+	 */
+	public static ClassLoader getClassLoader(List<String> jars) {
+		StringBuffer key = new StringBuffer();
+		long stamp = 0;
+		for (String jar : jars) {
+			key.append(jar).append(File.pathSeparatorChar);
+			stamp = 31 * stamp + new File(jar).lastModified();
+		}
+		synchronized (loaders) {
+			ToolsClassLoader loader = loaders.get(key.toString());
+			if (loader == null || loader.stamp != stamp) {
+				if (loader != null) {
+					// the runs still using it keep it open until they end
+					loader.dispose();
+				}
+				loader = new ToolsClassLoader(toURLs(jars), stamp);
+				loaders.put(key.toString(), loader);
+			}
+			return loader;
+		}
+	}
+
+	/**
+	 * Drops the cached class loaders, for instance after the JBossWS runtimes
+	 * are edited, and closes them once they are no longer used.
+	 */
+	public static void clearCache() {
+		synchronized (loaders) {
+			for (ToolsClassLoader loader : loaders.values()) {
+				loader.dispose();
+			}
+			loaders.clear();
+		}
+	}
+
+	/**
+	 * Returns the tools.jar of the VM running the workbench, which holds the
+	 * javac used by wsconsume. The one of the JDK of the project is not used:
+	 * it may not be loadable by this VM.
+	 *
+	 * @param javaHome
+	 *            the <code>java.home</code> of the VM, which is the jre folder
+	 *            of a JDK
+	 * @return the path of tools.jar, or null if the VM is not a JDK
+	 */
+	public static String getToolsJar(String javaHome) {
+		if (javaHome == null) {
+			return null;
+		}
+		File home = new File(javaHome).getAbsoluteFile();
+		String toolsJar = "lib" + File.separator + "tools.jar"; //$NON-NLS-1$ //$NON-NLS-2$
+		File[] candidates = { new File(home.getParentFile(), toolsJar), new File(home, toolsJar) };
+		for (File candidate : candidates) {
+			if (candidate.isFile()) {
+				return candidate.getPath();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return true if the tool compiles the classes it generates, with javac
+	 */
+	public static boolean isCompiling(Tool tool, List<String> args) {
+		return tool == Tool.CONSUME && !args.contains("-n"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Runs the given tool with the arguments of its script.
+	 *
+	 * @param tool
+	 *            the tool
+	 * @param loader
+	 *            the class loader of the tools
+	 * @param args
+	 *            the arguments of the script
+	 * @return the result
+	 * @throws UnsupportedException
+	 *             if the tool is not available in the runtime or if an
+	 *             argument is not supported: nothing was generated and the
+	 *             script should be run instead
+	 */
+	public static Result run(Tool tool, ClassLoader loader, List<String> args) throws UnsupportedException {
+		return run(tool, loader, args, null, null);
+	}
+
+	/**
+	 * Runs the given tool with the arguments of its script, following its
+	 * messages.
+	 *
+	 * @param listener
+	 *            notified of each line of the messages of the tool, or null
+	 * @param aborted
+	 *            once true, the tool fails at its next message, or null
+	 * @return the result, or null if the run was aborted
+	 * @see #run(Tool, ClassLoader, List)
+	 */
+	public static Result run(Tool tool, ClassLoader loader, List<String> args,
+			ProcessOutputCollector.LineListener listener, AtomicBoolean aborted) throws UnsupportedException {
+		Class<?> toolClass;
+		try {
+			toolClass = Class.forName(tool.getClassName(), true, loader);
+		} catch (ClassNotFoundException e) {
+			throw new UnsupportedException(tool.getClassName() + " not found", e); //$NON-NLS-1$
+		} catch (LinkageError e) {
+			throw new UnsupportedException(tool.getClassName() + " can't be loaded", e); //$NON-NLS-1$
+		}
+		MessageStream messages = new MessageStream(listener, aborted);
+		PrintStream messageStream = new PrintStream(messages, true);
+		Thread thread = Thread.currentThread();
+		ClassLoader contextLoader = thread.getContextClassLoader();
+		if (loader instanceof ToolsClassLoader) {
+			((ToolsClassLoader) loader).acquire();
+		}
+		// the SPI looks up its implementation and JAXB/JAX-WS their
+		// providers through the context class loader
+		thread.setContextClassLoader(loader);
+		try {
+			Object instance = newInstance(toolClass, loader);
+			invoke(instance, "setMessageStream", PrintStream.class, messageStream); //$NON-NLS-1$
+			if (tool == Tool.CONSUME) {
+				URL wsdl = configureConsumer(instance, args, loader);
+				execute(instance, "consume", URL.class, wsdl); //$NON-NLS-1$
+			} else {
+				String endpointClass = configureProvider(instance, args, loader);
+				execute(instance, "provide", String.class, endpointClass); //$NON-NLS-1$
+			}
+			return new Result(0, toLines(messages), ""); //$NON-NLS-1$
+		} catch (InvocationTargetException e) {
+			Throwable cause = e.getCause() != null ? e.getCause() : e;
+			if (aborted != null && aborted.get()) {
+				return null;
+			}
+			if (cause instanceof LinkageError) {
+				// incomplete runtime (or JRE without javac): the script may
+				// still work
+				throw new UnsupportedException(cause.toString(), cause);
+			}
+			ByteArrayOutputStream trace = new ByteArrayOutputStream();
+			PrintStream traceStream = new PrintStream(trace, true);
+			cause.printStackTrace(traceStream);
+			return new Result(1, toLines(messages), toLines(trace));
+		} catch (AbortError e) {
+			// aborted in a setter
+			return null;
+		} finally {
+			thread.setContextClassLoader(contextLoader);
+			messageStream.close();
+			if (loader instanceof ToolsClassLoader) {
+				((ToolsClassLoader) loader).release();
+			}
+		}
+	}
+
+	/**
+	 * Keeps the messages of the tool, passes each line to the listener, and
+	 * aborts the tool when it writes after the abort request.
+	 */
+	private static class MessageStream extends ByteArrayOutputStream {
+
+		private final ProcessOutputCollector.LineListener listener;
+		private final AtomicBoolean aborted;
+		private int lineStart = 0;
+
+		MessageStream(ProcessOutputCollector.LineListener listener, AtomicBoolean aborted) {
+			this.listener = listener;
+			this.aborted = aborted;
+		}
+
+		@Override
+		public synchronized void write(int b) {
+			checkAborted();
+			super.write(b);
+			fireLines();
+		}
+
+		@Override
+		public synchronized void write(byte[] b, int off, int len) {
+			checkAborted();
+			super.write(b, off, len);
+			fireLines();
+		}
+
+		@Override
+		public void write(byte[] b) throws IOException {
+			write(b, 0, b.length);
+		}
+
+		private void checkAborted() {
+			if (aborted != null && aborted.get()) {
+				throw new AbortError();
+			}
+		}
+
+		private void fireLines() {
+			if (listener == null) {
+				return;
+			}
+			for (int i = lineStart; i < count; i++) {
+				if (buf[i] == '\n') {
+					String line = new String(buf, lineStart, i - lineStart);
+					lineStart = i + 1;
+					listener.lineRead(line.endsWith("\r") ? line.substring(0, line.length() - 1) : line); //$NON-NLS-1$
+				}
+			}
+		}
+	}
+
+	/**
+	 * Applies the wsconsume arguments to the consumer, and the jars of the
+	 * class loader to its compiler.
+	 *
+	 * @return the WSDL to consume
+	 */
+	private static URL configureConsumer(Object consumer, List<String> args, ClassLoader loader)
+			throws UnsupportedException {
+		List<File> bindingFiles = new ArrayList<File>();
+		String wsdl = null;
+		for (int i = 0; i < args.size(); i++) {
+			String arg = args.get(i);
+			if ("-k".equals(arg)) { //$NON-NLS-1$
+				invoke(consumer, "setGenerateSource", boolean.class, Boolean.TRUE); //$NON-NLS-1$
+			} else if ("-n".equals(arg)) { //$NON-NLS-1$
+				invoke(consumer, "setNoCompile", boolean.class, Boolean.TRUE); //$NON-NLS-1$
+			} else if ("-e".equals(arg)) { //$NON-NLS-1$
+				invoke(consumer, "setExtension", boolean.class, Boolean.TRUE); //$NON-NLS-1$
+			} else if ("-a".equals(arg)) { //$NON-NLS-1$
+				invoke(consumer, "setAdditionalHeaders", boolean.class, Boolean.TRUE); //$NON-NLS-1$
+			} else if ("-v".equals(arg) || "-q".equals(arg)) { //$NON-NLS-1$ //$NON-NLS-2$
+				// the messages are always captured
+			} else if ("-b".equals(arg)) { //$NON-NLS-1$
+				bindingFiles.add(new File(value(args, ++i)));
+			} else if ("-c".equals(arg)) { //$NON-NLS-1$
+				invoke(consumer, "setCatalog", File.class, new File(value(args, ++i))); //$NON-NLS-1$
+			} else if ("-p".equals(arg)) { //$NON-NLS-1$
+				invoke(consumer, "setTargetPackage", String.class, value(args, ++i)); //$NON-NLS-1$
+			} else if ("-w".equals(arg)) { //$NON-NLS-1$
+				invoke(consumer, "setWsdlLocation", String.class, value(args, ++i)); //$NON-NLS-1$
+			} else if ("-t".equals(arg)) { //$NON-NLS-1$
+				invoke(consumer, "setTarget", String.class, value(args, ++i)); //$NON-NLS-1$
+			} else if ("-s".equals(arg)) { //$NON-NLS-1$
+				invoke(consumer, "setSourceDirectory", File.class, new File(value(args, ++i))); //$NON-NLS-1$
+			} else if ("-o".equals(arg)) { //$NON-NLS-1$
+				invoke(consumer, "setOutputDirectory", File.class, new File(value(args, ++i))); //$NON-NLS-1$
+			} else if (arg.startsWith("-") || wsdl != null) { //$NON-NLS-1$
+				throw new UnsupportedException("Unsupported wsconsume argument: " + arg); //$NON-NLS-1$
+			} else {
+				wsdl = arg;
+			}
+		}
+		if (!bindingFiles.isEmpty()) {
+			invoke(consumer, "setBindingFiles", List.class, bindingFiles); //$NON-NLS-1$
+		}
+		if (wsdl == null) {
+			throw new UnsupportedException("No WSDL to consume"); //$NON-NLS-1$
+		}
+		List<String> compilerClasspath = getClasspath(loader);
+		if (isCompiling(Tool.CONSUME, args) && !compilerClasspath.isEmpty()) {
+			// javac only sees the classpath of the VM otherwise
+			invoke(consumer, "setAdditionalCompilerClassPath", List.class, compilerClasspath); //$NON-NLS-1$
+		}
+		return toURL(wsdl);
+	}
+
+	/**
+	 * @return the local jars and folders of the given class loader, or an
+	 *         empty list if it does not load from URLs
+	 */
+	private static List<String> getClasspath(ClassLoader loader) {
+		List<String> classpath = new ArrayList<String>();
+		if (loader instanceof URLClassLoader) {
+			for (URL url : ((URLClassLoader) loader).getURLs()) {
+				if ("file".equals(url.getProtocol())) { //$NON-NLS-1$
+					try {
+						classpath.add(new File(url.toURI()).getPath());
+					} catch (URISyntaxException e) {
+						classpath.add(url.getPath());
+					} catch (IllegalArgumentException e) {
+						// not a local file
+					}
+				}
+			}
+		}
+		return classpath;
+	}
+
+	/**
+	 * Applies the wsprovide arguments to the provider.
+	 *
+	 * @return the endpoint class to provide
+	 */
+	private static String configureProvider(Object provider, List<String> args, ClassLoader loader)
+			throws UnsupportedException {
+		String endpointClass = null;
+		for (int i = 0; i < args.size(); i++) {
+			String arg = args.get(i);
+			if ("-k".equals(arg)) { //$NON-NLS-1$
+				invoke(provider, "setGenerateSource", boolean.class, Boolean.TRUE); //$NON-NLS-1$
+			} else if ("-w".equals(arg)) { //$NON-NLS-1$
+				invoke(provider, "setGenerateWsdl", boolean.class, Boolean.TRUE); //$NON-NLS-1$
+			} else if ("-e".equals(arg)) { //$NON-NLS-1$
+				invoke(provider, "setExtension", boolean.class, Boolean.TRUE); //$NON-NLS-1$
+			} else if ("-t".equals(arg) || "-q".equals(arg)) { //$NON-NLS-1$ //$NON-NLS-2$
+				// the stack traces and messages are always captured
+			} else if ("-r".equals(arg)) { //$NON-NLS-1$
+				invoke(provider, "setResourceDirectory", File.class, new File(value(args, ++i))); //$NON-NLS-1$
+			} else if ("-s".equals(arg)) { //$NON-NLS-1$
+				invoke(provider, "setSourceDirectory", File.class, new File(value(args, ++i))); //$NON-NLS-1$
+			} else if ("-o".equals(arg)) { //$NON-NLS-1$
+				invoke(provider, "setOutputDirectory", File.class, new File(value(args, ++i))); //$NON-NLS-1$
+			} else if ("-c".equals(arg)) { //$NON-NLS-1$
+				// the endpoint classes are loaded by a child of the tools
+				// class loader, as with the classpath of the script
+				ClassLoader endpointLoader = new URLClassLoader(toURLs(splitClasspath(value(args, ++i))), loader);
+				invoke(provider, "setClassLoader", ClassLoader.class, endpointLoader); //$NON-NLS-1$
+			} else if (arg.startsWith("-") || endpointClass != null) { //$NON-NLS-1$
+				throw new UnsupportedException("Unsupported wsprovide argument: " + arg); //$NON-NLS-1$
+			} else {
+				endpointClass = arg;
+			}
+		}
+		if (endpointClass == null) {
+			throw new UnsupportedException("No endpoint class to provide"); //$NON-NLS-1$
+		}
+		return endpointClass;
+	}
+
+	/**
+	 * Splits a classpath built by the {@link ClasspathParser}, whose entries
+	 * are separated by ';' or by the platform separator.
+	 */
+	static List<String> splitClasspath(String classpath) {
+		List<String> entries = new ArrayList<String>();
+		for (String entry : classpath.split("[;" + File.pathSeparatorChar + "]")) { //$NON-NLS-1$ //$NON-NLS-2$
+			if (entry.trim().length() > 0) {
+				entries.add(entry.trim());
+			}
+		}
+		return entries;
+	}
+
+	private static Object newInstance(Class<?> toolClass, ClassLoader loader) throws InvocationTargetException,
+			UnsupportedException {
+		try {
+			return toolClass.getMethod("newInstance", ClassLoader.class).invoke(null, loader); //$NON-NLS-1$
+		} catch (NoSuchMethodException e) {
+			// older SPI: the factory uses the context class loader
+			try {
+				return toolClass.getMethod("newInstance").invoke(null); //$NON-NLS-1$
+			} catch (NoSuchMethodException e1) {
+				throw new UnsupportedException("No factory method in " + toolClass.getName(), e1); //$NON-NLS-1$
+			} catch (IllegalAccessException e1) {
+				throw new UnsupportedException(e1.getMessage(), e1);
+			}
+		} catch (IllegalAccessException e) {
+			throw new UnsupportedException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Calls a setter of the SPI: a missing setter means that the runtime does
+	 * not support the argument.
+	 */
+	private static void invoke(Object target, String name, Class<?> type, Object value) throws UnsupportedException {
+		try {
+			execute(target, name, type, value);
+		} catch (InvocationTargetException e) {
+			throw new UnsupportedException(name + " failed", e.getCause()); //$NON-NLS-1$
+		}
+	}
+
+	private static void execute(Object target, String name, Class<?> type, Object value)
+			throws InvocationTargetException, UnsupportedException {
+		Method method;
+		try {
+			method = target.getClass().getMethod(name, type);
+		} catch (NoSuchMethodException e) {
+			throw new UnsupportedException(target.getClass().getName() + "." + name + " not found", e); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		try {
+			// the implementation class itself may not be public
+			method.setAccessible(true);
+			method.invoke(target, value);
+		} catch (IllegalAccessException e) {
+			throw new UnsupportedException(e.getMessage(), e);
+		}
+	}
+
+	private static String value(List<String> args, int index) throws UnsupportedException {
+		if (index >= args.size()) {
+			throw new UnsupportedException("Missing value of " + args.get(index - 1)); //$NON-NLS-1$
+		}
+		return args.get(index);
+	}
+
+	private static URL toURL(String location) throws UnsupportedException {
+		try {
+			return new URL(location);
+		} catch (MalformedURLException e) {
+			try {
+				return new File(location).toURI().toURL();
+			} catch (MalformedURLException e1) {
+				throw new UnsupportedException(e1.getMessage(), e1);
+			}
+		}
+	}
+
+	private static URL[] toURLs(List<String> paths) {
+		List<URL> urls = new ArrayList<URL>();
+		for (String path : paths) {
+			try {
+				urls.add(new File(path).toURI().toURL());
+			} catch (MalformedURLException e) {
+				// ignore the invalid entries, as the VM does
+			}
+		}
+		return urls.toArray(new URL[urls.size()]);
+	}
+
+	/**
+	 * @return the given output, with the line separator of the script output
+	 */
+	private static String toLines(ByteArrayOutputStream output) {
+		String text;
+		try {
+			text = output.toString(System.getProperty("file.encoding", "UTF-8")); //$NON-NLS-1$ //$NON-NLS-2$
+		} catch (UnsupportedEncodingException e) {
+			text = output.toString();
+		}
+		StringBuffer lines = new StringBuffer();
+		for (String line : text.split("\r?\n")) { //$NON-NLS-1$
+			if (line.length() > 0) {
+				lines.append(line).append(LINE_SEPARATOR);
+			}
+		}
+		return lines.toString();
+	}
+
+	/**
+	 * Loads the classes from the runtime jars first, so that the JAX-WS and
+	 * JAXB versions of the runtime win over the ones of the VM, like with the
+	 * endorsed folder of the scripts. Only the <code>java.*</code> classes are
+	 * always loaded by the parent.
+	 */
+	private static class ToolsClassLoader extends URLClassLoader {
+
+		private final long stamp;
+		private int users = 0;
+		private boolean disposed = false;
+
+		ToolsClassLoader(URL[] urls, long stamp) {
+			super(urls, ClassLoader.getSystemClassLoader().getParent());
+			this.stamp = stamp;
+		}
+
+		/** Marks the start of a run with this class loader. */
+		synchronized void acquire() {
+			users++;
+		}
+
+		/** Marks the end of a run, closing the class loader if it was disposed. */
+		synchronized void release() {
+			users--;
+			if (disposed && users == 0) {
+				closeJars();
+			}
+		}
+
+		/** Closes the class loader, as soon as it is no longer used. */
+		synchronized void dispose() {
+			disposed = true;
+			if (users == 0) {
+				closeJars();
+			}
+		}
+
+		/**
+		 * Releases the jar files, with <code>URLClassLoader.close()</code>
+		 * when the VM has it (Java 7). They are only released when the class
+		 * loader is collected otherwise.
+		 */
+		private void closeJars() {
+			try {
+				URLClassLoader.class.getMethod("close").invoke(this); //$NON-NLS-1$
+			} catch (NoSuchMethodException e) {
+				// Java 6
+			} catch (IllegalAccessException e) {
+				// ignore
+			} catch (InvocationTargetException e) {
+				// the jars are released when the class loader is collected
+			}
+		}
+
+		@Override
+		protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			Class<?> loadedClass = findLoadedClass(name);
+			if (loadedClass == null && !name.startsWith("java.")) { //$NON-NLS-1$
+				try {
+					loadedClass = findClass(name);
+				} catch (ClassNotFoundException e) {
+					// delegate
+				}
+			}
+			if (loadedClass == null) {
+				loadedClass = super.loadClass(name, false);
+			}
+			if (resolve) {
+				resolveClass(loadedClass);
+			}
+			return loadedClass;
+		}
+
+		@Override
+		public URL getResource(String name) {
+			URL url = findResource(name);
+			return url != null ? url : super.getResource(name);
+		}
+	}
+
+	/** Not instantiable. */
+	private JBossWSToolsRunner() {
+		super();
+	}
+
+}
@@ -45,6 +45,11 @@ public class Java2WSCommand extends AbstractGenerateCodeCommand {
 		return WSPROVIDER_FILE_NAME_WIN;
 	}
 
+	@Override
+	protected JBossWSToolsRunner.Tool getInProcessTool() {
+		return JBossWSToolsRunner.Tool.PROVIDE;
+	}
+
 	@Override
 	protected void addCommandlineArgs(List<String> command) throws IOException {
 		String projectRoot = model.getJavaProject().getProject().getLocation().toOSString();
@@ -0,0 +1,500 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.creation.core.commands;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.wst.common.frameworks.datamodel.AbstractDataModelOperation;
+import org.jboss.tools.ws.core.utils.StatusUtils;
+import org.jboss.tools.ws.creation.core.JBossWSCreationCorePlugin;
+import org.jboss.tools.ws.creation.core.data.ServiceModel;
+import org.jboss.tools.ws.creation.core.messages.JBossWSCreationCoreMessages;
+import org.jboss.tools.ws.creation.core.utils.WSDLImportResolver;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Generates the Java code of several WSDLs with the options of one service
+ * model, using a bounded number of concurrent {@link WSDL2JavaCommand}s, and
+ * refreshes the project once at the end.
+ *
+ * The WSDLs which would write the same generated classes are run one after
+ * the other by the same worker: the ones sharing an imported document or a
+ * namespace (of a WSDL or of a schema, inline or not), or all of them when a
+ * custom package is set. The imported documents are read once for all the
+ * WSDLs, through the catalog, by a resolver shared with the generations. The
+ * status returned by {@link #execute(IProgressMonitor, IAdaptable)} has one
+ * child per WSDL with its generation time, and the same information is
+ * available through {@link #getResults()}. Its severity is ERROR if any
+ * generation failed, WARNING if some WSDLs were skipped after a cancellation,
+ * and OK otherwise.
+ */
+public class WSDL2JavaBatchCommand extends AbstractDataModelOperation {
+
+	/** The outcome of the generation of one WSDL. */
+	public static class WSDLResult {
+
+		private final String wsdlURI;
+		private final IStatus status;
+		private final long time;
+
+		WSDLResult(String wsdlURI, IStatus status, long time) {
+			this.wsdlURI = wsdlURI;
+			this.status = status;
+			this.time = time;
+		}
+
+		public String getWsdlURI() {
+			return wsdlURI;
+		}
+
+		/** @return the status of the generation, CANCEL if it was not run */
+		public IStatus getStatus() {
+			return status;
+		}
+
+		/** @return the duration of the generation, in milliseconds */
+		public long getTime() {
+			return time;
+		}
+
+		public boolean isSuccessful() {
+			return status.getSeverity() < IStatus.ERROR;
+		}
+	}
+
+	private final ServiceModel model;
+	private final List<String> wsdlURIs;
+	private int maxWorkers = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+	private final Map<String, WSDLResult> results = Collections.synchronizedMap(new LinkedHashMap<String, WSDLResult>());
+	private volatile boolean canceled;
+	private volatile boolean runAbandoned;
+	private WSDLImportResolver resolver;
+
+	/**
+	 * @param model
+	 *            the project and options of the generations (its WSDL URI is
+	 *            ignored)
+	 * @param wsdlURIs
+	 *            the WSDLs, as URLs or file paths
+	 */
+	public WSDL2JavaBatchCommand(ServiceModel model, Collection<String> wsdlURIs) {
+		this.model = model;
+		Map<String, String> distinctURIs = new LinkedHashMap<String, String>();
+		for (String wsdlURI : wsdlURIs) {
+			String url = WSDLImportResolver.toURL(wsdlURI);
+			if (!distinctURIs.containsKey(url)) {
+				distinctURIs.put(url, wsdlURI);
+			}
+		}
+		this.wsdlURIs = new ArrayList<String>(distinctURIs.values());
+	}
+
+	/**
+	 * Finds the WSDLs of a folder (and of its sub-folders) or of an XML
+	 * catalog (the <code>uri</code> entries ending with <code>.wsdl</code>).
+	 *
+	 * @param folderOrCatalog
+	 *            the folder or catalog
+	 * @return the WSDL files, sorted
+	 * @throws IOException
+	 *             if the catalog can't be read
+	 */
+	public static List<String> findWSDLs(File folderOrCatalog) throws IOException {
+		List<String> wsdls = new ArrayList<String>();
+		if (folderOrCatalog.isDirectory()) {
+			File[] files = folderOrCatalog.listFiles();
+			if (files == null) {
+				// unreadable folder
+				return wsdls;
+			}
+			Arrays.sort(files);
+			for (File file : files) {
+				if (file.isDirectory()) {
+					wsdls.addAll(findWSDLs(file));
+				} else if (file.getName().toLowerCase().endsWith(".wsdl")) { //$NON-NLS-1$
+					wsdls.add(file.getAbsolutePath());
+				}
+			}
+		} else if (folderOrCatalog.getName().toLowerCase().endsWith(".wsdl")) { //$NON-NLS-1$
+			wsdls.add(folderOrCatalog.getAbsolutePath());
+		} else {
+			try {
+				DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+				factory.setNamespaceAware(true);
+				NodeList entries = factory.newDocumentBuilder().parse(folderOrCatalog).getElementsByTagNameNS("*", "*"); //$NON-NLS-1$ //$NON-NLS-2$
+				for (int i = 0; i < entries.getLength(); i++) {
+					String uri = ((Element) entries.item(i)).getAttribute("uri"); //$NON-NLS-1$
+					if (uri.toLowerCase().endsWith(".wsdl")) { //$NON-NLS-1$
+						File file = new File(uri);
+						wsdls.add(file.isAbsolute() || uri.indexOf(':') > 1 ? uri : new File(folderOrCatalog
+								.getAbsoluteFile().getParentFile(), uri).getAbsolutePath());
+					}
+				}
+			} catch (Exception e) {
+				IOException ioe = new IOException(e.getMessage());
+				ioe.initCause(e);
+				throw ioe;
+			}
+		}
+		return wsdls;
+	}
+
+	/**
+	 * @param maxWorkers
+	 *            the maximum number of concurrent generations
+	 */
+	public void setMaxWorkers(int maxWorkers) {
+		this.maxWorkers = Math.max(1, maxWorkers);
+	}
+
+	/**
+	 * @return the results of the last execution, in the order of the WSDLs
+	 */
+	public List<WSDLResult> getResults() {
+		List<WSDLResult> ordered = new ArrayList<WSDLResult>();
+		for (String wsdlURI : wsdlURIs) {
+			WSDLResult result = results.get(wsdlURI);
+			if (result != null) {
+				ordered.add(result);
+			}
+		}
+		return ordered;
+	}
+
+	@Override
+	public IStatus execute(IProgressMonitor monitor, IAdaptable info) {
+		if (monitor == null) {
+			monitor = new NullProgressMonitor();
+		}
+		long start = System.currentTimeMillis();
+		results.clear();
+		canceled = false;
+		runAbandoned = false;
+		resolver = new WSDLImportResolver(model.getCatalog());
+		// the classes of all the WSDLs are the ones of this generation
+		JBossWSCreationCorePlugin.getDefault().setGenerateTime(start);
+		monitor.beginTask(NLS.bind(JBossWSCreationCoreMessages.Progress_Message_Generating_Batch,
+				wsdlURIs.size()), wsdlURIs.size() + 1);
+		List<List<String>> groups = getGroups(monitor);
+		monitor.worked(1);
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxWorkers, Math.max(1, groups.size())),
+				new WorkerThreadFactory());
+		try {
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (List<String> group : groups) {
+				futures.add(executor.submit(new GroupGeneration(group, info)));
+			}
+			int done = 0;
+			for (Future<?> future : futures) {
+				while (!future.isDone()) {
+					if (monitor.isCanceled()) {
+						// the generations in progress are aborted, the other ones are skipped
+						canceled = true;
+					}
+					try {
+						future.get(200, TimeUnit.MILLISECONDS);
+					} catch (TimeoutException e) {
+						// report the progress and check the cancellation
+					} catch (ExecutionException e) {
+						// the failures are recorded per WSDL: keep reporting the other groups
+						JBossWSCreationCorePlugin.getDefault().logError(e.getCause());
+					}
+					int completed = results.size();
+					if (completed > done) {
+						monitor.worked(completed - done);
+						done = completed;
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			canceled = true;
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdown();
+			// don't refresh while some generations are still writing
+			awaitTermination(executor);
+			resolver = null;
+			// nor while an aborted tool which did not stop may be writing
+			if (!runAbandoned) {
+				try {
+					model.getJavaProject().getProject().refreshLocal(IResource.DEPTH_INFINITE, monitor);
+				} catch (CoreException e) {
+					JBossWSCreationCorePlugin.getDefault().logError(e);
+				}
+			}
+			monitor.done();
+		}
+		return getStatus(System.currentTimeMillis() - start);
+	}
+
+	/**
+	 * Waits for the end of the generations in progress, even if the current
+	 * thread is interrupted.
+	 */
+	private static void awaitTermination(ExecutorService executor) {
+		boolean interrupted = Thread.interrupted();
+		while (!executor.isTerminated()) {
+			try {
+				executor.awaitTermination(200, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Groups the WSDLs which must be generated one after the other, because
+	 * they would write the same classes. When the monitor is canceled while
+	 * the imports are read, the remaining WSDLs are put in a last group, to
+	 * be skipped.
+	 */
+	private List<List<String>> getGroups(IProgressMonitor monitor) {
+		List<List<String>> groups = new ArrayList<List<String>>();
+		if (model.getCustomPackage() != null && model.getCustomPackage().trim().length() > 0) {
+			// all the classes are generated in the same package
+			groups.add(new ArrayList<String>(wsdlURIs));
+			return groups;
+		}
+		// union-find of the WSDLs sharing a document or a namespace, since
+		// the package of the classes comes from the namespace
+		int[] parents = new int[wsdlURIs.size()];
+		Map<String, Integer> owners = new HashMap<String, Integer>();
+		int grouped = parents.length;
+		for (int i = 0; i < parents.length; i++) {
+			parents[i] = i;
+			String wsdlURI = resolver.resolve(wsdlURIs.get(i));
+			Set<String> documents = new LinkedHashSet<String>();
+			try {
+				documents.addAll(resolver.getImports(wsdlURI, monitor));
+			} catch (IOException e) {
+				// wsconsume reports the unreadable WSDLs
+			} catch (OperationCanceledException e) {
+				canceled = true;
+				grouped = i;
+				break;
+			}
+			documents.add(wsdlURI);
+			Set<String> keys = new LinkedHashSet<String>(documents);
+			for (String document : documents) {
+				String targetNamespace = resolver.getTargetNamespace(document);
+				if (targetNamespace != null) {
+					keys.add("ns:" + targetNamespace); //$NON-NLS-1$
+				}
+				for (String namespace : resolver.getSchemaNamespaces(document)) {
+					keys.add("ns:" + namespace); //$NON-NLS-1$
+				}
+			}
+			for (String document : keys) {
+				Integer owner = owners.get(document);
+				if (owner == null) {
+					owners.put(document, i);
+				} else {
+					parents[getRoot(parents, i)] = getRoot(parents, owner);
+				}
+			}
+		}
+		Map<Integer, List<String>> groupByRoot = new LinkedHashMap<Integer, List<String>>();
+		for (int i = 0; i < grouped; i++) {
+			Integer root = getRoot(parents, i);
+			List<String> group = groupByRoot.get(root);
+			if (group == null) {
+				group = new ArrayList<String>();
+				groupByRoot.put(root, group);
+			}
+			group.add(wsdlURIs.get(i));
+		}
+		groups.addAll(groupByRoot.values());
+		if (grouped < wsdlURIs.size()) {
+			groups.add(new ArrayList<String>(wsdlURIs.subList(grouped, wsdlURIs.size())));
+		}
+		return groups;
+	}
+
+	private static int getRoot(int[] parents, int index) {
+		int root = index;
+		while (parents[root] != root) {
+			root = parents[root];
+		}
+		return root;
+	}
+
+	private IStatus getStatus(long time) {
+		List<IStatus> children = new ArrayList<IStatus>();
+		int generated = 0;
+		int severity = IStatus.OK;
+		for (String wsdlURI : wsdlURIs) {
+			WSDLResult result = results.get(wsdlURI);
+			if (result == null || result.getStatus().getSeverity() == IStatus.CANCEL) {
+				// a skipped WSDL must not hide the failures of the other ones,
+				// as a CANCEL child would
+				children.add(new Status(IStatus.WARNING, JBossWSCreationCorePlugin.PLUGIN_ID, NLS.bind(
+						JBossWSCreationCoreMessages.Message_Batch_Cancelled, wsdlURI)));
+				severity = Math.max(severity, IStatus.WARNING);
+				continue;
+			}
+			String message;
+			if (result.isSuccessful()) {
+				generated++;
+				message = NLS.bind(JBossWSCreationCoreMessages.Message_Batch_Generated, wsdlURI, result.getTime());
+			} else {
+				message = NLS.bind(JBossWSCreationCoreMessages.Message_Batch_Failed, wsdlURI, result.getTime());
+				severity = IStatus.ERROR;
+			}
+			children.add(StatusUtils.multiStatus(message, new IStatus[] { result.getStatus() }));
+		}
+		return new BatchStatus(severity, NLS.bind(JBossWSCreationCoreMessages.Message_Batch_Result, new Object[] {
+				generated, wsdlURIs.size(), time }), children.toArray(new IStatus[children.size()]));
+	}
+
+	/**
+	 * The status of a batch, whose severity is set explicitly rather than
+	 * computed from its children.
+	 */
+	private static class BatchStatus extends MultiStatus {
+
+		BatchStatus(int severity, String message, IStatus[] children) {
+			super(JBossWSCreationCorePlugin.PLUGIN_ID, 0, children, message, null);
+			setSeverity(severity);
+		}
+	}
+
+	/**
+	 * Generates the WSDLs of a group, one after the other.
+	 */
+	private class GroupGeneration implements Runnable {
+
+		private final List<String> group;
+		private final IAdaptable info;
+
+		GroupGeneration(List<String> group, IAdaptable info) {
+			this.group = group;
+			this.info = info;
+		}
+
+		public void run() {
+			for (String wsdlURI : group) {
+				if (canceled) {
+					results.put(wsdlURI, new WSDLResult(wsdlURI, Status.CANCEL_STATUS, 0));
+					continue;
+				}
+				long start = System.currentTimeMillis();
+				IStatus status;
+				try {
+					WSDL2JavaCommand command = createCommand(createModel(wsdlURI));
+					command.setRefreshProject(false);
+					command.setRecordGenerateTime(false);
+					command.setImportResolver(resolver);
+					status = command.execute(new BatchProgressMonitor(), info);
+					if (command.isRunAbandoned()) {
+						runAbandoned = true;
+					}
+				} catch (Throwable e) {
+					// including the errors of the tool classes, which must
+					// not stop the rest of the group
+					JBossWSCreationCorePlugin.getDefault().logError(e);
+					status = StatusUtils.errorStatus(e);
+				}
+				results.put(wsdlURI, new WSDLResult(wsdlURI, status, System.currentTimeMillis() - start));
+			}
+		}
+	}
+
+	/**
+	 * The progress monitor of a generation, canceled when the batch is, so
+	 * that the running tools are aborted.
+	 */
+	private class BatchProgressMonitor extends NullProgressMonitor {
+
+		@Override
+		public boolean isCanceled() {
+			return canceled || super.isCanceled();
+		}
+	}
+
+	/**
+	 * @return the command generating the code of one WSDL
+	 */
+	protected WSDL2JavaCommand createCommand(ServiceModel wsdlModel) {
+		return new WSDL2JavaCommand(wsdlModel);
+	}
+
+	/**
+	 * @return a copy of the generation options of the model, for the given
+	 *         WSDL
+	 */
+	private ServiceModel createModel(String wsdlURI) {
+		ServiceModel wsdlModel = new ServiceModel();
+		wsdlModel.setJavaProject(model.getJavaProject());
+		wsdlModel.setWebProjectName(model.getWebProjectName());
+		wsdlModel.setJavaSourceFolder(model.getJavaSourceFolder());
+		wsdlModel.setWsScenario(model.getWsScenario());
+		wsdlModel.setCustomPackage(model.getCustomPackage());
+		for (String bindingFile : model.getBindingFiles()) {
+			wsdlModel.addBindingFile(bindingFile);
+		}
+		wsdlModel.setCatalog(model.getCatalog());
+		wsdlModel.setTarget(model.getTarget());
+		wsdlModel.setEnableSOAP12(model.enableSOAP12());
+		wsdlModel.setAddOptions(model.getAddOptions());
+		wsdlModel.setWsdlURI(wsdlURI);
+		return wsdlModel;
+	}
+
+	/**
+	 * Names the worker threads.
+	 */
+	private static class WorkerThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "WSDL2Java batch worker " + count.incrementAndGet()); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
@@ -1,18 +1,302 @@
 package org.jboss.tools.ws.creation.core.commands;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.jboss.tools.ws.core.utils.StatusUtils;
+import org.jboss.tools.ws.creation.core.JBossWSCreationCorePlugin;
 import org.jboss.tools.ws.creation.core.data.ServiceModel;
+import org.jboss.tools.ws.creation.core.utils.GenerationManifest;
+import org.jboss.tools.ws.creation.core.utils.JBossWSCreationUtils;
+import org.jboss.tools.ws.creation.core.utils.WSDLImportResolver;
 
 public class WSDL2JavaCommand extends AbstractGenerateCodeCommand{
 
 	private static String WSCONSUEM_FILE_NAME_LINUX = "wsconsume.sh";  //$NON-NLS-1$
 	private static String WSCONSUEM_FILE_NAME_WIN = "wsconsume.bat"; //$NON-NLS-1$
-	
+
+	/** System property disabling the incremental generation. */
+	public static final String FULL_GENERATION_PROPERTY = "org.jboss.tools.ws.creation.core.fullGeneration"; //$NON-NLS-1$
+
+	private static final String SOURCE_ROOT = "src"; //$NON-NLS-1$
+	private static final String OUTPUT_ROOT = "out"; //$NON-NLS-1$
+	private static final String[] ROOTS = { SOURCE_ROOT, OUTPUT_ROOT };
+
+	/** The locks of the shared manifest files, by file. */
+	private static final Map<File, Object> MANIFEST_LOCKS = new HashMap<File, Object>();
+
+	private boolean incremental = !Boolean.getBoolean(FULL_GENERATION_PROPERTY);
+	private WSDLImportResolver resolver;
+
+	// the folders in which the code is generated, before being synchronized
+	// with the project
+	private File stagingSource;
+	private File stagingOutput;
+
 	public WSDL2JavaCommand(ServiceModel model){
 		super(model);
 	}
+
+	/**
+	 * @param incremental
+	 *            false to always regenerate and rewrite all the files
+	 */
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+
+	/**
+	 * @param resolver
+	 *            the resolver reading the WSDL and its imports, shared with
+	 *            other generations so that the documents are read once, or
+	 *            null to read them again
+	 */
+	public void setImportResolver(WSDLImportResolver resolver) {
+		this.resolver = resolver;
+	}
+
+	/**
+	 * Skips the generation when the WSDL (and its imports), the binding files,
+	 * the catalog and the options are the same as the ones of the previous
+	 * generation, recorded in a {@link GenerationManifest}. Otherwise the code
+	 * is generated in staging folders, and only the files whose content
+	 * changed are copied into the project.
+	 *
+	 * The generated files are recorded in one manifest file per folder (the
+	 * source folder, and the output folder which may be shared by several
+	 * source folders), holding the manifests of all the WSDLs generated into
+	 * it, since they may write the same files: the <code>ObjectFactory</code>
+	 * and <code>package-info</code> of a custom package, or the classes of a
+	 * schema imported by several WSDLs. A file that a generation no longer
+	 * produces is only deleted if no other generation of the folder produces
+	 * it. The shared files are read and written under a lock, since the batch
+	 * generation runs several WSDLs at the same time.
+	 */
+	@Override
+	public IStatus execute(IProgressMonitor monitor, IAdaptable info) throws ExecutionException {
+		if (!incremental || model.getWsdlURI() == null) {
+			return super.execute(monitor, info);
+		}
+		if (monitor == null) {
+			monitor = new NullProgressMonitor();
+		}
+		IProject project = model.getJavaProject().getProject();
+		Map<String, File> roots = new HashMap<String, File>();
+		Map<String, File> manifestFiles = new HashMap<String, File>();
+		Map<String, GenerationManifest> previous = new HashMap<String, GenerationManifest>();
+		String generation;
+		String inputs;
+		try {
+			roots.put(SOURCE_ROOT, new File(getSourceDirectory()));
+			roots.put(OUTPUT_ROOT, new File(getOutputDirectory()));
+			String wsdl = WSDLImportResolver.toURL(model.getWsdlURI());
+			generation = hash(wsdl);
+			inputs = getInputsHash(monitor);
+			// up to date if something was generated, and is still there
+			boolean upToDate = true;
+			int generated = 0;
+			for (String root : ROOTS) {
+				File manifestFile = project.getWorkingLocation(JBossWSCreationCorePlugin.PLUGIN_ID).append("generation") //$NON-NLS-1$
+						.append(hash(root + ':' + roots.get(root).getAbsolutePath()) + ".properties") //$NON-NLS-1$
+						.toFile();
+				manifestFiles.put(root, manifestFile);
+				GenerationManifest manifest;
+				synchronized (getLock(manifestFile)) {
+					manifest = GenerationManifest.loadShared(manifestFile).get(generation);
+				}
+				previous.put(root, manifest);
+				if (manifest == null || !inputs.equals(manifest.getInputs())) {
+					upToDate = false;
+				} else if (!manifest.getFiles().isEmpty()) {
+					upToDate &= manifest.isUpToDate(inputs, roots);
+					generated += manifest.getFiles().size();
+				}
+			}
+			if (upToDate && generated > 0) {
+				recordGenerateTime();
+				File sourceFolder = roots.get(SOURCE_ROOT);
+				JBossWSCreationCorePlugin.getDefault().addGeneratedFiles(
+						previous.get(SOURCE_ROOT).getFiles(SOURCE_ROOT, sourceFolder));
+				monitor.done();
+				return Status.OK_STATUS;
+			}
+		} catch (OperationCanceledException e) {
+			monitor.done();
+			return Status.CANCEL_STATUS;
+		} catch (Exception e) {
+			// no incremental generation (unreadable WSDL...): wsconsume reports
+			// the errors
+			JBossWSCreationCorePlugin.getDefault().logWarning(e.getMessage());
+			return super.execute(monitor, info);
+		}
+
+		boolean refresh = isRefreshProject();
+		setRefreshProject(false);
+		try {
+			stagingSource = createStagingFolder();
+			stagingOutput = createStagingFolder();
+			IStatus status = super.execute(monitor, info);
+			if (status.getSeverity() < IStatus.ERROR) {
+				Map<String, File> stagings = new HashMap<String, File>();
+				stagings.put(SOURCE_ROOT, stagingSource);
+				stagings.put(OUTPUT_ROOT, stagingOutput);
+				for (String root : ROOTS) {
+					GenerationManifest manifest = new GenerationManifest(inputs);
+					File manifestFile = manifestFiles.get(root);
+					synchronized (getLock(manifestFile)) {
+						// read again, with the generations completed in the mean time
+						Map<String, GenerationManifest> manifests = GenerationManifest.loadShared(manifestFile);
+						manifests.remove(generation);
+						Collection<GenerationManifest> others = manifests.values();
+						manifest.synchronize(root, stagings.get(root), roots.get(root), previous.get(root), others);
+						// the shared files now have the content of this generation
+						for (GenerationManifest other : others) {
+							other.update(manifest);
+						}
+						// an incomplete generation (compilation errors) is not
+						// recorded, to run it again next time
+						if (status.isOK()) {
+							manifests.put(generation, manifest);
+						}
+						GenerationManifest.saveShared(manifestFile, manifests);
+					}
+					if (SOURCE_ROOT.equals(root)) {
+						JBossWSCreationCorePlugin.getDefault().addGeneratedFiles(manifest.getFiles(SOURCE_ROOT, roots.get(SOURCE_ROOT)));
+					}
+				}
+			}
+			return status;
+		} catch (IOException e) {
+			JBossWSCreationCorePlugin.getDefault().logError(e);
+			return StatusUtils.errorStatus(e);
+		} finally {
+			delete(stagingSource);
+			delete(stagingOutput);
+			stagingSource = null;
+			stagingOutput = null;
+			setRefreshProject(refresh);
+			if (refresh) {
+				refreshProject(model.getJavaProject(), monitor);
+			}
+		}
+	}
+
+	@Override
+	protected String getSourceDirectory() throws Exception {
+		return stagingSource != null ? stagingSource.getAbsolutePath() : super.getSourceDirectory();
+	}
+
+	@Override
+	protected String getOutputDirectory() throws Exception {
+		return stagingOutput != null ? stagingOutput.getAbsolutePath() : super.getOutputDirectory();
+	}
+
+	/**
+	 * @return the hash of the runtime (its location, and the size and date of
+	 *         its jars), the arguments, and the content of the WSDL, of its
+	 *         imports (mapped by the catalog), of the binding files and of the
+	 *         catalogs
+	 */
+	private String getInputsHash(IProgressMonitor monitor) throws Exception {
+		MessageDigest digest = GenerationManifest.newDigest();
+		String runtimeLocation = JBossWSCreationUtils.getJBossWSRuntimeLocation(model.getJavaProject().getProject());
+		update(digest, runtimeLocation);
+		// an updated runtime may generate other code
+		for (String jar : JBossWSToolsRunner.getRuntimeJars(runtimeLocation)) {
+			File file = new File(jar);
+			update(digest, jar + ':' + file.length() + ':' + file.lastModified());
+		}
+		List<String> args = new ArrayList<String>();
+		addCommandlineArgs(args);
+		addCommonArgs(args, model.getJavaProject());
+		for (String arg : args) {
+			update(digest, arg);
+		}
+		WSDLImportResolver resolver = this.resolver != null ? this.resolver : new WSDLImportResolver(model
+				.getCatalog());
+		for (String catalog : resolver.getCatalogs()) {
+			update(digest, catalog);
+			try {
+				digest.update(resolver.getContent(catalog));
+			} catch (IOException e) {
+				// missing catalog: wsconsume reports it
+			}
+		}
+		String wsdl = resolver.resolve(model.getWsdlURI());
+		digest.update(resolver.getContent(wsdl));
+		for (String location : resolver.getImports(wsdl, monitor)) {
+			update(digest, location);
+			try {
+				digest.update(resolver.getContent(location));
+			} catch (IOException e) {
+				// missing import: wsconsume reports it
+			}
+		}
+		for (String file : model.getBindingFiles()) {
+			if (new File(file).isFile()) {
+				update(digest, GenerationManifest.hash(new File(file)));
+			}
+		}
+		return GenerationManifest.toHex(digest.digest());
+	}
+
+	private static void update(MessageDigest digest, String value) throws UnsupportedEncodingException {
+		digest.update(value.getBytes("UTF-8")); //$NON-NLS-1$
+		digest.update((byte) 0);
+	}
+
+	private static Object getLock(File manifestFile) {
+		synchronized (MANIFEST_LOCKS) {
+			Object lock = MANIFEST_LOCKS.get(manifestFile);
+			if (lock == null) {
+				lock = new Object();
+				MANIFEST_LOCKS.put(manifestFile, lock);
+			}
+			return lock;
+		}
+	}
+
+	private static String hash(String value) throws UnsupportedEncodingException {
+		MessageDigest digest = GenerationManifest.newDigest();
+		update(digest, value);
+		return GenerationManifest.toHex(digest.digest());
+	}
+
+	private static File createStagingFolder() throws IOException {
+		File folder = File.createTempFile("wsconsume", ""); //$NON-NLS-1$ //$NON-NLS-2$
+		if (!folder.delete() || !folder.mkdirs()) {
+			throw new IOException("Unable to create " + folder); //$NON-NLS-1$
+		}
+		return folder;
+	}
+
+	private static void delete(File file) {
+		if (file == null) {
+			return;
+		}
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
 	
 
 	@Override
@@ -25,6 +309,11 @@ public class WSDL2JavaCommand extends AbstractGenerateCodeCommand{
 		return WSCONSUEM_FILE_NAME_WIN;
 	}
 	
+	@Override
+	protected JBossWSToolsRunner.Tool getInProcessTool() {
+		return JBossWSToolsRunner.Tool.CONSUME;
+	}
+
 	@Override
 	protected void addCommandlineArgs(List<String> command) {
 		if(model.getCustomPackage() != null && !"".equals(model.getCustomPackage())){ //$NON-NLS-1$
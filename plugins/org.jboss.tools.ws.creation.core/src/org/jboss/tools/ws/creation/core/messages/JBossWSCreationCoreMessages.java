@@ -32,6 +32,11 @@ public class JBossWSCreationCoreMessages extends NLS {
 	public static String Label_Remove_Button;
     public static String Label__Browse_Button;
 	public static String Progress_Message_Generating;  
+	public static String Progress_Message_Generating_Batch;
+	public static String Message_Batch_Generated;
+	public static String Message_Batch_Failed;
+	public static String Message_Batch_Cancelled;
+	public static String Message_Batch_Result;
     public static String Client_Sample_Run_Over;   
     public static String Label_SourceFolder_Name;
     public static String Label_Service_Name;
@@ -53,6 +58,7 @@ public class JBossWSCreationCoreMessages extends NLS {
 	public static String Error_Message_Failed_To_Generate_Code;
 	public static String Error_Message_Failed_to_Generate_Implementation;	
 	public static String Error_Message_Command_File_Not_Found;
+	public static String Error_Message_Generation_Timeout;
 	public static String Error_Message_No_SourceFolder;
 	public static String Error_Message_No_Service;
 	public static String Error_Message_No_ServletName;
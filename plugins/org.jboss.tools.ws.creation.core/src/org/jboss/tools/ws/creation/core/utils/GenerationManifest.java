@@ -0,0 +1,425 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.creation.core.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Records what a code generation was made from (a hash of all its inputs) and
+ * what it produced (the generated files and the hashes of their content), so
+ * that the next generation can be skipped when its inputs are unchanged, and
+ * only rewrite the files whose content changed otherwise.
+ *
+ * The generated files are grouped by root (for instance the source and output
+ * folders), and identified by their path relative to the root.
+ *
+ * The generations which may write into the same files, such as the WSDLs
+ * generated into the same source or output folder (which may share a package
+ * and its <code>ObjectFactory</code>, or the classes of an imported schema),
+ * share a file per folder holding the manifest of each of them, see
+ * {@link #loadShared(File)}, and are kept in sync with {@link #update}.
+ */
+public class GenerationManifest {
+
+	private static final String INPUTS = "inputs"; //$NON-NLS-1$
+	private static final String FILE_PREFIX = "file:"; //$NON-NLS-1$
+	private static final char GENERATION_SEPARATOR = '/';
+	private static final char[] HEX = "0123456789abcdef".toCharArray(); //$NON-NLS-1$
+
+	private final String inputs;
+
+	/** The hashes of the generated files, by root and relative path ("root:path"). */
+	private final Map<String, String> files = new TreeMap<String, String>();
+
+	/**
+	 * @param inputs
+	 *            the hash of the inputs of the generation
+	 */
+	public GenerationManifest(String inputs) {
+		this.inputs = inputs;
+	}
+
+	/**
+	 * Reads a manifest.
+	 *
+	 * @param file
+	 *            the manifest file
+	 * @return the manifest, or null if the file does not exist or can't be
+	 *         read
+	 */
+	public static GenerationManifest load(File file) {
+		Properties properties = read(file);
+		return properties != null ? fromProperties(properties, "") : null; //$NON-NLS-1$
+	}
+
+	/**
+	 * Reads the manifests of the generations sharing their files, written by
+	 * {@link #saveShared(File, Map)}.
+	 *
+	 * @param file
+	 *            the shared manifest file
+	 * @return the manifests by generation, empty if the file does not exist or
+	 *         can't be read
+	 */
+	public static Map<String, GenerationManifest> loadShared(File file) {
+		Map<String, GenerationManifest> manifests = new TreeMap<String, GenerationManifest>();
+		Properties properties = read(file);
+		if (properties == null) {
+			return manifests;
+		}
+		for (Object key : properties.keySet()) {
+			String name = (String) key;
+			int index = name.indexOf(GENERATION_SEPARATOR);
+			if (index > 0 && !manifests.containsKey(name.substring(0, index))) {
+				manifests.put(name.substring(0, index), fromProperties(properties, name.substring(0, index + 1)));
+			}
+		}
+		return manifests;
+	}
+
+	/**
+	 * Writes the manifest.
+	 *
+	 * @param file
+	 *            the manifest file
+	 * @throws IOException
+	 *             if the file can't be written
+	 */
+	public void save(File file) throws IOException {
+		Properties properties = new Properties();
+		toProperties(properties, ""); //$NON-NLS-1$
+		write(properties, file);
+	}
+
+	/**
+	 * Writes the manifests of the generations sharing their files in one file.
+	 *
+	 * @param file
+	 *            the shared manifest file, deleted if there is no manifest
+	 * @param manifests
+	 *            the manifests, by generation (without any '/')
+	 * @throws IOException
+	 *             if the file can't be written
+	 */
+	public static void saveShared(File file, Map<String, GenerationManifest> manifests) throws IOException {
+		if (manifests.isEmpty()) {
+			file.delete();
+			return;
+		}
+		Properties properties = new Properties();
+		for (Map.Entry<String, GenerationManifest> entry : manifests.entrySet()) {
+			entry.getValue().toProperties(properties, entry.getKey() + GENERATION_SEPARATOR);
+		}
+		write(properties, file);
+	}
+
+	public String getInputs() {
+		return inputs;
+	}
+
+	/**
+	 * @return the hashes of the generated files, by "root:relative path"
+	 */
+	public Map<String, String> getFiles() {
+		return files;
+	}
+
+	/**
+	 * @param root
+	 *            the root
+	 * @param folder
+	 *            the folder of the root
+	 * @return the generated files of the given root
+	 */
+	public List<File> getFiles(String root, File folder) {
+		List<File> result = new ArrayList<File>();
+		String prefix = root + ':';
+		for (String key : files.keySet()) {
+			if (key.startsWith(prefix)) {
+				result.add(new File(folder, key.substring(prefix.length())));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Tells if a generation with the given inputs would produce the files
+	 * which are already there.
+	 *
+	 * @param inputs
+	 *            the hash of the inputs of the new generation
+	 * @param roots
+	 *            the folders of the roots
+	 * @return true if the inputs are the same, and all the generated files
+	 *         still exist with the same content
+	 * @throws IOException
+	 *             if a file can't be read
+	 */
+	public boolean isUpToDate(String inputs, Map<String, File> roots) throws IOException {
+		if (this.inputs == null || !this.inputs.equals(inputs) || files.isEmpty()) {
+			return false;
+		}
+		for (Map.Entry<String, String> entry : files.entrySet()) {
+			File file = getFile(entry.getKey(), roots);
+			if (file == null || !file.isFile() || !entry.getValue().equals(hash(file))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Copies the files generated in a staging folder into the folder of their
+	 * root, when their content differs from the one of the existing files,
+	 * and records them. The files produced by the previous generation which
+	 * are no longer generated are deleted, unless they were modified since.
+	 *
+	 * @param root
+	 *            the root
+	 * @param staging
+	 *            the folder in which the files have been generated
+	 * @param folder
+	 *            the folder of the root
+	 * @param previous
+	 *            the manifest of the previous generation, or null
+	 * @return the number of files written or deleted
+	 * @throws IOException
+	 *             if a file can't be copied
+	 */
+	public int synchronize(String root, File staging, File folder, GenerationManifest previous) throws IOException {
+		return synchronize(root, staging, folder, previous, Collections.<GenerationManifest> emptyList());
+	}
+
+	/**
+	 * Synchronizes the files of a generation sharing its files with others:
+	 * the files no longer generated are kept when other generations still
+	 * produce them.
+	 *
+	 * @param root
+	 *            the root
+	 * @param staging
+	 *            the folder in which the files have been generated
+	 * @param folder
+	 *            the folder of the root
+	 * @param previous
+	 *            the manifest of the previous generation, or null
+	 * @param others
+	 *            the manifests of the other generations
+	 * @return the number of files written or deleted
+	 * @throws IOException
+	 *             if a file can't be copied
+	 * @see #synchronize(String, File, File, GenerationManifest)
+	 */
+	public int synchronize(String root, File staging, File folder, GenerationManifest previous,
+			Collection<GenerationManifest> others) throws IOException {
+		int changes = 0;
+		List<String> paths = new ArrayList<String>();
+		collect(staging, "", paths); //$NON-NLS-1$
+		for (String path : paths) {
+			File generated = new File(staging, path);
+			File target = new File(folder, path);
+			String hash = hash(generated);
+			if (!target.isFile() || !hash.equals(hash(target))) {
+				copy(generated, target);
+				changes++;
+			}
+			files.put(root + ':' + path, hash);
+		}
+		if (previous != null) {
+			String prefix = root + ':';
+			for (Map.Entry<String, String> entry : previous.files.entrySet()) {
+				String key = entry.getKey();
+				if (!key.startsWith(prefix) || files.containsKey(key) || isProduced(key, others)) {
+					continue;
+				}
+				File stale = new File(folder, key.substring(prefix.length()));
+				if (stale.isFile() && entry.getValue().equals(hash(stale)) && stale.delete()) {
+					changes++;
+				}
+			}
+		}
+		return changes;
+	}
+
+	/**
+	 * Records the content written by another generation into the files that
+	 * this generation produces too, so that they are still up to date.
+	 *
+	 * @param other
+	 *            the manifest of the other generation, after its
+	 *            synchronization
+	 * @return true if the hash of a file changed
+	 */
+	public boolean update(GenerationManifest other) {
+		boolean changed = false;
+		for (Map.Entry<String, String> entry : files.entrySet()) {
+			String hash = other.files.get(entry.getKey());
+			if (hash != null && !hash.equals(entry.getValue())) {
+				entry.setValue(hash);
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * @return the SHA-1 hash of the content of the given file
+	 */
+	public static String hash(File file) throws IOException {
+		MessageDigest digest = newDigest();
+		InputStream in = new FileInputStream(file);
+		try {
+			byte[] buffer = new byte[8192];
+			int n;
+			while ((n = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, n);
+			}
+		} finally {
+			in.close();
+		}
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * @return a new SHA-1 digest
+	 */
+	public static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-1"); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			// every VM provides SHA-1
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * @return the hexadecimal form of the given hash
+	 */
+	public static String toHex(byte[] hash) {
+		char[] chars = new char[hash.length * 2];
+		for (int i = 0; i < hash.length; i++) {
+			chars[2 * i] = HEX[(hash[i] >> 4) & 0xf];
+			chars[2 * i + 1] = HEX[hash[i] & 0xf];
+		}
+		return new String(chars);
+	}
+
+	private static boolean isProduced(String key, Collection<GenerationManifest> manifests) {
+		for (GenerationManifest manifest : manifests) {
+			if (manifest.files.containsKey(key)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static GenerationManifest fromProperties(Properties properties, String prefix) {
+		GenerationManifest manifest = new GenerationManifest(properties.getProperty(prefix + INPUTS));
+		for (Object key : properties.keySet()) {
+			String name = (String) key;
+			if (name.startsWith(prefix + FILE_PREFIX)) {
+				manifest.files.put(name.substring(prefix.length() + FILE_PREFIX.length()), properties.getProperty(name));
+			}
+		}
+		return manifest;
+	}
+
+	private void toProperties(Properties properties, String prefix) {
+		if (inputs != null) {
+			properties.setProperty(prefix + INPUTS, inputs);
+		}
+		for (Map.Entry<String, String> entry : files.entrySet()) {
+			properties.setProperty(prefix + FILE_PREFIX + entry.getKey(), entry.getValue());
+		}
+	}
+
+	private static Properties read(File file) {
+		if (!file.isFile()) {
+			return null;
+		}
+		Properties properties = new Properties();
+		try {
+			InputStream in = new FileInputStream(file);
+			try {
+				properties.load(in);
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			return null;
+		}
+		return properties;
+	}
+
+	private static void write(Properties properties, File file) throws IOException {
+		file.getParentFile().mkdirs();
+		OutputStream out = new FileOutputStream(file);
+		try {
+			properties.store(out, null);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static File getFile(String key, Map<String, File> roots) {
+		int index = key.indexOf(':');
+		File folder = index > 0 ? roots.get(key.substring(0, index)) : null;
+		return folder != null ? new File(folder, key.substring(index + 1)) : null;
+	}
+
+	private static void collect(File folder, String prefix, List<String> paths) {
+		File[] children = folder.listFiles();
+		if (children == null) {
+			return;
+		}
+		for (File child : children) {
+			if (child.isDirectory()) {
+				collect(child, prefix + child.getName() + '/', paths);
+			} else {
+				paths.add(prefix + child.getName());
+			}
+		}
+	}
+
+	private static void copy(File source, File target) throws IOException {
+		target.getParentFile().mkdirs();
+		InputStream in = new FileInputStream(source);
+		try {
+			OutputStream out = new FileOutputStream(target);
+			try {
+				byte[] buffer = new byte[8192];
+				int n;
+				while ((n = in.read(buffer)) != -1) {
+					out.write(buffer, 0, n);
+				}
+			} finally {
+				out.close();
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+}
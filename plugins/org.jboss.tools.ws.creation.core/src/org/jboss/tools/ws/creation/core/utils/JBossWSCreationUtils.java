@@ -588,7 +588,7 @@ public class JBossWSCreationUtils {
 						IType type = unit.getTypes()[0];
 						if (type.getAnnotation(annotation).exists()) {
 							File file = new File(unit.getResource().getLocation().toOSString());
-                            if(file.lastModified() > JBossWSCreationCorePlugin.getDefault().getGenerateTime()){
+                            if(JBossWSCreationCorePlugin.getDefault().isGenerated(file)){
                             	units.add(unit);
                             }
 						}
@@ -0,0 +1,291 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.creation.core.utils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects the output of a process without keeping all of it in memory.
+ *
+ * The stream is drained by a task of a shared pool, so that the process never
+ * blocks on a full pipe. Only the last lines are kept in a ring buffer; once
+ * it is full, the whole output is also written to a log file. The lines
+ * containing one of the given markers (such as "error:") are kept apart, so
+ * that they can still be found in {@link #getText()} after they left the ring
+ * buffer.
+ *
+ * The log files are kept after the run, since {@link #getText()} points to
+ * them; only the last {@link #MAX_LOG_FILES} ones of the log folder are kept.
+ */
+public class ProcessOutputCollector {
+
+	/** Notified of each line, in the draining thread. */
+	public interface LineListener {
+		void lineRead(String line);
+	}
+
+	/** The separator of the lines in {@link #getText()}, as in the former output. */
+	public static final String LINE_SEPARATOR = "\t\r"; //$NON-NLS-1$
+
+	/** The number of log files kept in the log folder. */
+	public static final int MAX_LOG_FILES = 10;
+
+	private static final String LOG_PREFIX = "output"; //$NON-NLS-1$
+	private static final String LOG_SUFFIX = ".log"; //$NON-NLS-1$
+
+	private static final ExecutorService drainers = Executors.newCachedThreadPool(new DrainerThreadFactory());
+
+	private final String[] lines;
+	private final String[] markers;
+	private final File logFolder;
+	private final LineListener listener;
+	private final List<String> markedLines = new ArrayList<String>();
+
+	private int start = 0;
+	private int size = 0;
+	private long lineCount = 0;
+	private File logFile;
+	private PrintWriter log;
+	private boolean logFailed = false;
+	private Future<?> drainer;
+
+	/**
+	 * @param maxLines
+	 *            the number of lines kept in memory
+	 * @param markers
+	 *            the strings of the lines to always keep
+	 * @param logFolder
+	 *            the folder of the log file, or null for the temp folder
+	 * @param listener
+	 *            the listener of the lines, or null
+	 */
+	public ProcessOutputCollector(int maxLines, String[] markers, File logFolder, LineListener listener) {
+		this.lines = new String[Math.max(1, maxLines)];
+		this.markers = markers != null ? markers : new String[0];
+		this.logFolder = logFolder;
+		this.listener = listener;
+	}
+
+	/**
+	 * Starts draining the given stream.
+	 *
+	 * @param input
+	 *            the stream
+	 */
+	public void drain(final InputStream input) {
+		drainer = drainers.submit(new Runnable() {
+			public void run() {
+				try {
+					BufferedReader reader = new BufferedReader(new InputStreamReader(input));
+					try {
+						String line = reader.readLine();
+						while (line != null) {
+							add(line);
+							line = reader.readLine();
+						}
+					} finally {
+						reader.close();
+					}
+				} catch (IOException e) {
+					// the process was destroyed
+				} finally {
+					// also when the caller stopped waiting for the stream
+					closeLog();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Waits until the stream is fully read. The stream ends when the process
+	 * exits, or when it is destroyed; the log file is closed then.
+	 *
+	 * @param timeout
+	 *            the maximum time to wait, in milliseconds
+	 * @return true if the stream was fully read
+	 * @throws InterruptedException
+	 *             if the current thread is interrupted
+	 */
+	public boolean await(long timeout) throws InterruptedException {
+		if (drainer == null) {
+			return true;
+		}
+		try {
+			drainer.get(timeout, TimeUnit.MILLISECONDS);
+			return true;
+		} catch (TimeoutException e) {
+			return false;
+		} catch (ExecutionException e) {
+			return true;
+		}
+	}
+
+	/**
+	 * Adds a line of output.
+	 *
+	 * @param line
+	 *            the line
+	 */
+	public void add(String line) {
+		synchronized (this) {
+			lineCount++;
+			if (size == lines.length) {
+				spill(line);
+				String evicted = lines[start];
+				if (isMarked(evicted) && markedLines.size() < lines.length) {
+					markedLines.add(evicted);
+				}
+				lines[start] = line;
+				start = (start + 1) % lines.length;
+			} else {
+				lines[(start + size) % lines.length] = line;
+				size++;
+			}
+		}
+		if (listener != null) {
+			listener.lineRead(line);
+		}
+	}
+
+	/**
+	 * @return the lines kept in memory, separated by {@link #LINE_SEPARATOR}:
+	 *         the marked lines which left the ring buffer, a line telling
+	 *         where the whole output is, and the last lines
+	 */
+	public synchronized String getText() {
+		StringBuffer text = new StringBuffer();
+		if (lineCount > size) {
+			for (String line : markedLines) {
+				text.append(line).append(LINE_SEPARATOR);
+			}
+			text.append("... ").append(lineCount - size).append(" more lines"); //$NON-NLS-1$ //$NON-NLS-2$
+			if (logFile != null) {
+				text.append(", see ").append(logFile.getAbsolutePath()); //$NON-NLS-1$
+			}
+			text.append(LINE_SEPARATOR);
+		}
+		for (int i = 0; i < size; i++) {
+			text.append(lines[(start + i) % lines.length]).append(LINE_SEPARATOR);
+		}
+		return text.toString();
+	}
+
+	/** @return the number of lines read so far */
+	public synchronized long getLineCount() {
+		return lineCount;
+	}
+
+	/** @return the file containing the whole output, or null if it all fits in memory */
+	public synchronized File getLogFile() {
+		return logFile;
+	}
+
+	private boolean isMarked(String line) {
+		for (String marker : markers) {
+			if (line.indexOf(marker) >= 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Writes the line to the log file, which is created with the lines of the
+	 * ring buffer when the first line is evicted.
+	 */
+	private void spill(String line) {
+		if (log == null && !logFailed) {
+			try {
+				if (logFolder != null) {
+					logFolder.mkdirs();
+					deleteOldLogs(logFolder);
+				}
+				logFile = File.createTempFile(LOG_PREFIX, LOG_SUFFIX, logFolder);
+				log = new PrintWriter(new OutputStreamWriter(new FileOutputStream(logFile), "UTF-8")); //$NON-NLS-1$
+				for (int i = 0; i < size; i++) {
+					log.println(lines[(start + i) % lines.length]);
+				}
+			} catch (IOException e) {
+				logFailed = true;
+				logFile = null;
+			}
+		}
+		if (log != null) {
+			log.println(line);
+		}
+	}
+
+	private synchronized void closeLog() {
+		if (log != null) {
+			log.close();
+			log = null;
+		}
+	}
+
+	/**
+	 * Deletes the oldest log files of the folder, leaving room for a new one.
+	 */
+	private static void deleteOldLogs(File folder) {
+		File[] logs = folder.listFiles(new FileFilter() {
+			public boolean accept(File file) {
+				return file.isFile() && file.getName().startsWith(LOG_PREFIX) && file.getName().endsWith(LOG_SUFFIX);
+			}
+		});
+		if (logs == null || logs.length < MAX_LOG_FILES) {
+			return;
+		}
+		Arrays.sort(logs, new Comparator<File>() {
+			public int compare(File file1, File file2) {
+				long modified1 = file1.lastModified();
+				long modified2 = file2.lastModified();
+				return modified1 < modified2 ? -1 : (modified1 == modified2 ? 0 : 1);
+			}
+		});
+		for (int i = 0; i <= logs.length - MAX_LOG_FILES; i++) {
+			logs[i].delete();
+		}
+	}
+
+	/**
+	 * Names the draining threads, and makes them daemons.
+	 */
+	private static class DrainerThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "Process output drainer " + count.incrementAndGet()); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.creation.core.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kills a process and the processes it started, such as the VM started by
+ * the wsconsume and wsprovide scripts: {@link Process#destroy()} only kills
+ * the shell running the script.
+ *
+ * The descendants are found with <code>ps</code> on Unix, and killed with
+ * <code>taskkill /T</code> on Windows. The id of the process is read with
+ * <code>Process.pid()</code> (Java 9) or from the <code>pid</code> field of
+ * the Unix implementation; when it can't be found, only the process itself is
+ * killed.
+ */
+public class ProcessTreeKiller {
+
+	/**
+	 * Kills the given process and its descendants.
+	 *
+	 * @return true if the descendants were killed too, false if only the
+	 *         process itself was
+	 */
+	public static boolean destroyTree(Process process) {
+		long pid = getPid(process);
+		boolean killed = false;
+		if (pid > 0) {
+			try {
+				if (isWindows()) {
+					killed = run("taskkill", "/F", "/T", "/PID", String.valueOf(pid)) == 0; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				} else {
+					// the list is read before killing anything, since the
+					// orphans are given to init
+					List<String> command = new ArrayList<String>();
+					command.add("kill"); //$NON-NLS-1$
+					for (Long descendant : getDescendants(pid)) {
+						command.add(String.valueOf(descendant));
+					}
+					killed = command.size() == 1 || run(command.toArray(new String[command.size()])) == 0;
+				}
+			} catch (IOException e) {
+				// no ps, kill or taskkill
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		process.destroy();
+		return killed;
+	}
+
+	/**
+	 * @return the id of the process, or -1 if it can't be found
+	 */
+	static long getPid(Process process) {
+		try {
+			Method pid = Process.class.getMethod("pid"); //$NON-NLS-1$
+			return ((Number) pid.invoke(process)).longValue();
+		} catch (Exception e) {
+			// before Java 9
+		}
+		try {
+			Field pid = process.getClass().getDeclaredField("pid"); //$NON-NLS-1$
+			pid.setAccessible(true);
+			return ((Number) pid.get(process)).longValue();
+		} catch (Exception e) {
+			// not the Unix implementation
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the ids of the descendants of the given Unix process, parents
+	 *         first
+	 */
+	static List<Long> getDescendants(long pid) throws IOException, InterruptedException {
+		Map<Long, List<Long>> children = new HashMap<Long, List<Long>>();
+		Process ps = new ProcessBuilder("ps", "-A", "-o", "pid=", "-o", "ppid=").redirectErrorStream(true).start(); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+		BufferedReader reader = new BufferedReader(new InputStreamReader(ps.getInputStream()));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] ids = line.trim().split("\\s+"); //$NON-NLS-1$
+				if (ids.length != 2) {
+					continue;
+				}
+				try {
+					Long child = Long.valueOf(ids[0]);
+					Long parent = Long.valueOf(ids[1]);
+					List<Long> siblings = children.get(parent);
+					if (siblings == null) {
+						siblings = new ArrayList<Long>();
+						children.put(parent, siblings);
+					}
+					siblings.add(child);
+				} catch (NumberFormatException e) {
+					// not a process line
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		ps.waitFor();
+		List<Long> tree = new ArrayList<Long>();
+		tree.add(Long.valueOf(pid));
+		for (int i = 0; i < tree.size(); i++) {
+			List<Long> found = children.get(tree.get(i));
+			if (found != null) {
+				tree.addAll(found);
+			}
+		}
+		return new ArrayList<Long>(tree.subList(1, tree.size()));
+	}
+
+	private static int run(String... command) throws IOException, InterruptedException {
+		Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+		// nothing to read but a few messages
+		process.getOutputStream().close();
+		while (process.getInputStream().read() != -1) {
+			// skip
+		}
+		return process.waitFor();
+	}
+
+	private static boolean isWindows() {
+		return System.getProperty("os.name").toLowerCase().indexOf("win") >= 0; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/** Not instantiable. */
+	private ProcessTreeKiller() {
+		super();
+	}
+}
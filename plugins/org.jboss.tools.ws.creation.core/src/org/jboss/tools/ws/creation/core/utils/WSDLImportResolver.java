@@ -0,0 +1,449 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.creation.core.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * Finds the documents imported by a WSDL, directly or not: the WSDL imports
+ * and the schema imports, includes and redefines (inline or not).
+ *
+ * Each document is read once per resolver, so the schemas shared by several
+ * WSDLs are only downloaded and parsed once when the same resolver is used for
+ * all of them.
+ *
+ * The locations are mapped through the XML catalog given to wsconsume, if any
+ * (its <code>system</code>, <code>uri</code>, <code>rewriteSystem</code>,
+ * <code>rewriteURI</code> and <code>nextCatalog</code> entries), so that the
+ * documents are the ones wsconsume reads.
+ *
+ * The resolver can be shared by several threads. The documents are read and
+ * parsed outside of its lock, with connect and read timeouts, so that a slow
+ * server only blocks the threads waiting for its documents.
+ */
+public class WSDLImportResolver {
+
+	private static final String WSDL_NS = "http://schemas.xmlsoap.org/wsdl/"; //$NON-NLS-1$
+	private static final String XSD_NS = "http://www.w3.org/2001/XMLSchema"; //$NON-NLS-1$
+	private static final String[] SCHEMA_REFERENCES = { "import", "include", "redefine" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	private static final int CONNECT_TIMEOUT = 30000;
+	private static final int READ_TIMEOUT = 60000;
+
+	/** The content of the documents already read, by URL. */
+	private final Map<String, byte[]> contents = new HashMap<String, byte[]>();
+
+	/** The documents directly referenced by the documents already parsed, by URL. */
+	private final Map<String, List<String>> references = new HashMap<String, List<String>>();
+
+	/** The target namespaces of the documents already parsed, by URL. */
+	private final Map<String, String> targetNamespaces = new HashMap<String, String>();
+
+	/** The target namespaces of the schemas of the documents already parsed, by URL. */
+	private final Map<String, List<String>> schemaNamespaces = new HashMap<String, List<String>>();
+
+	private final List<String> unresolved = new ArrayList<String>();
+
+	/** The catalogs read, by URL. */
+	private final List<String> catalogs = new ArrayList<String>();
+
+	/** The locations mapped by the catalogs, the first entry wins. */
+	private final Map<String, String> catalogEntries = new HashMap<String, String>();
+
+	/** The prefixes rewritten by the catalogs. */
+	private final Map<String, String> catalogRewrites = new HashMap<String, String>();
+
+	private DocumentBuilderFactory factory;
+
+	public WSDLImportResolver() {
+		super();
+	}
+
+	/**
+	 * @param catalog
+	 *            the location of the XML catalog mapping the locations, or
+	 *            null
+	 */
+	public WSDLImportResolver(String catalog) {
+		if (catalog != null && catalog.trim().length() > 0) {
+			readCatalog(toURL(catalog.trim()));
+		}
+	}
+
+	/**
+	 * Converts a location, which may be a URL or a file path, into a URL.
+	 *
+	 * @param location
+	 *            the location
+	 * @return the URL, as a string
+	 */
+	public static String toURL(String location) {
+		try {
+			return new URL(location).toExternalForm();
+		} catch (MalformedURLException e) {
+			try {
+				return new File(location).getAbsoluteFile().toURI().toURL().toExternalForm();
+			} catch (MalformedURLException e1) {
+				return location;
+			}
+		}
+	}
+
+	/**
+	 * Returns the documents imported by the given WSDL, directly or not, in
+	 * the order in which they are found.
+	 *
+	 * @param wsdlURI
+	 *            the location of the WSDL (URL or file path)
+	 * @return the URLs of the imported documents, without the WSDL itself
+	 * @throws IOException
+	 *             if the WSDL itself can't be read
+	 */
+	public List<String> getImports(String wsdlURI) throws IOException {
+		return getImports(wsdlURI, null);
+	}
+
+	/**
+	 * Returns the documents imported by the given WSDL, directly or not, in
+	 * the order in which they are found.
+	 *
+	 * @param wsdlURI
+	 *            the location of the WSDL (URL or file path)
+	 * @param monitor
+	 *            checked for cancellation before each document, or null
+	 * @return the URLs of the imported documents, without the WSDL itself
+	 * @throws IOException
+	 *             if the WSDL itself can't be read
+	 * @throws OperationCanceledException
+	 *             if the monitor is canceled
+	 */
+	public List<String> getImports(String wsdlURI, IProgressMonitor monitor) throws IOException {
+		String root = resolve(wsdlURI);
+		getContent(root);
+		Set<String> found = new LinkedHashSet<String>();
+		List<String> pending = new ArrayList<String>();
+		pending.add(root);
+		while (!pending.isEmpty()) {
+			if (monitor != null && monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			String location = pending.remove(0);
+			for (String reference : getReferences(location)) {
+				if (!reference.equals(root) && found.add(reference)) {
+					pending.add(reference);
+				}
+			}
+		}
+		return new ArrayList<String>(found);
+	}
+
+	/**
+	 * Returns the content of the given document, read on the first call.
+	 *
+	 * @param url
+	 *            the URL of the document
+	 * @return the content
+	 * @throws IOException
+	 *             if the document can't be read
+	 */
+	public byte[] getContent(String url) throws IOException {
+		synchronized (this) {
+			byte[] content = contents.get(url);
+			if (content != null) {
+				return content;
+			}
+		}
+		// several threads may read the same document, the first one wins
+		byte[] content = read(new URL(url));
+		synchronized (this) {
+			byte[] read = contents.get(url);
+			if (read != null) {
+				return read;
+			}
+			contents.put(url, content);
+			return content;
+		}
+	}
+
+	/**
+	 * Returns the target namespace of the given document.
+	 *
+	 * @param uri
+	 *            the location of the document (URL or file path)
+	 * @return the target namespace, or null if the document has none or
+	 *         can't be parsed
+	 */
+	public String getTargetNamespace(String uri) {
+		String url = resolve(uri);
+		getReferences(url);
+		synchronized (this) {
+			return targetNamespaces.get(url);
+		}
+	}
+
+	/**
+	 * Returns the target namespaces of the schemas defined in the given
+	 * document: the inline schemas of a WSDL, or the schema itself.
+	 *
+	 * @param uri
+	 *            the location of the document (URL or file path)
+	 * @return the namespaces, empty if the document can't be parsed
+	 */
+	public List<String> getSchemaNamespaces(String uri) {
+		String url = resolve(uri);
+		getReferences(url);
+		synchronized (this) {
+			List<String> namespaces = schemaNamespaces.get(url);
+			return namespaces != null ? new ArrayList<String>(namespaces) : new ArrayList<String>();
+		}
+	}
+
+	/**
+	 * Maps a location through the catalog.
+	 *
+	 * @param uri
+	 *            the location (URL or file path)
+	 * @return the URL of the document read for this location
+	 */
+	public synchronized String resolve(String uri) {
+		return map(uri, toURL(uri));
+	}
+
+	/**
+	 * @return the URLs of the catalogs read, the given one and the next ones
+	 */
+	public synchronized List<String> getCatalogs() {
+		return new ArrayList<String>(catalogs);
+	}
+
+	/**
+	 * @return the imported documents that could not be read
+	 */
+	public synchronized List<String> getUnresolvedImports() {
+		return new ArrayList<String>(unresolved);
+	}
+
+	/*
+	 * The references of a document are only published once they are all
+	 * found, under the lock.
+	 */
+	private List<String> getReferences(String url) {
+		synchronized (this) {
+			List<String> result = references.get(url);
+			if (result != null) {
+				return result;
+			}
+		}
+		Document document = parse(url);
+		synchronized (this) {
+			List<String> result = references.get(url);
+			if (result != null) {
+				// parsed by another thread in the mean time
+				return result;
+			}
+			result = new ArrayList<String>();
+			references.put(url, result);
+			if (document == null) {
+				unresolved.add(url);
+			} else {
+				addReferences(result, url, document);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * @return the parsed document, or null if it can't be read or parsed
+	 */
+	private Document parse(String url) {
+		try {
+			InputSource source = new InputSource(new ByteArrayInputStream(getContent(url)));
+			source.setSystemId(url);
+			return newBuilder().parse(source);
+		} catch (IOException e) {
+			return null;
+		} catch (SAXException e) {
+			return null;
+		} catch (ParserConfigurationException e) {
+			return null;
+		}
+	}
+
+	private void addReferences(List<String> result, String url, Document document) {
+		String targetNamespace = document.getDocumentElement().getAttribute("targetNamespace"); //$NON-NLS-1$
+		if (targetNamespace.length() > 0) {
+			targetNamespaces.put(url, targetNamespace);
+		}
+		List<String> namespaces = new ArrayList<String>();
+		NodeList schemas = document.getElementsByTagNameNS(XSD_NS, "schema"); //$NON-NLS-1$
+		for (int i = 0; i < schemas.getLength(); i++) {
+			String namespace = ((Element) schemas.item(i)).getAttribute("targetNamespace"); //$NON-NLS-1$
+			if (!namespaces.contains(namespace)) {
+				namespaces.add(namespace);
+			}
+		}
+		schemaNamespaces.put(url, namespaces);
+		NodeList imports = document.getElementsByTagNameNS(WSDL_NS, "import"); //$NON-NLS-1$
+		for (int i = 0; i < imports.getLength(); i++) {
+			addReference(result, url, ((Element) imports.item(i)).getAttribute("location")); //$NON-NLS-1$
+		}
+		for (String name : SCHEMA_REFERENCES) {
+			NodeList schemaReferences = document.getElementsByTagNameNS(XSD_NS, name);
+			for (int i = 0; i < schemaReferences.getLength(); i++) {
+				addReference(result, url, ((Element) schemaReferences.item(i)).getAttribute("schemaLocation")); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private void addReference(List<String> result, String base, String location) {
+		if (location == null || location.trim().length() == 0) {
+			return;
+		}
+		try {
+			String reference = map(location.trim(), new URL(new URL(base), location.trim()).toExternalForm());
+			if (!result.contains(reference)) {
+				result.add(reference);
+			}
+		} catch (MalformedURLException e) {
+			unresolved.add(location);
+		}
+	}
+
+	/**
+	 * @param location
+	 *            the location, as written in the document
+	 * @param url
+	 *            the absolute URL of the location
+	 * @return the URL given by the catalog, or the URL itself
+	 */
+	private String map(String location, String url) {
+		String mapped = catalogEntries.get(location);
+		if (mapped == null) {
+			mapped = catalogEntries.get(url);
+		}
+		if (mapped != null) {
+			return mapped;
+		}
+		String longest = null;
+		for (String prefix : catalogRewrites.keySet()) {
+			if (url.startsWith(prefix) && (longest == null || prefix.length() > longest.length())) {
+				longest = prefix;
+			}
+		}
+		return longest != null ? catalogRewrites.get(longest) + url.substring(longest.length()) : url;
+	}
+
+	private void readCatalog(String url) {
+		if (catalogs.contains(url)) {
+			return;
+		}
+		catalogs.add(url);
+		Document document = parse(url);
+		if (document == null) {
+			unresolved.add(url);
+			return;
+		}
+		NodeList entries = document.getElementsByTagNameNS("*", "*"); //$NON-NLS-1$ //$NON-NLS-2$
+		for (int i = 0; i < entries.getLength(); i++) {
+			Element entry = (Element) entries.item(i);
+			String name = entry.getLocalName();
+			if ("system".equals(name)) { //$NON-NLS-1$
+				addCatalogEntry(catalogEntries, entry.getAttribute("systemId"), url, entry.getAttribute("uri")); //$NON-NLS-1$ //$NON-NLS-2$
+			} else if ("uri".equals(name)) { //$NON-NLS-1$
+				addCatalogEntry(catalogEntries, entry.getAttribute("name"), url, entry.getAttribute("uri")); //$NON-NLS-1$ //$NON-NLS-2$
+			} else if ("rewriteSystem".equals(name)) { //$NON-NLS-1$
+				addCatalogEntry(catalogRewrites, entry.getAttribute("systemIdStartString"), url, //$NON-NLS-1$
+						entry.getAttribute("rewritePrefix")); //$NON-NLS-1$
+			} else if ("rewriteURI".equals(name)) { //$NON-NLS-1$
+				addCatalogEntry(catalogRewrites, entry.getAttribute("uriStartString"), url, //$NON-NLS-1$
+						entry.getAttribute("rewritePrefix")); //$NON-NLS-1$
+			} else if ("nextCatalog".equals(name)) { //$NON-NLS-1$
+				String next = resolveAgainst(url, entry.getAttribute("catalog")); //$NON-NLS-1$
+				if (next != null) {
+					readCatalog(next);
+				}
+			}
+		}
+	}
+
+	private void addCatalogEntry(Map<String, String> mappings, String key, String catalog, String uri) {
+		String target = resolveAgainst(catalog, uri);
+		if (key.length() > 0 && target != null && !mappings.containsKey(key)) {
+			mappings.put(key, target);
+		}
+	}
+
+	private String resolveAgainst(String base, String location) {
+		if (location.trim().length() == 0) {
+			return null;
+		}
+		try {
+			return new URL(new URL(base), location.trim()).toExternalForm();
+		} catch (MalformedURLException e) {
+			unresolved.add(location);
+			return null;
+		}
+	}
+
+	/*
+	 * A builder per document, since they are not thread safe
+	 */
+	private synchronized DocumentBuilder newBuilder() throws ParserConfigurationException {
+		if (factory == null) {
+			factory = DocumentBuilderFactory.newInstance();
+			factory.setNamespaceAware(true);
+		}
+		return factory.newDocumentBuilder();
+	}
+
+	private static byte[] read(URL url) throws IOException {
+		URLConnection connection = url.openConnection();
+		connection.setConnectTimeout(CONNECT_TIMEOUT);
+		connection.setReadTimeout(READ_TIMEOUT);
+		InputStream in = connection.getInputStream();
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int n;
+			while ((n = in.read(buffer)) != -1) {
+				out.write(buffer, 0, n);
+			}
+			return out.toByteArray();
+		} finally {
+			in.close();
+		}
+	}
+
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.creation.ui.actions;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jface.action.IAction;
+import org.eclipse.jface.dialogs.ErrorDialog;
+import org.eclipse.jface.viewers.ISelection;
+import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.ui.IObjectActionDelegate;
+import org.eclipse.ui.IWorkbenchPart;
+import org.jboss.tools.ws.creation.core.commands.WSDL2JavaBatchCommand;
+import org.jboss.tools.ws.creation.core.data.ServiceModel;
+import org.jboss.tools.ws.creation.core.messages.JBossWSCreationCoreMessages;
+import org.jboss.tools.ws.creation.core.utils.JBossWSCreationUtils;
+import org.jboss.tools.ws.creation.ui.JBossWSCreationUIPlugin;
+import org.jboss.tools.ws.creation.ui.messages.JBossWSCreationUIMessages;
+
+/**
+ * Action generating the client code of the selected WSDLs, or of the WSDLs of
+ * the selected <code>wsdl</code> folders and source folders, into their
+ * project with a {@link WSDL2JavaBatchCommand}
+ */
+public class GenerateCodeFromWSDLsAction implements IObjectActionDelegate {
+
+	private ISelection selection = null;
+	private Shell shell = null;
+
+	public GenerateCodeFromWSDLsAction() {
+		// empty
+	}
+
+	public void run(final IAction action) {
+		if (!(selection instanceof IStructuredSelection)) {
+			return;
+		}
+		IProject project = null;
+		List<String> wsdls = new ArrayList<String>();
+		for (Iterator<?> it = ((IStructuredSelection) selection).iterator(); it.hasNext();) {
+			Object element = it.next();
+			IResource resource = element instanceof IAdaptable ? (IResource) ((IAdaptable) element)
+					.getAdapter(IResource.class) : null;
+			if (resource == null || resource.getLocation() == null) {
+				continue;
+			}
+			if (project != null && !project.equals(resource.getProject())) {
+				showError(JBossWSCreationUIMessages.GenerateCodeFromWSDLsAction_Error_Projects);
+				return;
+			}
+			project = resource.getProject();
+			try {
+				wsdls.addAll(WSDL2JavaBatchCommand.findWSDLs(resource.getLocation().toFile()));
+			} catch (IOException e) {
+				JBossWSCreationUIPlugin.getDefault().getLog().log(
+						new Status(IStatus.ERROR, JBossWSCreationUIPlugin.PLUGIN_ID, e.getMessage(), e));
+			}
+		}
+		if (project == null || wsdls.isEmpty()) {
+			showError(JBossWSCreationUIMessages.GenerateCodeFromWSDLsAction_Error_No_WSDL);
+			return;
+		}
+		ServiceModel model = new ServiceModel();
+		String error = initModel(model, project);
+		if (error != null) {
+			showError(error);
+			return;
+		}
+		final WSDL2JavaBatchCommand command = new WSDL2JavaBatchCommand(model, wsdls);
+		Job job = new Job(NLS.bind(JBossWSCreationUIMessages.GenerateCodeFromWSDLsAction_Job, wsdls.size())) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				return command.execute(monitor, null);
+			}
+		};
+		job.setUser(true);
+		job.setRule(project);
+		job.schedule();
+	}
+
+	/**
+	 * Sets the project, source folder and target of the generation, as the
+	 * client wizard does
+	 * @return the error message, or null if the model is complete
+	 */
+	private static String initModel(ServiceModel model, IProject project) {
+		model.setWebProjectName(project.getName());
+		model.setJavaProject(JavaCore.create(project));
+		try {
+			if ("".equals(JBossWSCreationUtils.getJBossWSRuntimeLocation(project))) { //$NON-NLS-1$
+				return JBossWSCreationCoreMessages.Error_WS_Location;
+			}
+		} catch (CoreException e) {
+			return JBossWSCreationCoreMessages.Error_WS_Location;
+		}
+		try {
+			List<String> sourceFolders = JBossWSCreationUtils.getJavaProjectSrcFolder(project);
+			if (sourceFolders == null || sourceFolders.isEmpty()) {
+				return JBossWSCreationCoreMessages.Error_Message_No_SourceFolder;
+			}
+			model.setSrcList(sourceFolders);
+			model.setJavaSourceFolder(sourceFolders.get(0));
+		} catch (JavaModelException e) {
+			return e.getMessage();
+		}
+		model.setTarget(JBossWSCreationCoreMessages.Value_Target_0);
+		model.setCustomPackage(""); //$NON-NLS-1$
+		return null;
+	}
+
+	private void showError(String message) {
+		ErrorDialog.openError(shell, JBossWSCreationUIMessages.GenerateCodeFromWSDLsAction_Title, null, new Status(
+				IStatus.ERROR, JBossWSCreationUIPlugin.PLUGIN_ID, message));
+	}
+
+	public void selectionChanged(IAction action, ISelection selection) {
+		this.selection = selection;
+		// the source folders only, not the libraries
+		boolean enabled = true;
+		if (selection instanceof IStructuredSelection) {
+			for (Iterator<?> it = ((IStructuredSelection) selection).iterator(); it.hasNext() && enabled;) {
+				Object element = it.next();
+				enabled = !(element instanceof IPackageFragmentRoot) || !((IPackageFragmentRoot) element).isArchive();
+			}
+		}
+		action.setEnabled(enabled);
+	}
+
+	public void setActivePart(IAction action, IWorkbenchPart targetPart) {
+		shell = targetPart != null ? targetPart.getSite().getShell() : null;
+	}
+
+}
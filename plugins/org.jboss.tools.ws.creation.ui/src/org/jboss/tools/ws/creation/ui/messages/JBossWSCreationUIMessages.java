@@ -14,6 +14,11 @@ public class JBossWSCreationUIMessages extends NLS {
 	public static String JBossWSWSDL2JavaConfigWidgetFactory_Title;
 	public static String JBossWSJava2WSDLConfigWidgetFactory_Description;
 	public static String JBossWSJava2WSDLConfigWidgetFactory_Title;
+
+	public static String GenerateCodeFromWSDLsAction_Title;
+	public static String GenerateCodeFromWSDLsAction_Job;
+	public static String GenerateCodeFromWSDLsAction_Error_Projects;
+	public static String GenerateCodeFromWSDLsAction_Error_No_WSDL;
 	
 	static {
 		NLS.initializeMessages(BUNDLE_NAME, JBossWSCreationUIMessages.class);
@@ -11,12 +11,17 @@
 
 package org.jboss.tools.ws.jaxrs.core;
 
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.JavaElementChangedListener;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.ResourceChangedListener;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodelSnapshot;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
+import org.jboss.tools.ws.jaxrs.core.metamodel.JaxrsMetamodelLocator;
 import org.osgi.framework.BundleContext;
 
 /**
@@ -61,11 +66,26 @@ public class JBossJaxrsCorePlugin extends AbstractUIPlugin {
 	 */
 	@Override
 	public void stop(BundleContext context) throws Exception {
-		plugin = null;
 		unregisterListeners();
+		saveMetamodels();
+		plugin = null;
 		super.stop(context);
 	}
 
+	/**
+	 * Saves a snapshot of the JAX-RS Metamodel of each open project, so that they can be restored at next startup
+	 * without a full build.
+	 */
+	private void saveMetamodels() {
+		for (IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects()) {
+			try {
+				JaxrsMetamodelSnapshot.save(JaxrsMetamodelLocator.get(project));
+			} catch (CoreException e) {
+				Logger.warn("Failed to save JAX-RS Metamodel of project " + project.getName(), e);
+			}
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
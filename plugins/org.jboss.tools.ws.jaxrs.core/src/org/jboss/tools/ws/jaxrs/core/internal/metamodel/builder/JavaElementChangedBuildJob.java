@@ -12,69 +12,327 @@ package org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder;
 
 import static org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.JaxrsMetamodelBuilder.SCALE;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.ProgressMonitorWrapper;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.MultiRule;
 import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IJavaProject;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.BuildMetrics;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.BuildMetrics.Phase;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
 import org.jboss.tools.ws.jaxrs.core.metamodel.JaxrsMetamodelDelta;
 
-/** @author xcoulon */
+/**
+ * Job that updates the JAX-RS Metamodels after Java elements changed (mainly, after each reconcile of a compilation
+ * unit opened in an editor). The events are queued by the {@link JavaElementChangedListener} and processed after a
+ * short delay, so that the successive reconciles that occur while the user is typing are coalesced (see
+ * {@link JavaElementDeltaCoalescer}) and processed at once, outside of the JDT notification thread. A run that has not
+ * started to update the metamodels yet is cancelled when new events arrive, and its work is resumed by the next run.
+ *
+ * @author xcoulon
+ */
 public class JavaElementChangedBuildJob extends Job {
 
+	/**
+	 * Name of the system property to configure the delay (in milliseconds) during which successive Java element
+	 * changes are coalesced.
+	 */
+	public static final String DELAY_PROPERTY = "org.jboss.tools.ws.jaxrs.core.javaChangesDelay"; //$NON-NLS-1$
+
+	/** Default delay (in milliseconds) during which successive Java element changes are coalesced. */
+	private static final long DEFAULT_DELAY = 300;
+
+	private final long delay = Long.getLong(DELAY_PROPERTY, DEFAULT_DELAY);
+
 	private final JavaElementChangedProcessor javaElementChangedProcessor = new JavaElementChangedProcessor();
 
 	private final JaxrsMetamodelChangedProcessor jaxrsElementChangedProcessor = new JaxrsMetamodelChangedProcessor();
 
-	private final ElementChangedEvent event;
-	
-	public JavaElementChangedBuildJob(final ElementChangedEvent event) {
+	private final JavaElementDeltaCoalescer javaElementDeltaCoalescer = new JavaElementDeltaCoalescer();
+
+	/** The events that were received but not scanned yet, in the order in which they were received. */
+	private final LinkedList<ElementChangedEvent> pendingEvents = new LinkedList<ElementChangedEvent>();
+
+	/** The deltas that were scanned during a run that was cancelled, and which remain to be processed. */
+	private final List<JavaElementDelta> pendingDeltas = new ArrayList<JavaElementDelta>();
+
+	/**
+	 * Indicates if the current run is updating the metamodels, in which case it should not be cancelled anymore.
+	 * Guarded by {@link JavaElementChangedBuildJob#processingLock}, so that a superseded run is either cancelled
+	 * before it starts processing, or not at all.
+	 */
+	private boolean processing = false;
+
+	private final Object processingLock = new Object();
+
+	public JavaElementChangedBuildJob() {
 		super("Incremental JAX-RS Metamodel build..."); //$NON-NLS-1$
-		this.event = event;
+		setSystem(true);
+		setPriority(Job.SHORT);
+	}
+
+	public JavaElementChangedBuildJob(final ElementChangedEvent event) {
+		this();
 		Logger.debug("Initiating an incremental JAX-RS Metamodel build after " + event); //$NON-NLS-1$
+		synchronized (pendingEvents) {
+			pendingEvents.add(event);
+		}
 	}
-	
+
+	/**
+	 * Queues the given event and (re)schedules this job after the coalescing delay. If this job is currently running
+	 * but has not started to update the metamodels yet, it is cancelled, since the next run will take care of its
+	 * changes, too.
+	 *
+	 * @param event
+	 *            the Java element changed event
+	 */
+	public void enqueue(final ElementChangedEvent event) {
+		Logger.debug("Queuing an incremental JAX-RS Metamodel build after " + event); //$NON-NLS-1$
+		synchronized (pendingEvents) {
+			pendingEvents.add(event);
+		}
+		synchronized (processingLock) {
+			if (getState() == Job.RUNNING && !processing) {
+				Logger.debug("Cancelling superseded incremental JAX-RS Metamodel build"); //$NON-NLS-1$
+				cancel();
+			}
+		}
+		schedule(delay);
+	}
+
+	/**
+	 * Processes the pending events immediately, in the current thread.
+	 */
 	public void execute() {
 		run(new NullProgressMonitor());
 	}
-	
+
 	@Override
 	protected IStatus run(final IProgressMonitor progressMonitor) {
+		final List<JavaElementDelta> affectedJavaElements = new ArrayList<JavaElementDelta>();
+		ISchedulingRule rule = null;
 		try {
 			progressMonitor.beginTask("Building JAX-RS Metamodel", 4 * SCALE);
 			progressMonitor.worked(SCALE);
 			Logger.debug("Building JAX-RS Metamodel after Java element changed...");
-			if (progressMonitor.isCanceled()) {
-				return Status.CANCEL_STATUS;
+			// resume the work of the previous (cancelled) run, if any
+			synchronized (pendingDeltas) {
+				affectedJavaElements.addAll(pendingDeltas);
+				pendingDeltas.clear();
 			}
-			// scan and filter delta, retrieve a list of java changes
-			final List<JavaElementDelta> affectedJavaElements = new JavaElementDeltaScanner().scanAndFilterEvent(event,
-					new SubProgressMonitor(progressMonitor, SCALE));
-			if (progressMonitor.isCanceled()) {
-				return Status.CANCEL_STATUS;
+			// scan and filter all events in the order in which they were received, since each scan compares the
+			// compilation unit AST with the one of the previous scan.
+			for (ElementChangedEvent event = pollEvent(); event != null; event = pollEvent()) {
+				affectedJavaElements.addAll(scanEvent(event));
 			}
-			final List<JaxrsMetamodelDelta> affectedMetamodels = javaElementChangedProcessor.processAffectedJavaElements(affectedJavaElements,
-					new SubProgressMonitor(progressMonitor, SCALE));
-			if (progressMonitor.isCanceled()) {
-				return Status.CANCEL_STATUS;
+			progressMonitor.worked(SCALE);
+			// from now on, the metamodels are going to be updated: the job should not be cancelled anymore
+			synchronized (processingLock) {
+				if (progressMonitor.isCanceled()) {
+					synchronized (pendingDeltas) {
+						pendingDeltas.addAll(0, affectedJavaElements);
+					}
+					return Status.CANCEL_STATUS;
+				}
+				processing = true;
+			}
+			// the processors are given a monitor that ignores cancellation, since stopping halfway would leave the
+			// metamodels partially updated
+			final IProgressMonitor processingMonitor = new UncancellableProgressMonitor(progressMonitor);
+			final List<JavaElementDelta> coalescedJavaElements = javaElementDeltaCoalescer
+					.coalesce(affectedJavaElements);
+			Logger.debug("Coalesced {} Java element change(s) into {}", affectedJavaElements.size(),
+					coalescedJavaElements.size());
+			if (coalescedJavaElements.isEmpty()) {
+				return Status.OK_STATUS;
 			}
-			jaxrsElementChangedProcessor.processAffectedMetamodels(affectedMetamodels, new SubProgressMonitor(
-					progressMonitor, SCALE));
-			if (progressMonitor.isCanceled()) {
-				return Status.CANCEL_STATUS;
+			rule = getSchedulingRule(coalescedJavaElements);
+			if (rule != null) {
+				// not using the progress monitor here, since it may have been cancelled in the mean time
+				Job.getJobManager().beginRule(rule, new NullProgressMonitor());
 			}
-			new JaxrsElementChangedPublisher().publish(affectedMetamodels, new SubProgressMonitor(progressMonitor,
-					SCALE));
+			// process the changes project by project, so that the build metrics are attributed to each of them
+			final Map<IProject, List<JavaElementDelta>> deltasPerProject = groupByProject(coalescedJavaElements);
+			final IProgressMonitor projectsMonitor = new SubProgressMonitor(processingMonitor, 2 * SCALE);
+			projectsMonitor.beginTask("Processing Java changes", 2 * deltasPerProject.size());
+			for (Entry<IProject, List<JavaElementDelta>> entry : deltasPerProject.entrySet()) {
+				process(entry.getKey(), entry.getValue(), projectsMonitor);
+			}
+			projectsMonitor.done();
 		} catch (Throwable e) {
 			Logger.error("Failed to build or refresh the JAX-RS metamodel", e);
 		} finally {
+			if (rule != null) {
+				Job.getJobManager().endRule(rule);
+			}
+			synchronized (processingLock) {
+				processing = false;
+			}
 			progressMonitor.done();
 		}
 		return Status.OK_STATUS;
 	}
+
+	/**
+	 * Scans the given event, attributing the scan to the project of the changed element, if any.
+	 *
+	 * @param event
+	 *            the event to scan
+	 * @return the relevant Java element changes
+	 * @throws CoreException
+	 */
+	private static List<JavaElementDelta> scanEvent(final ElementChangedEvent event) throws CoreException {
+		final BuildMetrics metrics = BuildMetrics.getInstance();
+		final IJavaProject javaProject = event.getDelta().getElement().getJavaProject();
+		if (javaProject != null) {
+			metrics.bindProject(javaProject.getProject());
+		}
+		final long startTime = System.nanoTime();
+		try {
+			return new JavaElementDeltaScanner().scanAndFilterEvent(event, new NullProgressMonitor());
+		} finally {
+			metrics.record(Phase.DELTA_SCAN, startTime);
+			metrics.unbindProject();
+		}
+	}
+
+	/**
+	 * Updates the metamodel of the given project after the given Java element changes, and records the build
+	 * metrics of that project.
+	 *
+	 * @param project
+	 *            the project, or null if the changes do not belong to a Java project
+	 * @param deltas
+	 *            the changes in the project
+	 * @param progressMonitor
+	 *            the progress monitor
+	 */
+	private void process(final IProject project, final List<JavaElementDelta> deltas,
+			final IProgressMonitor progressMonitor) {
+		final BuildMetrics metrics = BuildMetrics.getInstance();
+		final long startTime = System.nanoTime();
+		if (project != null) {
+			metrics.startBuild(project);
+		}
+		try {
+			long phaseStartTime = System.nanoTime();
+			final List<JaxrsMetamodelDelta> affectedMetamodels = javaElementChangedProcessor
+					.processAffectedJavaElements(deltas, new SubProgressMonitor(progressMonitor, 1));
+			metrics.record(Phase.JAVA_ELEMENTS_PROCESSING, phaseStartTime);
+			for (JaxrsMetamodelDelta metamodelDelta : affectedMetamodels) {
+				ResourceChangedBuildJob.countAffectedElements(metamodelDelta);
+			}
+			phaseStartTime = System.nanoTime();
+			jaxrsElementChangedProcessor.processAffectedMetamodels(affectedMetamodels, new NullProgressMonitor());
+			metrics.record(Phase.METAMODEL_PROCESSING, phaseStartTime);
+			phaseStartTime = System.nanoTime();
+			new JaxrsElementChangedPublisher().publish(affectedMetamodels, new SubProgressMonitor(progressMonitor, 1));
+			metrics.record(Phase.PUBLISHING, phaseStartTime);
+		} finally {
+			metrics.record(Phase.TOTAL, startTime);
+			if (project != null) {
+				metrics.endBuild();
+			}
+		}
+	}
+
+	/**
+	 * Groups the given deltas by project, keeping their order within each project.
+	 *
+	 * @param deltas
+	 *            the deltas
+	 * @return the deltas, indexed by project (the null key holds the deltas that do not belong to a Java project)
+	 */
+	private static Map<IProject, List<JavaElementDelta>> groupByProject(final List<JavaElementDelta> deltas) {
+		final Map<IProject, List<JavaElementDelta>> deltasPerProject = new LinkedHashMap<IProject, List<JavaElementDelta>>();
+		for (JavaElementDelta delta : deltas) {
+			final IJavaProject javaProject = delta.getElement().getJavaProject();
+			final IProject project = javaProject != null ? javaProject.getProject() : null;
+			List<JavaElementDelta> projectDeltas = deltasPerProject.get(project);
+			if (projectDeltas == null) {
+				projectDeltas = new ArrayList<JavaElementDelta>();
+				deltasPerProject.put(project, projectDeltas);
+			}
+			projectDeltas.add(delta);
+		}
+		return deltasPerProject;
+	}
+
+	/**
+	 * @return the next pending event, or null if there is none
+	 */
+	private ElementChangedEvent pollEvent() {
+		synchronized (pendingEvents) {
+			return pendingEvents.poll();
+		}
+	}
+
+	/**
+	 * Returns the build scheduling rules of the projects affected by the given deltas, so that their metamodels are
+	 * not updated concurrently by a {@link ResourceChangedBuildJob}. The rule is only needed when running as a job
+	 * (ie, not during an immediate {@link JavaElementChangedBuildJob#execute()}), since the calling thread may already
+	 * own another rule.
+	 *
+	 * @param deltas
+	 *            the deltas to process
+	 * @return the rule to acquire, or null if none is needed
+	 */
+	private ISchedulingRule getSchedulingRule(final List<JavaElementDelta> deltas) {
+		if (Job.getJobManager().currentJob() != this) {
+			return null;
+		}
+		final Set<IProject> projects = new LinkedHashSet<IProject>();
+		for (JavaElementDelta delta : deltas) {
+			final IJavaProject javaProject = delta.getElement().getJavaProject();
+			if (javaProject != null) {
+				projects.add(javaProject.getProject());
+			}
+		}
+		if (projects.isEmpty()) {
+			return null;
+		}
+		final List<ISchedulingRule> rules = new ArrayList<ISchedulingRule>();
+		for (IProject project : projects) {
+			rules.add(new ProjectBuildSchedulingRule(project));
+		}
+		return MultiRule.combine(rules.toArray(new ISchedulingRule[rules.size()]));
+	}
+
+	/**
+	 * Progress monitor that reports progress to the given monitor, but is never cancelled.
+	 */
+	private static class UncancellableProgressMonitor extends ProgressMonitorWrapper {
+
+		UncancellableProgressMonitor(final IProgressMonitor monitor) {
+			super(monitor);
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return false;
+		}
+
+		@Override
+		public void setCanceled(final boolean canceled) {
+			// ignored
+		}
+	}
 }
@@ -28,13 +28,17 @@ import org.jboss.tools.ws.jaxrs.core.configuration.ProjectNatureUtils;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
 
 /**
- * Listens to all change events (Java elements and resources) and triggers a new job for each change.<br>
+ * Listens to all change events (Java elements and resources) and queues them in a job that coalesces the successive
+ * changes before updating the metamodel, outside of the notification thread.<br>
  * Yet, it avoids trigger new Jobs for high level changes (JavaModel, WorkspaceRoot, etc.)
  * 
  * @author xcoulon
  */
 public class JavaElementChangedListener implements IElementChangedListener {
 
+	/** The job that processes the queued changes. */
+	private final JavaElementChangedBuildJob buildJob = new JavaElementChangedBuildJob();
+
 	/**
 	 * {@inheritDoc} (non-Javadoc)
 	 * 
@@ -45,11 +49,7 @@ public class JavaElementChangedListener implements IElementChangedListener {
 		try {
 			if (isApplicable(event.getDelta())) {
 				logDelta(event.getDelta(), event.getType());
-				JavaElementChangedBuildJob job = new JavaElementChangedBuildJob(event);
-				job.execute(); // not using this class as a job, just calling the execute() method for immediate execution.
-				/*job.setRule(MutexJobSchedulingRule.getInstance());
-				job.schedule();*/
-				//job.join();
+				buildJob.enqueue(event);
 			}
 		} catch (CoreException e) {
 			Logger.error("Failed to process Java Element change", e);
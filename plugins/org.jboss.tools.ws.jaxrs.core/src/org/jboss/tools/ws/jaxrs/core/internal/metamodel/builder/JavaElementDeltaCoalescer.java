@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder;
+
+import static org.eclipse.jdt.core.IJavaElementDelta.ADDED;
+import static org.eclipse.jdt.core.IJavaElementDelta.CHANGED;
+import static org.eclipse.jdt.core.IJavaElementDelta.REMOVED;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.jboss.tools.ws.jaxrs.core.jdt.JdtUtils;
+
+/**
+ * Merges the {@link JavaElementDelta}s that were collected over several consecutive Java element change events (eg:
+ * successive reconciles of the same compilation unit while the user is typing), so that the JAX-RS Metamodel is
+ * updated once with the net result of all changes:
+ * <ul>
+ * <li>successive changes on the same element are merged into a single change, with all their flags,</li>
+ * <li>an element that was added then changed is reported as added,</li>
+ * <li>an element that was changed then removed is reported as removed,</li>
+ * <li>an element that was added then removed is not reported at all.</li>
+ * </ul>
+ * Besides, all remaining deltas on a given compilation unit are bound to the most recent AST of that compilation unit,
+ * since that is the one that reflects the current state of the code.
+ */
+public class JavaElementDeltaCoalescer {
+
+	/**
+	 * Coalesces the given deltas.
+	 *
+	 * @param deltas
+	 *            the deltas, in the order in which they occurred
+	 * @return the coalesced deltas, in the order of their first occurrence
+	 */
+	public List<JavaElementDelta> coalesce(final List<JavaElementDelta> deltas) {
+		// latest AST for each compilation unit
+		final Map<String, CompilationUnit> latestASTs = new HashMap<String, CompilationUnit>();
+		// slots for the coalesced deltas (null slots are discarded deltas), and last slot for each element
+		final List<JavaElementDelta> slots = new ArrayList<JavaElementDelta>(deltas.size());
+		final Map<String, Integer> lastSlots = new HashMap<String, Integer>();
+		for (JavaElementDelta delta : deltas) {
+			final String compilationUnitKey = getCompilationUnitKey(delta);
+			if (compilationUnitKey != null && delta.getCompilationUnitAST() != null) {
+				latestASTs.put(compilationUnitKey, delta.getCompilationUnitAST());
+			}
+			final String key = delta.getElement().getHandleIdentifier();
+			final Integer lastSlot = lastSlots.get(key);
+			final JavaElementDelta previousDelta = (lastSlot != null) ? slots.get(lastSlot) : null;
+			if (previousDelta == null) {
+				lastSlots.put(key, slots.size());
+				slots.add(delta);
+				continue;
+			}
+			if (!merge(slots, lastSlot, previousDelta, delta)) {
+				// cannot be merged: keep both, in order
+				lastSlots.put(key, slots.size());
+				slots.add(delta);
+			} else if (slots.get(lastSlot) == null) {
+				lastSlots.remove(key);
+			}
+		}
+		final List<JavaElementDelta> coalescedDeltas = new LinkedList<JavaElementDelta>();
+		for (JavaElementDelta delta : slots) {
+			if (delta == null) {
+				continue;
+			}
+			final CompilationUnit latestAST = latestASTs.get(getCompilationUnitKey(delta));
+			if (delta.getDeltaKind() != REMOVED && latestAST != null && delta.getCompilationUnitAST() != latestAST) {
+				coalescedDeltas.add(new JavaElementDelta(delta.getElement(), delta.getDeltaKind(),
+						delta.getEventType(), latestAST, delta.getFlags()));
+			} else {
+				coalescedDeltas.add(delta);
+			}
+		}
+		return coalescedDeltas;
+	}
+
+	/**
+	 * Merges the given delta into the previous delta on the same element.
+	 *
+	 * @param slots
+	 *            the coalesced deltas so far
+	 * @param slot
+	 *            the slot of the previous delta, which is replaced with the merged delta, or with null if both deltas
+	 *            cancel each other
+	 * @param previousDelta
+	 *            the previous delta
+	 * @param delta
+	 *            the current delta
+	 * @return true if the deltas were merged, false if both must be kept
+	 */
+	private static boolean merge(final List<JavaElementDelta> slots, final int slot,
+			final JavaElementDelta previousDelta, final JavaElementDelta delta) {
+		final int previousKind = previousDelta.getDeltaKind();
+		final int kind = delta.getDeltaKind();
+		if (previousKind == ADDED && kind == REMOVED) {
+			slots.set(slot, null);
+			return true;
+		}
+		if (previousKind == ADDED && kind == CHANGED) {
+			return true;
+		}
+		if (previousKind == CHANGED && kind == REMOVED) {
+			slots.set(slot, delta);
+			return true;
+		}
+		if (previousKind == CHANGED && kind == CHANGED) {
+			slots.set(slot, new JavaElementDelta(delta.getElement(), CHANGED, delta.getEventType(),
+					delta.getCompilationUnitAST(), previousDelta.getFlags() | delta.getFlags()));
+			return true;
+		}
+		// duplicate delta
+		return previousKind == kind && previousDelta.getFlags() == delta.getFlags();
+	}
+
+	/**
+	 * @return the handle identifier of the compilation unit of the given delta's element, or null if the element is
+	 *         not part of a compilation unit.
+	 */
+	private static String getCompilationUnitKey(final JavaElementDelta delta) {
+		final ICompilationUnit compilationUnit = JdtUtils.getCompilationUnit(delta.getElement());
+		return (compilationUnit != null) ? compilationUnit.getHandleIdentifier() : null;
+	}
+}
@@ -11,18 +11,20 @@
 
 package org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder;
 
+import java.util.List;
 import java.util.Map;
 
-import org.eclipse.core.internal.events.ResourceChangeEvent;
 import org.eclipse.core.resources.IProject;
-import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.core.runtime.jobs.Job;
 import org.jboss.tools.ws.jaxrs.core.JBossJaxrsCorePlugin;
 import org.jboss.tools.ws.jaxrs.core.configuration.ProjectNatureUtils;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodelSnapshot;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.ConstantUtils;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
 
@@ -35,7 +37,6 @@ import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
  * 
  * @author xcoulon
  */
-@SuppressWarnings("restriction")
 public class JaxrsMetamodelBuilder extends IncrementalProjectBuilder {
 
 	public static final int SCALE = 10;
@@ -69,6 +70,15 @@ public class JaxrsMetamodelBuilder extends IncrementalProjectBuilder {
 		return new IProject[] { project };
 	}
 
+	/**
+	 * Discards the snapshot of the project's JAX-RS Metamodel, so that the next build does not restore it.
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void clean(final IProgressMonitor monitor) throws CoreException {
+		JaxrsMetamodelSnapshot.discard(getProject());
+	}
+
 	/**
 	 * Checks if the running operation was cancelled by the user, as reported by the progress monitor.
 	 * 
@@ -85,18 +95,31 @@ public class JaxrsMetamodelBuilder extends IncrementalProjectBuilder {
 
 	/**
 	 * Performs a full build of the project's JAX-RS Metamodel. This method has a public visibility so that it can be
-	 * called from other components
+	 * called from other components.
+	 * 
+	 * The resources affected by the build are extracted here, while the builder delta is still valid. The build itself
+	 * is performed in a separate job, whose scheduling rule only conflicts with builds of the same project or of
+	 * related projects. When this builder is invoked as part of a workspace build (auto or manual), the job is not
+	 * waited for here, so that the metamodels of unrelated projects are built concurrently. Otherwise (eg: explicit
+	 * call to {@link IProject#build(int, IProgressMonitor)}), this method waits until the metamodel is built.
 	 * 
 	 * @param project
 	 *            the project
 	 * @param progressMonitor
 	 *            the progress monitor
+	 * @throws CoreException
 	 */
-	private void build(final int buildKind, final IProject project, final IProgressMonitor progressMonitor) {
+	private void build(final int buildKind, final IProject project, final IProgressMonitor progressMonitor)
+			throws CoreException {
 		Logger.info("Building JAX-RS metamodel for project " + project.getName());
-		ResourceChangedBuildJob job = new ResourceChangedBuildJob(project, getResourceChangeEvent(project, buildKind));
-		job.setRule(MutexJobSchedulingRule.getInstance());
+		final List<ResourceDelta> affectedResources = ResourceChangedBuildJob.extractAffectedResources(project,
+				getDelta(project), progressMonitor);
+		checkCancel(progressMonitor);
+		final ResourceChangedBuildJob job = new ResourceChangedBuildJob(project, buildKind, affectedResources);
 		job.schedule();
+		if (isWorkspaceBuild()) {
+			return;
+		}
 		try {
 			job.join();
 		} catch (InterruptedException e) {
@@ -105,8 +128,14 @@ public class JaxrsMetamodelBuilder extends IncrementalProjectBuilder {
 
 	}
 
-	private ResourceChangeEvent getResourceChangeEvent(final IProject project, final int buildKind) {
-		return new ResourceChangeEvent(project, IResourceChangeEvent.POST_CHANGE, buildKind, getDelta(project));
+	/**
+	 * @return true if this builder is currently running in a workspace build job (auto or manual), false otherwise.
+	 */
+	private static boolean isWorkspaceBuild() {
+		final Job currentJob = Job.getJobManager().currentJob();
+		return currentJob != null
+				&& (currentJob.belongsTo(ResourcesPlugin.FAMILY_AUTO_BUILD) || currentJob
+						.belongsTo(ResourcesPlugin.FAMILY_MANUAL_BUILD));
 	}
 
 	/**
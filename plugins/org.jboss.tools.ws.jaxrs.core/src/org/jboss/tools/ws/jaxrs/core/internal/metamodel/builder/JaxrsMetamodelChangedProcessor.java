@@ -39,7 +39,6 @@ import org.jboss.tools.ws.jaxrs.core.metamodel.EnumElementCategory;
 import org.jboss.tools.ws.jaxrs.core.metamodel.EnumElementKind;
 import org.jboss.tools.ws.jaxrs.core.metamodel.IJaxrsApplication;
 import org.jboss.tools.ws.jaxrs.core.metamodel.IJaxrsElement;
-import org.jboss.tools.ws.jaxrs.core.metamodel.IJaxrsResource;
 import org.jboss.tools.ws.jaxrs.core.metamodel.IJaxrsResourceMethod;
 import org.jboss.tools.ws.jaxrs.core.metamodel.JaxrsEndpointDelta;
 import org.jboss.tools.ws.jaxrs.core.metamodel.JaxrsMetamodelDelta;
@@ -206,22 +205,16 @@ public class JaxrsMetamodelChangedProcessor {
 		if(resourceType != null) {
 			final ITypeHierarchy returnTypeHierarchy = JdtUtils.resolveTypeHierarchy(resourceType,
 					resourceType.getJavaProject(), false, progressMonitor);
-			final List<String> supertypesHandlers = extractHandlers(returnTypeHierarchy.getAllSupertypes(resourceType));
-			for (IJaxrsResource otherResource : metamodel.getAllResources()) {
-				if (((JaxrsResource) otherResource).isRootResource()) {
-					for (JaxrsResourceMethod otherResourceMethod : ((JaxrsResource) otherResource).getMethods()
-							.values()) {
-						if (otherResourceMethod.getElementKind() == EnumElementKind.SUBRESOURCE_LOCATOR) {
-							final String returnTypeHandler = (otherResourceMethod.getReturnedType() != null) ? otherResourceMethod
-									.getReturnedType().getHandleIdentifier() : null;
-							if (returnTypeHandler != null && supertypesHandlers.contains(returnTypeHandler)) {
-								final LinkedList<JaxrsResourceMethod> resourceMethods = new LinkedList<JaxrsResourceMethod>(
-										Arrays.asList(otherResourceMethod, resourceMethod));
-								final JaxrsEndpoint endpoint = new JaxrsEndpoint(metamodel, httpMethod, resourceMethods);
-								if (metamodel.add(endpoint)) {
-									changes.add(new JaxrsEndpointDelta(endpoint, ADDED));
-								}
-							}
+			// lookup the subresource locators by their returned type rather than iterating over all resources
+			for (IType supertype : returnTypeHierarchy.getAllSupertypes(resourceType)) {
+				for (JaxrsResourceMethod subresourceLocator : metamodel.getSubresourceLocators(supertype)) {
+					final JaxrsResource otherResource = subresourceLocator.getParentResource();
+					if (otherResource != null && otherResource.isRootResource()) {
+						final LinkedList<JaxrsResourceMethod> resourceMethods = new LinkedList<JaxrsResourceMethod>(
+								Arrays.asList(subresourceLocator, resourceMethod));
+						final JaxrsEndpoint endpoint = new JaxrsEndpoint(metamodel, httpMethod, resourceMethods);
+						if (metamodel.add(endpoint)) {
+							changes.add(new JaxrsEndpointDelta(endpoint, ADDED));
 						}
 					}
 				}
@@ -252,29 +245,28 @@ public class JaxrsMetamodelChangedProcessor {
 			final ITypeHierarchy returnTypeHierarchy = JdtUtils
 					.resolveTypeHierarchy(returnType, returnType.getJavaProject(), false, progressMonitor);
 			if (returnTypeHierarchy != null) {
-				final List<String> subtypesHandlers = extractHandlers(returnTypeHierarchy.getAllSubtypes(returnType));
-				for (Iterator<IJaxrsResource> iterator = metamodel.getAllResources().iterator(); iterator.hasNext();) {
-					JaxrsResource resource = (JaxrsResource) iterator.next();
-					if (resource.isSubresource()) {
-						final String resourceHandleIdentifier = resource.getJavaElement().getHandleIdentifier();
-						if (resourceHandleIdentifier.equals(returnType.getHandleIdentifier())
-								|| subtypesHandlers.contains(resourceHandleIdentifier)) {
-							for (JaxrsResourceMethod resourceMethod : resource.getMethods().values()) {
-								switch (resourceMethod.getElementKind()) {
-								case RESOURCE_METHOD:
-								case SUBRESOURCE_METHOD:
-									final JaxrsHttpMethod httpMethod = metamodel.getHttpMethod(resourceMethod
-											.getHttpMethodAnnotation());
-									final LinkedList<JaxrsResourceMethod> resourceMethods = new LinkedList<JaxrsResourceMethod>(
-											Arrays.asList(subresourceLocator, resourceMethod));
-									final JaxrsEndpoint endpoint = new JaxrsEndpoint(metamodel, httpMethod,
-											resourceMethods);
-									if (metamodel.add(endpoint)) {
-										changes.add(new JaxrsEndpointDelta(endpoint, ADDED));
-									}
+				// lookup the resources by their java type rather than iterating over all resources
+				final List<IType> matchingTypes = new ArrayList<IType>();
+				matchingTypes.add(returnType);
+				matchingTypes.addAll(Arrays.asList(returnTypeHierarchy.getAllSubtypes(returnType)));
+				for (IType matchingType : matchingTypes) {
+					final JaxrsResource resource = metamodel.getResource(matchingType);
+					if (resource != null && resource.isSubresource()) {
+						for (JaxrsResourceMethod resourceMethod : resource.getMethods().values()) {
+							switch (resourceMethod.getElementKind()) {
+							case RESOURCE_METHOD:
+							case SUBRESOURCE_METHOD:
+								final JaxrsHttpMethod httpMethod = metamodel.getHttpMethod(resourceMethod
+										.getHttpMethodAnnotation());
+								final LinkedList<JaxrsResourceMethod> resourceMethods = new LinkedList<JaxrsResourceMethod>(
+										Arrays.asList(subresourceLocator, resourceMethod));
+								final JaxrsEndpoint endpoint = new JaxrsEndpoint(metamodel, httpMethod,
+										resourceMethods);
+								if (metamodel.add(endpoint)) {
+									changes.add(new JaxrsEndpointDelta(endpoint, ADDED));
 								}
-								break;
 							}
+							break;
 						}
 					}
 				}
@@ -283,14 +275,6 @@ public class JaxrsMetamodelChangedProcessor {
 		return changes;
 	}
 
-	private List<String> extractHandlers(final IType[] supertypes) {
-		final List<String> supertypesHandlers = new ArrayList<String>();
-		for (IType supertype : supertypes) {
-			supertypesHandlers.add(supertype.getHandleIdentifier());
-		}
-		return supertypesHandlers;
-	}
-
 	private List<JaxrsEndpointDelta> processChange(final IJaxrsApplication application, int flags) {
 		final List<JaxrsEndpointDelta> changes = new ArrayList<JaxrsEndpointDelta>();
 		final JaxrsMetamodel metamodel = (JaxrsMetamodel) application.getMetamodel();
@@ -341,44 +325,37 @@ public class JaxrsMetamodelChangedProcessor {
 	private List<JaxrsEndpointDelta> processChange(final JaxrsResourceMethod changedResourceMethod, int flags)
 			throws CoreException {
 		final List<JaxrsEndpointDelta> changes = new ArrayList<JaxrsEndpointDelta>();
+		final JaxrsMetamodel metamodel = changedResourceMethod.getMetamodel();
 		if ((flags & F_ELEMENT_KIND) > 0) {
 			// remove endpoints using this resoureMethod:
-			for (Iterator<JaxrsEndpoint> iterator = changedResourceMethod.getMetamodel().getEndpoints().iterator(); iterator
-					.hasNext();) {
-				JaxrsEndpoint endpoint = iterator.next();
-				if (endpoint.match(changedResourceMethod)) {
-					iterator.remove();
-					changes.add(new JaxrsEndpointDelta(endpoint, REMOVED));
-				}
+			for (JaxrsEndpoint endpoint : metamodel.getEndpoints(changedResourceMethod)) {
+				metamodel.remove(endpoint);
+				changes.add(new JaxrsEndpointDelta(endpoint, REMOVED));
 			}
 			// create endpoints using this resourceMethod:
 			changes.addAll(processAddition(changedResourceMethod));
 		} else if (changedResourceMethod.getElementKind() == EnumElementKind.SUBRESOURCE_LOCATOR
 				&& (flags & F_METHOD_RETURN_TYPE) > 0) {
 
-			for (Iterator<JaxrsEndpoint> endpointIterator = changedResourceMethod.getMetamodel().getEndpoints()
-					.iterator(); endpointIterator.hasNext();) {
-				JaxrsEndpoint endpoint = endpointIterator.next();
-				if (endpoint.match(changedResourceMethod)) {
-					for (Iterator<IJaxrsResourceMethod> resourceMethodIterator = endpoint.getResourceMethods()
-							.iterator(); resourceMethodIterator.hasNext();) {
-						JaxrsResourceMethod endpointResourceMethod = (JaxrsResourceMethod) resourceMethodIterator
+			for (JaxrsEndpoint endpoint : metamodel.getEndpoints(changedResourceMethod)) {
+				for (Iterator<IJaxrsResourceMethod> resourceMethodIterator = endpoint.getResourceMethods()
+						.iterator(); resourceMethodIterator.hasNext();) {
+					JaxrsResourceMethod endpointResourceMethod = (JaxrsResourceMethod) resourceMethodIterator
+							.next();
+					if (endpointResourceMethod.equals(changedResourceMethod)) {
+						IType returnType = endpointResourceMethod.getReturnedType();
+						JaxrsResourceMethod nextEndpointResourceMethod = (JaxrsResourceMethod) resourceMethodIterator
 								.next();
-						if (endpointResourceMethod.equals(changedResourceMethod)) {
-							IType returnType = endpointResourceMethod.getReturnedType();
-							JaxrsResourceMethod nextEndpointResourceMethod = (JaxrsResourceMethod) resourceMethodIterator
-									.next();
-							IType nextEndpointResourceMethodType = (IType) nextEndpointResourceMethod.getJavaElement()
-									.getParent();
-							boolean match = JdtUtils.isTypeOrSuperType(returnType, nextEndpointResourceMethodType);
-							if (!match) {
-								endpointIterator.remove();
-								changes.add(new JaxrsEndpointDelta(endpoint, REMOVED));
-								// stop the iteration over the resourceMethods
-								// of the current endpoint, in order to move to
-								// the next one.
-								break;
-							}
+						IType nextEndpointResourceMethodType = (IType) nextEndpointResourceMethod.getJavaElement()
+								.getParent();
+						boolean match = JdtUtils.isTypeOrSuperType(returnType, nextEndpointResourceMethodType);
+						if (!match) {
+							metamodel.remove(endpoint);
+							changes.add(new JaxrsEndpointDelta(endpoint, REMOVED));
+							// stop the iteration over the resourceMethods
+							// of the current endpoint, in order to move to
+							// the next one.
+							break;
 						}
 					}
 				}
@@ -388,15 +365,11 @@ public class JaxrsMetamodelChangedProcessor {
 		}
 		// simply refresh all endpoints using this resourceMethod
 		else {
-			for (Iterator<JaxrsEndpoint> iterator = changedResourceMethod.getMetamodel().getEndpoints().iterator(); iterator
-					.hasNext();) {
-				JaxrsEndpoint endpoint = iterator.next();
-				if (endpoint.match(changedResourceMethod)) {
-					// refresh the endpoint after the changes
-					endpoint.refresh(changedResourceMethod, flags);
-					// check if the endpoint is still valid:
-					changes.add(new JaxrsEndpointDelta(endpoint, CHANGED));
-				}
+			for (JaxrsEndpoint endpoint : metamodel.getEndpoints(changedResourceMethod)) {
+				// refresh the endpoint after the changes
+				endpoint.refresh(changedResourceMethod, flags);
+				// check if the endpoint is still valid:
+				changes.add(new JaxrsEndpointDelta(endpoint, CHANGED));
 			}
 		}
 		return changes;
@@ -404,10 +377,10 @@ public class JaxrsMetamodelChangedProcessor {
 
 	private List<JaxrsEndpointDelta> processRemoval(final JaxrsHttpMethod httpMethod) {
 		final List<JaxrsEndpointDelta> changes = new ArrayList<JaxrsEndpointDelta>();
-		for (Iterator<JaxrsEndpoint> iterator = httpMethod.getMetamodel().getEndpoints().iterator(); iterator.hasNext();) {
-			JaxrsEndpoint endpoint = iterator.next();
+		final JaxrsMetamodel metamodel = httpMethod.getMetamodel();
+		for (JaxrsEndpoint endpoint : metamodel.getEndpoints()) {
 			if (endpoint.match(httpMethod)) {
-				iterator.remove();
+				metamodel.remove(endpoint);
 				changes.add(new JaxrsEndpointDelta(endpoint, REMOVED));
 			}
 		}
@@ -436,13 +409,10 @@ public class JaxrsMetamodelChangedProcessor {
 
 	private List<JaxrsEndpointDelta> processRemoval(final JaxrsResourceMethod resourceMethod) {
 		final List<JaxrsEndpointDelta> changes = new ArrayList<JaxrsEndpointDelta>();
-		for (Iterator<JaxrsEndpoint> iterator = resourceMethod.getMetamodel().getEndpoints().iterator(); iterator
-				.hasNext();) {
-			JaxrsEndpoint endpoint = (JaxrsEndpoint) iterator.next();
-			if (endpoint.match(resourceMethod)) {
-				iterator.remove();
-				changes.add(new JaxrsEndpointDelta(endpoint, REMOVED));
-			}
+		final JaxrsMetamodel metamodel = resourceMethod.getMetamodel();
+		for (JaxrsEndpoint endpoint : metamodel.getEndpoints(resourceMethod)) {
+			metamodel.remove(endpoint);
+			changes.add(new JaxrsEndpointDelta(endpoint, REMOVED));
 		}
 		return changes;
 	}
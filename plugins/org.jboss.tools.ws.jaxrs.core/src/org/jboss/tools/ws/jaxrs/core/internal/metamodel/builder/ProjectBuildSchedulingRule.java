@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
+
+/**
+ * Scheduling rule for the JAX-RS Metamodel build jobs. This rule only conflicts with the rules of the same project and
+ * of the projects it depends on (or that depend on it), so that the metamodels of unrelated projects can be built
+ * concurrently, while the metamodels of dependent projects are still built one after the other, in the order in which
+ * their jobs were scheduled.
+ */
+public class ProjectBuildSchedulingRule implements ISchedulingRule {
+
+	/** The project whose metamodel is being built. */
+	private final IProject project;
+
+	/** The projects that the project above depends on, directly or transitively. */
+	private final Set<IProject> requiredProjects;
+
+	/**
+	 * Full constructor
+	 *
+	 * @param project
+	 *            the project whose metamodel is being built
+	 */
+	public ProjectBuildSchedulingRule(final IProject project) {
+		this.project = project;
+		this.requiredProjects = new HashSet<IProject>();
+		collectRequiredProjects(project, requiredProjects);
+		requiredProjects.remove(project);
+	}
+
+	/**
+	 * Collects the projects that the given project depends on, either because they are referenced in the project
+	 * description or on the project's classpath.
+	 *
+	 * @param project
+	 *            the project to inspect
+	 * @param requiredProjects
+	 *            the projects collected so far
+	 */
+	private static void collectRequiredProjects(final IProject project, final Set<IProject> requiredProjects) {
+		if (!project.isAccessible()) {
+			return;
+		}
+		final Set<IProject> dependencies = new HashSet<IProject>();
+		try {
+			for (IProject referencedProject : project.getReferencedProjects()) {
+				dependencies.add(referencedProject);
+			}
+			final IJavaProject javaProject = JavaCore.create(project);
+			if (javaProject.exists()) {
+				for (String requiredProjectName : javaProject.getRequiredProjectNames()) {
+					dependencies.add(ResourcesPlugin.getWorkspace().getRoot().getProject(requiredProjectName));
+				}
+			}
+		} catch (CoreException e) {
+			Logger.warn("Failed to retrieve the projects that project '" + project.getName() + "' depends on", e);
+		}
+		for (IProject dependency : dependencies) {
+			if (requiredProjects.add(dependency)) {
+				collectRequiredProjects(dependency, requiredProjects);
+			}
+		}
+	}
+
+	/**
+	 * @return the project whose metamodel is being built
+	 */
+	public IProject getProject() {
+		return project;
+	}
+
+	@Override
+	public boolean contains(final ISchedulingRule rule) {
+		return rule == this
+				|| (rule instanceof ProjectBuildSchedulingRule && ((ProjectBuildSchedulingRule) rule).project
+						.equals(project));
+	}
+
+	@Override
+	public boolean isConflicting(final ISchedulingRule rule) {
+		if (rule == this) {
+			return true;
+		}
+		if (!(rule instanceof ProjectBuildSchedulingRule)) {
+			return false;
+		}
+		final ProjectBuildSchedulingRule otherRule = (ProjectBuildSchedulingRule) rule;
+		return otherRule.project.equals(project) || requiredProjects.contains(otherRule.project)
+				|| otherRule.requiredProjects.contains(project);
+	}
+
+	@Override
+	public String toString() {
+		return "ProjectBuildSchedulingRule(" + project.getName() + ")";
+	}
+
+}
@@ -10,24 +10,33 @@
  ******************************************************************************/
 package org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder;
 
+import static org.eclipse.jdt.core.IJavaElementDelta.ADDED;
 import static org.eclipse.jdt.core.IJavaElementDelta.CHANGED;
+import static org.eclipse.jdt.core.IJavaElementDelta.REMOVED;
 import static org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.JaxrsMetamodelBuilder.SCALE;
 
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.resources.IProject;
-import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.jobs.IJobManager;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.core.runtime.jobs.Job;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodelSnapshot;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.BuildMetrics;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.BuildMetrics.Counter;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.BuildMetrics.Phase;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
 import org.jboss.tools.ws.jaxrs.core.metamodel.JaxrsMetamodelDelta;
 import org.jboss.tools.ws.jaxrs.core.metamodel.JaxrsMetamodelLocator;
@@ -35,56 +44,152 @@ import org.jboss.tools.ws.jaxrs.core.metamodel.JaxrsMetamodelLocator;
 /** @author xcoulon */
 public class ResourceChangedBuildJob extends Job {
 
-	private final IResourceChangeEvent event;
+	/** The family of all JAX-RS Metamodel build jobs. */
+	public static final Object FAMILY = ResourceChangedBuildJob.class;
+
+	/**
+	 * Maximum number of JAX-RS Metamodel builds running concurrently. Builds of unrelated projects can run in parallel
+	 * (see {@link ProjectBuildSchedulingRule}), but not more than the number of available processors.
+	 */
+	private static final Semaphore BUILD_PERMITS = new Semaphore(Math.max(1, Runtime.getRuntime()
+			.availableProcessors()), true);
 
 	private final IProject project;
 
-	public ResourceChangedBuildJob(final IProject project, final IResourceChangeEvent event) {
+	/** The kind of build, as defined in {@link IncrementalProjectBuilder}. */
+	private final int buildKind;
+
+	/** The resources affected by this build, extracted while the builder delta was still valid. */
+	private final List<ResourceDelta> affectedResources;
+
+	/** The scheduling rule acquired once a build permit was obtained. */
+	private final ISchedulingRule buildRule;
+
+	/**
+	 * Full constructor.
+	 * 
+	 * @param project
+	 *            the project whose metamodel is built
+	 * @param buildKind
+	 *            the kind of build
+	 * @param affectedResources
+	 *            the affected resources, as returned by
+	 *            {@link ResourceChangedBuildJob#extractAffectedResources(IProject, IResourceDelta, IProgressMonitor)}
+	 */
+	public ResourceChangedBuildJob(final IProject project, final int buildKind,
+			final List<ResourceDelta> affectedResources) {
 		super("Incremental JAX-RS Metamodel build..."); //$NON-NLS-1$
-		this.event = event;
 		this.project = project;
-		Logger.debug("Initiating an incremental JAX-RS Metamodel build after " + event); //$NON-NLS-1$
+		this.buildKind = buildKind;
+		this.affectedResources = affectedResources;
+		this.buildRule = new ProjectBuildSchedulingRule(project);
+		Logger.debug("Initiating an incremental JAX-RS Metamodel build of project " + project.getName()
+				+ " with " + affectedResources.size() + " affected resource(s)"); //$NON-NLS-1$
+	}
+
+	/**
+	 * @return the project whose metamodel is built by this job
+	 */
+	public IProject getProject() {
+		return project;
 	}
 
+	@Override
+	public boolean belongsTo(final Object family) {
+		return family == FAMILY;
+	}
+
+	/**
+	 * Waits until all pending or running JAX-RS Metamodel build jobs on the given project are complete.
+	 * 
+	 * @param project
+	 *            the project
+	 * @throws InterruptedException
+	 */
+	public static void join(final IProject project) throws InterruptedException {
+		final IJobManager jobManager = Job.getJobManager();
+		final Job currentJob = jobManager.currentJob();
+		for (Job job : jobManager.find(FAMILY)) {
+			if (job != currentJob && ((ResourceChangedBuildJob) job).getProject().equals(project)) {
+				job.join();
+			}
+		}
+	}
+
+	/**
+	 * Waits for a build permit first, then for the {@link ProjectBuildSchedulingRule} of the project, so that a job
+	 * waiting for a permit never holds a rule that would block the builds of related projects.
+	 */
 	@Override
 	protected IStatus run(final IProgressMonitor progressMonitor) {
-		long startTime = new Date().getTime();
 		try {
-			progressMonitor.beginTask("Building JAX-RS Metamodel", 4 * SCALE);
-			Logger.debug("Building JAX-RS Metamodel after resource changed...");
-			if (progressMonitor.isCanceled()) {
-				return Status.CANCEL_STATUS;
+			while (!BUILD_PERMITS.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+				if (progressMonitor.isCanceled()) {
+					return Status.CANCEL_STATUS;
+				}
 			}
-			// extract the relevant delta bound to this built (some resources or entire project)
-			final List<ResourceDelta> affectedResources = extractAffectedResources(event.getDelta(), progressMonitor);
-			progressMonitor.worked(SCALE);
+		} catch (InterruptedException e) {
+			Logger.warn("JAX-RS Metamodel build job was interrupted", e);
+			return Status.CANCEL_STATUS;
+		}
+		final IJobManager jobManager = Job.getJobManager();
+		try {
+			jobManager.beginRule(buildRule, progressMonitor);
+			return build(progressMonitor);
+		} catch (OperationCanceledException e) {
+			return Status.CANCEL_STATUS;
+		} finally {
+			jobManager.endRule(buildRule);
+			BUILD_PERMITS.release();
+		}
+	}
+
+	private IStatus build(final IProgressMonitor progressMonitor) {
+		final BuildMetrics metrics = BuildMetrics.getInstance();
+		final long startTime = System.nanoTime();
+		metrics.startBuild(project);
+		try {
+			progressMonitor.beginTask("Building JAX-RS Metamodel", 3 * SCALE);
+			Logger.debug("Building JAX-RS Metamodel after resource changed...");
 			if (progressMonitor.isCanceled()) {
 				return Status.CANCEL_STATUS;
 			}
-
 			// compute changes on the JAX-RS Application(s), HttpMethods, Resources, etc.
-			final boolean withReset = (event.getBuildKind() == IncrementalProjectBuilder.FULL_BUILD || event.getBuildKind() == IncrementalProjectBuilder.CLEAN_BUILD);
+			final boolean withReset = (buildKind == IncrementalProjectBuilder.FULL_BUILD || buildKind == IncrementalProjectBuilder.CLEAN_BUILD);
+			long phaseStartTime = System.nanoTime();
 			final JaxrsMetamodelDelta metamodelDelta = new ResourceChangedProcessor().processAffectedResources(project,
 					withReset, affectedResources, new SubProgressMonitor(progressMonitor, SCALE));
+			metrics.record(Phase.RESOURCES_PROCESSING, phaseStartTime);
+			countAffectedElements(metamodelDelta);
 			progressMonitor.worked(SCALE);
 			if (progressMonitor.isCanceled()) {
 				return Status.CANCEL_STATUS;
 			}
+			phaseStartTime = System.nanoTime();
 			new JaxrsMetamodelChangedProcessor().processAffectedMetamodel(metamodelDelta, new SubProgressMonitor(
 					progressMonitor, SCALE));
+			metrics.record(Phase.METAMODEL_PROCESSING, phaseStartTime);
 			progressMonitor.worked(SCALE);
 			if (progressMonitor.isCanceled()) {
 				return Status.CANCEL_STATUS;
 			}
+			phaseStartTime = System.nanoTime();
 			new JaxrsElementChangedPublisher().publish(metamodelDelta, new SubProgressMonitor(progressMonitor, SCALE));
+			metrics.record(Phase.PUBLISHING, phaseStartTime);
 			progressMonitor.worked(SCALE);
+			// keep a snapshot of newly created or fully rebuilt metamodels, to speed up the next startup
+			if (withReset || metamodelDelta.getDeltaKind() == ADDED) {
+				JaxrsMetamodelSnapshot.save(JaxrsMetamodelLocator.get(project));
+			}
 
 		} catch (Throwable e) {
 			Logger.error("Failed to build or refresh the JAX-RS metamodel for projet " + project.getName(), e);
 		} finally {
-			long endTime = new Date().getTime();
+			metrics.record(Phase.TOTAL, startTime);
+			metrics.endBuild();
 			if (Logger.isDebugEnabled()) {
-				Logger.debug("JAX-RS Metamodel fully built in {} ms.", project.getName(), (endTime - startTime));
+				Logger.debug("JAX-RS Metamodel for project '{}' built in {} ms.", project.getName(),
+						(System.nanoTime() - startTime) / 1000000);
 				try {
 					final JaxrsMetamodel metamodel = JaxrsMetamodelLocator.get(project);
 					Logger.debug(
@@ -101,15 +206,59 @@ public class ResourceChangedBuildJob extends Job {
 		return Status.OK_STATUS;
 	}
 
-	private List<ResourceDelta> extractAffectedResources(final IResourceDelta delta, final IProgressMonitor progressMonitor)
-			throws CoreException {
+	/**
+	 * Counts the JAX-RS elements that were added, changed or removed during this build.
+	 * 
+	 * @param metamodelDelta
+	 *            the metamodel changes
+	 */
+	static void countAffectedElements(final JaxrsMetamodelDelta metamodelDelta) {
+		if (metamodelDelta == null || metamodelDelta.getAffectedElements() == null) {
+			return;
+		}
+		int added = 0, changed = 0, removed = 0;
+		for (JaxrsElementDelta elementDelta : metamodelDelta.getAffectedElements()) {
+			switch (elementDelta.getDeltaKind()) {
+			case ADDED:
+				added++;
+				break;
+			case CHANGED:
+				changed++;
+				break;
+			case REMOVED:
+				removed++;
+				break;
+			}
+		}
+		final BuildMetrics metrics = BuildMetrics.getInstance();
+		metrics.add(Counter.ELEMENTS_ADDED, added);
+		metrics.add(Counter.ELEMENTS_CHANGED, changed);
+		metrics.add(Counter.ELEMENTS_REMOVED, removed);
+	}
+
+	/**
+	 * Extracts the resources affected by the given builder delta. This must be called while the delta is still valid,
+	 * that is, before the builder returns.
+	 * 
+	 * @param project
+	 *            the project being built
+	 * @param delta
+	 *            the builder delta, or null if the whole project should be built
+	 * @param progressMonitor
+	 *            the progress monitor
+	 * @return the affected resources
+	 * @throws CoreException
+	 */
+	public static List<ResourceDelta> extractAffectedResources(final IProject project, final IResourceDelta delta,
+			final IProgressMonitor progressMonitor) throws CoreException {
+		final long startTime = System.nanoTime();
 		final List<ResourceDelta> events = new ArrayList<ResourceDelta>();
 		if (delta != null) {
-			events.addAll(new ResourceDeltaScanner().scanAndFilterEvent(delta, new SubProgressMonitor(progressMonitor,
-					SCALE)));
+			events.addAll(new ResourceDeltaScanner().scanAndFilterEvent(delta, progressMonitor));
 		} else {
 			events.add(new ResourceDelta(project, CHANGED, 0));
 		}
+		BuildMetrics.getInstance().record(project, Phase.DELTA_SCAN, startTime);
 		return events;
 	}
 }
@@ -16,7 +16,9 @@ import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.runtime.CoreException;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodelSnapshot;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
+import org.jboss.tools.ws.jaxrs.core.jdt.CompilationUnitsRepository;
 import org.jboss.tools.ws.jaxrs.core.metamodel.JaxrsMetamodelLocator;
 
 /**
@@ -38,9 +40,11 @@ public class ResourceChangedListener implements IResourceChangeListener {
 			if (event.getType() == IResourceChangeEvent.PRE_CLOSE && event.getResource() != null
 					&& event.getResource().getType() == IResource.PROJECT) {
 				final IProject project = (IProject) event.getResource();
+				CompilationUnitsRepository.getInstance().clear(project);
 				final JaxrsMetamodel jaxrsMetamodel = JaxrsMetamodelLocator.get(project);
 				if (jaxrsMetamodel != null) {
 					Logger.info("Removing JAX-RS Metamodel before closing project " + project.getName());
+					JaxrsMetamodelSnapshot.save(jaxrsMetamodel);
 					jaxrsMetamodel.remove();
 				}
 			}
@@ -42,6 +42,7 @@ import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsElementFacto
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsHttpMethod;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsJavaApplication;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodelSnapshot;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsResource;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsResourceField;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsResourceMethod;
@@ -52,8 +53,12 @@ import org.jboss.tools.ws.jaxrs.core.internal.utils.WtpUtils;
 import org.jboss.tools.ws.jaxrs.core.jdt.CompilationUnitsRepository;
 import org.jboss.tools.ws.jaxrs.core.jdt.JavaMethodSignature;
 import org.jboss.tools.ws.jaxrs.core.jdt.JaxrsAnnotationsScanner;
+import org.jboss.tools.ws.jaxrs.core.jdt.JaxrsTypesSearchResultCollector;
 import org.jboss.tools.ws.jaxrs.core.jdt.JdtUtils;
 import org.jboss.tools.ws.jaxrs.core.metamodel.EnumElementKind;
+import org.jboss.tools.ws.jaxrs.core.metamodel.IJaxrsApplication;
+import org.jboss.tools.ws.jaxrs.core.metamodel.IJaxrsHttpMethod;
+import org.jboss.tools.ws.jaxrs.core.metamodel.IJaxrsResource;
 import org.jboss.tools.ws.jaxrs.core.metamodel.JaxrsMetamodelDelta;
 import org.jboss.tools.ws.jaxrs.core.metamodel.JaxrsMetamodelLocator;
 
@@ -79,6 +84,10 @@ public class ResourceChangedProcessor {
 			final List<ResourceDelta> events, final IProgressMonitor progressMonitor) throws CoreException {
 		JaxrsMetamodel metamodel = JaxrsMetamodelLocator.get(project);
 		if (metamodel == null) {
+			final JaxrsMetamodelSnapshot snapshot = JaxrsMetamodelSnapshot.restore(project);
+			if (snapshot != null) {
+				return processSnapshot(snapshot, progressMonitor);
+			}
 			return processEntireProject(project, ADDED, progressMonitor);
 		} else if (withReset) {
 			return processEntireProject(project, CHANGED, progressMonitor);
@@ -122,6 +131,60 @@ public class ResourceChangedProcessor {
 		return metamodelDelta;
 	}
 
+	/**
+	 * Completes the metamodel restored from the given snapshot by processing the resources that changed since the
+	 * snapshot was written. All elements of the resulting metamodel are reported as added, so that the endpoints can be
+	 * computed by the {@link JaxrsMetamodelChangedProcessor}.
+	 * 
+	 * @param snapshot
+	 *            the restored snapshot
+	 * @param progressMonitor
+	 *            the progress monitor
+	 * @return the metamodel delta with all the JAX-RS elements.
+	 */
+	private JaxrsMetamodelDelta processSnapshot(final JaxrsMetamodelSnapshot snapshot,
+			final IProgressMonitor progressMonitor) {
+		final JaxrsMetamodel metamodel = snapshot.getMetamodel();
+		final JaxrsMetamodelDelta metamodelDelta = new JaxrsMetamodelDelta(metamodel, ADDED);
+		try {
+			progressMonitor.beginTask("Processing changes since last session in project '"
+					+ metamodel.getProject().getName() + "'...", snapshot.getChangedResources().size()
+					+ snapshot.getRemovedResources().size());
+			// the resulting element deltas are ignored since all elements are reported as added below
+			for (IResource removedResource : snapshot.getRemovedResources()) {
+				processEvent(new ResourceDelta(removedResource, REMOVED, 0), progressMonitor);
+				progressMonitor.worked(1);
+			}
+			for (IResource changedResource : snapshot.getChangedResources()) {
+				processEvent(new ResourceDelta(changedResource, CHANGED, 0), progressMonitor);
+				progressMonitor.worked(1);
+			}
+		} catch (CoreException e) {
+			Logger.error("Failed while processing changes since last session, performing a full build", e);
+			JaxrsMetamodelSnapshot.discard(metamodel.getProject());
+			try {
+				metamodel.remove();
+			} catch (CoreException ce) {
+				Logger.error("Failed to remove restored JAX-RS Metamodel", ce);
+			}
+			return processEntireProject(metamodel.getProject(), ADDED, progressMonitor);
+		} finally {
+			progressMonitor.done();
+		}
+		for (IJaxrsApplication application : metamodel.getAllApplications()) {
+			metamodelDelta.add(new JaxrsElementDelta(application, ADDED));
+		}
+		for (IJaxrsHttpMethod httpMethod : metamodel.getAllHttpMethods()) {
+			if (!((JaxrsHttpMethod) httpMethod).isBuiltIn()) {
+				metamodelDelta.add(new JaxrsElementDelta(httpMethod, ADDED));
+			}
+		}
+		for (IJaxrsResource resource : metamodel.getAllResources()) {
+			metamodelDelta.add(new JaxrsElementDelta(resource, ADDED));
+		}
+		return metamodelDelta;
+	}
+
 	/**
 	 * Process the project resource that changed.
 	 * 
@@ -174,10 +237,15 @@ public class ResourceChangedProcessor {
 			switch (deltaKind) {
 			case ADDED:
 			case CHANGED:
-				results.addAll(processApplicationChangesOnScopeAdditionOrChange(javaElement, metamodel, progressMonitor));
-				results.addAll(processHttpMethodChangesOnScopeAdditionOrChange(javaElement, metamodel, progressMonitor));
-				results.addAll(processResourceChangesOnScopeAdditionOrChange(javaElement, metamodel, deltaKind,
-						progressMonitor));
+				// a single search for all kinds of JAX-RS types in the scope
+				final JaxrsTypesSearchResultCollector matchingTypes = JaxrsAnnotationsScanner.findJaxrsTypes(
+						javaElement, progressMonitor);
+				results.addAll(processApplicationChangesOnScopeAdditionOrChange(javaElement,
+						matchingTypes.getApplicationTypes(), metamodel, progressMonitor));
+				results.addAll(processHttpMethodChangesOnScopeAdditionOrChange(javaElement,
+						matchingTypes.getHttpMethodTypes(), metamodel, progressMonitor));
+				results.addAll(processResourceChangesOnScopeAdditionOrChange(javaElement,
+						matchingTypes.getResourceTypes(), metamodel, deltaKind, progressMonitor));
 				break;
 			case REMOVED:
 				results.addAll(processApplicationChangesOnScopeRemoval(javaElement, metamodel, progressMonitor));
@@ -340,10 +408,11 @@ public class ResourceChangedProcessor {
 	}
 
 	private List<JaxrsElementDelta> processApplicationChangesOnScopeAdditionOrChange(IJavaElement scope,
-			JaxrsMetamodel metamodel, IProgressMonitor progressMonitor) throws JavaModelException, CoreException {
+			List<IType> matchingApplicationTypes, JaxrsMetamodel metamodel, IProgressMonitor progressMonitor)
+			throws JavaModelException, CoreException {
 		final List<JaxrsElementDelta> results = new ArrayList<JaxrsElementDelta>();
-		final List<JaxrsElementDelta> changes = preprocessApplicationChangesOnScopeAdditionOrChange(scope, metamodel,
-				progressMonitor);
+		final List<JaxrsElementDelta> changes = preprocessApplicationChangesOnScopeAdditionOrChange(scope,
+				matchingApplicationTypes, metamodel, progressMonitor);
 		for (JaxrsElementDelta change : changes) {
 			results.addAll(postProcessJavaApplication(change, progressMonitor));
 		}
@@ -356,6 +425,8 @@ public class ResourceChangedProcessor {
 	 * {@link ResourceChangedProcessor#postProcessJavaApplication(JaxrsElementDelta, IProgressMonitor)} method.
 	 * 
 	 * @param scope
+	 * @param matchingApplicationTypes
+	 *            the application types found in the given scope
 	 * @param metamodel
 	 * @param progressMonitor
 	 * @return events containing the new Applications (already added to the metamodel)
@@ -363,13 +434,11 @@ public class ResourceChangedProcessor {
 	 * @throws JavaModelException
 	 */
 	private List<JaxrsElementDelta> preprocessApplicationChangesOnScopeAdditionOrChange(final IJavaElement scope,
-			final JaxrsMetamodel metamodel, final IProgressMonitor progressMonitor) throws CoreException,
-			JavaModelException {
+			final List<IType> matchingApplicationTypes, final JaxrsMetamodel metamodel,
+			final IProgressMonitor progressMonitor) throws CoreException, JavaModelException {
 		final List<JaxrsElementDelta> results = new ArrayList<JaxrsElementDelta>();
 		// see if there may be elements to add/change from the given scope
 		final List<JaxrsJavaApplication> matchingApplications = new ArrayList<JaxrsJavaApplication>();
-		final List<IType> matchingApplicationTypes = JaxrsAnnotationsScanner.findApplicationTypes(scope,
-				progressMonitor);
 		for (IType matchingApplicationType : matchingApplicationTypes) {
 			final CompilationUnit ast = JdtUtils.parse(matchingApplicationType, progressMonitor);
 			final JaxrsJavaApplication matchingApplication = factory.createApplication(matchingApplicationType, ast,
@@ -472,10 +541,11 @@ public class ResourceChangedProcessor {
 	}
 
 	private List<JaxrsElementDelta> processHttpMethodChangesOnScopeAdditionOrChange(IJavaElement scope,
-			JaxrsMetamodel metamodel, IProgressMonitor progressMonitor) throws JavaModelException, CoreException {
+			List<IType> matchingHttpMethodTypes, JaxrsMetamodel metamodel, IProgressMonitor progressMonitor)
+			throws JavaModelException, CoreException {
 		final List<JaxrsElementDelta> results = new ArrayList<JaxrsElementDelta>();
-		final List<JaxrsElementDelta> changes = preprocessHttpMethodChangesOnScopeAdditionOrChange(scope, metamodel,
-				progressMonitor);
+		final List<JaxrsElementDelta> changes = preprocessHttpMethodChangesOnScopeAdditionOrChange(scope,
+				matchingHttpMethodTypes, metamodel, progressMonitor);
 		for (JaxrsElementDelta change : changes) {
 			results.addAll(postProcessHttpMethod(change, progressMonitor));
 		}
@@ -488,6 +558,8 @@ public class ResourceChangedProcessor {
 	 * {@link ResourceChangedProcessor#postProcessHttpMethod(JaxrsElementDelta, IProgressMonitor)} method.
 	 * 
 	 * @param scope
+	 * @param matchingHttpMethodTypes
+	 *            the HttpMethod types found in the given scope
 	 * @param metamodel
 	 * @param progressMonitor
 	 * @return events containing the new HttpMethods (already added to the metamodel)
@@ -495,12 +567,11 @@ public class ResourceChangedProcessor {
 	 * @throws JavaModelException
 	 */
 	private List<JaxrsElementDelta> preprocessHttpMethodChangesOnScopeAdditionOrChange(final IJavaElement scope,
-			final JaxrsMetamodel metamodel, final IProgressMonitor progressMonitor) throws CoreException,
-			JavaModelException {
+			final List<IType> matchingHttpMethodTypes, final JaxrsMetamodel metamodel,
+			final IProgressMonitor progressMonitor) throws CoreException, JavaModelException {
 		final List<JaxrsElementDelta> results = new ArrayList<JaxrsElementDelta>();
 		// see if there may be elements to add/change from the given scope
 		final List<JaxrsHttpMethod> matchingHttpMethods = new ArrayList<JaxrsHttpMethod>();
-		final List<IType> matchingHttpMethodTypes = JaxrsAnnotationsScanner.findHttpMethodTypes(scope, progressMonitor);
 		for (IType matchingHttpMethodType : matchingHttpMethodTypes) {
 			final CompilationUnit ast = JdtUtils.parse(matchingHttpMethodType, progressMonitor);
 			final JaxrsHttpMethod matchingHttpMethod = factory.createHttpMethod(matchingHttpMethodType, ast, metamodel);
@@ -589,11 +660,11 @@ public class ResourceChangedProcessor {
 	}
 
 	private List<JaxrsElementDelta> processResourceChangesOnScopeAdditionOrChange(IJavaElement scope,
-			JaxrsMetamodel metamodel, int deltaKind, IProgressMonitor progressMonitor) throws JavaModelException,
-			CoreException {
+			List<IType> matchingResourceTypes, JaxrsMetamodel metamodel, int deltaKind,
+			IProgressMonitor progressMonitor) throws JavaModelException, CoreException {
 		final List<JaxrsElementDelta> results = new ArrayList<JaxrsElementDelta>();
-		final List<JaxrsElementDelta> changes = preprocessResourceChangesOnScopeAdditionOrChange(scope, metamodel,
-				progressMonitor);
+		final List<JaxrsElementDelta> changes = preprocessResourceChangesOnScopeAdditionOrChange(scope,
+				matchingResourceTypes, metamodel, progressMonitor);
 		for (JaxrsElementDelta change : changes) {
 			results.addAll(postProcessResource(change, progressMonitor));
 		}
@@ -606,6 +677,8 @@ public class ResourceChangedProcessor {
 	 * {@link ResourceChangedProcessor#postProcessResource(JaxrsElementDelta, IProgressMonitor)} method.
 	 * 
 	 * @param scope
+	 * @param matchingResourceTypes
+	 *            the resource types found in the given scope
 	 * @param metamodel
 	 * @param progressMonitor
 	 * @return events containing the JAX-RS Resources
@@ -613,12 +686,11 @@ public class ResourceChangedProcessor {
 	 * @throws JavaModelException
 	 */
 	private List<JaxrsElementDelta> preprocessResourceChangesOnScopeAdditionOrChange(final IJavaElement scope,
-			final JaxrsMetamodel metamodel, final IProgressMonitor progressMonitor) throws CoreException,
-			JavaModelException {
+			final List<IType> matchingResourceTypes, final JaxrsMetamodel metamodel,
+			final IProgressMonitor progressMonitor) throws CoreException, JavaModelException {
 		final List<JaxrsElementDelta> results = new ArrayList<JaxrsElementDelta>();
 		// see if there may be elements to add/change from the given scope
 		final List<JaxrsResource> matchingResources = new ArrayList<JaxrsResource>();
-		final List<IType> matchingResourceTypes = JaxrsAnnotationsScanner.findResourceTypes(scope, progressMonitor);
 		for (IType matchingResourceType : matchingResourceTypes) {
 			final CompilationUnit ast = JdtUtils.parse(matchingResourceType, progressMonitor);
 			final JaxrsResource matchingResource = factory.createResource(matchingResourceType, ast, metamodel);
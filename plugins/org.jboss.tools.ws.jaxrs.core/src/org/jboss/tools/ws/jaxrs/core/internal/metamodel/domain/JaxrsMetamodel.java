@@ -25,6 +25,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -97,8 +98,38 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	/** Internal index of all the elements of this metamodel (by fullpath of their underlying resource). */
 	private final Map<String, Set<IJaxrsElement>> resourcesIndex = new HashMap<String, Set<IJaxrsElement>>();
 
-	/** the endpoints, built from the resource methods. */
-	private final List<JaxrsEndpoint> endpoints = new ArrayList<JaxrsEndpoint>();
+	/**
+	 * the endpoints, built from the resource methods. Endpoints are tracked by identity since their hashcode changes
+	 * each time they are refreshed.
+	 */
+	private final Set<JaxrsEndpoint> endpoints = Collections.newSetFromMap(new IdentityHashMap<JaxrsEndpoint, Boolean>());
+
+	/** Internal index of the java-based applications (by fully qualified name of their associated java type). */
+	private final Map<String, JaxrsJavaApplication> javaApplicationsIndex = new HashMap<String, JaxrsJavaApplication>();
+
+	/** Internal index of the web.xml based applications (by fully qualified name of their declared class). */
+	private final Map<String, JaxrsWebxmlApplication> webxmlApplicationsIndex = new HashMap<String, JaxrsWebxmlApplication>();
+
+	/** Internal index of the HTTP Methods (by fully qualified name of their associated annotation type). */
+	private final Map<String, JaxrsHttpMethod> httpMethodsIndex = new HashMap<String, JaxrsHttpMethod>();
+
+	/** Internal index of the resource methods (by handleIdentifier of their returned type). */
+	private final Map<String, Set<JaxrsResourceMethod>> returnedTypesIndex = new HashMap<String, Set<JaxrsResourceMethod>>();
+
+	/** Internal index of the endpoints (by resource method they are built from). */
+	private final Map<JaxrsResourceMethod, Set<JaxrsEndpoint>> endpointsIndex = new HashMap<JaxrsResourceMethod, Set<JaxrsEndpoint>>();
+
+	/** Unmodifiable snapshot of the applications, reset each time the applications change. */
+	private List<IJaxrsApplication> applicationsSnapshot = null;
+
+	/** Unmodifiable snapshot of the resources, reset each time the resources change. */
+	private List<IJaxrsResource> resourcesSnapshot = null;
+
+	/** Unmodifiable snapshot of the HTTP Methods, reset each time the HTTP Methods change. */
+	private List<IJaxrsHttpMethod> httpMethodsSnapshot = null;
+
+	/** Unmodifiable snapshot of the endpoints, reset each time the endpoints change. */
+	private List<IJaxrsEndpoint> endpointsSnapshot = null;
 
 
 	/**
@@ -165,6 +196,9 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 		elementsIndex.put(DELETE.getJavaClassName(), new HashSet<IJaxrsElement>(Arrays.asList(DELETE)));
 		elementsIndex.put(OPTIONS.getJavaClassName(), new HashSet<IJaxrsElement>(Arrays.asList(OPTIONS)));
 		elementsIndex.put(HEAD.getJavaClassName(), new HashSet<IJaxrsElement>(Arrays.asList(HEAD)));
+		for (JaxrsHttpMethod httpMethod : httpMethods) {
+			httpMethodsIndex.put(httpMethod.getJavaClassName(), httpMethod);
+		}
 		
 		indexElement(this, getProject());
 	}
@@ -208,10 +242,16 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	public void add(JaxrsJavaElement<?> element) {
 		switch (element.getElementCategory()) {
 		case APPLICATION:
-			this.applications.add((JaxrsJavaApplication) element);
+			final JaxrsJavaApplication javaApplication = (JaxrsJavaApplication) element;
+			this.applications.add(javaApplication);
+			this.javaApplicationsIndex.put(javaApplication.getJavaClassName(), javaApplication);
+			this.applicationsSnapshot = null;
 			break;
 		case HTTP_METHOD:
-			this.httpMethods.add((JaxrsHttpMethod) element);
+			final JaxrsHttpMethod httpMethod = (JaxrsHttpMethod) element;
+			this.httpMethods.add(httpMethod);
+			this.httpMethodsIndex.put(httpMethod.getJavaClassName(), httpMethod);
+			this.httpMethodsSnapshot = null;
 			break;
 		case PROVIDER:
 			// this.providers.add(element);
@@ -219,6 +259,7 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 		case RESOURCE:
 			final JaxrsResource resource = (JaxrsResource) element;
 			this.resources.add(resource);
+			this.resourcesSnapshot = null;
 			break;
 		case RESOURCE_FIELD:
 			break;
@@ -238,6 +279,8 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 				return app1.getElementKind().compareTo(app2.getElementKind());
 			}
 		});
+		this.webxmlApplicationsIndex.put(application.getJavaClassName(), application);
+		this.applicationsSnapshot = null;
 		indexElement(application, this.javaProject);
 		indexElement(application, application.getResource());
 	}
@@ -268,10 +311,45 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 			for (JaxrsResourceField resourceField : resource.getFields().values()) {
 				indexElement(resourceField);
 			}
+		} else if (jaxrsElement.getElementCategory() == EnumElementCategory.RESOURCE_METHOD) {
+			final JaxrsResourceMethod resourceMethod = (JaxrsResourceMethod) jaxrsElement;
+			indexReturnedType(resourceMethod, null, resourceMethod.getReturnedType());
 		}
 
 	}
 
+	/**
+	 * Moves the given resource method from the previous returned type entry to the new one in the internal index.
+	 * 
+	 * @param resourceMethod
+	 *            the resource method to (re)index
+	 * @param previousReturnedType
+	 *            the previous returned type of the resource method, or null
+	 * @param returnedType
+	 *            the current returned type of the resource method, or null
+	 */
+	protected void indexReturnedType(final JaxrsResourceMethod resourceMethod, final IType previousReturnedType,
+			final IType returnedType) {
+		if (previousReturnedType != null) {
+			final Set<JaxrsResourceMethod> resourceMethods = returnedTypesIndex.get(previousReturnedType
+					.getHandleIdentifier());
+			if (resourceMethods != null) {
+				resourceMethods.remove(resourceMethod);
+				if (resourceMethods.isEmpty()) {
+					returnedTypesIndex.remove(previousReturnedType.getHandleIdentifier());
+				}
+			}
+		}
+		if (returnedType != null) {
+			final String key = returnedType.getHandleIdentifier();
+			if (!returnedTypesIndex.containsKey(key)) {
+				returnedTypesIndex.put(key, new HashSet<JaxrsResourceMethod>(Arrays.asList(resourceMethod)));
+			} else {
+				returnedTypesIndex.get(key).add(resourceMethod);
+			}
+		}
+	}
+
 	protected void indexElement(final JaxrsJavaElement<?> element, final Annotation annotation) {
 		if (annotation != null) {
 			indexElement(element, annotation.getJavaAnnotation());
@@ -327,6 +405,10 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 		// unindex the given element, whatever its kind
 		unindex(jaxrsElement, elementsIndex);
 		unindex(jaxrsElement, resourcesIndex);
+		if (jaxrsElement.getElementCategory() == EnumElementCategory.RESOURCE_METHOD) {
+			final JaxrsResourceMethod resourceMethod = (JaxrsResourceMethod) jaxrsElement;
+			indexReturnedType(resourceMethod, resourceMethod.getReturnedType(), null);
+		}
 	}
 
 	/**
@@ -424,11 +506,7 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	public final JaxrsJavaApplication getJavaApplication(final String className) {
 		if (className != null) {
-			for (IJaxrsApplication application : this.applications) {
-				if (application.getElementKind() == EnumElementKind.APPLICATION_JAVA && className.equals(application.getJavaClassName())) {
-					return (JaxrsJavaApplication) application;
-				}
-			}
+			return javaApplicationsIndex.get(className);
 		}
 		return null;
 	}
@@ -438,21 +516,22 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 */
 	public final JaxrsWebxmlApplication getWebxmlApplication(final String className) {
 		if (className != null) {
-			for (IJaxrsApplication application : this.applications) {
-				if (application.getElementKind() == EnumElementKind.APPLICATION_WEBXML && className.equals(application.getJavaClassName())) {
-					return (JaxrsWebxmlApplication) application;
-				}
-			}
+			return webxmlApplicationsIndex.get(className);
 		}
 		return null;
 	}
 	
 	/**
 	 * @return all the JAX-RS Application in the Metamodel
-	 * The result is a separate unmodifiable list
+	 * The result is a separate unmodifiable list, shared until the applications change
 	 */
 	public final List<IJaxrsApplication> getAllApplications() {
-		return Collections.unmodifiableList(new ArrayList<IJaxrsApplication>(this.applications));
+		List<IJaxrsApplication> snapshot = this.applicationsSnapshot;
+		if (snapshot == null) {
+			snapshot = Collections.unmodifiableList(new ArrayList<IJaxrsApplication>(this.applications));
+			this.applicationsSnapshot = snapshot;
+		}
+		return snapshot;
 	}
 	
 	
@@ -485,13 +564,7 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 *         override the java-based application <code>@ApplicationPath</code> value and <strong>will not be returned</strong> by this method.
 	 */
 	public final JaxrsWebxmlApplication getWebxmlApplication() {
-		for (IJaxrsApplication application : this.applications) {
-			if (application.getElementKind() == EnumElementKind.APPLICATION_WEBXML
-					&& EnumJaxrsClassname.APPLICATION.qualifiedName.equals(application.getJavaClassName())) {
-				return (JaxrsWebxmlApplication) application;
-			}
-		}
-		return null;
+		return webxmlApplicationsIndex.get(EnumJaxrsClassname.APPLICATION.qualifiedName);
 	}
 
 	/**
@@ -525,12 +598,64 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 		return Collections.unmodifiableList(new ArrayList<IJaxrsProvider>(providers));
 	}
 
+	/**
+	 * @return all the HTTP Methods in the Metamodel. The result is a separate unmodifiable list, shared until the HTTP
+	 *         Methods change
+	 */
 	public final List<IJaxrsHttpMethod> getAllHttpMethods() {
-		return Collections.unmodifiableList(new ArrayList<IJaxrsHttpMethod>(httpMethods));
+		List<IJaxrsHttpMethod> snapshot = this.httpMethodsSnapshot;
+		if (snapshot == null) {
+			snapshot = Collections.unmodifiableList(new ArrayList<IJaxrsHttpMethod>(httpMethods));
+			this.httpMethodsSnapshot = snapshot;
+		}
+		return snapshot;
 	}
 
+	/**
+	 * @return all the resources in the Metamodel. The result is a separate unmodifiable list, shared until the
+	 *         resources change
+	 */
 	public final List<IJaxrsResource> getAllResources() {
-		return Collections.unmodifiableList(new ArrayList<IJaxrsResource>(resources));
+		List<IJaxrsResource> snapshot = this.resourcesSnapshot;
+		if (snapshot == null) {
+			snapshot = Collections.unmodifiableList(new ArrayList<IJaxrsResource>(resources));
+			this.resourcesSnapshot = snapshot;
+		}
+		return snapshot;
+	}
+
+	/**
+	 * @param type
+	 *            the java type
+	 * @return the resource associated with the given java type, or null if none was found
+	 */
+	public final JaxrsResource getResource(final IType type) {
+		final IJaxrsElement element = getElement(type);
+		if (element != null && element.getElementCategory() == EnumElementCategory.RESOURCE) {
+			return (JaxrsResource) element;
+		}
+		return null;
+	}
+
+	/**
+	 * @param returnedType
+	 *            the java type returned by the subresource locators
+	 * @return the subresource locators whose returned type is exactly the given type (may be empty)
+	 */
+	public final List<JaxrsResourceMethod> getSubresourceLocators(final IType returnedType) {
+		final List<JaxrsResourceMethod> subresourceLocators = new ArrayList<JaxrsResourceMethod>();
+		if (returnedType == null) {
+			return subresourceLocators;
+		}
+		final Set<JaxrsResourceMethod> resourceMethods = returnedTypesIndex.get(returnedType.getHandleIdentifier());
+		if (resourceMethods != null) {
+			for (JaxrsResourceMethod resourceMethod : resourceMethods) {
+				if (resourceMethod.getElementKind() == EnumElementKind.SUBRESOURCE_LOCATOR) {
+					subresourceLocators.add(resourceMethod);
+				}
+			}
+		}
+		return subresourceLocators;
 	}
 
 	/**
@@ -542,6 +667,11 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 	 * @throws CoreException
 	 */
 	public IJaxrsHttpMethod getHttpMethod(final String annotationName) throws CoreException {
+		// fully qualified names are looked-up without resolving the annotation type
+		final JaxrsHttpMethod indexedHttpMethod = httpMethodsIndex.get(annotationName);
+		if (indexedHttpMethod != null) {
+			return indexedHttpMethod;
+		}
 		IType annotationType = JdtUtils.resolveType(annotationName, javaProject, new NullProgressMonitor());
 		if (annotationType != null) {
 			// look for custom HTTP Methods
@@ -664,12 +794,22 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 		switch (element.getElementCategory()) {
 		case APPLICATION:
 			this.applications.remove(element);
+			final IJaxrsApplication application = (IJaxrsApplication) element;
+			if (application.getElementKind() == EnumElementKind.APPLICATION_JAVA) {
+				unindex(application, application.getJavaClassName(), javaApplicationsIndex);
+			} else {
+				unindex(application, application.getJavaClassName(), webxmlApplicationsIndex);
+			}
+			this.applicationsSnapshot = null;
 			break;
 		case HTTP_METHOD:
 			this.httpMethods.remove(element);
+			unindex(element, ((IJaxrsHttpMethod) element).getJavaClassName(), httpMethodsIndex);
+			this.httpMethodsSnapshot = null;
 			break;
 		case RESOURCE:
 			this.resources.remove(element);
+			this.resourcesSnapshot = null;
 			break;
 		case RESOURCE_METHOD:
 			final JaxrsResource parentResource = ((JaxrsResourceMethod) element).getParentResource();
@@ -687,34 +827,112 @@ public class JaxrsMetamodel implements IJaxrsMetamodel {
 		unindexElement(element);
 	}
 
+	/**
+	 * Removes the given element from the given index, unless the index entry was replaced with another element in the
+	 * mean time.
+	 */
+	private static <T> void unindex(final IJaxrsElement element, final String key, final Map<String, T> index) {
+		if (key != null && element.equals(index.get(key))) {
+			index.remove(key);
+		}
+	}
+
 	public JaxrsHttpMethod getHttpMethod(Annotation httpMethodAnnotation) {
-		if (httpMethodAnnotation != null) {
-			for (IJaxrsHttpMethod httpMethod : httpMethods) {
-				final String handleIdentifier1 = httpMethod.getJavaClassName();
-				final String handleIdentifier2 = httpMethodAnnotation.getFullyQualifiedName();
-				if (handleIdentifier1.equals(handleIdentifier2)) {
-					return (JaxrsHttpMethod) httpMethod;
-				}
-			}
+		if (httpMethodAnnotation != null && httpMethodAnnotation.getFullyQualifiedName() != null) {
+			return httpMethodsIndex.get(httpMethodAnnotation.getFullyQualifiedName());
 		}
 		return null;
 	}
 
+	/**
+	 * Adds the given endpoint, unless an equal endpoint built from the same resource methods already exists.
+	 * 
+	 * @param endpoint
+	 *            the endpoint to add
+	 * @return true if the endpoint was added, false otherwise
+	 */
 	public boolean add(JaxrsEndpoint endpoint) {
-		if (this.endpoints.contains(endpoint)) {
-			return false;
+		// equal endpoints are built from the same resource methods, so only the endpoints sharing the last one need to
+		// be compared
+		final Set<JaxrsEndpoint> siblings = endpointsIndex.get(endpoint.getResourceMethods().getLast());
+		if (siblings != null) {
+			for (JaxrsEndpoint sibling : siblings) {
+				if (sibling.equals(endpoint)) {
+					return false;
+				}
+			}
 		}
 		this.endpoints.add(endpoint);
+		for (IJaxrsResourceMethod resourceMethod : endpoint.getResourceMethods()) {
+			Set<JaxrsEndpoint> resourceMethodEndpoints = endpointsIndex.get(resourceMethod);
+			if (resourceMethodEndpoints == null) {
+				resourceMethodEndpoints = Collections.newSetFromMap(new IdentityHashMap<JaxrsEndpoint, Boolean>());
+				endpointsIndex.put((JaxrsResourceMethod) resourceMethod, resourceMethodEndpoints);
+			}
+			resourceMethodEndpoints.add(endpoint);
+		}
+		this.endpointsSnapshot = null;
+		return true;
+	}
+
+	/**
+	 * Removes the given endpoint.
+	 * 
+	 * @param endpoint
+	 *            the endpoint to remove
+	 * @return true if the endpoint was removed, false if it was not part of this metamodel
+	 */
+	public boolean remove(JaxrsEndpoint endpoint) {
+		if (!this.endpoints.remove(endpoint)) {
+			return false;
+		}
+		for (IJaxrsResourceMethod resourceMethod : endpoint.getResourceMethods()) {
+			final Set<JaxrsEndpoint> resourceMethodEndpoints = endpointsIndex.get(resourceMethod);
+			if (resourceMethodEndpoints != null) {
+				resourceMethodEndpoints.remove(endpoint);
+				if (resourceMethodEndpoints.isEmpty()) {
+					endpointsIndex.remove(resourceMethod);
+				}
+			}
+		}
+		this.endpointsSnapshot = null;
 		return true;
 	}
 
+	/**
+	 * @return all the endpoints of this metamodel, as a separate list that can be iterated while the endpoints are
+	 *         added or removed
+	 */
 	public List<JaxrsEndpoint> getEndpoints() {
-		return this.endpoints;
+		return new ArrayList<JaxrsEndpoint>(this.endpoints);
 	}
 
+	/**
+	 * @param resourceMethod
+	 *            the resource method
+	 * @return the endpoints built from the given resource method, as a separate list that can be iterated while the
+	 *         endpoints are added or removed
+	 */
+	public List<JaxrsEndpoint> getEndpoints(final IJaxrsResourceMethod resourceMethod) {
+		final Set<JaxrsEndpoint> resourceMethodEndpoints = endpointsIndex.get(resourceMethod);
+		if (resourceMethodEndpoints == null) {
+			return new ArrayList<JaxrsEndpoint>();
+		}
+		return new ArrayList<JaxrsEndpoint>(resourceMethodEndpoints);
+	}
+
+	/**
+	 * @return all the endpoints in the Metamodel. The result is a separate unmodifiable list, shared until the
+	 *         endpoints change
+	 */
 	@Override
 	public List<IJaxrsEndpoint> getAllEndpoints() {
-		return Collections.unmodifiableList(new ArrayList<IJaxrsEndpoint>(endpoints));
+		List<IJaxrsEndpoint> snapshot = this.endpointsSnapshot;
+		if (snapshot == null) {
+			snapshot = Collections.unmodifiableList(new ArrayList<IJaxrsEndpoint>(endpoints));
+			this.endpointsSnapshot = snapshot;
+		}
+		return snapshot;
 	}
 
 	/*
@@ -0,0 +1,579 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain;
+
+import static org.jboss.tools.ws.jaxrs.core.jdt.EnumJaxrsClassname.CONSUMES;
+import static org.jboss.tools.ws.jaxrs.core.jdt.EnumJaxrsClassname.PATH;
+import static org.jboss.tools.ws.jaxrs.core.jdt.EnumJaxrsClassname.PRODUCES;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IResourceProxyVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IAnnotation;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.jboss.tools.ws.jaxrs.core.JBossJaxrsCorePlugin;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.WtpUtils;
+import org.jboss.tools.ws.jaxrs.core.jdt.Annotation;
+import org.jboss.tools.ws.jaxrs.core.jdt.JavaMethodParameter;
+import org.jboss.tools.ws.jaxrs.core.metamodel.IJaxrsHttpMethod;
+import org.jboss.tools.ws.jaxrs.core.metamodel.IJaxrsResource;
+
+/**
+ * Compact, versioned binary snapshot of a project's {@link JaxrsMetamodel}, stored in the plugin state location. The
+ * snapshot holds the applications, the custom HTTP methods and the resources (with their methods and fields) along
+ * with the modification stamp of each source file of the project at the time it was written, so that a restored
+ * metamodel only needs to reprocess the files that changed in the meantime. Endpoints are not stored since they are
+ * computed from the restored elements.
+ */
+public class JaxrsMetamodelSnapshot {
+
+	/** Magic number at the beginning of each snapshot file ('JXRS'). */
+	private static final int MAGIC_NUMBER = 0x4A585253;
+
+	/** Version of the binary format. Snapshots with another version are discarded. */
+	public static final int FORMAT_VERSION = 1;
+
+	/** Name of the folder in the plugin state location where snapshots are stored. */
+	private static final String SNAPSHOTS_FOLDER = "metamodels"; //$NON-NLS-1$
+
+	/** Name of the project's classpath file, whose change invalidates the whole snapshot. */
+	private static final String CLASSPATH_FILE = ".classpath"; //$NON-NLS-1$
+
+	/** The restored metamodel. */
+	private final JaxrsMetamodel metamodel;
+
+	/** The resources that were added or changed since the snapshot was written. */
+	private final List<IResource> changedResources;
+
+	/** The resources that were removed since the snapshot was written. */
+	private final List<IResource> removedResources;
+
+	/**
+	 * Full constructor.
+	 *
+	 * @param metamodel
+	 *            the restored metamodel
+	 * @param changedResources
+	 *            the resources that were added or changed since the snapshot was written
+	 * @param removedResources
+	 *            the resources that were removed since the snapshot was written
+	 */
+	private JaxrsMetamodelSnapshot(final JaxrsMetamodel metamodel, final List<IResource> changedResources,
+			final List<IResource> removedResources) {
+		this.metamodel = metamodel;
+		this.changedResources = changedResources;
+		this.removedResources = removedResources;
+	}
+
+	/** @return the restored metamodel */
+	public JaxrsMetamodel getMetamodel() {
+		return metamodel;
+	}
+
+	/** @return the resources that were added or changed since the snapshot was written */
+	public List<IResource> getChangedResources() {
+		return changedResources;
+	}
+
+	/** @return the resources that were removed since the snapshot was written */
+	public List<IResource> getRemovedResources() {
+		return removedResources;
+	}
+
+	/**
+	 * Writes a snapshot of the given metamodel in the plugin state location, replacing any previous snapshot for the
+	 * same project. Failures are logged and do not propagate, since the snapshot is only an optimization.
+	 *
+	 * @param metamodel
+	 *            the metamodel to save
+	 */
+	public static void save(final JaxrsMetamodel metamodel) {
+		if (metamodel == null || metamodel.getProject() == null || !metamodel.getProject().isOpen()) {
+			return;
+		}
+		final IProject project = metamodel.getProject();
+		final File snapshotFile = getSnapshotFile(project);
+		if (snapshotFile == null) {
+			return;
+		}
+		final long startTime = System.currentTimeMillis();
+		final File tmpFile = new File(snapshotFile.getParentFile(), snapshotFile.getName() + ".tmp"); //$NON-NLS-1$
+		DataOutputStream out = null;
+		try {
+			snapshotFile.getParentFile().mkdirs();
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+			out.writeInt(MAGIC_NUMBER);
+			out.writeInt(FORMAT_VERSION);
+			out.writeUTF(project.getName());
+			writeStamps(out, collectStamps(project));
+			writeWebxmlApplications(out, metamodel);
+			writeJavaApplications(out, metamodel);
+			writeHttpMethods(out, metamodel);
+			writeResources(out, metamodel);
+			out.close();
+			out = null;
+			if (snapshotFile.exists() && !snapshotFile.delete()) {
+				Logger.warn("Failed to replace JAX-RS Metamodel snapshot " + snapshotFile.getAbsolutePath());
+				return;
+			}
+			if (!tmpFile.renameTo(snapshotFile)) {
+				Logger.warn("Failed to write JAX-RS Metamodel snapshot " + snapshotFile.getAbsolutePath());
+			}
+			Logger.debug("JAX-RS Metamodel snapshot for project '{}' written in {} ms.", project.getName(),
+					(System.currentTimeMillis() - startTime));
+		} catch (IOException e) {
+			Logger.warn("Failed to write JAX-RS Metamodel snapshot for project " + project.getName(), e);
+		} catch (CoreException e) {
+			Logger.warn("Failed to write JAX-RS Metamodel snapshot for project " + project.getName(), e);
+		} finally {
+			close(out);
+			tmpFile.delete();
+		}
+	}
+
+	/**
+	 * Restores the metamodel of the given project from its snapshot, if one exists and is still valid. The restored
+	 * metamodel is registered in the project's session properties, but its endpoints are not computed yet.
+	 *
+	 * @param project
+	 *            the project
+	 * @return the restored snapshot, or null if there was no usable snapshot for the given project (in which case the
+	 *         project should be fully built).
+	 */
+	public static JaxrsMetamodelSnapshot restore(final IProject project) {
+		final File snapshotFile = getSnapshotFile(project);
+		if (snapshotFile == null || !snapshotFile.exists()) {
+			return null;
+		}
+		final long startTime = System.currentTimeMillis();
+		DataInputStream in = null;
+		JaxrsMetamodel metamodel = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)));
+			if (in.readInt() != MAGIC_NUMBER || in.readInt() != FORMAT_VERSION
+					|| !project.getName().equals(in.readUTF())) {
+				Logger.debug("Ignoring obsolete JAX-RS Metamodel snapshot for project {}", project.getName());
+				discard(project);
+				return null;
+			}
+			final Map<String, Long> savedStamps = readStamps(in);
+			final Map<String, Long> currentStamps = collectStamps(project);
+			final String classpathFilePath = project.getFile(CLASSPATH_FILE).getFullPath().toPortableString();
+			if (!stampEquals(savedStamps.get(classpathFilePath), currentStamps.get(classpathFilePath))) {
+				Logger.debug("Ignoring JAX-RS Metamodel snapshot for project {} since its classpath changed",
+						project.getName());
+				discard(project);
+				return null;
+			}
+			metamodel = JaxrsMetamodel.create(JavaCore.create(project));
+			readWebxmlApplications(in, metamodel);
+			readJavaApplications(in, metamodel);
+			readHttpMethods(in, metamodel);
+			readResources(in, metamodel);
+			final List<IResource> changedResources = new ArrayList<IResource>();
+			final List<IResource> removedResources = new ArrayList<IResource>();
+			for (Entry<String, Long> entry : currentStamps.entrySet()) {
+				if (!stampEquals(entry.getValue(), savedStamps.get(entry.getKey()))) {
+					changedResources.add(getFile(entry.getKey()));
+				}
+			}
+			for (String path : savedStamps.keySet()) {
+				if (!currentStamps.containsKey(path)) {
+					removedResources.add(getFile(path));
+				}
+			}
+			Logger.debug(
+					"JAX-RS Metamodel for project '{}' restored from snapshot in {} ms ({} changed and {} removed file(s) to process).",
+					project.getName(), (System.currentTimeMillis() - startTime), changedResources.size(),
+					removedResources.size());
+			return new JaxrsMetamodelSnapshot(metamodel, changedResources, removedResources);
+		} catch (IOException e) {
+			Logger.warn("Failed to read JAX-RS Metamodel snapshot for project " + project.getName(), e);
+		} catch (CoreException e) {
+			Logger.warn("Failed to read JAX-RS Metamodel snapshot for project " + project.getName(), e);
+		} catch (RuntimeException e) {
+			Logger.warn("Failed to read JAX-RS Metamodel snapshot for project " + project.getName(), e);
+		} finally {
+			close(in);
+		}
+		// reaching this point means the snapshot could not be read: don't keep a half-restored metamodel
+		try {
+			if (metamodel != null) {
+				metamodel.remove();
+			}
+		} catch (CoreException e) {
+			Logger.warn("Failed to remove partially restored JAX-RS Metamodel for project " + project.getName(), e);
+		}
+		discard(project);
+		return null;
+	}
+
+	/**
+	 * Deletes the snapshot of the given project, if it exists.
+	 *
+	 * @param project
+	 *            the project
+	 */
+	public static void discard(final IProject project) {
+		final File snapshotFile = getSnapshotFile(project);
+		if (snapshotFile != null && snapshotFile.exists() && !snapshotFile.delete()) {
+			Logger.warn("Failed to delete JAX-RS Metamodel snapshot " + snapshotFile.getAbsolutePath());
+		}
+	}
+
+	/**
+	 * @param project
+	 *            the project
+	 * @return the snapshot file for the given project, or null if the plugin is not running.
+	 */
+	private static File getSnapshotFile(final IProject project) {
+		final JBossJaxrsCorePlugin plugin = JBossJaxrsCorePlugin.getDefault();
+		if (plugin == null || project == null) {
+			return null;
+		}
+		return plugin.getStateLocation().append(SNAPSHOTS_FOLDER).append(project.getName() + ".bin").toFile(); //$NON-NLS-1$
+	}
+
+	/**
+	 * Collects the modification stamps of all the Java source files of the given project, along with its web
+	 * deployment descriptor and its classpath file.
+	 *
+	 * @param project
+	 *            the project
+	 * @return the modification stamps indexed by the portable full path of each file
+	 * @throws CoreException
+	 */
+	private static Map<String, Long> collectStamps(final IProject project) throws CoreException {
+		final Map<String, Long> stamps = new HashMap<String, Long>();
+		final IJavaProject javaProject = JavaCore.create(project);
+		for (IPackageFragmentRoot root : javaProject.getPackageFragmentRoots()) {
+			if (root.getKind() != IPackageFragmentRoot.K_SOURCE || root.getResource() == null
+					|| !project.equals(root.getResource().getProject())) {
+				continue;
+			}
+			root.getResource().accept(new IResourceProxyVisitor() {
+				@Override
+				public boolean visit(final IResourceProxy proxy) throws CoreException {
+					if (proxy.getType() == IResource.FILE && proxy.getName().endsWith(".java")) { //$NON-NLS-1$
+						stamps.put(proxy.requestFullPath().toPortableString(), proxy.getModificationStamp());
+					}
+					return true;
+				}
+			}, IResource.NONE);
+		}
+		if (WtpUtils.hasWebDeploymentDescriptor(project)) {
+			final IResource webxml = WtpUtils.getWebDeploymentDescriptor(project);
+			stamps.put(webxml.getFullPath().toPortableString(), webxml.getModificationStamp());
+		}
+		final IFile classpathFile = project.getFile(CLASSPATH_FILE);
+		if (classpathFile.exists()) {
+			stamps.put(classpathFile.getFullPath().toPortableString(), classpathFile.getModificationStamp());
+		}
+		return stamps;
+	}
+
+	private static boolean stampEquals(final Long stamp, final Long otherStamp) {
+		return (stamp == null) ? (otherStamp == null) : stamp.equals(otherStamp);
+	}
+
+	private static IResource getFile(final String portablePath) {
+		return ResourcesPlugin.getWorkspace().getRoot().getFile(Path.fromPortableString(portablePath));
+	}
+
+	private static void writeStamps(final DataOutputStream out, final Map<String, Long> stamps) throws IOException {
+		out.writeInt(stamps.size());
+		for (Entry<String, Long> entry : stamps.entrySet()) {
+			out.writeUTF(entry.getKey());
+			out.writeLong(entry.getValue());
+		}
+	}
+
+	private static Map<String, Long> readStamps(final DataInputStream in) throws IOException {
+		final int size = in.readInt();
+		final Map<String, Long> stamps = new HashMap<String, Long>(size * 2);
+		for (int i = 0; i < size; i++) {
+			stamps.put(in.readUTF(), in.readLong());
+		}
+		return stamps;
+	}
+
+	private static void writeWebxmlApplications(final DataOutputStream out, final JaxrsMetamodel metamodel)
+			throws IOException {
+		final List<JaxrsWebxmlApplication> applications = metamodel.getWebxmlApplications();
+		out.writeInt(applications.size());
+		for (JaxrsWebxmlApplication application : applications) {
+			out.writeUTF(application.getJavaClassName());
+			out.writeUTF(application.getApplicationPath());
+			out.writeUTF(application.getResource().getFullPath().toPortableString());
+		}
+	}
+
+	private static void readWebxmlApplications(final DataInputStream in, final JaxrsMetamodel metamodel)
+			throws IOException {
+		final int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			final String javaClassName = in.readUTF();
+			final String applicationPath = in.readUTF();
+			final IResource webxmlResource = getFile(in.readUTF());
+			metamodel.add(new JaxrsWebxmlApplication(javaClassName, applicationPath, webxmlResource, metamodel));
+		}
+	}
+
+	private static void writeJavaApplications(final DataOutputStream out, final JaxrsMetamodel metamodel)
+			throws IOException {
+		final List<JaxrsJavaApplication> applications = metamodel.getJavaApplications();
+		out.writeInt(applications.size());
+		for (JaxrsJavaApplication application : applications) {
+			out.writeUTF(application.getJavaElement().getHandleIdentifier());
+			out.writeBoolean(application.isJaxrsCoreApplicationSubclass());
+			writeAnnotation(out, application.getApplicationPathAnnotation());
+		}
+	}
+
+	private static void readJavaApplications(final DataInputStream in, final JaxrsMetamodel metamodel)
+			throws IOException {
+		final int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			final IType javaType = (IType) JavaCore.create(in.readUTF());
+			final boolean isApplicationSubclass = in.readBoolean();
+			final Annotation applicationPathAnnotation = readAnnotation(in);
+			final JaxrsJavaApplication application = new JaxrsJavaApplication(javaType, applicationPathAnnotation,
+					isApplicationSubclass, metamodel);
+			metamodel.add(application);
+			final JaxrsWebxmlApplication webxmlApplication = metamodel.getWebxmlApplication(application
+					.getJavaClassName());
+			if (webxmlApplication != null) {
+				application.setApplicationPathOverride(webxmlApplication.getApplicationPath());
+			}
+		}
+	}
+
+	private static void writeHttpMethods(final DataOutputStream out, final JaxrsMetamodel metamodel)
+			throws IOException {
+		final List<JaxrsHttpMethod> httpMethods = new ArrayList<JaxrsHttpMethod>();
+		for (IJaxrsHttpMethod httpMethod : metamodel.getAllHttpMethods()) {
+			if (!((JaxrsHttpMethod) httpMethod).isBuiltIn()) {
+				httpMethods.add((JaxrsHttpMethod) httpMethod);
+			}
+		}
+		out.writeInt(httpMethods.size());
+		for (JaxrsHttpMethod httpMethod : httpMethods) {
+			out.writeUTF(httpMethod.getJavaElement().getHandleIdentifier());
+			writeAnnotations(out, httpMethod.getAnnotations().values());
+		}
+	}
+
+	private static void readHttpMethods(final DataInputStream in, final JaxrsMetamodel metamodel) throws IOException {
+		final int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			final IType javaType = (IType) JavaCore.create(in.readUTF());
+			final List<Annotation> annotations = readAnnotations(in);
+			metamodel.add(new JaxrsHttpMethod.Builder(javaType, metamodel).annotations(annotations).build());
+		}
+	}
+
+	private static void writeResources(final DataOutputStream out, final JaxrsMetamodel metamodel) throws IOException {
+		final List<IJaxrsResource> resources = metamodel.getAllResources();
+		out.writeInt(resources.size());
+		for (IJaxrsResource element : resources) {
+			final JaxrsResource resource = (JaxrsResource) element;
+			out.writeUTF(resource.getJavaElement().getHandleIdentifier());
+			writeAnnotations(out, resource.getAnnotations().values());
+			out.writeInt(resource.getMethods().size());
+			for (JaxrsResourceMethod resourceMethod : resource.getMethods().values()) {
+				out.writeUTF(resourceMethod.getJavaElement().getHandleIdentifier());
+				writeAnnotations(out, resourceMethod.getAnnotations().values());
+				writeOptionalString(out, (resourceMethod.getReturnedType() != null) ? resourceMethod.getReturnedType()
+						.getHandleIdentifier() : null);
+				out.writeInt(resourceMethod.getJavaMethodParameters().size());
+				for (JavaMethodParameter methodParameter : resourceMethod.getJavaMethodParameters()) {
+					out.writeUTF(methodParameter.getName());
+					out.writeUTF(methodParameter.getTypeName());
+					writeAnnotations(out, methodParameter.getAnnotations().values());
+				}
+			}
+			out.writeInt(resource.getFields().size());
+			for (JaxrsResourceField resourceField : resource.getFields().values()) {
+				out.writeUTF(resourceField.getJavaElement().getHandleIdentifier());
+				writeAnnotations(out, resourceField.getAnnotations().values());
+			}
+		}
+	}
+
+	private static void readResources(final DataInputStream in, final JaxrsMetamodel metamodel) throws IOException {
+		final int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			final IType javaType = (IType) JavaCore.create(in.readUTF());
+			final Map<String, Annotation> resourceAnnotations = toMap(readAnnotations(in));
+			final JaxrsResource resource = new JaxrsResource.Builder(javaType, metamodel)
+					.pathTemplate(resourceAnnotations.remove(PATH.qualifiedName))
+					.consumes(resourceAnnotations.remove(CONSUMES.qualifiedName))
+					.produces(resourceAnnotations.remove(PRODUCES.qualifiedName)).build();
+			final int methodsSize = in.readInt();
+			for (int j = 0; j < methodsSize; j++) {
+				final IMethod javaMethod = (IMethod) JavaCore.create(in.readUTF());
+				final Map<String, Annotation> methodAnnotations = toMap(readAnnotations(in));
+				final String returnedTypeHandleIdentifier = readOptionalString(in);
+				final JaxrsResourceMethod.Builder builder = new JaxrsResourceMethod.Builder(javaMethod, resource,
+						metamodel).pathTemplate(methodAnnotations.remove(PATH.qualifiedName))
+						.consumes(methodAnnotations.remove(CONSUMES.qualifiedName))
+						.produces(methodAnnotations.remove(PRODUCES.qualifiedName));
+				// the remaining annotation is the HTTP Method, if any
+				if (!methodAnnotations.isEmpty()) {
+					builder.httpMethod(methodAnnotations.values().iterator().next());
+				}
+				if (returnedTypeHandleIdentifier != null) {
+					builder.returnType((IType) JavaCore.create(returnedTypeHandleIdentifier));
+				}
+				final int parametersSize = in.readInt();
+				for (int k = 0; k < parametersSize; k++) {
+					final String name = in.readUTF();
+					final String typeName = in.readUTF();
+					builder.methodParameter(new JavaMethodParameter(name, typeName, readAnnotations(in)));
+				}
+				try {
+					builder.build();
+				} catch (JavaModelException e) {
+					throw new IOException("Failed to restore resource method " + javaMethod.getElementName(), e);
+				}
+			}
+			final int fieldsSize = in.readInt();
+			for (int j = 0; j < fieldsSize; j++) {
+				final IField javaField = (IField) JavaCore.create(in.readUTF());
+				new JaxrsResourceField(javaField, readAnnotations(in), resource, metamodel);
+			}
+			metamodel.add(resource);
+		}
+	}
+
+	private static Map<String, Annotation> toMap(final List<Annotation> annotations) {
+		final Map<String, Annotation> annotationsMap = new HashMap<String, Annotation>();
+		for (Annotation annotation : annotations) {
+			annotationsMap.put(annotation.getFullyQualifiedName(), annotation);
+		}
+		return annotationsMap;
+	}
+
+	private static void writeAnnotations(final DataOutputStream out, final Collection<Annotation> annotations)
+			throws IOException {
+		out.writeInt(annotations.size());
+		for (Annotation annotation : annotations) {
+			writeAnnotation(out, annotation);
+		}
+	}
+
+	private static List<Annotation> readAnnotations(final DataInputStream in) throws IOException {
+		final int size = in.readInt();
+		final List<Annotation> annotations = new ArrayList<Annotation>(size);
+		for (int i = 0; i < size; i++) {
+			final Annotation annotation = readAnnotation(in);
+			if (annotation != null) {
+				annotations.add(annotation);
+			}
+		}
+		return annotations;
+	}
+
+	private static void writeAnnotation(final DataOutputStream out, final Annotation annotation) throws IOException {
+		out.writeBoolean(annotation != null);
+		if (annotation == null) {
+			return;
+		}
+		writeOptionalString(out, (annotation.getJavaAnnotation() != null) ? annotation.getJavaAnnotation()
+				.getHandleIdentifier() : null);
+		out.writeUTF(annotation.getFullyQualifiedName());
+		final Map<String, List<String>> elements = annotation.getJavaAnnotationElements();
+		out.writeInt(elements.size());
+		for (Entry<String, List<String>> entry : elements.entrySet()) {
+			out.writeUTF(entry.getKey());
+			final List<String> values = entry.getValue();
+			out.writeInt(values.size());
+			for (String value : values) {
+				out.writeUTF(value);
+			}
+		}
+	}
+
+	private static Annotation readAnnotation(final DataInputStream in) throws IOException {
+		if (!in.readBoolean()) {
+			return null;
+		}
+		final String handleIdentifier = readOptionalString(in);
+		final IJavaElement javaAnnotation = (handleIdentifier != null) ? JavaCore.create(handleIdentifier) : null;
+		final String name = in.readUTF();
+		final int size = in.readInt();
+		final Map<String, List<String>> elements = new HashMap<String, List<String>>(size * 2);
+		for (int i = 0; i < size; i++) {
+			final String key = in.readUTF();
+			final int valuesSize = in.readInt();
+			final List<String> values = new ArrayList<String>(valuesSize);
+			for (int j = 0; j < valuesSize; j++) {
+				values.add(in.readUTF());
+			}
+			elements.put(key, values);
+		}
+		return new Annotation((IAnnotation) javaAnnotation, name, elements);
+	}
+
+	private static void writeOptionalString(final DataOutputStream out, final String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String readOptionalString(final DataInputStream in) throws IOException {
+		if (in.readBoolean()) {
+			return in.readUTF();
+		}
+		return null;
+	}
+
+	private static void close(final Closeable closeable) {
+		if (closeable != null) {
+			try {
+				closeable.close();
+			} catch (IOException e) {
+				Logger.debug("Failed to close stream: {}", e.getMessage());
+			}
+		}
+	}
+
+}
@@ -176,6 +176,9 @@ public class JaxrsResourceMethod extends JaxrsResourceElement<IMethod>
 				|| (this.returnedJavaType == null && returnedType != null)
 				|| (this.returnedJavaType != null && returnedType != null && !this.returnedJavaType
 						.equals(returnedType))) {
+			if (getMetamodel() != null && getMetamodel().containsElement(this)) {
+				getMetamodel().indexReturnedType(this, this.returnedJavaType, returnedType);
+			}
 			this.returnedJavaType = returnedType;
 			return F_METHOD_RETURN_TYPE;
 		}
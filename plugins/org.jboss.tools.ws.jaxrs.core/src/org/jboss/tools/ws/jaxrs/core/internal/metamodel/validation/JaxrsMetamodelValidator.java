@@ -39,6 +39,7 @@ import org.jboss.tools.common.validation.internal.SimpleValidatingProjectTree;
 import org.jboss.tools.ws.jaxrs.core.JBossJaxrsCorePlugin;
 import org.jboss.tools.ws.jaxrs.core.configuration.ProjectNatureUtils;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.JaxrsMetamodelBuilder;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.ResourceChangedBuildJob;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsBaseElement;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsHttpMethod;
 import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsJavaApplication;
@@ -112,6 +113,7 @@ public class JaxrsMetamodelValidator extends TempMarkerManager implements IValid
 			if (!changedFiles.isEmpty()) {
 				Logger.debug("*** Validating project {} after files {} changed... ***", project.getName(),
 						changedFiles.toString());
+				waitForMetamodelBuild(project);
 				final JaxrsMetamodel jaxrsMetamodel = JaxrsMetamodelLocator.get(project);
 				if(jaxrsMetamodel != null) { // prevent failure in case validation would be called at workbench startup, even before metamodel is built.
 					final Set<IResource> allResources = completeValidationSet(jaxrsMetamodel, changedFiles.toArray(new IFile[changedFiles.size()]));
@@ -208,6 +210,7 @@ public class JaxrsMetamodelValidator extends TempMarkerManager implements IValid
 		setAsYouTypeValidation(false);
 		displaySubtask(JaxrsValidationMessages.VALIDATING_PROJECT, new String[] { project.getName() });
 		try {
+			waitForMetamodelBuild(project);
 			final JaxrsMetamodel jaxrsMetamodel = JaxrsMetamodelLocator.get(project);
 			if (jaxrsMetamodel != null) {
 				for (IJaxrsElement element : jaxrsMetamodel.getAllElements()) {
@@ -224,6 +227,21 @@ public class JaxrsMetamodelValidator extends TempMarkerManager implements IValid
 		return Status.OK_STATUS;
 	}
 
+	/**
+	 * Waits until the pending JAX-RS Metamodel builds of the given project are complete, since they may run
+	 * concurrently with the other builders of the workspace build that triggered this validation.
+	 * 
+	 * @param project
+	 *            the project to validate
+	 */
+	private void waitForMetamodelBuild(final IProject project) {
+		try {
+			ResourceChangedBuildJob.join(project);
+		} catch (InterruptedException e) {
+			Logger.warn("Interrupted while waiting for the JAX-RS Metamodel build of project " + project.getName(), e);
+		}
+	}
+
 	/**
 	 * Uses the appropriate validator to validate the given JAX-RS element, or does nothing if no validator could be
 	 * found.
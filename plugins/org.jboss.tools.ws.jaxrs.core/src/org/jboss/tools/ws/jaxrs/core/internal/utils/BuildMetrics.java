@@ -0,0 +1,360 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.internal.utils;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.core.resources.IProject;
+
+/**
+ * Registry of the JAX-RS Metamodel build metrics, per project: the time spent in each build phase, and counters of
+ * the underlying operations (JDT searches, AST parses, AST cache hits, JAX-RS elements created/changed/removed).
+ *
+ * The build jobs bind the project being built to the current thread (see
+ * {@link BuildMetrics#startBuild(IProject)}), so that the operations counted deeper in the call stack (eg: in the JDT
+ * utilities) are attributed to that project. Operations performed outside of a build are attributed to the
+ * {@link BuildMetrics#NO_PROJECT} entry.
+ *
+ * The metrics can be queried at any time with {@link BuildMetrics#getMetrics(String)}, and are periodically written
+ * in the file given by the {@link BuildMetrics#DUMP_FILE_PROPERTY} system property, if any.
+ *
+ * All methods can be called concurrently.
+ */
+public class BuildMetrics {
+
+	/** Name of the system property that defines the file in which the metrics are periodically written. */
+	public static final String DUMP_FILE_PROPERTY = "org.jboss.tools.ws.jaxrs.core.metricsFile"; //$NON-NLS-1$
+
+	/** Name of the system property that defines the minimum interval between two dumps, in seconds. */
+	public static final String DUMP_INTERVAL_PROPERTY = "org.jboss.tools.ws.jaxrs.core.metricsInterval"; //$NON-NLS-1$
+
+	/** Default minimum interval between two dumps, in seconds. */
+	private static final long DEFAULT_DUMP_INTERVAL = 60;
+
+	/** Entry for the operations that are not performed during the build of a given project. */
+	public static final String NO_PROJECT = "<none>"; //$NON-NLS-1$
+
+	/** The timed build phases. */
+	public enum Phase {
+		/** Scan of the resource delta or of the Java element changes. */
+		DELTA_SCAN,
+		/** Processing of the affected resources, see ResourceChangedProcessor. */
+		RESOURCES_PROCESSING,
+		/** Processing of the affected Java elements after a reconcile, see JavaElementChangedProcessor. */
+		JAVA_ELEMENTS_PROCESSING,
+		/** Processing of the metamodel changes (endpoints), see JaxrsMetamodelChangedProcessor. */
+		METAMODEL_PROCESSING,
+		/** Notification of the subscribers, see JaxrsElementChangedPublisher. */
+		PUBLISHING,
+		/** The whole build. */
+		TOTAL;
+	}
+
+	/** The counted operations. */
+	public enum Counter {
+		JDT_SEARCHES, AST_PARSES, AST_CACHE_HITS, AST_CACHE_MISSES, ELEMENTS_ADDED, ELEMENTS_CHANGED, ELEMENTS_REMOVED;
+	}
+
+	private static final BuildMetrics instance = new BuildMetrics();
+
+	/** The metrics, indexed by project name. */
+	private final ConcurrentMap<String, ProjectMetrics> metrics = new ConcurrentHashMap<String, ProjectMetrics>();
+
+	/** The name of the project being built in the current thread, if any. */
+	private final ThreadLocal<String> currentProject = new ThreadLocal<String>();
+
+	private final String dumpFile = System.getProperty(DUMP_FILE_PROPERTY);
+
+	private final long dumpInterval = Long.getLong(DUMP_INTERVAL_PROPERTY, DEFAULT_DUMP_INTERVAL) * 1000;
+
+	private final AtomicLong lastDump = new AtomicLong(System.currentTimeMillis());
+
+	/** Singleton constructor */
+	private BuildMetrics() {
+		super();
+	}
+
+	public static BuildMetrics getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Binds the given project to the current thread, so that the operations counted until
+	 * {@link BuildMetrics#endBuild()} is called are attributed to it.
+	 *
+	 * @param project
+	 *            the project being built
+	 */
+	public void startBuild(final IProject project) {
+		bindProject(project);
+		getOrCreateMetrics(project.getName()).builds.incrementAndGet();
+	}
+
+	/**
+	 * Binds the given project to the current thread without counting a build (eg: while scanning the changes that
+	 * will lead to a build), until {@link BuildMetrics#unbindProject()} is called.
+	 *
+	 * @param project
+	 *            the project
+	 */
+	public void bindProject(final IProject project) {
+		currentProject.set(project.getName());
+	}
+
+	/**
+	 * Unbinds the project bound to the current thread, if any.
+	 */
+	public void unbindProject() {
+		currentProject.remove();
+	}
+
+	/**
+	 * Unbinds the project being built from the current thread, and writes the metrics in the dump file if it is
+	 * configured and was not written recently.
+	 */
+	public void endBuild() {
+		unbindProject();
+		dumpIfDue();
+	}
+
+	/**
+	 * Records the time spent in the given phase for the project being built in the current thread.
+	 *
+	 * @param phase
+	 *            the phase
+	 * @param startTime
+	 *            the start time of the phase, as given by {@link System#nanoTime()}
+	 */
+	public void record(final Phase phase, final long startTime) {
+		record(getCurrentProject(), phase, startTime);
+	}
+
+	/**
+	 * Records the time spent in the given phase for the given project, regardless of the project being built in the
+	 * current thread (eg: for a phase performed by the builder before the build job runs).
+	 *
+	 * @param project
+	 *            the project
+	 * @param phase
+	 *            the phase
+	 * @param startTime
+	 *            the start time of the phase, as given by {@link System#nanoTime()}
+	 */
+	public void record(final IProject project, final Phase phase, final long startTime) {
+		record(project.getName(), phase, startTime);
+	}
+
+	private void record(final String projectName, final Phase phase, final long startTime) {
+		final long duration = System.nanoTime() - startTime;
+		final ProjectMetrics projectMetrics = getOrCreateMetrics(projectName);
+		final int index = phase.ordinal();
+		projectMetrics.phaseCounts.incrementAndGet(index);
+		projectMetrics.phaseDurations.addAndGet(index, duration);
+		long max = projectMetrics.phaseMaxDurations.get(index);
+		while (duration > max && !projectMetrics.phaseMaxDurations.compareAndSet(index, max, duration)) {
+			max = projectMetrics.phaseMaxDurations.get(index);
+		}
+	}
+
+	/**
+	 * Increments the given counter of the project being built in the current thread.
+	 *
+	 * @param counter
+	 *            the counter
+	 */
+	public void increment(final Counter counter) {
+		add(counter, 1);
+	}
+
+	/**
+	 * Adds the given value to the given counter of the project being built in the current thread.
+	 *
+	 * @param counter
+	 *            the counter
+	 * @param value
+	 *            the value to add
+	 */
+	public void add(final Counter counter, final long value) {
+		if (value != 0) {
+			getOrCreateMetrics(getCurrentProject()).counters.addAndGet(counter.ordinal(), value);
+		}
+	}
+
+	/**
+	 * @return a snapshot of the metrics of the given project, or null if nothing was recorded for that project.
+	 */
+	public ProjectMetrics getMetrics(final String projectName) {
+		final ProjectMetrics projectMetrics = metrics.get(projectName);
+		return projectMetrics != null ? projectMetrics.copy() : null;
+	}
+
+	/**
+	 * @return a snapshot of the metrics of all projects, indexed and sorted by project name.
+	 */
+	public Map<String, ProjectMetrics> getAllMetrics() {
+		final Map<String, ProjectMetrics> allMetrics = new TreeMap<String, ProjectMetrics>();
+		for (Map.Entry<String, ProjectMetrics> entry : metrics.entrySet()) {
+			allMetrics.put(entry.getKey(), entry.getValue().copy());
+		}
+		return allMetrics;
+	}
+
+	/**
+	 * Discards all metrics.
+	 */
+	public void reset() {
+		metrics.clear();
+	}
+
+	/**
+	 * Writes all metrics in the dump file, if configured and if the last dump is older than the configured interval.
+	 */
+	public void dumpIfDue() {
+		if (dumpFile == null) {
+			return;
+		}
+		final long now = System.currentTimeMillis();
+		final long last = lastDump.get();
+		if (now - last < dumpInterval || !lastDump.compareAndSet(last, now)) {
+			return;
+		}
+		try {
+			dump(new File(dumpFile));
+		} catch (IOException e) {
+			Logger.warn("Failed to write the JAX-RS Metamodel build metrics in " + dumpFile, e);
+		}
+	}
+
+	/**
+	 * Writes all metrics in the given file (replacing its content).
+	 *
+	 * @param file
+	 *            the target file
+	 * @throws IOException
+	 */
+	public void dump(final File file) throws IOException {
+		final PrintWriter writer = new PrintWriter(new FileWriter(file));
+		try {
+			writer.println("# JAX-RS Metamodel build metrics - "
+					+ new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
+			for (Map.Entry<String, ProjectMetrics> entry : getAllMetrics().entrySet()) {
+				writer.println(entry.getKey() + ": " + entry.getValue());
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	private String getCurrentProject() {
+		final String projectName = currentProject.get();
+		return projectName != null ? projectName : NO_PROJECT;
+	}
+
+	private ProjectMetrics getOrCreateMetrics(final String projectName) {
+		final ProjectMetrics projectMetrics = metrics.get(projectName);
+		if (projectMetrics != null) {
+			return projectMetrics;
+		}
+		final ProjectMetrics newMetrics = new ProjectMetrics();
+		final ProjectMetrics existingMetrics = metrics.putIfAbsent(projectName, newMetrics);
+		return existingMetrics != null ? existingMetrics : newMetrics;
+	}
+
+	/** The metrics of a single project. */
+	public static class ProjectMetrics {
+
+		private final AtomicLong builds = new AtomicLong();
+
+		private final AtomicLongArray phaseCounts = new AtomicLongArray(Phase.values().length);
+
+		private final AtomicLongArray phaseDurations = new AtomicLongArray(Phase.values().length);
+
+		private final AtomicLongArray phaseMaxDurations = new AtomicLongArray(Phase.values().length);
+
+		private final AtomicLongArray counters = new AtomicLongArray(Counter.values().length);
+
+		private ProjectMetrics copy() {
+			final ProjectMetrics copy = new ProjectMetrics();
+			copy.builds.set(builds.get());
+			for (int i = 0; i < phaseCounts.length(); i++) {
+				copy.phaseCounts.set(i, phaseCounts.get(i));
+				copy.phaseDurations.set(i, phaseDurations.get(i));
+				copy.phaseMaxDurations.set(i, phaseMaxDurations.get(i));
+			}
+			for (int i = 0; i < counters.length(); i++) {
+				copy.counters.set(i, counters.get(i));
+			}
+			return copy;
+		}
+
+		/**
+		 * @return the number of builds
+		 */
+		public long getBuilds() {
+			return builds.get();
+		}
+
+		/**
+		 * @return the number of times the given phase was recorded
+		 */
+		public long getCount(final Phase phase) {
+			return phaseCounts.get(phase.ordinal());
+		}
+
+		/**
+		 * @return the total time spent in the given phase, in milliseconds
+		 */
+		public long getTotalTime(final Phase phase) {
+			return phaseDurations.get(phase.ordinal()) / 1000000;
+		}
+
+		/**
+		 * @return the longest time spent in the given phase, in milliseconds
+		 */
+		public long getMaxTime(final Phase phase) {
+			return phaseMaxDurations.get(phase.ordinal()) / 1000000;
+		}
+
+		/**
+		 * @return the value of the given counter
+		 */
+		public long getCount(final Counter counter) {
+			return counters.get(counter.ordinal());
+		}
+
+		@Override
+		public String toString() {
+			final StringBuilder builder = new StringBuilder();
+			builder.append("builds=").append(getBuilds());
+			for (Phase phase : Phase.values()) {
+				builder.append(", ").append(phase.name().toLowerCase()).append("=").append(getTotalTime(phase))
+						.append("ms (count=").append(getCount(phase)).append(", max=").append(getMaxTime(phase))
+						.append("ms)");
+			}
+			for (Counter counter : Counter.values()) {
+				builder.append(", ").append(counter.name().toLowerCase()).append("=").append(getCount(counter));
+			}
+			return builder.toString();
+		}
+	}
+
+}
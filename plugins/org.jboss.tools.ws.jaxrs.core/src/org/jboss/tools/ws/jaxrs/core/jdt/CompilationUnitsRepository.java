@@ -10,34 +10,80 @@
  ******************************************************************************/
 package org.jboss.tools.ws.jaxrs.core.jdt;
 
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.IAnnotation;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.BuildMetrics;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.BuildMetrics.Counter;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.CollectionUtils;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
 
+/**
+ * Cache of the Compilation Units' ASTs, method signatures and problems, shared by the JAX-RS Metamodel builders and the
+ * Java element change listener.
+ * 
+ * Entries are partitioned by project. The most recently used ASTs are kept in memory within a configurable budget (see
+ * {@link #MEMORY_BUDGET_PROPERTY}), based on an estimation of their size. The least recently used ASTs beyond this
+ * budget are only softly referenced, so that the garbage collector can reclaim them when memory runs low, in which
+ * case they are parsed again on the next access. Method signatures and problems are small and kept until the
+ * compilation unit or the project is removed, since they are the 'control' values when computing diffs.
+ * 
+ * All methods can be called concurrently.
+ */
 public class CompilationUnitsRepository {
 
+	/** Name of the system property that defines the memory budget of the ASTs, in megabytes. */
+	public static final String MEMORY_BUDGET_PROPERTY = "org.jboss.tools.ws.jaxrs.core.astCacheSize"; //$NON-NLS-1$
+
+	/** Default memory budget of the ASTs, in megabytes. */
+	private static final long DEFAULT_MEMORY_BUDGET = 64;
+
+	/**
+	 * Rough estimation of the memory used by an AST (with resolved bindings) per character of source code, used to keep
+	 * the cached ASTs within the memory budget.
+	 */
+	private static final int ESTIMATED_BYTES_PER_SOURCE_CHAR = 32;
+
 	private static final CompilationUnitsRepository instance = new CompilationUnitsRepository();
 
-	private final Map<ICompilationUnit, List<JavaMethodSignature>> methodDeclarationsMap = new HashMap<ICompilationUnit, List<JavaMethodSignature>>();
+	/** The partitions, indexed by project name. */
+	private final ConcurrentMap<String, Partition> partitions = new ConcurrentHashMap<String, Partition>();
+
+	/** The most recently used ASTs, in access order. Guarded by itself. */
+	private final LinkedHashMap<IPath, CompilationUnit> recentASTs = new LinkedHashMap<IPath, CompilationUnit>(16,
+			0.75f, true);
 
-	private final Map<IPath, CompilationUnit> astMap = new HashMap<IPath, CompilationUnit>();
+	/** Estimated size of the ASTs in {@link #recentASTs}. Guarded by {@link #recentASTs}. */
+	private long recentASTsSize = 0;
 
-	private final Map<ICompilationUnit, Map<Integer, Problem>> problemsMap = new HashMap<ICompilationUnit, Map<Integer, Problem>>();
+	private volatile long memoryBudget = Long.getLong(MEMORY_BUDGET_PROPERTY, DEFAULT_MEMORY_BUDGET) * 1024 * 1024;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final AtomicLong evictions = new AtomicLong();
 
 	/** Singleton constructor */
 	private CompilationUnitsRepository() {
@@ -49,9 +95,55 @@ public class CompilationUnitsRepository {
 	}
 
 	public void clear() {
-		methodDeclarationsMap.clear();
-		astMap.clear();
-		problemsMap.clear();
+		partitions.clear();
+		synchronized (recentASTs) {
+			recentASTs.clear();
+			recentASTsSize = 0;
+		}
+	}
+
+	/**
+	 * Removes all entries related to the given project, for example when the project is closed or deleted.
+	 * 
+	 * @param project
+	 *            the project
+	 */
+	public void clear(final IProject project) {
+		partitions.remove(project.getName());
+		synchronized (recentASTs) {
+			for (Iterator<Entry<IPath, CompilationUnit>> iterator = recentASTs.entrySet().iterator(); iterator
+					.hasNext();) {
+				final Entry<IPath, CompilationUnit> entry = iterator.next();
+				if (project.getName().equals(entry.getKey().segment(0))) {
+					recentASTsSize -= estimateSize(entry.getValue());
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sets the memory budget of the ASTs that are kept in memory. ASTs beyond this budget are evicted in a least
+	 * recently used order.
+	 * 
+	 * @param memoryBudget
+	 *            the memory budget, in bytes
+	 */
+	public void setMemoryBudget(final long memoryBudget) {
+		this.memoryBudget = memoryBudget;
+		synchronized (recentASTs) {
+			evictLeastRecentlyUsedASTs();
+		}
+	}
+
+	/**
+	 * @return the current statistics of this repository, for diagnostic purposes.
+	 */
+	public Statistics getStatistics() {
+		synchronized (recentASTs) {
+			return new Statistics(hits.get(), misses.get(), evictions.get(), recentASTs.size(), recentASTsSize,
+					memoryBudget, partitions.size());
+		}
 	}
 
 	/**
@@ -66,15 +158,17 @@ public class CompilationUnitsRepository {
 		}
 		final IResource resource = compilationUnit.getResource();
 		final IPath resourcePath = resource.getFullPath();
-		if (!astMap.containsKey(resourcePath)) {
-			Logger.trace("Adding {}'s AST in CompilationUnitsRepository cache.", compilationUnit.getElementName());
-			recordAST(compilationUnit);
-		} else {
+		final CompilationUnit compilationUnitAST = lookupAST(resourcePath);
+		if (compilationUnitAST != null) {
+			hits.incrementAndGet();
+			BuildMetrics.getInstance().increment(Counter.AST_CACHE_HITS);
 			Logger.trace("CompilationUnitsRepository cache contains {}'s AST.", compilationUnit.getElementName());
+			return compilationUnitAST;
 		}
-
-		return astMap.get(resourcePath);
-
+		misses.incrementAndGet();
+		BuildMetrics.getInstance().increment(Counter.AST_CACHE_MISSES);
+		Logger.trace("Adding {}'s AST in CompilationUnitsRepository cache.", compilationUnit.getElementName());
+		return recordAST(compilationUnit);
 	}
 
 	/**
@@ -103,10 +197,10 @@ public class CompilationUnitsRepository {
 			return null;
 		}
 		CompilationUnit compilationUnitAST = JdtUtils.parse(compilationUnit, new NullProgressMonitor());
-		astMap.put(compilationUnit.getResource().getFullPath(), compilationUnitAST);
+		storeAST(compilationUnit.getResource().getFullPath(), compilationUnitAST);
 		JavaMethodSignaturesVisitor methodsVisitor = new JavaMethodSignaturesVisitor(compilationUnit);
 		compilationUnitAST.accept(methodsVisitor);
-		methodDeclarationsMap.put(compilationUnit, methodsVisitor.getMethodSignatures());
+		getPartition(compilationUnit).methodDeclarations.put(compilationUnit, methodsVisitor.getMethodSignatures());
 		return compilationUnitAST;
 	}
 
@@ -114,12 +208,18 @@ public class CompilationUnitsRepository {
 			final CompilationUnit compilationUnitAST, final boolean computeDiffs) {
 		JavaMethodSignaturesVisitor methodsVisitor = new JavaMethodSignaturesVisitor(compilationUnit);
 		compilationUnitAST.accept(methodsVisitor);
+		// replace old values in "cache"
+		storeAST(compilationUnit.getResource().getFullPath(), compilationUnitAST);
+		// TODO : improve performances here : do not override all method
+		// declaration, but only those that changed, because reparsing method
+		// signatures (annotated parameters, etc.) may be expensive.
+		final List<JavaMethodSignature> workingCopyDeclarations = methodsVisitor.getMethodSignatures();
+		final List<JavaMethodSignature> controlDeclarations = getPartition(compilationUnit).methodDeclarations.put(
+				compilationUnit, workingCopyDeclarations);
 		List<JavaMethodSignature> diffs = null;
 		// FIXME: must make sure that the methodDeclarationsMap remains in sync
 		// with the working copy after each change.
 		if (computeDiffs) {
-			List<JavaMethodSignature> workingCopyDeclarations = methodsVisitor.getMethodSignatures();
-			List<JavaMethodSignature> controlDeclarations = methodDeclarationsMap.get(compilationUnit);
 			diffs = CollectionUtils.difference(workingCopyDeclarations, controlDeclarations);
 			if (diffs.size() > 0) {
 				Logger.trace("Found diffs in method signatures:", diffs);
@@ -127,21 +227,20 @@ public class CompilationUnitsRepository {
 		} else {
 			diffs = new ArrayList<JavaMethodSignature>();
 		}
-		// replace old values in "cache"
-		astMap.put(compilationUnit.getResource().getFullPath(), compilationUnitAST);
-		// TODO : improve performances here : do not override all method
-		// declaration, but only those that changed, because reparsing method
-		// signatures (annotated parameters, etc.) may be expensive.
-		methodDeclarationsMap.put(compilationUnit, methodsVisitor.getMethodSignatures());
 		return diffs;
 	}
 
 	public JavaMethodSignature getMethodSignature(final IMethod javaMethod) throws JavaModelException {
 		final ICompilationUnit compilationUnit = javaMethod.getCompilationUnit();
-		if (!methodDeclarationsMap.containsKey(compilationUnit)) {
+		final Partition partition = getPartition(compilationUnit);
+		if (!partition.methodDeclarations.containsKey(compilationUnit)) {
 			recordAST(compilationUnit);
 		}
-		for (JavaMethodSignature signature : methodDeclarationsMap.get(compilationUnit)) {
+		final List<JavaMethodSignature> methodSignatures = partition.methodDeclarations.get(compilationUnit);
+		if (methodSignatures == null) {
+			return null;
+		}
+		for (JavaMethodSignature signature : methodSignatures) {
 			if (signature.getJavaMethod().getHandleIdentifier().equals(javaMethod.getHandleIdentifier())) {
 				return signature;
 			}
@@ -152,9 +251,16 @@ public class CompilationUnitsRepository {
 	public void removeAST(final ICompilationUnit compilationUnit) {
 		final IPath fullPath = compilationUnit.getResource().getFullPath();
 		Logger.trace("Removing {}'s AST from CompilationUnitsRepository (path={})", compilationUnit, fullPath);
-		methodDeclarationsMap.remove(compilationUnit);
-		astMap.remove(fullPath);
-		problemsMap.remove(compilationUnit);
+		final Partition partition = getPartition(compilationUnit);
+		partition.methodDeclarations.remove(compilationUnit);
+		partition.asts.remove(fullPath);
+		partition.problems.remove(compilationUnit);
+		synchronized (recentASTs) {
+			final CompilationUnit removedAST = recentASTs.remove(fullPath);
+			if (removedAST != null) {
+				recentASTsSize -= estimateSize(removedAST);
+			}
+		}
 	}
 
 	/**
@@ -172,7 +278,6 @@ public class CompilationUnitsRepository {
 	 */
 	public Map<IProblem, IJavaElement> mergeProblems(final ICompilationUnit compilationUnit, final IProblem[] problems)
 			throws JavaModelException {
-		final Map<Integer, Problem> lastProblems = problemsMap.get(compilationUnit);
 		final Map<Integer, Problem> newProblems = new HashMap<Integer, Problem>();
 		// convert array into map
 		for (IProblem p : problems) {
@@ -182,6 +287,9 @@ public class CompilationUnitsRepository {
 				newProblems.put(p.getID(), new Problem(p, element));
 			}
 		}
+		// store new problems and retrieve the last ones at once
+		final Map<Integer, Problem> lastProblems = getPartition(compilationUnit).problems.put(compilationUnit,
+				newProblems);
 		// computes diffs between last and new problems
 		final Map<IProblem, IJavaElement> fixedProblems = new HashMap<IProblem, IJavaElement>();
 		if (lastProblems != null) {
@@ -191,11 +299,181 @@ public class CompilationUnitsRepository {
 				}
 			}
 		}
-		// store new problems
-		problemsMap.put(compilationUnit, newProblems);
 		return fixedProblems;
 	}
 
+	/**
+	 * Looks up the AST for the given resource path, first among the most recently used ASTs, then among the softly
+	 * referenced ones (in which case the AST becomes the most recently used one again).
+	 * 
+	 * @param resourcePath
+	 *            the compilation unit resource path
+	 * @return the AST or null if none was found.
+	 */
+	private CompilationUnit lookupAST(final IPath resourcePath) {
+		synchronized (recentASTs) {
+			final CompilationUnit compilationUnitAST = recentASTs.get(resourcePath);
+			if (compilationUnitAST != null) {
+				return compilationUnitAST;
+			}
+		}
+		final Partition partition = partitions.get(resourcePath.segment(0));
+		if (partition == null) {
+			return null;
+		}
+		final SoftReference<CompilationUnit> reference = partition.asts.get(resourcePath);
+		if (reference == null) {
+			return null;
+		}
+		final CompilationUnit compilationUnitAST = reference.get();
+		if (compilationUnitAST == null) {
+			// reclaimed by the garbage collector
+			partition.asts.remove(resourcePath, reference);
+			return null;
+		}
+		storeAST(resourcePath, compilationUnitAST);
+		return compilationUnitAST;
+	}
+
+	/**
+	 * Stores the given AST as the most recently used one, and evicts the least recently used ASTs if the memory budget
+	 * is exceeded.
+	 * 
+	 * @param resourcePath
+	 *            the compilation unit resource path
+	 * @param compilationUnitAST
+	 *            the AST
+	 */
+	private void storeAST(final IPath resourcePath, final CompilationUnit compilationUnitAST) {
+		getPartition(resourcePath.segment(0)).asts.put(resourcePath, new SoftReference<CompilationUnit>(
+				compilationUnitAST));
+		synchronized (recentASTs) {
+			final CompilationUnit replacedAST = recentASTs.put(resourcePath, compilationUnitAST);
+			if (replacedAST != null) {
+				recentASTsSize -= estimateSize(replacedAST);
+			}
+			recentASTsSize += estimateSize(compilationUnitAST);
+			evictLeastRecentlyUsedASTs();
+		}
+	}
+
+	/**
+	 * Evicts the least recently used ASTs until the memory budget is met, always keeping the most recently used one.
+	 * The evicted ASTs remain softly referenced in their partition. Must be called while holding the lock on
+	 * {@link #recentASTs}.
+	 */
+	private void evictLeastRecentlyUsedASTs() {
+		final Iterator<Entry<IPath, CompilationUnit>> iterator = recentASTs.entrySet().iterator();
+		while (recentASTsSize > memoryBudget && recentASTs.size() > 1 && iterator.hasNext()) {
+			final Entry<IPath, CompilationUnit> eldest = iterator.next();
+			recentASTsSize -= estimateSize(eldest.getValue());
+			iterator.remove();
+			evictions.incrementAndGet();
+			Logger.trace("Evicted {}'s AST from the most recently used ones", eldest.getKey());
+		}
+	}
+
+	private static long estimateSize(final CompilationUnit compilationUnitAST) {
+		return (long) compilationUnitAST.getLength() * ESTIMATED_BYTES_PER_SOURCE_CHAR;
+	}
+
+	private Partition getPartition(final ICompilationUnit compilationUnit) {
+		final IJavaProject javaProject = compilationUnit.getJavaProject();
+		return getPartition(javaProject != null ? javaProject.getElementName() : "");
+	}
+
+	private Partition getPartition(final String projectName) {
+		final Partition partition = partitions.get(projectName);
+		if (partition != null) {
+			return partition;
+		}
+		final Partition newPartition = new Partition();
+		final Partition existingPartition = partitions.putIfAbsent(projectName, newPartition);
+		return existingPartition != null ? existingPartition : newPartition;
+	}
+
+	/** The entries related to a single project. */
+	static class Partition {
+
+		private final ConcurrentMap<IPath, SoftReference<CompilationUnit>> asts = new ConcurrentHashMap<IPath, SoftReference<CompilationUnit>>();
+
+		private final ConcurrentMap<ICompilationUnit, List<JavaMethodSignature>> methodDeclarations = new ConcurrentHashMap<ICompilationUnit, List<JavaMethodSignature>>();
+
+		private final ConcurrentMap<ICompilationUnit, Map<Integer, Problem>> problems = new ConcurrentHashMap<ICompilationUnit, Map<Integer, Problem>>();
+
+	}
+
+	/** Snapshot of the repository statistics. */
+	public static class Statistics {
+
+		private final long hits;
+
+		private final long misses;
+
+		private final long evictions;
+
+		private final int cachedASTs;
+
+		private final long estimatedSize;
+
+		private final long memoryBudget;
+
+		private final int partitions;
+
+		Statistics(final long hits, final long misses, final long evictions, final int cachedASTs,
+				final long estimatedSize, final long memoryBudget, final int partitions) {
+			this.hits = hits;
+			this.misses = misses;
+			this.evictions = evictions;
+			this.cachedASTs = cachedASTs;
+			this.estimatedSize = estimatedSize;
+			this.memoryBudget = memoryBudget;
+			this.partitions = partitions;
+		}
+
+		/** @return the number of ASTs retrieved from the cache */
+		public long getHits() {
+			return hits;
+		}
+
+		/** @return the number of ASTs that had to be parsed because they were not in the cache */
+		public long getMisses() {
+			return misses;
+		}
+
+		/** @return the number of ASTs evicted from the most recently used ones */
+		public long getEvictions() {
+			return evictions;
+		}
+
+		/** @return the number of most recently used ASTs kept in memory */
+		public int getCachedASTs() {
+			return cachedASTs;
+		}
+
+		/** @return the estimated size of the most recently used ASTs, in bytes */
+		public long getEstimatedSize() {
+			return estimatedSize;
+		}
+
+		/** @return the memory budget, in bytes */
+		public long getMemoryBudget() {
+			return memoryBudget;
+		}
+
+		/** @return the number of project partitions */
+		public int getPartitions() {
+			return partitions;
+		}
+
+		@Override
+		public String toString() {
+			return "CompilationUnitsRepository statistics: hits=" + hits + ", misses=" + misses + ", evictions="
+					+ evictions + ", cachedASTs=" + cachedASTs + ", estimatedSize=" + estimatedSize + "/"
+					+ memoryBudget + " bytes, partitions=" + partitions;
+		}
+	}
+
 	static class Problem {
 
 		private final IProblem problem;
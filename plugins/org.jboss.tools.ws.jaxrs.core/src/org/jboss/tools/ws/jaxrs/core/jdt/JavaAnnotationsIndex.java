@@ -0,0 +1,316 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.jdt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.ISourceRange;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.SourceRange;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AnnotationTypeDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FieldDeclaration;
+import org.eclipse.jdt.core.dom.IAnnotationBinding;
+import org.eclipse.jdt.core.dom.MemberValuePair;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.NormalAnnotation;
+import org.eclipse.jdt.core.dom.SingleMemberAnnotation;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+
+/**
+ * Index of the annotations declared on the members (types, methods and fields) of a given Compilation Unit AST. The
+ * index is built in a single traversal of the AST the first time it is requested, and then kept as a property of the
+ * AST itself, so that resolving the annotations of all the members of a type does not require one traversal per
+ * member. Since a given AST is never modified once parsed, the index never needs to be invalidated.
+ *
+ * The members are matched using the same rules as the {@link JavaAnnotationsVisitor}: same kind, same name and an AST
+ * node located within the member's source range.
+ */
+public class JavaAnnotationsIndex {
+
+	/** Name of the AST property under which the index is kept. */
+	private static final String INDEX_PROPERTY = JavaAnnotationsIndex.class.getName();
+
+	/** the indexed members, grouped by kind and name. */
+	private final Map<String, List<IndexedMember>> indexedMembers = new HashMap<String, List<IndexedMember>>();
+
+	/**
+	 * Returns the index of the annotations for the given AST, building it if it does not exist yet.
+	 *
+	 * @param ast
+	 *            the compilation unit AST
+	 * @return the annotations index
+	 */
+	public static JavaAnnotationsIndex getIndex(final CompilationUnit ast) {
+		synchronized (ast) {
+			JavaAnnotationsIndex index = (JavaAnnotationsIndex) ast.getProperty(INDEX_PROPERTY);
+			if (index == null) {
+				index = new JavaAnnotationsIndex();
+				ast.accept(index.new Indexer());
+				ast.setProperty(INDEX_PROPERTY, index);
+			}
+			return index;
+		}
+	}
+
+	/** Private constructor: use {@link JavaAnnotationsIndex#getIndex(CompilationUnit)} */
+	private JavaAnnotationsIndex() {
+		super();
+	}
+
+	/**
+	 * Returns the annotation with the given name on the given member.
+	 *
+	 * @param member
+	 *            the annotated member
+	 * @param annotationName
+	 *            the fully qualified or simple name of the annotation
+	 * @return the annotation or null if none matched
+	 * @throws JavaModelException
+	 */
+	public Annotation getAnnotation(final IMember member, final String annotationName) throws JavaModelException {
+		final IndexedMember indexedMember = lookup(member);
+		if (indexedMember == null) {
+			return null;
+		}
+		for (IndexedAnnotation indexedAnnotation : indexedMember.annotations) {
+			if (indexedAnnotation.matches(annotationName)) {
+				return indexedAnnotation.toAnnotation();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the annotations with the given names on the given member, indexed by their fully qualified name.
+	 *
+	 * @param member
+	 *            the annotated member
+	 * @param annotationNames
+	 *            the fully qualified or simple names of the annotations
+	 * @return the matching annotations (may be empty)
+	 * @throws JavaModelException
+	 */
+	public Map<String, Annotation> getAnnotations(final IMember member, final List<String> annotationNames)
+			throws JavaModelException {
+		final Map<String, Annotation> annotations = new HashMap<String, Annotation>();
+		final IndexedMember indexedMember = lookup(member);
+		if (indexedMember == null) {
+			return annotations;
+		}
+		for (IndexedAnnotation indexedAnnotation : indexedMember.annotations) {
+			for (String annotationName : annotationNames) {
+				if (indexedAnnotation.matches(annotationName)) {
+					annotations.put(indexedAnnotation.qualifiedName, indexedAnnotation.toAnnotation());
+					break;
+				}
+			}
+		}
+		return annotations;
+	}
+
+	/**
+	 * Returns the source range of the member value pair with the given name in the annotation with the given name on
+	 * the given member. In case of a single member annotation, the source range of its value is returned.
+	 *
+	 * @param member
+	 *            the annotated member
+	 * @param annotationName
+	 *            the fully qualified name of the annotation
+	 * @param memberName
+	 *            the name of the annotation member
+	 * @return the source range or null if none matched
+	 * @throws JavaModelException
+	 */
+	public ISourceRange getMemberValuePairSourceRange(final IMember member, final String annotationName,
+			final String memberName) throws JavaModelException {
+		final IndexedMember indexedMember = lookup(member);
+		if (indexedMember == null) {
+			return null;
+		}
+		for (IndexedAnnotation indexedAnnotation : indexedMember.annotations) {
+			if (indexedAnnotation.qualifiedName.equals(annotationName)) {
+				if (indexedAnnotation.singleValueRange != null) {
+					return indexedAnnotation.singleValueRange;
+				}
+				return indexedAnnotation.memberValuePairRanges.get(memberName);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Looks up the indexed member matching the given member's kind, name and source range.
+	 *
+	 * @param member
+	 *            the member
+	 * @return the indexed member or null if none matched
+	 * @throws JavaModelException
+	 */
+	private IndexedMember lookup(final IMember member) throws JavaModelException {
+		final List<IndexedMember> candidates = indexedMembers.get(getKey(member.getElementType(),
+				member.getElementName()));
+		if (candidates == null) {
+			return null;
+		}
+		final ISourceRange sourceRange = member.getSourceRange();
+		if (sourceRange == null) {
+			return null;
+		}
+		final int memberStartPosition = sourceRange.getOffset();
+		final int memberEndPosition = sourceRange.getOffset() + sourceRange.getLength();
+		for (IndexedMember candidate : candidates) {
+			if (candidate.startPosition >= memberStartPosition && candidate.endPosition <= memberEndPosition) {
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+	private static String getKey(final int memberType, final String memberName) {
+		return memberType + ":" + memberName;
+	}
+
+	/** An indexed member, ie, its location and annotations. */
+	static class IndexedMember {
+
+		private final int startPosition;
+
+		private final int endPosition;
+
+		private final List<IndexedAnnotation> annotations;
+
+		IndexedMember(final ASTNode node, final List<IndexedAnnotation> annotations) {
+			this.startPosition = node.getStartPosition();
+			this.endPosition = node.getStartPosition() + node.getLength();
+			this.annotations = annotations;
+		}
+	}
+
+	/** An indexed annotation, along with the source ranges of its values. */
+	static class IndexedAnnotation {
+
+		private final String qualifiedName;
+
+		private final String simpleName;
+
+		private final Annotation annotation;
+
+		private final ISourceRange singleValueRange;
+
+		private final Map<String, ISourceRange> memberValuePairRanges;
+
+		IndexedAnnotation(final IAnnotationBinding annotationBinding, final ISourceRange singleValueRange,
+				final Map<String, ISourceRange> memberValuePairRanges) {
+			this.qualifiedName = annotationBinding.getAnnotationType().getQualifiedName();
+			this.simpleName = annotationBinding.getAnnotationType().getName();
+			this.annotation = BindingUtils.toAnnotation(annotationBinding);
+			this.singleValueRange = singleValueRange;
+			this.memberValuePairRanges = memberValuePairRanges;
+		}
+
+		boolean matches(final String annotationName) {
+			return qualifiedName.equals(annotationName) || simpleName.equals(annotationName);
+		}
+
+		/**
+		 * @return a new {@link Annotation}, since the returned instances may be updated by their callers.
+		 */
+		Annotation toAnnotation() {
+			return new Annotation(annotation.getJavaAnnotation(), annotation.getFullyQualifiedName(),
+					annotation.getJavaAnnotationElements());
+		}
+	}
+
+	/** The AST visitor that builds the index. */
+	class Indexer extends ASTVisitor {
+
+		@Override
+		public boolean visit(final AnnotationTypeDeclaration node) {
+			index(IJavaElement.TYPE, node.getName().getFullyQualifiedName(), node,
+					(List<?>) node.getStructuralProperty(AnnotationTypeDeclaration.MODIFIERS2_PROPERTY));
+			return true;
+		}
+
+		@Override
+		public boolean visit(final TypeDeclaration node) {
+			index(IJavaElement.TYPE, node.getName().getFullyQualifiedName(), node,
+					(List<?>) node.getStructuralProperty(TypeDeclaration.MODIFIERS2_PROPERTY));
+			return true;
+		}
+
+		@Override
+		public boolean visit(final MethodDeclaration node) {
+			index(IJavaElement.METHOD, node.getName().getFullyQualifiedName(), node,
+					(List<?>) node.getStructuralProperty(MethodDeclaration.MODIFIERS2_PROPERTY));
+			return true;
+		}
+
+		@Override
+		public boolean visit(final FieldDeclaration node) {
+			final VariableDeclarationFragment fragment = (VariableDeclarationFragment) (node.fragments().get(0));
+			index(IJavaElement.FIELD, fragment.getName().toString(), node,
+					(List<?>) node.getStructuralProperty(FieldDeclaration.MODIFIERS2_PROPERTY));
+			return true;
+		}
+
+		private void index(final int memberType, final String memberName, final ASTNode node, final List<?> modifiers) {
+			final List<IndexedAnnotation> annotations = new ArrayList<IndexedAnnotation>();
+			for (Object modifier : modifiers) {
+				if (modifier instanceof org.eclipse.jdt.core.dom.Annotation) {
+					final IndexedAnnotation indexedAnnotation = index((org.eclipse.jdt.core.dom.Annotation) modifier);
+					if (indexedAnnotation != null) {
+						annotations.add(indexedAnnotation);
+					}
+				}
+			}
+			final String key = getKey(memberType, memberName);
+			List<IndexedMember> members = indexedMembers.get(key);
+			if (members == null) {
+				members = new ArrayList<IndexedMember>(1);
+				indexedMembers.put(key, members);
+			}
+			members.add(new IndexedMember(node, annotations));
+		}
+
+		private IndexedAnnotation index(final org.eclipse.jdt.core.dom.Annotation node) {
+			final IAnnotationBinding annotationBinding = node.resolveAnnotationBinding();
+			if (annotationBinding == null) {
+				return null;
+			}
+			if (node instanceof SingleMemberAnnotation) {
+				final ASTNode value = ((SingleMemberAnnotation) node).getValue();
+				return new IndexedAnnotation(annotationBinding, new SourceRange(value.getStartPosition(),
+						value.getLength()), Collections.<String, ISourceRange> emptyMap());
+			}
+			if (node instanceof NormalAnnotation) {
+				final Map<String, ISourceRange> memberValuePairRanges = new HashMap<String, ISourceRange>();
+				for (Object value : ((NormalAnnotation) node).values()) {
+					final MemberValuePair memberValuePair = (MemberValuePair) value;
+					memberValuePairRanges.put(memberValuePair.getName().getFullyQualifiedName(), new SourceRange(
+							memberValuePair.getStartPosition(), memberValuePair.getLength()));
+				}
+				return new IndexedAnnotation(annotationBinding, null, memberValuePairRanges);
+			}
+			return new IndexedAnnotation(annotationBinding, null, Collections.<String, ISourceRange> emptyMap());
+		}
+	}
+
+}
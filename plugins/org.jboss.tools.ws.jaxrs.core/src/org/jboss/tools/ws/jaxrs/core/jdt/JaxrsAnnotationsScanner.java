@@ -32,6 +32,8 @@ import org.eclipse.jdt.core.search.IJavaSearchScope;
 import org.eclipse.jdt.core.search.SearchEngine;
 import org.eclipse.jdt.core.search.SearchParticipant;
 import org.eclipse.jdt.core.search.SearchPattern;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.BuildMetrics;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.BuildMetrics.Counter;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
 import org.jboss.tools.ws.jaxrs.core.metamodel.IJaxrsHttpMethod;
 
@@ -71,7 +73,26 @@ public final class JaxrsAnnotationsScanner {
 				| IJavaSearchScope.REFERENCED_PROJECTS);
 		
 		final List<IType> applicationTypes = searchForAnnotatedTypes(APPLICATION_PATH.qualifiedName, searchScope, progressMonitor);
-		// the search result also includes all subtypes of javax.ws.rs.core.Application (while avoiding duplicate results)
+		addApplicationSubtypes(scope, applicationTypes, progressMonitor);
+		return applicationTypes;
+	}
+
+	/**
+	 * Adds all subtypes of {@link javax.ws.rs.Application} in the given scope to the given application types (while
+	 * avoiding duplicate results).
+	 * 
+	 * @param scope
+	 *            the search scope (project, compilation unit, type, etc.)
+	 * @param applicationTypes
+	 *            the application types found so far
+	 * @param progressMonitor
+	 *            the progress monitor
+	 * @throws CoreException
+	 *             in case of exception
+	 */
+	private static void addApplicationSubtypes(final IJavaElement scope, final List<IType> applicationTypes,
+			final IProgressMonitor progressMonitor) throws CoreException {
+		// the result also includes all subtypes of javax.ws.rs.core.Application (while avoiding duplicate results)
 		final IType applicationType = JdtUtils.resolveType(APPLICATION.qualifiedName, scope.getJavaProject(), progressMonitor);
 		if(applicationType != null) {
 			final ITypeHierarchy applicationTypeHierarchy = JdtUtils.resolveTypeHierarchy(applicationType, scope, false, progressMonitor);
@@ -84,7 +105,45 @@ public final class JaxrsAnnotationsScanner {
 		} else {
 			Logger.warn("Could not find type '"+APPLICATION.qualifiedName + "' in project's classpath.");
 		}
-		return applicationTypes;
+	}
+
+	/**
+	 * Returns all JAX-RS Applications, HTTP Methods, Resources and Providers in the given scope (ex : javaProject),
+	 * using a single search on all the JAX-RS annotations that identify them, rather than one search per kind of
+	 * type. The results are the same as those of {@link #findApplicationTypes(IJavaElement, IProgressMonitor)},
+	 * {@link #findHttpMethodTypes(IJavaElement, IProgressMonitor)},
+	 * {@link #findResourceTypes(IJavaElement, IProgressMonitor)} and
+	 * {@link #findProviderTypes(IJavaElement, boolean, IProgressMonitor)} (without libraries).
+	 * 
+	 * @param scope
+	 *            the search scope (project, compilation unit, type, etc.)
+	 * @param progressMonitor
+	 *            the progress monitor
+	 * @return the collector holding the found types, by kind
+	 * @throws CoreException
+	 *             in case of underlying exception
+	 */
+	public static JaxrsTypesSearchResultCollector findJaxrsTypes(final IJavaElement scope,
+			final IProgressMonitor progressMonitor) throws CoreException {
+		final IJavaSearchScope searchScope = SearchEngine.createJavaSearchScope(new IJavaElement[] { scope },
+				IJavaSearchScope.SOURCES | IJavaSearchScope.REFERENCED_PROJECTS);
+		final JaxrsTypesSearchResultCollector collector = new JaxrsTypesSearchResultCollector(searchScope);
+		SearchPattern pattern = null;
+		for (EnumJaxrsClassname annotation : JaxrsTypesSearchResultCollector.ANNOTATIONS) {
+			final SearchPattern subPattern = SearchPattern.createPattern(annotation.qualifiedName,
+					IJavaSearchConstants.ANNOTATION_TYPE, IJavaSearchConstants.ANNOTATION_TYPE_REFERENCE
+							| IJavaSearchConstants.TYPE, SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE);
+			if (pattern == null) {
+				pattern = subPattern;
+			} else {
+				pattern = SearchPattern.createOrPattern(pattern, subPattern);
+			}
+		}
+		BuildMetrics.getInstance().increment(Counter.JDT_SEARCHES);
+		new SearchEngine().search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() },
+				searchScope, collector, progressMonitor);
+		addApplicationSubtypes(scope, collector.getApplicationTypes(), progressMonitor);
+		return collector;
 	}
 
 	/**
@@ -189,6 +248,7 @@ public final class JaxrsAnnotationsScanner {
 						| SearchPattern.R_CASE_SENSITIVE);
 		// perform search, results are added/filtered by the custom
 		// searchRequestor defined above
+		BuildMetrics.getInstance().increment(Counter.JDT_SEARCHES);
 		new SearchEngine().search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() },
 				searchScope, collector, progressMonitor);
 		return collector.getResult(IType.class);
@@ -251,6 +311,7 @@ public final class JaxrsAnnotationsScanner {
 		}
 		// perform search, results are added/filtered by the custom
 		// searchRequestor defined above
+		BuildMetrics.getInstance().increment(Counter.JDT_SEARCHES);
 		new SearchEngine().search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() },
 				searchScope, collector, progressMonitor);
 		// FIXME : wrong scope : returns all the annotated resourceMethods of
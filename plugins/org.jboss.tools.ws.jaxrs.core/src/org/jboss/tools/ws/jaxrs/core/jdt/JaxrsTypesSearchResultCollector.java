@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.jdt;
+
+import static org.jboss.tools.ws.jaxrs.core.jdt.EnumJaxrsClassname.APPLICATION_PATH;
+import static org.jboss.tools.ws.jaxrs.core.jdt.EnumJaxrsClassname.HTTP_METHOD;
+import static org.jboss.tools.ws.jaxrs.core.jdt.EnumJaxrsClassname.PATH;
+import static org.jboss.tools.ws.jaxrs.core.jdt.EnumJaxrsClassname.PROVIDER;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.IAnnotatable;
+import org.eclipse.jdt.core.IAnnotation;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.ReferenceMatch;
+import org.eclipse.jdt.core.search.SearchMatch;
+import org.eclipse.jdt.core.search.SearchRequestor;
+
+/**
+ * Java Search results collector for a single search on all the JAX-RS annotations that identify the JAX-RS types
+ * (<code>@ApplicationPath</code>, <code>@HttpMethod</code>, <code>@Path</code> and <code>@Provider</code>). The
+ * matching types are routed by kind, according to the annotation that was matched.
+ */
+public class JaxrsTypesSearchResultCollector extends SearchRequestor {
+
+	/** The annotations to search for. */
+	static final EnumJaxrsClassname[] ANNOTATIONS = new EnumJaxrsClassname[] { APPLICATION_PATH, HTTP_METHOD, PATH,
+			PROVIDER };
+
+	/** The types annotated with <code>@ApplicationPath</code>. */
+	private final List<IType> applicationTypes = new ArrayList<IType>();
+
+	/** The annotation types annotated with <code>@HttpMethod</code>. */
+	private final List<IType> httpMethodTypes = new ArrayList<IType>();
+
+	/** The types annotated with <code>@Path</code> or with methods annotated with <code>@Path</code>. */
+	private final List<IType> resourceTypes = new ArrayList<IType>();
+
+	/** The types annotated with <code>@Provider</code>. */
+	private final List<IType> providerTypes = new ArrayList<IType>();
+
+	/** The search scope. */
+	private final IJavaSearchScope searchScope;
+
+	/**
+	 * Full constructor.
+	 *
+	 * @param scope
+	 *            the scope of the search
+	 */
+	public JaxrsTypesSearchResultCollector(final IJavaSearchScope scope) {
+		this.searchScope = scope;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final void acceptSearchMatch(final SearchMatch match) throws CoreException {
+		final IJavaElement element = (IJavaElement) match.getElement();
+		if (!searchScope.encloses(element)) {
+			return;
+		}
+		final IType type = (IType) element.getAncestor(IJavaElement.TYPE);
+		if (type == null) {
+			return;
+		}
+		// the matching annotation is reported as the local element since JDT 3.4. Otherwise, look at all annotations
+		// of the matching element.
+		final IJavaElement localElement = (match instanceof ReferenceMatch) ? ((ReferenceMatch) match)
+				.getLocalElement() : null;
+		if (localElement instanceof IAnnotation) {
+			route(type, localElement.getElementName());
+		} else if (element instanceof IAnnotatable) {
+			for (IAnnotation annotation : ((IAnnotatable) element).getAnnotations()) {
+				route(type, annotation.getElementName());
+			}
+		}
+	}
+
+	/**
+	 * Adds the given type in the list matching the given annotation name, unless it is already there.
+	 *
+	 * @param type
+	 *            the matching type
+	 * @param annotationName
+	 *            the name of the annotation, as written in the source code (ie, simple or fully qualified)
+	 */
+	private void route(final IType type, final String annotationName) {
+		if (matches(annotationName, APPLICATION_PATH)) {
+			addIfAbsent(applicationTypes, type);
+		} else if (matches(annotationName, HTTP_METHOD)) {
+			addIfAbsent(httpMethodTypes, type);
+		} else if (matches(annotationName, PATH)) {
+			addIfAbsent(resourceTypes, type);
+		} else if (matches(annotationName, PROVIDER)) {
+			addIfAbsent(providerTypes, type);
+		}
+	}
+
+	private static boolean matches(final String annotationName, final EnumJaxrsClassname annotation) {
+		return annotation.qualifiedName.equals(annotationName) || annotation.simpleName.equals(annotationName);
+	}
+
+	private static void addIfAbsent(final List<IType> types, final IType type) {
+		if (!types.contains(type)) {
+			types.add(type);
+		}
+	}
+
+	/** @return the types annotated with <code>@ApplicationPath</code> */
+	public List<IType> getApplicationTypes() {
+		return applicationTypes;
+	}
+
+	/** @return the annotation types annotated with <code>@HttpMethod</code> */
+	public List<IType> getHttpMethodTypes() {
+		return httpMethodTypes;
+	}
+
+	/** @return the types annotated with <code>@Path</code> or with methods annotated with <code>@Path</code> */
+	public List<IType> getResourceTypes() {
+		return resourceTypes;
+	}
+
+	/** @return the types annotated with <code>@Provider</code> */
+	public List<IType> getProviderTypes() {
+		return providerTypes;
+	}
+
+}
@@ -49,6 +49,8 @@ import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
 import org.eclipse.jdt.core.search.SearchEngine;
 import org.eclipse.jdt.internal.core.CreateTypeHierarchyOperation;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.BuildMetrics;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.BuildMetrics.Counter;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
 
 /**
@@ -243,6 +245,7 @@ public final class JdtUtils {
 			return null;
 		}
 
+		BuildMetrics.getInstance().increment(Counter.AST_PARSES);
 		ASTParser parser = ASTParser.newParser(AST.JLS4);
 		parser.setKind(ASTParser.K_COMPILATION_UNIT);
 		parser.setSource(compilationUnit);
@@ -299,9 +302,7 @@ public final class JdtUtils {
 			return null;
 		}
 		// TODO : do we really need to resolve the annotation binding ?
-		JavaAnnotationsVisitor visitor = new JavaAnnotationsVisitor(member, annotationName);
-		ast.accept(visitor);
-		return visitor.getResolvedAnnotation();
+		return JavaAnnotationsIndex.getIndex(ast).getAnnotation(member, annotationName);
 	}
 
 	/**
@@ -343,9 +344,7 @@ public final class JdtUtils {
 			return annotations;
 		}
 		// TODO : do we really need to resolve the annotation binding ?
-		JavaAnnotationsVisitor visitor = new JavaAnnotationsVisitor(member, annotationNames);
-		ast.accept(visitor);
-		return visitor.getResolvedAnnotations();
+		return JavaAnnotationsIndex.getIndex(ast).getAnnotations(member, annotationNames);
 	}
 
 	/**
@@ -400,6 +399,10 @@ public final class JdtUtils {
 		if(ancestor != null && ancestor.exists()) {
 			final ICompilationUnit compilationUnit = ancestor.getCompilationUnit();
 			final CompilationUnit ast = CompilationUnitsRepository.getInstance().getAST(compilationUnit);
+			if (ast != null && annotation.getParent() instanceof IMember) {
+				return JavaAnnotationsIndex.getIndex(ast).getMemberValuePairSourceRange((IMember) annotation.getParent(),
+						annotationQualifiedName, memberName);
+			}
 			if (ast != null) {
 				MemberValuePairLocationRetriever locationRetriever = new MemberValuePairLocationRetriever(annotation,
 						annotationQualifiedName, memberName);
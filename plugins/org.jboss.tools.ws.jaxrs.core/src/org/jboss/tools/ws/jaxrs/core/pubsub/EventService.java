@@ -10,23 +10,47 @@
  ******************************************************************************/
 package org.jboss.tools.ws.jaxrs.core.pubsub;
 
+import static org.eclipse.jdt.core.IJavaElementDelta.ADDED;
+import static org.eclipse.jdt.core.IJavaElementDelta.CHANGED;
+
 import java.util.ArrayList;
 import java.util.EventObject;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.jboss.tools.ws.jaxrs.core.internal.utils.Logger;
+import org.jboss.tools.ws.jaxrs.core.metamodel.JaxrsEndpointDelta;
+import org.jboss.tools.ws.jaxrs.core.metamodel.JaxrsMetamodelDelta;
 
 /**
  * The Publish/Subscribe engine to broadcast notifications when changes occur in
- * the metamodel to the interested parties (ie, the UI)
- * 
+ * the metamodel to the interested parties (ie, the UI).
+ *
+ * Subscribers are registered along with an {@link EventFilter} that selects the
+ * events they are interested in, and are informed either synchronously (in the
+ * publishing thread) or asynchronously (in a dedicated job, so that a slow
+ * subscriber never blocks the publisher). Events waiting for an asynchronous
+ * subscriber are coalesced per metamodel, and at most
+ * {@link EventService#MAX_PENDING_EVENTS} events are kept waiting.
+ *
  * @author xcoulon
  */
 public class EventService {
 
+	/** Maximum number of events waiting to be delivered to an asynchronous subscriber. */
+	public static final int MAX_PENDING_EVENTS = 256;
+
 	private static final EventService instance = new EventService();
 
-	private final List<Subscriber> subscribers = new ArrayList<Subscriber>();
+	/** The subscriptions. Copy-on-write since events are published far more often than subscribers come and go. */
+	private final List<Subscription> subscriptions = new CopyOnWriteArrayList<Subscription>();
 
 	/** Singleton constructor */
 	private EventService() {
@@ -38,33 +62,211 @@ public class EventService {
 	}
 
 	/**
-	 * Notifies (only once) the subscribers that registered for the exact type
-	 * of the given event, provided the accompanied filter matches.
-	 * 
+	 * Notifies (only once) the subscribers whose filter accepts the given event.
+	 *
 	 * @param event
 	 */
 	public void publish(EventObject event) {
-		if (subscribers.size() > 0) {
-			for (Subscriber subscriber : subscribers) {
-				Logger.debug("Informing subscriber '{}' of {}", subscriber.getId(), event.getSource());
-				subscriber.inform(event);
-			}
-		} else {
+		if (subscriptions.isEmpty()) {
 			Logger.debug("*** No subscriber to informing about {} ***", event.getSource());
+			return;
+		}
+		for (Subscription subscription : subscriptions) {
+			if (subscription.filter.apply(event)) {
+				subscription.dispatch(event);
+			}
 		}
 	}
 
+	/**
+	 * Registers the given subscriber to be informed synchronously of all events.
+	 *
+	 * @param subscriber
+	 */
 	public void subscribe(Subscriber subscriber) {
-		subscribers.add(subscriber);
+		subscribe(subscriber, new NullEventFilter(), false);
+	}
+
+	/**
+	 * Registers the given subscriber to be informed synchronously of the events
+	 * accepted by the given filter.
+	 *
+	 * @param subscriber
+	 * @param filter
+	 */
+	public void subscribe(Subscriber subscriber, EventFilter filter) {
+		subscribe(subscriber, filter, false);
+	}
+
+	/**
+	 * Registers the given subscriber to be informed of the events accepted by
+	 * the given filter.
+	 *
+	 * @param subscriber
+	 *            the subscriber
+	 * @param filter
+	 *            the filter that selects the events to send to the subscriber
+	 * @param asynchronous
+	 *            true if the subscriber should be informed in a separate job
+	 *            rather than in the publishing thread.
+	 */
+	public void subscribe(Subscriber subscriber, EventFilter filter, boolean asynchronous) {
+		subscriptions.add(asynchronous ? new AsyncSubscription(subscriber, filter) : new Subscription(subscriber,
+				filter));
 	}
 
 	public boolean unsubscribe(Subscriber subscriber) {
-		return subscribers.remove(subscriber);
+		for (Subscription subscription : subscriptions) {
+			if (subscription.subscriber.equals(subscriber)) {
+				subscription.cancel();
+				return subscriptions.remove(subscription);
+			}
+		}
+		return false;
 	}
 
 	public void resetSubscribers() {
-		subscribers.clear();
+		for (Subscription subscription : subscriptions) {
+			subscription.cancel();
+		}
+		subscriptions.clear();
+	}
+
+	/**
+	 * A subscriber informed in the publishing thread.
+	 */
+	static class Subscription {
+
+		final Subscriber subscriber;
+
+		final EventFilter filter;
 
+		Subscription(final Subscriber subscriber, final EventFilter filter) {
+			this.subscriber = subscriber;
+			this.filter = filter;
+		}
+
+		void dispatch(final EventObject event) {
+			inform(event);
+		}
+
+		void inform(final EventObject event) {
+			Logger.debug("Informing subscriber '{}' of {}", subscriber.getId(), event.getSource());
+			try {
+				subscriber.inform(event);
+			} catch (RuntimeException e) {
+				Logger.error("Subscriber '" + subscriber.getId() + "' failed to process " + event.getSource(), e);
+			}
+		}
+
+		void cancel() {
+			// nothing to do
+		}
+	}
+
+	/**
+	 * A subscriber informed in a dedicated job, with its own queue of pending
+	 * events.
+	 */
+	static class AsyncSubscription extends Subscription {
+
+		/**
+		 * The events waiting to be delivered, indexed by coalescing key (the
+		 * changed metamodel, or the event itself).
+		 */
+		private final Map<Object, EventObject> pendingEvents = new LinkedHashMap<Object, EventObject>();
+
+		private final Job dispatchJob;
+
+		AsyncSubscription(final Subscriber subscriber, final EventFilter filter) {
+			super(subscriber, filter);
+			this.dispatchJob = new Job("Informing " + subscriber.getId() + " of JAX-RS Metamodel changes...") { //$NON-NLS-1$
+				@Override
+				protected IStatus run(final IProgressMonitor monitor) {
+					for (EventObject event = pollEvent(); event != null && !monitor.isCanceled(); event = pollEvent()) {
+						inform(event);
+					}
+					return Status.OK_STATUS;
+				}
+			};
+			this.dispatchJob.setSystem(true);
+		}
+
+		@Override
+		void dispatch(final EventObject event) {
+			synchronized (pendingEvents) {
+				final Object key = getCoalescingKey(event);
+				// replacing the value of an existing key keeps its position in the queue
+				final EventObject pendingEvent = pendingEvents.get(key);
+				if (pendingEvent != null) {
+					pendingEvents.put(key, merge(pendingEvent, event));
+				} else {
+					if (pendingEvents.size() >= MAX_PENDING_EVENTS) {
+						final Iterator<EventObject> iterator = pendingEvents.values().iterator();
+						Logger.warn("Too many events pending for subscriber '" + subscriber.getId() + "', dropping "
+								+ iterator.next().getSource());
+						iterator.remove();
+					}
+					pendingEvents.put(key, event);
+				}
+			}
+			dispatchJob.schedule();
+		}
+
+		private EventObject pollEvent() {
+			synchronized (pendingEvents) {
+				final Iterator<EventObject> iterator = pendingEvents.values().iterator();
+				if (!iterator.hasNext()) {
+					return null;
+				}
+				final EventObject event = iterator.next();
+				iterator.remove();
+				return event;
+			}
+		}
+
+		@Override
+		void cancel() {
+			synchronized (pendingEvents) {
+				pendingEvents.clear();
+			}
+			dispatchJob.cancel();
+		}
+
+		/**
+		 * @return the changed metamodel if the given event is about a metamodel
+		 *         change, the event itself otherwise (ie, no coalescing)
+		 */
+		private static Object getCoalescingKey(final EventObject event) {
+			if (event.getSource() instanceof JaxrsMetamodelDelta) {
+				return ((JaxrsMetamodelDelta) event.getSource()).getMetamodel();
+			}
+			return event;
+		}
+
+		/**
+		 * Merges the changes of two successive events on the same metamodel
+		 * into a single event.
+		 *
+		 * @param pendingEvent
+		 *            the event that was not delivered yet
+		 * @param event
+		 *            the new event
+		 * @return the merged event
+		 */
+		private static EventObject merge(final EventObject pendingEvent, final EventObject event) {
+			final JaxrsMetamodelDelta pendingDelta = (JaxrsMetamodelDelta) pendingEvent.getSource();
+			final JaxrsMetamodelDelta delta = (JaxrsMetamodelDelta) event.getSource();
+			// an added metamodel that changed afterwards is still an added metamodel
+			final int deltaKind = (pendingDelta.getDeltaKind() == ADDED && delta.getDeltaKind() == CHANGED) ? ADDED
+					: delta.getDeltaKind();
+			final JaxrsMetamodelDelta mergedDelta = new JaxrsMetamodelDelta(delta.getMetamodel(), deltaKind);
+			mergedDelta.addAll(pendingDelta.getAffectedElements());
+			mergedDelta.addAll(delta.getAffectedElements());
+			mergedDelta.addAffectedEndpoint(new ArrayList<JaxrsEndpointDelta>(pendingDelta.getAffectedEndpoints()));
+			mergedDelta.addAffectedEndpoint(delta.getAffectedEndpoints());
+			return new EventObject(mergedDelta);
+		}
 	}
 
 }
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.pubsub;
+
+import java.util.EventObject;
+
+import org.eclipse.core.resources.IProject;
+import org.jboss.tools.ws.jaxrs.core.metamodel.IJaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.metamodel.JaxrsMetamodelDelta;
+
+/**
+ * A filter that accepts the events about changes in a JAX-RS Metamodel, optionally restricted to the metamodel of a
+ * given project.
+ */
+public class JaxrsMetamodelDeltaFilter implements EventFilter {
+
+	/** the project whose metamodel changes are accepted, or null to accept the changes of any metamodel. */
+	private final IProject project;
+
+	/**
+	 * Constructor for a filter that accepts the changes of any JAX-RS Metamodel.
+	 */
+	public JaxrsMetamodelDeltaFilter() {
+		this(null);
+	}
+
+	/**
+	 * Constructor for a filter that accepts the changes of the JAX-RS Metamodel of the given project only.
+	 * 
+	 * @param project
+	 *            the project, or null to accept the changes of any metamodel.
+	 */
+	public JaxrsMetamodelDeltaFilter(final IProject project) {
+		this.project = project;
+	}
+
+	@Override
+	public boolean apply(EventObject event) {
+		if (!(event.getSource() instanceof JaxrsMetamodelDelta)) {
+			return false;
+		}
+		if (project == null) {
+			return true;
+		}
+		final IJaxrsMetamodel metamodel = ((JaxrsMetamodelDelta) event.getSource()).getMetamodel();
+		return metamodel != null && project.equals(metamodel.getProject());
+	}
+
+}
@@ -19,6 +19,7 @@ import org.eclipse.core.runtime.Path;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
+import org.jboss.tools.ws.jaxrs.ui.cnf.action.StubServerAction;
 import org.osgi.framework.BundleContext;
 
 /**
@@ -52,6 +53,7 @@ public class JBossJaxrsUIPlugin extends AbstractUIPlugin {
 	 * @see org.eclipse.ui.plugin.AbstractUIPlugin#stop(org.osgi.framework.BundleContext)
 	 */
 	public void stop(BundleContext context) throws Exception {
+		StubServerAction.stopAll();
 		plugin = null;
 		super.stop(context);
 	}
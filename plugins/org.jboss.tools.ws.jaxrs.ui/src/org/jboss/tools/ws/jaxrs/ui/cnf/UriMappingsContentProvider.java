@@ -32,6 +32,7 @@ import org.eclipse.swt.widgets.Display;
 import org.jboss.tools.ws.jaxrs.core.metamodel.JaxrsMetamodelDelta;
 import org.jboss.tools.ws.jaxrs.core.metamodel.JaxrsMetamodelLocator;
 import org.jboss.tools.ws.jaxrs.core.pubsub.EventService;
+import org.jboss.tools.ws.jaxrs.core.pubsub.JaxrsMetamodelDeltaFilter;
 import org.jboss.tools.ws.jaxrs.core.pubsub.Subscriber;
 import org.jboss.tools.ws.jaxrs.ui.internal.utils.Logger;
 
@@ -45,7 +46,8 @@ public class UriMappingsContentProvider implements ITreeContentProvider, Subscri
 		// IWorkspace workspace = ResourcesPlugin.getWorkspace();
 		// workspace.addResourceChangeListener(this,
 		// IResourceChangeEvent.POST_CHANGE);
-		EventService.getInstance().subscribe(this);
+		// informed asynchronously, so that refreshing the UI never slows down the metamodel build
+		EventService.getInstance().subscribe(this, new JaxrsMetamodelDeltaFilter(), true);
 	}
 
 	@Override
@@ -143,6 +145,7 @@ public class UriMappingsContentProvider implements ITreeContentProvider, Subscri
 	@Override
 	public void dispose() {
 		// ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+		EventService.getInstance().unsubscribe(this);
 		uriPathTemplateCategories = null;
 	}
 
@@ -165,6 +168,11 @@ public class UriMappingsContentProvider implements ITreeContentProvider, Subscri
 	}
 
 	protected void refreshContent(final IProject project) {
+		final Map<IProject, Object> uriPathTemplateCategories = this.uriPathTemplateCategories;
+		if (uriPathTemplateCategories == null) {
+			Logger.debug("*** Cannot refresh: content provider was disposed ***");
+			return;
+		}
 		// check if the viewer is already having the appropriate UriPathTemplateCategory for the given project. If not,
 		// it is a WaitWhileBuildingElement item, and the project itself must be refresh to replace this temporary
 		// element with the expected category.
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.ui.cnf.action;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.jface.viewers.ISelection;
+import org.eclipse.jface.viewers.ISelectionChangedListener;
+import org.eclipse.jface.viewers.ITreeSelection;
+import org.eclipse.jface.viewers.SelectionChangedEvent;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.navigator.CommonViewer;
+import org.jboss.tools.ws.jaxrs.core.metamodel.IJaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.metamodel.JaxrsMetamodelLocator;
+import org.jboss.tools.ws.jaxrs.ui.cnf.UriPathTemplateCategory;
+import org.jboss.tools.ws.jaxrs.ui.internal.utils.Logger;
+import org.jboss.tools.ws.jaxrs.ui.stub.JaxrsStubServer;
+import org.jboss.tools.ws.jaxrs.ui.stub.StubConfiguration;
+
+/**
+ * Starts (or stops) a local stub server exposing the JAX-RS endpoints of the selected project, configured with the
+ * {@link StubConfiguration#FILE_NAME} file at the root of the project, if it exists.
+ */
+public class StubServerAction extends Action implements ISelectionChangedListener {
+
+	private static final String START_LABEL = "Start Stub Server";
+
+	private static final String STOP_LABEL = "Stop Stub Server";
+
+	/** The running stub servers, by project. */
+	private static final Map<IProject, JaxrsStubServer> servers = new HashMap<IProject, JaxrsStubServer>();
+
+	/** Stops the stub server of a project when the project is closed or deleted. */
+	private static final IResourceChangeListener projectListener = new IResourceChangeListener() {
+		@Override
+		public void resourceChanged(final IResourceChangeEvent event) {
+			if (event.getResource() instanceof IProject) {
+				stop((IProject) event.getResource());
+			}
+		}
+	};
+
+	private ISelection selection = null;
+
+	public StubServerAction() {
+		super(START_LABEL);
+	}
+
+	@Override
+	public void run() {
+		final IProject project = getSelectedProject();
+		if (project == null) {
+			return;
+		}
+		final Shell shell = PlatformUI.getWorkbench().getActiveWorkbenchWindow().getShell();
+		final JaxrsStubServer runningServer = getServer(project);
+		if (runningServer != null) {
+			stop(project);
+			MessageDialog.openInformation(shell, STOP_LABEL, "The stub server of project '" + project.getName()
+					+ "' has been stopped after " + runningServer.getRequestCount() + " requests.");
+			return;
+		}
+		try {
+			final IJaxrsMetamodel metamodel = JaxrsMetamodelLocator.get(project);
+			if (metamodel == null) {
+				MessageDialog.openWarning(shell, START_LABEL, "No JAX-RS endpoint found in project '"
+						+ project.getName() + "'.");
+				return;
+			}
+			final JaxrsStubServer server = JaxrsStubServer.from(metamodel, getConfiguration(project));
+			server.start();
+			synchronized (servers) {
+				servers.put(project, server);
+			}
+			// adding the listener again has no effect
+			ResourcesPlugin.getWorkspace().addResourceChangeListener(projectListener,
+					IResourceChangeEvent.PRE_CLOSE | IResourceChangeEvent.PRE_DELETE);
+			MessageDialog.openInformation(shell, START_LABEL, "The stub server of project '" + project.getName()
+					+ "' exposes " + server.getEndpoints().size() + " endpoints at " + server.getBaseURL() + ".");
+		} catch (CoreException e) {
+			Logger.error("Failed to retrieve JAX-RS Metamodel in project '" + project.getName() + "'", e);
+		} catch (IOException e) {
+			Logger.error("Failed to start the stub server of project '" + project.getName() + "'", e);
+			MessageDialog.openError(shell, START_LABEL, "Failed to start the stub server: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Stops all running stub servers.
+	 */
+	public static void stopAll() {
+		synchronized (servers) {
+			for (JaxrsStubServer server : servers.values()) {
+				server.stop();
+			}
+			servers.clear();
+		}
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(projectListener);
+	}
+
+	private static JaxrsStubServer getServer(final IProject project) {
+		synchronized (servers) {
+			return servers.get(project);
+		}
+	}
+
+	private static void stop(final IProject project) {
+		final boolean empty;
+		synchronized (servers) {
+			final JaxrsStubServer server = servers.remove(project);
+			if (server != null) {
+				server.stop();
+			}
+			empty = servers.isEmpty();
+		}
+		if (empty) {
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(projectListener);
+		}
+	}
+
+	/**
+	 * @return the configuration read in the project, or the default one if the project has no configuration file
+	 */
+	private static StubConfiguration getConfiguration(final IProject project) throws IOException {
+		final IFile file = project.getFile(StubConfiguration.FILE_NAME);
+		if (file.exists() && file.getLocation() != null) {
+			return StubConfiguration.load(new File(file.getLocation().toOSString()));
+		}
+		return new StubConfiguration();
+	}
+
+	private IProject getSelectedProject() {
+		if (!(selection instanceof ITreeSelection)) {
+			return null;
+		}
+		for (Object element : ((ITreeSelection) selection).toList()) {
+			if (element instanceof UriPathTemplateCategory) {
+				return ((UriPathTemplateCategory) element).getProject();
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public void selectionChanged(SelectionChangedEvent event) {
+		Object source = event.getSource();
+		if (source instanceof CommonViewer) {
+			setSelection(((CommonViewer) source).getSelection());
+		}
+	}
+
+	public void setSelection(ISelection selection) {
+		this.selection = selection;
+		final IProject project = getSelectedProject();
+		setEnabled(project != null);
+		setText(project != null && getServer(project) != null ? STOP_LABEL : START_LABEL);
+	}
+
+}
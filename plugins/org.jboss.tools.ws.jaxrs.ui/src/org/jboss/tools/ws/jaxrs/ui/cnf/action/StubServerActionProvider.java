@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+
+package org.jboss.tools.ws.jaxrs.ui.cnf.action;
+
+import org.eclipse.jface.action.IMenuManager;
+import org.eclipse.ui.navigator.CommonActionProvider;
+import org.eclipse.ui.navigator.ICommonActionExtensionSite;
+import org.eclipse.ui.navigator.ICommonMenuConstants;
+import org.eclipse.ui.navigator.ICommonViewerSite;
+import org.eclipse.ui.navigator.ICommonViewerWorkbenchSite;
+
+/**
+ * Contributes the {@link StubServerAction} to the context menu of the JAX-RS REST Web Services node.
+ */
+public class StubServerActionProvider extends CommonActionProvider {
+
+	private StubServerAction stubServerAction = null;
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.ui.navigator.CommonActionProvider#init(org.eclipse.ui.navigator
+	 * .ICommonActionExtensionSite)
+	 */
+	@Override
+	public void init(ICommonActionExtensionSite aSite) {
+		ICommonViewerSite viewSite = aSite.getViewSite();
+		if (viewSite instanceof ICommonViewerWorkbenchSite) {
+			stubServerAction = new StubServerAction();
+			stubServerAction.setSelection(aSite.getStructuredViewer().getSelection());
+			aSite.getStructuredViewer().addSelectionChangedListener(stubServerAction);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.ui.actions.ActionGroup#fillContextMenu(org.eclipse.jface.
+	 * action.IMenuManager)
+	 */
+	@Override
+	public void fillContextMenu(IMenuManager menu) {
+		if (stubServerAction != null && stubServerAction.isEnabled()) {
+			menu.appendToGroup(ICommonMenuConstants.GROUP_OPEN, stubServerAction);
+		}
+	}
+
+}
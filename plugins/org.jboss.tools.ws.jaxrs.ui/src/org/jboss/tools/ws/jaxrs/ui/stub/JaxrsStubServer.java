@@ -0,0 +1,673 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.ui.stub;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.tools.ws.jaxrs.core.metamodel.IJaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.ui.internal.utils.Logger;
+
+/**
+ * Local HTTP server standing in for the JAX-RS endpoints of a project, so that clients (including the WS Tester and
+ * its load tests) can be run and benchmarked without deploying the application.
+ *
+ * The server listens on the loopback interface and exposes the URI path templates of the given endpoints at its root.
+ * Each request is matched like in JAX-RS: by path (the most specific template first), HTTP method, consumed and
+ * produced media types. The matching endpoint replies with its canned response (see {@link StubConfiguration}), after
+ * the configured latency. Unmatched requests get a 404, 405, 406 or 415 response. The responses are deterministic:
+ * generated bodies only depend on the endpoint and the payload size.
+ *
+ * The server is a minimal HTTP/1.1 implementation on a plain {@link ServerSocket}, so that it does not depend on any
+ * JDK-specific HTTP server. Each connection is served by a thread of a bounded pool, so one slow response does not
+ * hold up the other connections. Connections are kept alive only as long as no other connection is waiting for a
+ * thread: when the pool is saturated, a connection is closed after its current response (with a
+ * <code>Connection: close</code> header), or as soon as it is idle, and the client reconnects. Idle connections are
+ * closed after {@link #KEEP_ALIVE_TIMEOUT} ms anyway.
+ */
+public class JaxrsStubServer {
+
+	/** Time after which an idle connection is closed, in milliseconds. */
+	public static final int KEEP_ALIVE_TIMEOUT = 5000;
+
+	/** Interval at which an idle connection checks if other connections are waiting for its thread, in milliseconds. */
+	private static final int IDLE_CHECK_INTERVAL = 50;
+
+	private static final String CONTENT_TYPE = "Content-Type"; //$NON-NLS-1$
+
+	private static final String UTF_8 = "UTF-8"; //$NON-NLS-1$
+
+	private static final String ISO_8859_1 = "ISO-8859-1"; //$NON-NLS-1$
+
+	private static final String CRLF = "\r\n"; //$NON-NLS-1$
+
+	private final List<StubEndpoint> endpoints;
+
+	private final StubConfiguration configuration;
+
+	private final AtomicLong requestCount = new AtomicLong();
+
+	private final Set<Socket> connections = Collections.synchronizedSet(new HashSet<Socket>());
+
+	private ServerSocket serverSocket = null;
+
+	private ThreadPoolExecutor executor = null;
+
+	/**
+	 * Full constructor.
+	 *
+	 * @param endpoints
+	 *            the endpoints to expose
+	 * @param configuration
+	 *            the port and responses
+	 */
+	public JaxrsStubServer(final List<StubEndpoint> endpoints, final StubConfiguration configuration) {
+		final List<StubEndpoint> sortedEndpoints = new ArrayList<StubEndpoint>(endpoints);
+		// most specific paths first, as in JAX-RS
+		Collections.sort(sortedEndpoints, new Comparator<StubEndpoint>() {
+			@Override
+			public int compare(final StubEndpoint endpoint, final StubEndpoint otherEndpoint) {
+				return otherEndpoint.getLiteralLength() - endpoint.getLiteralLength();
+			}
+		});
+		this.endpoints = Collections.unmodifiableList(sortedEndpoints);
+		this.configuration = configuration;
+	}
+
+	/**
+	 * Creates a stub server exposing the current endpoints of the given metamodel.
+	 *
+	 * @param metamodel
+	 *            the metamodel
+	 * @param configuration
+	 *            the port and responses
+	 * @return the stub server, not started yet
+	 */
+	public static JaxrsStubServer from(final IJaxrsMetamodel metamodel, final StubConfiguration configuration) {
+		return new JaxrsStubServer(StubEndpoint.from(metamodel.getAllEndpoints()), configuration);
+	}
+
+	/**
+	 * Starts listening.
+	 *
+	 * @throws IOException
+	 *             if the port is not available
+	 */
+	public synchronized void start() throws IOException {
+		if (serverSocket != null) {
+			return;
+		}
+		final ServerSocket socket = new ServerSocket(configuration.getPort(), 50, InetAddress.getByName(null));
+		// the latency of a response must not delay the other connections
+		final ThreadPoolExecutor connectionExecutor = new ThreadPoolExecutor(configuration.getThreads(),
+				configuration.getThreads(), 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+				new StubThreadFactory());
+		serverSocket = socket;
+		executor = connectionExecutor;
+		final Thread acceptor = new StubThreadFactory().newThread(new Runnable() {
+			@Override
+			public void run() {
+				accept(socket, connectionExecutor);
+			}
+		});
+		acceptor.start();
+		Logger.info("JAX-RS stub server started at " + getBaseURL() + " with " + endpoints.size() + " endpoints");
+	}
+
+	/**
+	 * Stops listening, closes the connections and interrupts the requests in progress.
+	 */
+	public synchronized void stop() {
+		if (serverSocket == null) {
+			return;
+		}
+		final String baseURL = getBaseURL();
+		close(serverSocket);
+		synchronized (connections) {
+			for (Socket connection : connections) {
+				close(connection);
+			}
+			connections.clear();
+		}
+		executor.shutdownNow();
+		Logger.info("JAX-RS stub server stopped at " + baseURL + " after " + requestCount.get() + " requests");
+		serverSocket = null;
+		executor = null;
+	}
+
+	public synchronized boolean isRunning() {
+		return serverSocket != null;
+	}
+
+	/** @return the port the server listens to, or -1 if it is not running */
+	public synchronized int getPort() {
+		return serverSocket != null ? serverSocket.getLocalPort() : -1;
+	}
+
+	/** @return the URL of the root of the server (eg: http://localhost:9090), or null if it is not running */
+	public synchronized String getBaseURL() {
+		return serverSocket != null ? "http://localhost:" + serverSocket.getLocalPort() : null; //$NON-NLS-1$
+	}
+
+	public List<StubEndpoint> getEndpoints() {
+		return endpoints;
+	}
+
+	/** @return the number of requests received since the server was created */
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	/**
+	 * Generates a body of the given size in the given media type: JSON, XML or plain text.
+	 */
+	static byte[] generateBody(final StubEndpoint endpoint, final String mediaType, final int size) {
+		final String subtype = mediaType.toLowerCase();
+		final String prefix;
+		final String suffix;
+		if (subtype.contains("json")) { //$NON-NLS-1$
+			prefix = "{\"method\":\"" + endpoint.getHttpVerb() + "\",\"path\":\"" //$NON-NLS-1$ //$NON-NLS-2$
+					+ endpoint.getPath().replace("\\", "\\\\").replace("\"", "\\\"") + "\",\"data\":\""; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+			suffix = "\"}"; //$NON-NLS-1$
+		} else if (subtype.contains("xml")) { //$NON-NLS-1$
+			prefix = "<stub method=\"" + endpoint.getHttpVerb() + "\" path=\"" //$NON-NLS-1$ //$NON-NLS-2$
+					+ endpoint.getPath().replace("&", "&amp;").replace("<", "&lt;").replace("\"", "&quot;") //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+					+ "\"><data>"; //$NON-NLS-1$
+			suffix = "</data></stub>"; //$NON-NLS-1$
+		} else {
+			prefix = endpoint.toString() + '\n';
+			suffix = ""; //$NON-NLS-1$
+		}
+		final StringBuilder body = new StringBuilder(Math.max(size, prefix.length() + suffix.length()));
+		body.append(prefix);
+		final int padding = size - prefix.length() - suffix.length();
+		for (int i = 0; i < padding; i++) {
+			body.append((char) ('a' + i % 26));
+		}
+		body.append(suffix);
+		try {
+			return body.toString().getBytes(UTF_8);
+		} catch (UnsupportedEncodingException e) {
+			return body.toString().getBytes();
+		}
+	}
+
+	/**
+	 * Accepts the connections until the server socket is closed.
+	 */
+	private void accept(final ServerSocket socket, final ThreadPoolExecutor connectionExecutor) {
+		while (!socket.isClosed()) {
+			final Socket connection;
+			try {
+				connection = socket.accept();
+			} catch (IOException e) {
+				// the server is stopping
+				return;
+			}
+			connections.add(connection);
+			try {
+				connectionExecutor.execute(new Runnable() {
+					@Override
+					public void run() {
+						serve(connection, connectionExecutor);
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				// the server is stopping
+				connections.remove(connection);
+				close(connection);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Serves the requests of a connection, until the client closes it, it stays idle for too long, or other
+	 * connections are waiting for a thread.
+	 */
+	private void serve(final Socket connection, final ThreadPoolExecutor connectionExecutor) {
+		try {
+			connection.setSoTimeout(KEEP_ALIVE_TIMEOUT);
+			final InputStream in = new BufferedInputStream(connection.getInputStream());
+			final OutputStream out = new BufferedOutputStream(connection.getOutputStream());
+			boolean keepAlive = true;
+			boolean firstRequest = true;
+			while (keepAlive) {
+				// the first request is always waited for, since the connection just got its thread
+				if (!firstRequest && !awaitRequest(connection, in, connectionExecutor)) {
+					return;
+				}
+				firstRequest = false;
+				final StubRequest request = StubRequest.read(in, out);
+				if (request == null) {
+					return;
+				}
+				requestCount.incrementAndGet();
+				// give the thread back to the waiting connections rather than keeping this one alive
+				keepAlive = request.isKeepAlive() && !isSaturated(connectionExecutor);
+				final StubResponse response = handle(request);
+				response.write(out, keepAlive, request.getMethod().equals("HEAD")); //$NON-NLS-1$
+			}
+		} catch (SocketTimeoutException e) {
+			// idle connection
+		} catch (IOException e) {
+			// the connection was closed
+		} catch (InterruptedException e) {
+			// the server is stopping
+			Thread.currentThread().interrupt();
+		} finally {
+			connections.remove(connection);
+			close(connection);
+		}
+	}
+
+	/**
+	 * Waits for the next request of a kept-alive connection, without reading it.
+	 *
+	 * @return true if a request is coming, false if the client closed the connection, if it stayed idle for
+	 *         {@link #KEEP_ALIVE_TIMEOUT} ms, or if other connections are waiting for a thread in the mean time
+	 */
+	private static boolean awaitRequest(final Socket connection, final InputStream in,
+			final ThreadPoolExecutor connectionExecutor) throws IOException {
+		final long deadline = System.currentTimeMillis() + KEEP_ALIVE_TIMEOUT;
+		connection.setSoTimeout(IDLE_CHECK_INTERVAL);
+		try {
+			while (true) {
+				in.mark(1);
+				try {
+					if (in.read() == -1) {
+						return false;
+					}
+					in.reset();
+					return true;
+				} catch (SocketTimeoutException e) {
+					// nothing was read: keep waiting, unless the connection should be closed
+					if (isSaturated(connectionExecutor) || System.currentTimeMillis() >= deadline) {
+						return false;
+					}
+				}
+			}
+		} finally {
+			connection.setSoTimeout(KEEP_ALIVE_TIMEOUT);
+		}
+	}
+
+	/**
+	 * @return true if connections are waiting for a thread of the pool
+	 */
+	private static boolean isSaturated(final ThreadPoolExecutor connectionExecutor) {
+		return !connectionExecutor.getQueue().isEmpty();
+	}
+
+	/**
+	 * Matches the request against the endpoints, and returns the canned response of the matching one.
+	 */
+	private StubResponse handle(final StubRequest request) throws InterruptedException {
+		final String method = request.getMethod();
+		final String path = request.getPath();
+		if (path == null) {
+			return new StubResponse(400);
+		}
+		final String contentType = request.getHeader(CONTENT_TYPE);
+		final Set<String> allowedMethods = new LinkedHashSet<String>();
+		boolean unsupportedMediaType = false;
+		boolean notAcceptable = false;
+		for (StubEndpoint endpoint : endpoints) {
+			if (!endpoint.matches(path)) {
+				continue;
+			}
+			allowedMethods.add(endpoint.getHttpVerb());
+			final boolean head = method.equals("HEAD") && endpoint.getHttpVerb().equals("GET"); //$NON-NLS-1$ //$NON-NLS-2$
+			if (!endpoint.getHttpVerb().equals(method) && !head) {
+				continue;
+			}
+			if (!endpoint.consumes(contentType)) {
+				unsupportedMediaType = true;
+				continue;
+			}
+			final StubConfiguration.Response cannedResponse = configuration.getResponse(endpoint);
+			String responseType = cannedResponse.getContentType();
+			if (responseType == null) {
+				responseType = endpoint.getResponseMediaType(request.getHeader("Accept")); //$NON-NLS-1$
+			}
+			if (responseType == null) {
+				notAcceptable = true;
+				continue;
+			}
+			return reply(endpoint, cannedResponse, responseType);
+		}
+		if (allowedMethods.isEmpty()) {
+			return new StubResponse(404);
+		} else if (unsupportedMediaType) {
+			return new StubResponse(415);
+		} else if (notAcceptable) {
+			return new StubResponse(406);
+		}
+		final StringBuilder allow = new StringBuilder();
+		for (String allowedMethod : allowedMethods) {
+			allow.append(allow.length() > 0 ? ", " : "").append(allowedMethod); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		final StubResponse response = new StubResponse(method.equals("OPTIONS") ? 200 : 405); //$NON-NLS-1$
+		response.addHeader("Allow", allow.toString()); //$NON-NLS-1$
+		return response;
+	}
+
+	private StubResponse reply(final StubEndpoint endpoint, final StubConfiguration.Response cannedResponse,
+			final String responseType) throws InterruptedException {
+		byte[] body;
+		try {
+			body = cannedResponse.getBody() != null ? cannedResponse.getBody().getBytes(UTF_8) : generateBody(
+					endpoint, responseType, cannedResponse.getPayloadSize());
+		} catch (UnsupportedEncodingException e) {
+			body = cannedResponse.getBody().getBytes();
+		}
+		if (cannedResponse.getLatency() > 0) {
+			Thread.sleep(cannedResponse.getLatency());
+		}
+		final StubResponse response = new StubResponse(cannedResponse.getStatus());
+		if (body.length > 0) {
+			response.addHeader(CONTENT_TYPE, responseType);
+			response.setBody(body);
+		}
+		response.addHeader("X-Stub-Endpoint", endpoint.toString()); //$NON-NLS-1$
+		return response;
+	}
+
+	private static void close(final ServerSocket socket) {
+		try {
+			socket.close();
+		} catch (IOException e) {
+			// already closed
+		}
+	}
+
+	private static void close(final Socket socket) {
+		try {
+			socket.close();
+		} catch (IOException e) {
+			// already closed
+		}
+	}
+
+	/**
+	 * A request: its method, path and headers. Its body is read, and ignored.
+	 */
+	private static class StubRequest {
+
+		private final String method;
+
+		private final String path;
+
+		private final String version;
+
+		/** The headers, by lower case name. */
+		private final Map<String, String> headers;
+
+		private StubRequest(final String method, final String path, final String version,
+				final Map<String, String> headers) {
+			this.method = method;
+			this.path = path;
+			this.version = version;
+			this.headers = headers;
+		}
+
+		/**
+		 * Reads the next request of a connection.
+		 *
+		 * @return the request, or null if the client closed the connection
+		 */
+		static StubRequest read(final InputStream in, final OutputStream out) throws IOException {
+			String requestLine = readLine(in);
+			// empty lines before a request are ignored
+			while (requestLine != null && requestLine.length() == 0) {
+				requestLine = readLine(in);
+			}
+			if (requestLine == null) {
+				return null;
+			}
+			final String[] parts = requestLine.split(" "); //$NON-NLS-1$
+			if (parts.length < 2) {
+				throw new IOException("Invalid request line: " + requestLine); //$NON-NLS-1$
+			}
+			final Map<String, String> headers = new HashMap<String, String>();
+			for (String line = readLine(in); line != null && line.length() > 0; line = readLine(in)) {
+				final int colon = line.indexOf(':');
+				if (colon > 0) {
+					final String name = line.substring(0, colon).trim().toLowerCase(Locale.ENGLISH);
+					if (!headers.containsKey(name)) {
+						headers.put(name, line.substring(colon + 1).trim());
+					}
+				}
+			}
+			if ("100-continue".equalsIgnoreCase(headers.get("expect"))) { //$NON-NLS-1$ //$NON-NLS-2$
+				out.write(("HTTP/1.1 100 Continue" + CRLF + CRLF).getBytes(ISO_8859_1)); //$NON-NLS-1$
+				out.flush();
+			}
+			drainBody(in, headers);
+			return new StubRequest(parts[0].toUpperCase(Locale.ENGLISH), getPath(parts[1]),
+					parts.length > 2 ? parts[2] : "HTTP/1.0", headers); //$NON-NLS-1$
+		}
+
+		String getMethod() {
+			return method;
+		}
+
+		/** @return the raw path of the request, without its query, or null if the request URI is invalid */
+		String getPath() {
+			return path;
+		}
+
+		String getHeader(final String name) {
+			return headers.get(name.toLowerCase(Locale.ENGLISH));
+		}
+
+		boolean isKeepAlive() {
+			final String connection = headers.get("connection"); //$NON-NLS-1$
+			if (version.equals("HTTP/1.1")) { //$NON-NLS-1$
+				return !"close".equalsIgnoreCase(connection); //$NON-NLS-1$
+			}
+			return "keep-alive".equalsIgnoreCase(connection); //$NON-NLS-1$
+		}
+
+		private static String getPath(final String requestURI) {
+			try {
+				return new URI(requestURI).getRawPath();
+			} catch (URISyntaxException e) {
+				return null;
+			}
+		}
+
+		private static void drainBody(final InputStream in, final Map<String, String> headers) throws IOException {
+			if ("chunked".equalsIgnoreCase(headers.get("transfer-encoding"))) { //$NON-NLS-1$ //$NON-NLS-2$
+				while (true) {
+					final String size = readLine(in);
+					if (size == null) {
+						throw new IOException("Unexpected end of chunked body"); //$NON-NLS-1$
+					}
+					final int extension = size.indexOf(';');
+					final long length;
+					try {
+						length = Long.parseLong((extension >= 0 ? size.substring(0, extension) : size).trim(), 16);
+					} catch (NumberFormatException e) {
+						throw new IOException("Invalid chunk size: " + size); //$NON-NLS-1$
+					}
+					if (length == 0) {
+						// trailers
+						for (String line = readLine(in); line != null && line.length() > 0; line = readLine(in)) {
+							// ignored
+						}
+						return;
+					}
+					skip(in, length);
+					readLine(in);
+				}
+			}
+			final String contentLength = headers.get("content-length"); //$NON-NLS-1$
+			if (contentLength != null) {
+				try {
+					skip(in, Long.parseLong(contentLength.trim()));
+				} catch (NumberFormatException e) {
+					throw new IOException("Invalid Content-Length: " + contentLength); //$NON-NLS-1$
+				}
+			}
+		}
+
+		/**
+		 * Reads a line ending with LF (the CR before it is dropped).
+		 *
+		 * @return the line, or null at the end of the stream
+		 */
+		private static String readLine(final InputStream in) throws IOException {
+			final ByteArrayOutputStream line = new ByteArrayOutputStream();
+			int b = in.read();
+			if (b == -1) {
+				return null;
+			}
+			while (b != -1 && b != '\n') {
+				line.write(b);
+				b = in.read();
+			}
+			final String text = line.toString(ISO_8859_1);
+			return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text; //$NON-NLS-1$
+		}
+
+		private static void skip(final InputStream in, final long length) throws IOException {
+			final byte[] buffer = new byte[4096];
+			long remaining = length;
+			while (remaining > 0) {
+				final int n = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+				if (n == -1) {
+					throw new IOException("Unexpected end of body"); //$NON-NLS-1$
+				}
+				remaining -= n;
+			}
+		}
+	}
+
+	/**
+	 * A response: its status, headers and body.
+	 */
+	private static class StubResponse {
+
+		private final int status;
+
+		private final Map<String, String> headers = new LinkedHashMap<String, String>();
+
+		private byte[] body = new byte[0];
+
+		StubResponse(final int status) {
+			this.status = status;
+		}
+
+		void addHeader(final String name, final String value) {
+			headers.put(name, value);
+		}
+
+		void setBody(final byte[] body) {
+			this.body = body;
+		}
+
+		void write(final OutputStream out, final boolean keepAlive, final boolean head) throws IOException {
+			final boolean noContent = status == 204 || status == 304 || (status >= 100 && status < 200);
+			final StringBuilder header = new StringBuilder();
+			header.append("HTTP/1.1 ").append(status).append(' ').append(getReasonPhrase(status)).append(CRLF); //$NON-NLS-1$
+			for (Entry<String, String> entry : headers.entrySet()) {
+				header.append(entry.getKey()).append(": ").append(entry.getValue()).append(CRLF); //$NON-NLS-1$
+			}
+			if (!noContent) {
+				header.append("Content-Length: ").append(body.length).append(CRLF); //$NON-NLS-1$
+			}
+			header.append("Connection: ").append(keepAlive ? "keep-alive" : "close").append(CRLF).append(CRLF); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			out.write(header.toString().getBytes(ISO_8859_1));
+			if (!noContent && !head) {
+				out.write(body);
+			}
+			out.flush();
+		}
+
+		private static String getReasonPhrase(final int status) {
+			switch (status) {
+			case 200:
+				return "OK"; //$NON-NLS-1$
+			case 201:
+				return "Created"; //$NON-NLS-1$
+			case 202:
+				return "Accepted"; //$NON-NLS-1$
+			case 204:
+				return "No Content"; //$NON-NLS-1$
+			case 304:
+				return "Not Modified"; //$NON-NLS-1$
+			case 400:
+				return "Bad Request"; //$NON-NLS-1$
+			case 404:
+				return "Not Found"; //$NON-NLS-1$
+			case 405:
+				return "Method Not Allowed"; //$NON-NLS-1$
+			case 406:
+				return "Not Acceptable"; //$NON-NLS-1$
+			case 415:
+				return "Unsupported Media Type"; //$NON-NLS-1$
+			case 500:
+				return "Internal Server Error"; //$NON-NLS-1$
+			case 503:
+				return "Service Unavailable"; //$NON-NLS-1$
+			default:
+				return "Status"; //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Names the threads of the server, and makes them daemons so that they never prevent the JVM from exiting.
+	 */
+	private static class StubThreadFactory implements ThreadFactory {
+
+		private static final AtomicInteger threadCount = new AtomicInteger();
+
+		@Override
+		public Thread newThread(final Runnable runnable) {
+			final Thread thread = new Thread(runnable, "JAX-RS stub server " + threadCount.incrementAndGet()); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
@@ -0,0 +1,279 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.ui.stub;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Configuration of the {@link JaxrsStubServer}: the port to listen to, and the canned responses of the endpoints.
+ *
+ * Each endpoint replies with the default response, unless a specific response is configured for its HTTP method and
+ * URI path template. A response has a status, an artificial latency, and either a fixed body or a generated body of
+ * the given size (in the produced media type of the endpoint).
+ *
+ * The configuration can be loaded from a properties file, such as:
+ *
+ * <pre>
+ * port=9090
+ * threads=32
+ * # default response
+ * status=200
+ * latency=20
+ * payloadSize=1024
+ * # specific responses (the path may be given with or without the matrix and query parameters)
+ * endpoint.1.method=GET
+ * endpoint.1.path=/app/customers/{id}
+ * endpoint.1.body={"id":1,"name":"John"}
+ * endpoint.1.contentType=application/json
+ * endpoint.2.method=POST
+ * endpoint.2.path=/app/customers
+ * endpoint.2.status=201
+ * endpoint.2.latency=150
+ * </pre>
+ */
+public class StubConfiguration {
+
+	/** Name of the file in which the configuration of the stub server of a project is read, at the project root. */
+	public static final String FILE_NAME = "jaxrs-stub.properties"; //$NON-NLS-1$
+
+	private static final String PORT = "port"; //$NON-NLS-1$
+	private static final String THREADS = "threads"; //$NON-NLS-1$
+	private static final String STATUS = "status"; //$NON-NLS-1$
+	private static final String LATENCY = "latency"; //$NON-NLS-1$
+	private static final String PAYLOAD_SIZE = "payloadSize"; //$NON-NLS-1$
+	private static final String BODY = "body"; //$NON-NLS-1$
+	private static final String CONTENT_TYPE = "contentType"; //$NON-NLS-1$
+	private static final String ENDPOINT_PREFIX = "endpoint."; //$NON-NLS-1$
+	private static final String METHOD = "method"; //$NON-NLS-1$
+	private static final String PATH = "path"; //$NON-NLS-1$
+
+	/**
+	 * A canned response.
+	 */
+	public static class Response {
+
+		private int status = 200;
+
+		private long latency = 0;
+
+		private int payloadSize = 256;
+
+		private String body = null;
+
+		private String contentType = null;
+
+		public Response() {
+			super();
+		}
+
+		/** Copy constructor. */
+		public Response(final Response response) {
+			this.status = response.status;
+			this.latency = response.latency;
+			this.payloadSize = response.payloadSize;
+			this.body = response.body;
+			this.contentType = response.contentType;
+		}
+
+		public int getStatus() {
+			return status;
+		}
+
+		public Response setStatus(final int status) {
+			this.status = status;
+			return this;
+		}
+
+		/** @return the time to wait before sending the response, in milliseconds */
+		public long getLatency() {
+			return latency;
+		}
+
+		public Response setLatency(final long latency) {
+			this.latency = Math.max(0, latency);
+			return this;
+		}
+
+		/** @return the size of the generated body, in bytes, when no body is set */
+		public int getPayloadSize() {
+			return payloadSize;
+		}
+
+		public Response setPayloadSize(final int payloadSize) {
+			this.payloadSize = Math.max(0, payloadSize);
+			return this;
+		}
+
+		/** @return the body of the response, or null to generate a body of {@link #getPayloadSize()} bytes */
+		public String getBody() {
+			return body;
+		}
+
+		public Response setBody(final String body) {
+			this.body = body;
+			return this;
+		}
+
+		/** @return the media type of the response, or null to use the one produced by the endpoint */
+		public String getContentType() {
+			return contentType;
+		}
+
+		public Response setContentType(final String contentType) {
+			this.contentType = contentType;
+			return this;
+		}
+	}
+
+	private int port = 0;
+
+	private int threads = 16;
+
+	private final Response defaultResponse = new Response();
+
+	/** The specific responses, indexed by "METHOD path". */
+	private final Map<String, Response> responses = new HashMap<String, Response>();
+
+	public StubConfiguration() {
+		super();
+	}
+
+	/**
+	 * Reads the configuration from the given properties file.
+	 *
+	 * @param file
+	 *            the file
+	 * @return the configuration
+	 * @throws IOException
+	 *             if the file can't be read
+	 */
+	public static StubConfiguration load(final File file) throws IOException {
+		final InputStream in = new FileInputStream(file);
+		try {
+			final Properties properties = new Properties();
+			properties.load(in);
+			return load(properties);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads the configuration from the given properties. Invalid numbers are ignored.
+	 *
+	 * @param properties
+	 *            the properties
+	 * @return the configuration
+	 */
+	public static StubConfiguration load(final Properties properties) {
+		final StubConfiguration configuration = new StubConfiguration();
+		configuration.setPort(getInt(properties, PORT, configuration.getPort()));
+		configuration.setThreads(getInt(properties, THREADS, configuration.getThreads()));
+		read(properties, "", configuration.getDefaultResponse()); //$NON-NLS-1$
+		for (String name : properties.stringPropertyNames()) {
+			if (!name.startsWith(ENDPOINT_PREFIX) || !name.endsWith("." + METHOD)) { //$NON-NLS-1$
+				continue;
+			}
+			final String prefix = name.substring(0, name.length() - METHOD.length());
+			final String method = properties.getProperty(name).trim();
+			final String path = properties.getProperty(prefix + PATH);
+			if (method.length() == 0 || path == null) {
+				continue;
+			}
+			final Response response = new Response(configuration.getDefaultResponse());
+			read(properties, prefix, response);
+			configuration.setResponse(method, path.trim(), response);
+		}
+		return configuration;
+	}
+
+	/** @return the port of the stub server, 0 for any free port */
+	public int getPort() {
+		return port;
+	}
+
+	public void setPort(final int port) {
+		this.port = Math.max(0, port);
+	}
+
+	/** @return the number of requests processed at the same time */
+	public int getThreads() {
+		return threads;
+	}
+
+	public void setThreads(final int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/** @return the response of the endpoints without specific response (can be modified) */
+	public Response getDefaultResponse() {
+		return defaultResponse;
+	}
+
+	/**
+	 * Sets the response of the given endpoint.
+	 *
+	 * @param httpVerb
+	 *            the HTTP method of the endpoint
+	 * @param path
+	 *            the URI path template of the endpoint, with or without its matrix and query parameters
+	 * @param response
+	 *            the response
+	 */
+	public void setResponse(final String httpVerb, final String path, final Response response) {
+		responses.put(getKey(httpVerb, StubEndpoint.getPath(path)), response);
+	}
+
+	/**
+	 * @param endpoint
+	 *            the endpoint
+	 * @return the response of the given endpoint
+	 */
+	public Response getResponse(final StubEndpoint endpoint) {
+		final Response response = responses.get(getKey(endpoint.getHttpVerb(), endpoint.getPath()));
+		return response != null ? response : defaultResponse;
+	}
+
+	private static String getKey(final String httpVerb, final String path) {
+		return httpVerb.toUpperCase() + ' ' + path;
+	}
+
+	private static void read(final Properties properties, final String prefix, final Response response) {
+		response.setStatus(getInt(properties, prefix + STATUS, response.getStatus()));
+		response.setLatency(getInt(properties, prefix + LATENCY, (int) response.getLatency()));
+		response.setPayloadSize(getInt(properties, prefix + PAYLOAD_SIZE, response.getPayloadSize()));
+		if (properties.getProperty(prefix + BODY) != null) {
+			response.setBody(properties.getProperty(prefix + BODY));
+		}
+		if (properties.getProperty(prefix + CONTENT_TYPE) != null) {
+			response.setContentType(properties.getProperty(prefix + CONTENT_TYPE).trim());
+		}
+	}
+
+	private static int getInt(final Properties properties, final String name, final int defaultValue) {
+		final String value = properties.getProperty(name);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+}
@@ -0,0 +1,354 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.ui.stub;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.jboss.tools.ws.jaxrs.core.metamodel.IJaxrsEndpoint;
+
+/**
+ * Snapshot of a JAX-RS endpoint served by the {@link JaxrsStubServer}: its HTTP method, URI path template and media
+ * types, with the regular expression matching the request paths.
+ *
+ * The endpoints of the metamodel are copied, so that a running stub server is not affected by the changes of the
+ * metamodel (which would be applied at the next start).
+ */
+public class StubEndpoint {
+
+	/** Regular expression of a path parameter without explicit regular expression. */
+	private static final String DEFAULT_PARAM_REGEX = "[^/]+"; //$NON-NLS-1$
+
+	private final String httpVerb;
+
+	private final String uriPathTemplate;
+
+	private final String path;
+
+	private final List<String> consumedMediaTypes;
+
+	private final List<String> producedMediaTypes;
+
+	private final Pattern pattern;
+
+	/** Number of literal characters in the path, the most specific endpoints are matched first. */
+	private final int literalLength;
+
+	/**
+	 * Full constructor.
+	 *
+	 * @param httpVerb
+	 *            the HTTP method (eg: GET)
+	 * @param uriPathTemplate
+	 *            the URI path template, which may include matrix and query parameters (eg:
+	 *            /app/customers/{id:[0-9]+};lang={lang:String}?start={start:int})
+	 * @param consumedMediaTypes
+	 *            the media types of the request bodies (may be null)
+	 * @param producedMediaTypes
+	 *            the media types of the response bodies (may be null)
+	 */
+	public StubEndpoint(final String httpVerb, final String uriPathTemplate, final List<String> consumedMediaTypes,
+			final List<String> producedMediaTypes) {
+		this.httpVerb = httpVerb.toUpperCase();
+		this.uriPathTemplate = uriPathTemplate;
+		this.path = getPath(uriPathTemplate);
+		this.consumedMediaTypes = copy(consumedMediaTypes);
+		this.producedMediaTypes = copy(producedMediaTypes);
+		Pattern compiled;
+		try {
+			compiled = Pattern.compile(toRegex(path, true));
+		} catch (PatternSyntaxException e) {
+			// the regular expressions of the template may not be valid in Java
+			compiled = Pattern.compile(toRegex(path, false));
+		}
+		this.pattern = compiled;
+		this.literalLength = countLiterals(path);
+	}
+
+	/**
+	 * Copies the given endpoint of the metamodel.
+	 *
+	 * @param endpoint
+	 *            the endpoint
+	 * @return the stub endpoint, or null if the endpoint has no HTTP method
+	 */
+	public static StubEndpoint from(final IJaxrsEndpoint endpoint) {
+		if (endpoint.getHttpMethod() == null || endpoint.getHttpMethod().getHttpVerb() == null
+				|| endpoint.getUriPathTemplate() == null) {
+			return null;
+		}
+		return new StubEndpoint(endpoint.getHttpMethod().getHttpVerb(), endpoint.getUriPathTemplate(),
+				endpoint.getConsumedMediaTypes(), endpoint.getProducedMediaTypes());
+	}
+
+	/**
+	 * Copies the given endpoints of the metamodel, skipping the incomplete ones.
+	 *
+	 * @param endpoints
+	 *            the endpoints
+	 * @return the stub endpoints
+	 */
+	public static List<StubEndpoint> from(final List<IJaxrsEndpoint> endpoints) {
+		final List<StubEndpoint> stubEndpoints = new ArrayList<StubEndpoint>(endpoints.size());
+		for (IJaxrsEndpoint endpoint : endpoints) {
+			final StubEndpoint stubEndpoint = from(endpoint);
+			if (stubEndpoint != null) {
+				stubEndpoints.add(stubEndpoint);
+			}
+		}
+		return stubEndpoints;
+	}
+
+	public String getHttpVerb() {
+		return httpVerb;
+	}
+
+	public String getUriPathTemplate() {
+		return uriPathTemplate;
+	}
+
+	/** @return the URI path template, without its matrix and query parameters */
+	public String getPath() {
+		return path;
+	}
+
+	public List<String> getConsumedMediaTypes() {
+		return consumedMediaTypes;
+	}
+
+	public List<String> getProducedMediaTypes() {
+		return producedMediaTypes;
+	}
+
+	int getLiteralLength() {
+		return literalLength;
+	}
+
+	/**
+	 * @param requestPath
+	 *            the path of a request, without its query (matrix parameters are ignored)
+	 * @return true if the request path matches the URI path template of this endpoint
+	 */
+	public boolean matches(final String requestPath) {
+		return pattern.matcher(normalize(stripParams(requestPath, false))).matches();
+	}
+
+	/**
+	 * @param contentType
+	 *            the media type of a request body, or null if the request has no body
+	 * @return true if the endpoint accepts the given media type
+	 */
+	public boolean consumes(final String contentType) {
+		if (contentType == null || consumedMediaTypes.isEmpty()) {
+			return true;
+		}
+		for (String consumedMediaType : consumedMediaTypes) {
+			if (isCompatible(consumedMediaType, contentType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param accept
+	 *            the Accept header of a request (may be null)
+	 * @return the media type of the response for the given Accept header, "text/plain" if the endpoint does not
+	 *         declare any, or null if none is acceptable
+	 */
+	public String getResponseMediaType(final String accept) {
+		final List<String> acceptedMediaTypes = new ArrayList<String>();
+		if (accept != null) {
+			for (String range : accept.split(",")) { //$NON-NLS-1$
+				final String mediaType = range.split(";")[0].trim(); //$NON-NLS-1$
+				if (mediaType.length() > 0) {
+					acceptedMediaTypes.add(mediaType);
+				}
+			}
+		}
+		if (acceptedMediaTypes.isEmpty()) {
+			acceptedMediaTypes.add("*/*"); //$NON-NLS-1$
+		}
+		final List<String> candidates = producedMediaTypes.isEmpty() ? Collections.singletonList("text/plain") //$NON-NLS-1$
+				: producedMediaTypes;
+		for (String acceptedMediaType : acceptedMediaTypes) {
+			for (String candidate : candidates) {
+				if (!isCompatible(candidate, acceptedMediaType)) {
+					continue;
+				}
+				// a wildcard in the declared type is replaced with the accepted type, if concrete
+				if (candidate.indexOf('*') < 0) {
+					return candidate;
+				} else if (acceptedMediaType.indexOf('*') < 0) {
+					return acceptedMediaType;
+				}
+				return "application/octet-stream"; //$NON-NLS-1$
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return httpVerb + " " + uriPathTemplate; //$NON-NLS-1$
+	}
+
+	/** @return true if the given media types (which may include wildcards and parameters) are compatible */
+	static boolean isCompatible(final String mediaType, final String otherMediaType) {
+		final String[] type = mediaType.split(";")[0].trim().toLowerCase().split("/"); //$NON-NLS-1$ //$NON-NLS-2$
+		final String[] otherType = otherMediaType.split(";")[0].trim().toLowerCase().split("/"); //$NON-NLS-1$ //$NON-NLS-2$
+		if (type.length != 2 || otherType.length != 2) {
+			return type[0].equals("*") || otherType[0].equals("*"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return (type[0].equals("*") || otherType[0].equals("*") || type[0].equals(otherType[0])) //$NON-NLS-1$ //$NON-NLS-2$
+				&& (type[1].equals("*") || otherType[1].equals("*") || type[1].equals(otherType[1])); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private static List<String> copy(final List<String> mediaTypes) {
+		final List<String> copy = new ArrayList<String>();
+		if (mediaTypes != null) {
+			for (String mediaType : mediaTypes) {
+				if (!mediaType.trim().equals("*/*")) { //$NON-NLS-1$
+					copy.add(mediaType.trim());
+				}
+			}
+		}
+		return Collections.unmodifiableList(copy);
+	}
+
+	/** @return the URI path template without query and matrix parameters, starting with a single '/' */
+	static String getPath(final String uriPathTemplate) {
+		return normalize(stripParams(uriPathTemplate, true));
+	}
+
+	/**
+	 * Reads the path segment by segment, keeping its template parameters whole (their regular expressions may contain
+	 * '/', ';', '?' or braces), and removes the matrix parameters of each segment (';' to the end of the segment).
+	 *
+	 * @param stripQuery
+	 *            true to also remove the query, from the first '?' outside of a template parameter
+	 */
+	private static String stripParams(final String path, final boolean stripQuery) {
+		final StringBuilder stripped = new StringBuilder();
+		boolean inMatrixParams = false;
+		int i = 0;
+		while (i < path.length()) {
+			final char c = path.charAt(i);
+			if (c == '{') {
+				final int end = Math.min(findClosingBrace(path, i) + 1, path.length());
+				if (!inMatrixParams) {
+					stripped.append(path, i, end);
+				}
+				i = end;
+				continue;
+			}
+			if (c == '?' && stripQuery) {
+				break;
+			} else if (c == ';') {
+				inMatrixParams = true;
+			} else if (c == '/') {
+				inMatrixParams = false;
+			}
+			if (!inMatrixParams) {
+				stripped.append(c);
+			}
+			i++;
+		}
+		return stripped.toString();
+	}
+
+	private static String normalize(final String path) {
+		String normalized = "/" + path; //$NON-NLS-1$
+		while (normalized.indexOf("//") > -1) { //$NON-NLS-1$
+			normalized = normalized.replace("//", "/"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		if (normalized.length() > 1 && normalized.endsWith("/")) { //$NON-NLS-1$
+			normalized = normalized.substring(0, normalized.length() - 1);
+		}
+		return normalized;
+	}
+
+	/**
+	 * Converts a path template into a regular expression: literals are quoted, and each template parameter becomes
+	 * its own regular expression (if any and if allowed) or {@link #DEFAULT_PARAM_REGEX}.
+	 */
+	private static String toRegex(final String path, final boolean useParamRegex) {
+		final StringBuilder regex = new StringBuilder();
+		final StringBuilder literal = new StringBuilder();
+		int i = 0;
+		while (i < path.length()) {
+			final char c = path.charAt(i);
+			if (c != '{') {
+				literal.append(c);
+				i++;
+				continue;
+			}
+			if (literal.length() > 0) {
+				regex.append(Pattern.quote(literal.toString()));
+				literal.setLength(0);
+			}
+			final int end = findClosingBrace(path, i);
+			final String param = path.substring(i + 1, end);
+			final int colon = param.indexOf(':');
+			final String paramRegex = colon >= 0 ? param.substring(colon + 1).trim() : null;
+			regex.append('(').append(useParamRegex && paramRegex != null && paramRegex.length() > 0 ? paramRegex
+					: DEFAULT_PARAM_REGEX).append(')');
+			i = end + 1;
+		}
+		if (literal.length() > 0) {
+			regex.append(Pattern.quote(literal.toString()));
+		}
+		return regex.toString();
+	}
+
+	private static int countLiterals(final String path) {
+		int count = 0;
+		int i = 0;
+		while (i < path.length()) {
+			if (path.charAt(i) == '{') {
+				i = findClosingBrace(path, i) + 1;
+			} else {
+				count++;
+				i++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return the index of the brace closing the one at the given index, or the end of the path. The escaped
+	 *         characters and the character classes of the regular expression of the parameter are skipped, since
+	 *         their braces are not balanced.
+	 */
+	private static int findClosingBrace(final String path, final int start) {
+		int depth = 0;
+		boolean inClass = false;
+		for (int i = start; i < path.length(); i++) {
+			final char c = path.charAt(i);
+			if (c == '\\') {
+				i++;
+			} else if (inClass) {
+				inClass = c != ']';
+			} else if (c == '[') {
+				inClass = true;
+			} else if (c == '{') {
+				depth++;
+			} else if (c == '}' && --depth == 0) {
+				return i;
+			}
+		}
+		return path.length();
+	}
+
+}
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.dialogs;
+
+import org.eclipse.jface.dialogs.IDialogConstants;
+import org.eclipse.jface.dialogs.TitleAreaDialog;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.ModifyEvent;
+import org.eclipse.swt.events.ModifyListener;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Spinner;
+import org.jboss.tools.ws.ui.messages.JBossWSUIMessages;
+import org.jboss.tools.ws.ui.utils.WSLoadTester;
+
+/**
+ * Dialog to configure a load test of the current request: number of
+ * concurrent users, total number of requests and/or duration, ramp-up
+ * and think time. The values are kept for the next load test.
+ */
+public class LoadTestDialog extends TitleAreaDialog {
+
+	private static int concurrency = 10;
+	private static int requests = 100;
+	private static int duration = 0;
+	private static int rampUp = 0;
+	private static int thinkTime = 0;
+
+	private Spinner concurrencySpinner;
+	private Spinner requestsSpinner;
+	private Spinner durationSpinner;
+	private Spinner rampUpSpinner;
+	private Spinner thinkTimeSpinner;
+
+	/**
+	 * Constructor
+	 * @param parentShell
+	 */
+	public LoadTestDialog(Shell parentShell) {
+		super(parentShell);
+	}
+
+	@Override
+	protected void configureShell(Shell newShell) {
+		super.configureShell(newShell);
+		newShell.setText(JBossWSUIMessages.LoadTestDialog_Window_Title);
+	}
+
+	protected Control createDialogArea(Composite parent) {
+		setTitle(JBossWSUIMessages.LoadTestDialog_Title);
+		setMessage(JBossWSUIMessages.LoadTestDialog_Description);
+
+		Composite comp = new Composite (parent, SWT.NONE);
+		GridLayout layout = new GridLayout(2, false);
+		GridData gridData = new GridData(SWT.FILL, SWT.FILL, true, true);
+		comp.setLayoutData(gridData);
+		comp.setLayout(layout);
+
+		concurrencySpinner = createSpinner(comp, JBossWSUIMessages.LoadTestDialog_Concurrency_Label,
+				concurrency, 1, 1000);
+		requestsSpinner = createSpinner(comp, JBossWSUIMessages.LoadTestDialog_Requests_Label,
+				requests, 0, 1000000);
+		durationSpinner = createSpinner(comp, JBossWSUIMessages.LoadTestDialog_Duration_Label,
+				duration, 0, 86400);
+		rampUpSpinner = createSpinner(comp, JBossWSUIMessages.LoadTestDialog_RampUp_Label,
+				rampUp, 0, 3600);
+		thinkTimeSpinner = createSpinner(comp, JBossWSUIMessages.LoadTestDialog_ThinkTime_Label,
+				thinkTime, 0, 60000);
+
+		return comp;
+	}
+
+	@Override
+	protected void createButtonsForButtonBar(Composite parent) {
+		super.createButtonsForButtonBar(parent);
+		validate();
+	}
+
+	private Spinner createSpinner(Composite parent, String label, int value, int min, int max) {
+		Label spinnerLabel = new Label(parent, SWT.RIGHT);
+		spinnerLabel.setText(label);
+
+		Spinner spinner = new Spinner(parent, SWT.BORDER);
+		spinner.setMinimum(min);
+		spinner.setMaximum(max);
+		spinner.setSelection(value);
+		spinner.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+		spinner.addModifyListener(new ModifyListener() {
+			public void modifyText(ModifyEvent e) {
+				validate();
+			}
+		});
+		return spinner;
+	}
+
+	/*
+	 * A load test needs at least a number of requests or a duration
+	 */
+	private void validate() {
+		if (requestsSpinner == null || durationSpinner == null || getButton(IDialogConstants.OK_ID) == null) {
+			return;
+		}
+		boolean valid = requestsSpinner.getSelection() > 0 || durationSpinner.getSelection() > 0;
+		setErrorMessage(valid ? null : JBossWSUIMessages.LoadTestDialog_No_Limit_Error);
+		getButton(IDialogConstants.OK_ID).setEnabled(valid);
+	}
+
+	@Override
+	protected void okPressed() {
+		concurrency = concurrencySpinner.getSelection();
+		requests = requestsSpinner.getSelection();
+		duration = durationSpinner.getSelection();
+		rampUp = rampUpSpinner.getSelection();
+		thinkTime = thinkTimeSpinner.getSelection();
+		super.okPressed();
+	}
+
+	/**
+	 * Apply the selected values to the given load tester
+	 * @param loadTester
+	 */
+	public void configure(WSLoadTester loadTester) {
+		loadTester.setConcurrency(concurrency);
+		loadTester.setTotalRequests(requests);
+		loadTester.setDuration(duration * 1000L);
+		loadTester.setRampUp(rampUp * 1000L);
+		loadTester.setThinkTime(thinkTime);
+	}
+}
@@ -10,17 +10,16 @@
  ******************************************************************************/
 package org.jboss.tools.ws.ui.utils;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
 import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -36,18 +35,43 @@ public class JAXRSTester {
 	// Result message to pass back
 	private String resultBody;
 	
+	// The whole result message, and the measures of its transfer
+	private ResponseSpool resultSpool;
+
+	// the charset of the result message
+	private String resultCharset = UTF_8;
+
+	// the time spent in each phase of the request
+	private RequestTimings resultTimings;
+	
 	// HTTP headers going in and out
 	private Map<?, ?> requestHeaders = null;
 	private Map<?, ?> resultHeaders = null;
 	
 	// utility constant
 	private String EMPTY_STRING = ""; //$NON-NLS-1$
+	private static final String UTF_8 = "UTF-8"; //$NON-NLS-1$
+
+	// the client which actually sends the requests
+	private final TesterHttpClient client;
+
+	// the connection of the request in progress, closed by abort()
+	private volatile HttpURLConnection connection = null;
+	private volatile boolean aborted = false;
 
 	/**
 	 * Constructor
 	 */
 	public JAXRSTester() {
-		// empty
+		this(TesterHttpClient.getDefault());
+	}
+
+	/**
+	 * Constructor
+	 * @param client the HTTP client to use
+	 */
+	public JAXRSTester(TesterHttpClient client) {
+		this.client = client;
 	}
 
 	/**
@@ -58,6 +82,58 @@ public class JAXRSTester {
 		return this.resultBody;
 	}
 
+	/**
+	 * Return the whole result message, which may be larger than
+	 * {@link #getResultBody()} (that only holds a preview of large messages)
+	 * @return ResponseSpool
+	 */
+	public ResponseSpool getResultSpool() {
+		return this.resultSpool;
+	}
+
+	/**
+	 * Return the charset of the result message
+	 * @return the charset of the Content-Type header, or UTF-8 if it has none
+	 */
+	public String getResultCharset() {
+		return this.resultCharset;
+	}
+
+	/**
+	 * Return the charset parameter of a content type
+	 * @param contentType the value of a Content-Type header (may be null)
+	 * @return String, or null if there is none or it is not supported
+	 */
+	public static String getCharset(String contentType) {
+		if (contentType == null) {
+			return null;
+		}
+		for (String parameter : contentType.split(";")) { //$NON-NLS-1$
+			int equals = parameter.indexOf('=');
+			if (equals > 0 && parameter.substring(0, equals).trim().equalsIgnoreCase("charset")) { //$NON-NLS-1$
+				String charset = parameter.substring(equals + 1).trim();
+				if (charset.length() > 1 && charset.startsWith("\"") && charset.endsWith("\"")) { //$NON-NLS-1$ //$NON-NLS-2$
+					charset = charset.substring(1, charset.length() - 1);
+				}
+				try {
+					return Charset.isSupported(charset) ? charset : null;
+				} catch (IllegalCharsetNameException e) {
+					return null;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Return the time spent in each phase of the last request, which
+	 * may be partial if it failed
+	 * @return RequestTimings
+	 */
+	public RequestTimings getResultTimings() {
+		return this.resultTimings;
+	}
+
 	/**
 	 * Return the result HTTP headers
 	 * @return Map
@@ -66,6 +142,55 @@ public class JAXRSTester {
 		return resultHeaders;
 	}
 	
+	/**
+	 * Return the HTTP status code of the result
+	 * @return int, or -1 if the status line is missing or invalid
+	 */
+	public int getResultStatusCode() {
+		return getStatusCode(resultHeaders);
+	}
+
+	/**
+	 * Return the HTTP status code found in response headers
+	 * @param headers as returned by {@link HttpURLConnection#getHeaderFields()}
+	 * 	(may be null)
+	 * @return int, or -1 if the status line is missing or invalid
+	 */
+	public static int getStatusCode(Map<?, ?> headers) {
+		if (headers == null) {
+			return -1;
+		}
+		// the status line (ie: "HTTP/1.1 200 OK") has no header name
+		Object statusLine = headers.get(null);
+		if (statusLine instanceof List<?> && !((List<?>) statusLine).isEmpty()) {
+			statusLine = ((List<?>) statusLine).get(0);
+		}
+		if (statusLine != null) {
+			String[] parts = statusLine.toString().split(" "); //$NON-NLS-1$
+			if (parts.length > 1) {
+				try {
+					return Integer.parseInt(parts[1]);
+				} catch (NumberFormatException e) {
+					// not a status line
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Abort the request in progress, from any thread. Its connection is
+	 * closed, so that doTest() stops at once with an InterruptedException
+	 * instead of waiting for the server.
+	 */
+	public void abort() {
+		aborted = true;
+		HttpURLConnection current = connection;
+		if (current != null) {
+			current.disconnect();
+		}
+	}
+
 	/**
 	 * Return the request HTTP headers
 	 * @return Map
@@ -151,6 +276,10 @@ public class JAXRSTester {
 
         // clear the returned results
         resultBody = EMPTY_STRING;
+        resultSpool = null;
+        resultCharset = UTF_8;
+        RequestTimings timings = new RequestTimings();
+        resultTimings = timings;
         
         // get the parms string
         String query = buildWebQuery(parameters);
@@ -186,114 +315,97 @@ public class JAXRSTester {
         	url = new URL(address);
         }
 
-        // make connection
-        HttpURLConnection httpurlc = null;
-        if (proxyObject == null) {
-            httpurlc = (HttpURLConnection) url.openConnection();
-        } else {
-        	// if have proxy, pass it along
-            httpurlc = (HttpURLConnection) url.openConnection(proxyObject);
-        }
-        
-        // since we are expecting output back, set to true
-       	httpurlc.setDoOutput(true);
-        
-        // not sure what this does - may be used for authentication?
-        httpurlc.setAllowUserInteraction(false);
-        
-        // set whether this is a GET or POST
-        httpurlc.setRequestMethod(methodType);
-        
-        // if we have headers to add
-        if (headers != null && !headers.isEmpty()) {
-        	Iterator<?> iter = headers.entrySet().iterator();
-        	while (iter.hasNext()) {
-        		Entry<?, ?> entry = (Entry<?, ?>)iter.next();
-        		if (entry.getKey() != null && entry.getKey() instanceof String)
-        			httpurlc.addRequestProperty((String) entry.getKey(), (String) entry.getValue());
-        	}
-        }
-        
-        // if we have basic authentication to add, add it!
-        if (uid != null && pwd != null) {
-	        String authStr = uid + ':' + pwd;
-			byte[] authEncByte = Base64.encodeBase64(authStr.getBytes());
-			String authStringEnc = new String(authEncByte);
-			httpurlc.addRequestProperty("Authorization", "Basic " + authStringEnc);  //$NON-NLS-1$//$NON-NLS-2$
-        }
-        
-        requestHeaders = httpurlc.getRequestProperties();
-        
-        // Check if task has been interrupted
-        if (Thread.interrupted()) {
-            throw new InterruptedException();
-        }
-
-        // CONNECT!
-        httpurlc.connect();
-
-        // Check if task has been interrupted
-        if (Thread.interrupted()) {
-            throw new InterruptedException();
-        }
-
-        // If we are doing a POST and we have some request body to pass along, do it
-        if (requestBody != null && ( methodType.equalsIgnoreCase("POST")  //$NON-NLS-1$
-        		|| methodType.equalsIgnoreCase("PUT"))) { //$NON-NLS-1$
-        	requestBody = WSTestUtils.stripNLsFromXML(requestBody);
-        	OutputStreamWriter out = new OutputStreamWriter(httpurlc.getOutputStream());
-        	String stripped = stripCRLF(requestBody);
-        	out.write(stripped);
-        	out.close();
-        }
-
-        // Check if task has been interrupted
-        if (Thread.interrupted()) {
-            throw new InterruptedException();
-        }
-
-        // retrieve result and put string results into the response
-        InputStream is = null;
+        // get a (possibly kept-alive) connection from the client
+        HttpURLConnection httpurlc = client.open(url, proxyObject, timings);
+        boolean reusable = false;
+        connection = httpurlc;
         try {
-	        is = httpurlc.getInputStream();
+	        if (aborted) {
+	            throw new InterruptedException();
+	        }
+
+	        // set whether this is a GET or POST
+	        httpurlc.setRequestMethod(methodType);
+	        
+	        // if we have headers to add
+	        if (headers != null && !headers.isEmpty()) {
+	        	Iterator<?> iter = headers.entrySet().iterator();
+	        	while (iter.hasNext()) {
+	        		Entry<?, ?> entry = (Entry<?, ?>)iter.next();
+	        		if (entry.getKey() != null && entry.getKey() instanceof String)
+	        			httpurlc.addRequestProperty((String) entry.getKey(), (String) entry.getValue());
+	        	}
+	        }
+	        
+	        // if we have basic authentication to add, add it!
+	        if (uid != null && pwd != null) {
+		        String authStr = uid + ':' + pwd;
+				byte[] authEncByte = Base64.encodeBase64(authStr.getBytes());
+				String authStringEnc = new String(authEncByte);
+				httpurlc.addRequestProperty("Authorization", "Basic " + authStringEnc);  //$NON-NLS-1$//$NON-NLS-2$
+	        }
+	        
+	        requestHeaders = httpurlc.getRequestProperties();
+	        
 	        // Check if task has been interrupted
 	        if (Thread.interrupted()) {
 	            throw new InterruptedException();
 	        }
-	        BufferedReader br = new BufferedReader(new InputStreamReader(is, "UTF-8"));//$NON-NLS-1$
-	        StringBuilder sb = new StringBuilder();
-	        String line;
-	        while ((line = br.readLine()) != null) {
-	            sb.append(line);
-	            sb.append("\n");//$NON-NLS-1$
+	
+	        // If we are doing a POST and we have some request body to pass along, send it
+	        // (output is only enabled when there is a body, so GET requests stay simple)
+	        String stripped = null;
+	        if (requestBody != null && ( methodType.equalsIgnoreCase("POST")  //$NON-NLS-1$
+	        		|| methodType.equalsIgnoreCase("PUT"))) { //$NON-NLS-1$
+	        	stripped = stripCRLF(WSTestUtils.stripNLsFromXML(requestBody));
+	        }
+	
+	        // CONNECT!
+	        ResponseSpool spool = new ResponseSpool(System.nanoTime());
+	        try {
+	        	client.send(httpurlc, stripped, null, timings);
+	        } catch (IOException e) {
+	        	if (aborted) {
+	        		throw new InterruptedException();
+	        	}
+	        	throw e;
 	        }
-	        br.close();
-	        resultBody = sb.toString();
+	
 	        // Check if task has been interrupted
 	        if (Thread.interrupted()) {
 	            throw new InterruptedException();
 	        }
-        } catch (IOException ie) {
-        	try {
-		        is = httpurlc.getErrorStream();
-		        BufferedReader br = new BufferedReader(new InputStreamReader(is, "UTF-8"));//$NON-NLS-1$
-		        StringBuilder sb = new StringBuilder();
-		        String line;
-		        while ((line = br.readLine()) != null) {
-		            sb.append(line);
-		            sb.append("\n");//$NON-NLS-1$
-		        }
-		        br.close();
-		        resultBody = sb.toString();
-        	} catch (IOException ie2) {
-        		resultBody = ie2.getLocalizedMessage();
-        	}
+	
+	        // retrieve result (or error) and put string results into the response;
+	        // reading it entirely gives the connection back to the keep-alive cache.
+	        // Large results are spooled to a file, and only their beginning is kept
+	        try {
+	        	client.readBody(httpurlc, spool, timings);
+	        	resultSpool = spool;
+	        	String charset = getCharset(httpurlc.getContentType());
+	        	if (charset != null) {
+	        		resultCharset = charset;
+	        	}
+	        	resultBody = spool.getPreview(resultCharset);
+	        	reusable = true;
+	        } catch (IOException ie) {
+	        	spool.dispose();
+	        	if (aborted) {
+	        		throw new InterruptedException();
+	        	}
+	        	resultBody = ie.getLocalizedMessage();
+	        }
+	        
+	        resultHeaders = httpurlc.getHeaderFields();
+
+	        // Check if task has been interrupted
+	        if (Thread.interrupted() || aborted) {
+	            throw new InterruptedException();
+	        }
+        } finally {
+        	connection = null;
+        	client.release(httpurlc, reusable && !aborted);
         }
-        
-        resultHeaders = httpurlc.getHeaderFields();
-        
-        // disconnect explicitly (may not be necessary)
-        httpurlc.disconnect();
     }	
     
     public static String stripCRLF ( String input ) {
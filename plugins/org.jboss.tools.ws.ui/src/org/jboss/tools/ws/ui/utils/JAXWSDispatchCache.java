@@ -0,0 +1,306 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.utils;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.wsdl.Definition;
+import javax.wsdl.WSDLException;
+import javax.xml.namespace.QName;
+import javax.xml.soap.SOAPMessage;
+import javax.xml.ws.BindingProvider;
+import javax.xml.ws.Dispatch;
+import javax.xml.ws.Service;
+import javax.xml.ws.Service.Mode;
+
+/**
+ * Cache of the JAX-WS {@link Service} and {@link Dispatch} objects used by
+ * the WS Tester.
+ *
+ * Creating a Service downloads and parses the WSDL, which usually takes
+ * much longer than the call itself. Services are kept by endpoint URL and
+ * service name, and their dispatches by port name. A Dispatch is not
+ * thread-safe (its request context is shared by all its calls), so each one
+ * is only used by a single call at a time: it is borrowed with
+ * {@link #acquire(URL, QName, QName)} and given back with
+ * {@link #release(Dispatch, boolean)}.
+ *
+ * Before a dispatch is handed out, the WSDL of its service is checked
+ * through the {@link WSDLDefinitionCache}: if it changed since the service
+ * was created (e.g. the service was redeployed), the service and its
+ * dispatches are dropped and created again. {@link #invalidate(String)}
+ * drops them at once.
+ */
+public class JAXWSDispatchCache {
+
+	private static final int MAX_SERVICES = 32;
+	private static final int MAX_IDLE_DISPATCHES = 16;
+	private static final String WSDL_QUERY = "?wsdl"; //$NON-NLS-1$
+
+	private static final JAXWSDispatchCache instance = new JAXWSDispatchCache(MAX_SERVICES);
+
+	// services, by endpoint URL and service name, least recently used first
+	private final Map<String, ServiceEntry> services;
+
+	// the WSDLs the services were created from
+	private final WSDLDefinitionCache definitions;
+
+	// entries of the dispatches in use
+	private final ConcurrentMap<Dispatch<SOAPMessage>, PortEntry> leases =
+		new ConcurrentHashMap<Dispatch<SOAPMessage>, PortEntry>();
+
+	/**
+	 * Constructor
+	 * @param maxServices number of services kept in the cache
+	 */
+	public JAXWSDispatchCache(int maxServices) {
+		this(maxServices, WSDLDefinitionCache.getDefault());
+	}
+
+	/**
+	 * Constructor
+	 * @param maxServices number of services kept in the cache
+	 * @param definitions cache used to check whether the WSDL of a service changed
+	 */
+	public JAXWSDispatchCache(final int maxServices, WSDLDefinitionCache definitions) {
+		this.definitions = definitions;
+		this.services = new LinkedHashMap<String, ServiceEntry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, ServiceEntry> eldest) {
+				if (size() > maxServices) {
+					eldest.getValue().invalidated = true;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Return the cache shared by the WS Tester
+	 * @return JAXWSDispatchCache
+	 */
+	public static JAXWSDispatchCache getDefault() {
+		return instance;
+	}
+
+	/**
+	 * Borrow a dispatch for the given port. Its request context is cleared of
+	 * the SOAP action and credentials of previous calls.
+	 * @param endpointURL
+	 * @param serviceQName
+	 * @param portQName
+	 * @return Dispatch, to give back with {@link #release(Dispatch, boolean)}
+	 */
+	public Dispatch<SOAPMessage> acquire(URL endpointURL, QName serviceQName, QName portQName) {
+		PortEntry port = getServiceEntry(endpointURL, serviceQName).getPort(portQName);
+		Dispatch<SOAPMessage> dispatch = port.idle.poll();
+		if (dispatch == null) {
+			dispatch = createDispatch(port.service.getService(), portQName);
+		} else {
+			Map<String, Object> context = dispatch.getRequestContext();
+			context.remove(BindingProvider.SOAPACTION_USE_PROPERTY);
+			context.remove(BindingProvider.SOAPACTION_URI_PROPERTY);
+			context.remove(BindingProvider.USERNAME_PROPERTY);
+			context.remove(BindingProvider.PASSWORD_PROPERTY);
+		}
+		leases.put(dispatch, port);
+		return dispatch;
+	}
+
+	/**
+	 * Give a dispatch back
+	 * @param dispatch
+	 * @param reusable false if the call failed, in which case the dispatch
+	 * 	is dropped
+	 */
+	public void release(Dispatch<SOAPMessage> dispatch, boolean reusable) {
+		PortEntry port = leases.remove(dispatch);
+		if (port != null && reusable && !port.service.invalidated && port.idle.size() < MAX_IDLE_DISPATCHES) {
+			port.idle.offer(dispatch);
+		}
+	}
+
+	/**
+	 * Drop the services whose endpoint, or WSDL, is at the given location
+	 * @param location an endpoint URL, with or without the "?wsdl" query
+	 */
+	public void invalidate(String location) {
+		if (location == null) {
+			return;
+		}
+		String endpoint = getEndpoint(location);
+		synchronized (services) {
+			Iterator<ServiceEntry> iter = services.values().iterator();
+			while (iter.hasNext()) {
+				ServiceEntry entry = iter.next();
+				if (entry.endpoint.equals(endpoint)) {
+					entry.invalidated = true;
+					iter.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drop all the cached services
+	 */
+	public void clear() {
+		List<ServiceEntry> entries;
+		synchronized (services) {
+			entries = new ArrayList<ServiceEntry>(services.values());
+			services.clear();
+		}
+		for (ServiceEntry entry : entries) {
+			entry.invalidated = true;
+		}
+	}
+
+	/**
+	 * Create the service of a WSDL, which reads the WSDL
+	 * @param wsdlURL
+	 * @param serviceQName
+	 * @return Service
+	 */
+	protected Service createService(URL wsdlURL, QName serviceQName) {
+		return Service.create(wsdlURL, serviceQName);
+	}
+
+	/**
+	 * Create a dispatch for a port of a service
+	 * @param service
+	 * @param portQName
+	 * @return Dispatch
+	 */
+	protected Dispatch<SOAPMessage> createDispatch(Service service, QName portQName) {
+		return service.createDispatch(portQName, SOAPMessage.class, Mode.MESSAGE);
+	}
+
+	private ServiceEntry getServiceEntry(URL endpointURL, QName serviceQName) {
+		String endpoint = getEndpoint(endpointURL.toExternalForm());
+		String key = endpoint + ' ' + serviceQName;
+		while (true) {
+			ServiceEntry entry;
+			synchronized (services) {
+				entry = services.get(key);
+				if (entry == null) {
+					entry = new ServiceEntry(endpointURL, endpoint, serviceQName);
+					services.put(key, entry);
+					return entry;
+				}
+			}
+			// checked outside of the lock, as it may read the WSDL again
+			if (entry.isCurrent()) {
+				return entry;
+			}
+			synchronized (services) {
+				if (services.get(key) == entry) {
+					services.remove(key);
+				}
+				entry.invalidated = true;
+			}
+		}
+	}
+
+	private static String getEndpoint(String location) {
+		if (location.toLowerCase().endsWith(WSDL_QUERY)) {
+			return location.substring(0, location.length() - WSDL_QUERY.length());
+		}
+		return location;
+	}
+
+	/*
+	 * A service, created on first use, and its ports
+	 */
+	private class ServiceEntry {
+		private final URL url;
+		private final String endpoint;
+		private final QName serviceQName;
+		private final ConcurrentMap<QName, PortEntry> ports = new ConcurrentHashMap<QName, PortEntry>();
+		private Service service;
+		// the WSDL the service was created from, or null if it could not be read
+		private Definition definition;
+		private volatile boolean invalidated = false;
+
+		ServiceEntry(URL url, String endpoint, QName serviceQName) {
+			this.url = url;
+			this.endpoint = endpoint;
+			this.serviceQName = serviceQName;
+		}
+
+		// only the calls to the same service wait for the WSDL to be processed
+		synchronized Service getService() {
+			if (service == null) {
+				try {
+					definition = definitions.getDefinition(url);
+				} catch (WSDLException e) {
+					// not checked, createService reports why the WSDL can't be read
+					definition = null;
+				}
+				service = createService(url, serviceQName);
+			}
+			return service;
+		}
+
+		/*
+		 * Return false if the WSDL changed since the service was created
+		 */
+		boolean isCurrent() {
+			Definition created;
+			synchronized (this) {
+				created = definition;
+			}
+			if (created == null) {
+				return true;
+			}
+			try {
+				return definitions.getDefinition(url) == created;
+			} catch (WSDLException e) {
+				// the WSDL is not available any more, the call reports the error
+				return true;
+			}
+		}
+
+		PortEntry getPort(QName portQName) {
+			PortEntry port = ports.get(portQName);
+			if (port == null) {
+				PortEntry newPort = new PortEntry(this);
+				port = ports.putIfAbsent(portQName, newPort);
+				if (port == null) {
+					port = newPort;
+				}
+			}
+			return port;
+		}
+	}
+
+	/*
+	 * The idle dispatches of a port
+	 */
+	private static class PortEntry {
+		private final ServiceEntry service;
+		private final ConcurrentLinkedQueue<Dispatch<SOAPMessage>> idle = new ConcurrentLinkedQueue<Dispatch<SOAPMessage>>();
+
+		PortEntry(ServiceEntry service) {
+			this.service = service;
+		}
+	}
+}
@@ -11,10 +11,16 @@
 package org.jboss.tools.ws.ui.utils;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.net.InetAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
@@ -22,6 +28,7 @@ import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSession;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
@@ -33,13 +40,12 @@ import javax.xml.soap.SOAPMessage;
 import javax.xml.ws.BindingProvider;
 import javax.xml.ws.Dispatch;
 import javax.xml.ws.Response;
-import javax.xml.ws.Service;
-import javax.xml.ws.Service.Mode;
 import javax.xml.ws.handler.MessageContext;
 
 import org.apache.axis.message.SOAPEnvelope;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.jboss.tools.ws.ui.messages.JBossWSUIMessages;
+import org.jboss.tools.ws.ui.utils.RequestTimings.Phase;
 
 /**
  * Test a JAX-WS web service using the JAX-WS API
@@ -51,6 +57,12 @@ public class JAXWSTester2 {
 	// the response message to pass back
 	private String resultBody;
 	
+	// the whole response message, and the measures of its transfer
+	private ResponseSpool resultSpool;
+	
+	// the time spent in each phase of the call
+	private RequestTimings resultTimings;
+	
 	private SOAPEnvelope resultSOAP;
 	
 	private SOAPBody resultSOAPBody;
@@ -61,6 +73,16 @@ public class JAXWSTester2 {
 	// utility constant
 	private static final String EMPTY_STRING = ""; //$NON-NLS-1$
 
+	// the response of the call in progress, cancelled by abort()
+	private volatile Response<SOAPMessage> pending = null;
+	private volatile boolean aborted = false;
+
+	// interval between two checks of the progress monitor, in milliseconds
+	private static final long POLL_INTERVAL = 50;
+
+	// true once the trust-all SSL socket factory is the default one
+	private static boolean trustAllInstalled = false;
+
 	/**
 	 * Return the response message
 	 * @return 
@@ -69,6 +91,31 @@ public class JAXWSTester2 {
 		return this.resultBody;
 	}
 	
+	/**
+	 * Return the whole response message, which may be larger than
+	 * {@link #getResultBody()} (that only holds a preview of large messages).
+	 * Note that JAX-WS parses the whole response into a {@link SOAPMessage}
+	 * before returning it, and that its body is kept for
+	 * {@link #getResultSOAPBody()}: unlike for JAX-RS, the spool does not
+	 * save memory, it only bounds the text shown to the user.
+	 * @return
+	 */
+	public ResponseSpool getResultSpool() {
+		return this.resultSpool;
+	}
+
+	/**
+	 * Return the time spent in each phase of the last call. The connection
+	 * is made by JAX-WS, so the connect, handshake and write times are not
+	 * known: they are part of the wait for the response. Likewise, the
+	 * response is read by JAX-WS before it is returned, so the read time
+	 * is the time taken to copy the message.
+	 * @return RequestTimings
+	 */
+	public RequestTimings getResultTimings() {
+		return this.resultTimings;
+	}
+
 	public SOAPBody getResultSOAPBody() {
 		return this.resultSOAPBody;
 	}
@@ -85,6 +132,18 @@ public class JAXWSTester2 {
 		return this.resultSOAP;
 	}
 	
+	/**
+	 * Abort the call in progress, from any thread: doTest() stops at once
+	 * with an InterruptedException instead of waiting for the response.
+	 */
+	public void abort() {
+		aborted = true;
+		Response<SOAPMessage> response = pending;
+		if (response != null) {
+			response.cancel(true);
+		}
+	}
+
 	public void doTest( IProgressMonitor monitor, String endpointurl, String actionurl, String ns, 
 			String serviceName, String messageName, String body ) throws Exception {
 		doTest(monitor, endpointurl, actionurl, ns, serviceName, messageName, body, null, null);
@@ -96,52 +155,49 @@ public class JAXWSTester2 {
 	 * @param body
 	 * @throws Exception
 	 */
-	@SuppressWarnings("unchecked")
 	public void doTest( IProgressMonitor monitor, String endpointurl, String actionurl, String ns, 
 			String serviceName, String messageName, String body, String uid, String pwd ) throws Exception {
 		
 		this.resultBody = EMPTY_STRING;
+		this.resultSpool = null;
+		RequestTimings timings = new RequestTimings();
+		this.resultTimings = timings;
 		
 		// in case we're using SSL security...
 		if (endpointurl.toLowerCase().startsWith("https://")) { //$NON-NLS-1$
-
-			TrustManager t = new X509TrustManager() {
-				
-				@Override
-				public X509Certificate[] getAcceptedIssuers() {
-					return new X509Certificate[0];
-				}
-				
-				@Override
-				public void checkServerTrusted(X509Certificate[] arg0, String arg1)
-						throws CertificateException {
-				}
-				
-				@Override
-				public void checkClientTrusted(X509Certificate[] arg0, String arg1) {
-				}
-			}; 
-			TrustManager[] tm = new TrustManager[] {t};
-			SSLContext ctx = SSLContext.getInstance("SSL"); //$NON-NLS-1$
-			ctx.init(null, tm, new SecureRandom());
-			HttpsURLConnection.setDefaultSSLSocketFactory(ctx.getSocketFactory());
-			HttpsURLConnection.setDefaultHostnameVerifier(new HostnameVerifier() {
-				
-				@Override
-				public boolean verify(String hostname, SSLSession session) {
-					return true;
-				}
-			});
+			installTrustAllSSL();
 		}
 		
 		URL serviceURL = new URL (endpointurl); //"http://www.ecubicle.net/gsearch_rss.asmx"
+
+		// resolved here, so that JAX-WS finds the address in the cache of the JVM
+		// (a proxy resolves the host itself)
+		if (!isProxied(serviceURL)) {
+			timings.start();
+			InetAddress.getAllByName(serviceURL.getHost());
+			timings.end(Phase.RESOLVE);
+		}
 		QName serviceQName = new QName (ns, serviceName); // "http://www.ecubicle.net/webservices", "gsearch_rss"
-		Service s = Service.create(serviceURL, serviceQName);
 
 		boolean isSOAP12 = TesterWSDLUtils.isRequestBodySOAP12(body);
 		
 		QName messageQName = new QName(ns, messageName); //"http://www.ecubicle.net/webservices", "gsearch_rssSoap"
-		Dispatch<SOAPMessage> d = s.createDispatch(messageQName, SOAPMessage.class, Mode.MESSAGE);
+		
+		// the service (and its WSDL) is only processed by the first call
+		JAXWSDispatchCache cache = JAXWSDispatchCache.getDefault();
+		Dispatch<SOAPMessage> d = cache.acquire(serviceURL, serviceQName, messageQName);
+		boolean reusable = false;
+		try {
+			doTest(monitor, d, actionurl, isSOAP12, body, uid, pwd, timings);
+			reusable = true;
+		} finally {
+			cache.release(d, reusable);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void doTest( IProgressMonitor monitor, Dispatch<SOAPMessage> d, String actionurl, 
+			boolean isSOAP12, String body, String uid, String pwd, RequestTimings timings ) throws Exception {
 		
 		MessageFactory mf = MessageFactory.newInstance();
 		if (isSOAP12) {
@@ -156,8 +212,10 @@ public class JAXWSTester2 {
 			d.getRequestContext().put(BindingProvider.PASSWORD_PROPERTY, pwd);
 		}
 
-		SOAPMessage m = mf.createMessage( null, new ByteArrayInputStream(body.getBytes()));
+		byte[] bytes = body.getBytes();
+		SOAPMessage m = mf.createMessage( null, new ByteArrayInputStream(bytes));
 		m.saveChanges();
+		timings.setRequestSize(bytes.length);
 
 		// this is a different method of passing along security details
 //		if (uid != null && pwd != null) {
@@ -169,24 +227,49 @@ public class JAXWSTester2 {
 //			hd.addHeader("Authorization", "Basic " + authStringEnc);  //$NON-NLS-1$//$NON-NLS-2$
 //		}
 
+		ResponseSpool spool = new ResponseSpool(System.nanoTime());
+		timings.start();
 		Response<SOAPMessage> response = d.invokeAsync(m);
-		while (!response.isDone()){
-			//go off and do some work
-			if (monitor != null) {
-				if (monitor.isCanceled()) {
+		pending = response;
+		try {
+			// wait without spinning, checking for cancellation regularly
+			while (!response.isDone()) {
+				if (aborted || (monitor != null && monitor.isCanceled())) {
 					response.cancel(true);
+					break;
+				}
+				try {
+					response.get(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					// not there yet
+				} catch (CancellationException e) {
+					break;
+				} catch (ExecutionException e) {
+					break;
 				}
 			}
+		} finally {
+			pending = null;
 		}
 
 		try {
 			if (!response.isCancelled()) {
 		        //get the actual result
 				SOAPMessage o = (javax.xml.soap.SOAPMessage)response.get();
+				spool.markFirstByte();
+				timings.end(Phase.WAIT);
 
-				ByteArrayOutputStream baos = new ByteArrayOutputStream();
-				o.writeTo(baos);
-				this.resultBody = baos.toString();
+				// only keep the beginning of large messages as a string (the
+				// message itself is already in memory, see getResultSpool())
+				try {
+					o.writeTo(spool);
+				} finally {
+					spool.close();
+				}
+				timings.end(Phase.RECEIVE);
+				timings.setResponseSize(spool.getSize());
+				this.resultSpool = spool;
+				this.resultBody = spool.getPreview(null);
 				this.resultSOAPBody = o.getSOAPBody();
 				
 				if (response.getContext() != null) {
@@ -208,4 +291,64 @@ public class JAXWSTester2 {
 				throw ie;
 		}
 	}
+
+	/*
+	 * Return true if JAX-WS connects to the URL through a proxy
+	 */
+	private static boolean isProxied(URL url) {
+		ProxySelector selector = ProxySelector.getDefault();
+		if (selector == null) {
+			return false;
+		}
+		try {
+			for (Proxy proxy : selector.select(url.toURI())) {
+				if (proxy.type() != Proxy.Type.DIRECT) {
+					return true;
+				}
+			}
+		} catch (URISyntaxException e) {
+			// not selected by URI, JAX-WS connects directly
+		} catch (IllegalArgumentException e) {
+			// not selected by URI, JAX-WS connects directly
+		}
+		return false;
+	}
+
+	/*
+	 * Accept any certificate and host name. The socket factory is only
+	 * created once, so that the TLS sessions are resumed across calls.
+	 */
+	private static synchronized void installTrustAllSSL() throws GeneralSecurityException {
+		if (trustAllInstalled) {
+			return;
+		}
+		TrustManager t = new X509TrustManager() {
+			
+			@Override
+			public X509Certificate[] getAcceptedIssuers() {
+				return new X509Certificate[0];
+			}
+			
+			@Override
+			public void checkServerTrusted(X509Certificate[] arg0, String arg1)
+					throws CertificateException {
+			}
+			
+			@Override
+			public void checkClientTrusted(X509Certificate[] arg0, String arg1) {
+			}
+		}; 
+		TrustManager[] tm = new TrustManager[] {t};
+		SSLContext ctx = SSLContext.getInstance("SSL"); //$NON-NLS-1$
+		ctx.init(null, tm, new SecureRandom());
+		HttpsURLConnection.setDefaultSSLSocketFactory(ctx.getSocketFactory());
+		HttpsURLConnection.setDefaultHostnameVerifier(new HostnameVerifier() {
+			
+			@Override
+			public boolean verify(String hostname, SSLSession session) {
+				return true;
+			}
+		});
+		trustAllInstalled = true;
+	}
 }
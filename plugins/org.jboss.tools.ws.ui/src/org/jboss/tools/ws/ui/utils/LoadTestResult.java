@@ -0,0 +1,268 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.utils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * Measurements of a load test run by {@link WSLoadTester}: the latency
+ * of every request, and the number of failed requests (by cause).
+ *
+ * Requests are recorded concurrently by the load test threads, while
+ * the statistics may be read at any time (eg: to display the progress
+ * of a running test).
+ */
+public class LoadTestResult {
+
+	private static final int NANOS_PER_MILLI = 1000000;
+	private static final int HISTOGRAM_WIDTH = 40;
+	private static final String NEW_LINE = "\n"; //$NON-NLS-1$
+	private static final String EMPTY_STRING = ""; //$NON-NLS-1$
+
+	// latencies of all requests, in nanoseconds
+	private long[] latencies = new long[1024];
+	private int count = 0;
+	private int errors = 0;
+	private final Map<String, Integer> errorsByCause = new TreeMap<String, Integer>();
+
+	private final long startTime;
+	private long endTime = -1;
+
+	/**
+	 * Constructor. The test is considered as started at construction time.
+	 */
+	public LoadTestResult() {
+		this.startTime = System.nanoTime();
+	}
+
+	/**
+	 * Record a request
+	 * @param latency the duration of the request, in nanoseconds
+	 * @param error null if the request succeeded, a short description
+	 * 	of the failure otherwise
+	 */
+	public synchronized void record(long latency, String error) {
+		if (count == latencies.length) {
+			latencies = Arrays.copyOf(latencies, count * 2);
+		}
+		latencies[count++] = latency;
+		if (error != null) {
+			errors++;
+			Integer causeCount = errorsByCause.get(error);
+			errorsByCause.put(error, causeCount == null ? 1 : causeCount + 1);
+		}
+	}
+
+	/**
+	 * Mark the test as finished, so that the throughput is no longer
+	 * computed against the current time.
+	 */
+	public synchronized void setFinished() {
+		if (endTime < 0) {
+			endTime = System.nanoTime();
+		}
+	}
+
+	public synchronized boolean isFinished() {
+		return endTime >= 0;
+	}
+
+	/**
+	 * @return the number of recorded requests
+	 */
+	public synchronized int getCount() {
+		return count;
+	}
+
+	/**
+	 * @return the number of failed requests
+	 */
+	public synchronized int getErrors() {
+		return errors;
+	}
+
+	/**
+	 * @return the number of failed requests, by failure description
+	 */
+	public synchronized Map<String, Integer> getErrorsByCause() {
+		return new TreeMap<String, Integer>(errorsByCause);
+	}
+
+	/**
+	 * @return the percentage of failed requests
+	 */
+	public synchronized double getErrorRate() {
+		return count == 0 ? 0 : errors * 100.0 / count;
+	}
+
+	/**
+	 * @return the elapsed time since the test started (until it finished),
+	 * 	in milliseconds
+	 */
+	public synchronized long getElapsedTime() {
+		long end = endTime >= 0 ? endTime : System.nanoTime();
+		return (end - startTime) / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * @return the number of requests per second
+	 */
+	public synchronized double getThroughput() {
+		long elapsed = getElapsedTime();
+		return elapsed == 0 ? 0 : count * 1000.0 / elapsed;
+	}
+
+	/**
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the latency of the given percentile, in milliseconds
+	 * 	(nearest-rank method)
+	 */
+	public double getPercentile(double percentile) {
+		return getPercentiles(percentile)[0];
+	}
+
+	/**
+	 * @param percentiles percentiles, between 0 and 100
+	 * @return the latencies of the given percentiles, in milliseconds
+	 */
+	public double[] getPercentiles(double... percentiles) {
+		long[] sorted = getSortedLatencies();
+		double[] values = new double[percentiles.length];
+		for (int i = 0; i < percentiles.length; i++) {
+			values[i] = percentile(sorted, percentiles[i]);
+		}
+		return values;
+	}
+
+	/**
+	 * @return the longest latency, in milliseconds
+	 */
+	public double getMax() {
+		return getPercentile(100);
+	}
+
+	/**
+	 * @return the average latency, in milliseconds
+	 */
+	public synchronized double getMean() {
+		if (count == 0) {
+			return 0;
+		}
+		double total = 0;
+		for (int i = 0; i < count; i++) {
+			total += latencies[i];
+		}
+		return total / count / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * Distribute the latencies into buckets of the same width, between 0
+	 * and the longest latency.
+	 * @param buckets the number of buckets
+	 * @return the number of requests in each bucket
+	 */
+	public int[] getHistogram(int buckets) {
+		return histogram(getSortedLatencies(), buckets);
+	}
+
+	/**
+	 * @return a plain text report of the test, with a latency histogram
+	 */
+	public String toReport() {
+		long[] sorted;
+		int errorCount;
+		Map<String, Integer> causes;
+		long elapsed;
+		double throughput;
+		double errorRate;
+		double mean;
+		boolean finished;
+		synchronized (this) {
+			sorted = getSortedLatencies();
+			errorCount = errors;
+			causes = getErrorsByCause();
+			elapsed = getElapsedTime();
+			throughput = getThroughput();
+			errorRate = getErrorRate();
+			mean = getMean();
+			finished = isFinished();
+		}
+		StringBuilder report = new StringBuilder();
+		report.append(String.format("Requests: %d (%d failed, %.2f%%)%s", //$NON-NLS-1$
+				sorted.length, errorCount, errorRate, finished ? EMPTY_STRING : " - running...")); //$NON-NLS-1$
+		report.append(NEW_LINE);
+		report.append(String.format("Elapsed: %.1fs, throughput: %.2f req/s", elapsed / 1000.0, throughput)); //$NON-NLS-1$
+		report.append(NEW_LINE);
+		report.append(String.format("Latency (ms): mean=%.1f, p50=%.1f, p95=%.1f, p99=%.1f, max=%.1f", //$NON-NLS-1$
+				mean, percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), percentile(sorted, 100)));
+		report.append(NEW_LINE);
+		if (sorted.length > 0) {
+			report.append(NEW_LINE);
+			int buckets = Math.min(10, sorted.length);
+			int[] histogram = histogram(sorted, buckets);
+			double width = toMillis(sorted[sorted.length - 1]) / buckets;
+			int highest = 0;
+			for (int value : histogram) {
+				highest = Math.max(highest, value);
+			}
+			for (int i = 0; i < buckets; i++) {
+				int barLength = highest == 0 ? 0 : (int) Math.round(histogram[i] * (double) HISTOGRAM_WIDTH / highest);
+				char[] bar = new char[barLength];
+				Arrays.fill(bar, '#');
+				report.append(String.format("%8.1f - %8.1f ms | %-" + HISTOGRAM_WIDTH + "s %d", //$NON-NLS-1$ //$NON-NLS-2$
+						i * width, (i + 1) * width, new String(bar), histogram[i]));
+				report.append(NEW_LINE);
+			}
+		}
+		if (!causes.isEmpty()) {
+			report.append(NEW_LINE);
+			for (Entry<String, Integer> cause : causes.entrySet()) {
+				report.append(String.format("%6d x %s", cause.getValue(), cause.getKey())); //$NON-NLS-1$
+				report.append(NEW_LINE);
+			}
+		}
+		return report.toString();
+	}
+
+	private synchronized long[] getSortedLatencies() {
+		long[] sorted = Arrays.copyOf(latencies, count);
+		Arrays.sort(sorted);
+		return sorted;
+	}
+
+	private static double percentile(long[] sorted, double percentile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+		return toMillis(sorted[Math.max(0, Math.min(sorted.length, rank) - 1)]);
+	}
+
+	private static int[] histogram(long[] sorted, int buckets) {
+		int[] histogram = new int[buckets];
+		if (sorted.length == 0 || buckets == 0) {
+			return histogram;
+		}
+		long max = sorted[sorted.length - 1];
+		for (long latency : sorted) {
+			int bucket = max == 0 ? 0 : (int) (latency * buckets / (max + 1));
+			histogram[bucket]++;
+		}
+		return histogram;
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / (double) NANOS_PER_MILLI;
+	}
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.utils;
+
+import java.util.Arrays;
+
+/**
+ * Breakdown of the time spent by a request of the WS Tester, phase by
+ * phase, with the size of the request and response bodies.
+ *
+ * Phases are measured one after the other: {@link #start()} is called when
+ * the request begins, and {@link #end(Phase)} each time a phase completes,
+ * which records the time elapsed since the end of the previous phase.
+ * Phases which could not be measured (eg: the TLS handshake of a plain
+ * HTTP request, or the connection phases of a SOAP request, which are
+ * hidden by JAX-WS) are reported as unknown.
+ */
+public class RequestTimings {
+
+	/**
+	 * The phases of a request, in the order they happen
+	 */
+	public enum Phase {
+		/** host name resolution */
+		RESOLVE,
+		/** TCP connection (0 if a kept-alive connection was reused) */
+		CONNECT,
+		/** TLS handshake (0 if a kept-alive connection was reused) */
+		TLS,
+		/** write of the request body */
+		SEND,
+		/** wait for the response, from the end of the request to the first byte */
+		WAIT,
+		/** read of the response body */
+		RECEIVE
+	}
+
+	public static final long UNKNOWN = -1;
+
+	private static final double NANOS_PER_MILLI = 1e6;
+
+	private final long[] durations = new long[Phase.values().length];
+	private long lastMark = -1;
+	private long requestSize = UNKNOWN;
+	private long responseSize = UNKNOWN;
+
+	public RequestTimings() {
+		Arrays.fill(durations, UNKNOWN);
+	}
+
+	/**
+	 * Mark the beginning of the request
+	 */
+	public void start() {
+		lastMark = System.nanoTime();
+	}
+
+	/**
+	 * Mark the end of a phase, which started at the end of the previous one
+	 * (or at {@link #start()})
+	 * @param phase
+	 */
+	public void end(Phase phase) {
+		long now = System.nanoTime();
+		if (lastMark >= 0) {
+			durations[phase.ordinal()] = now - lastMark;
+		}
+		lastMark = now;
+	}
+
+	/**
+	 * Set the duration of a phase measured separately
+	 * @param phase
+	 * @param nanos the duration in nanoseconds, or {@link #UNKNOWN}
+	 */
+	public void set(Phase phase, long nanos) {
+		durations[phase.ordinal()] = nanos < 0 ? UNKNOWN : nanos;
+	}
+
+	/**
+	 * @param phase
+	 * @return the duration of the phase in nanoseconds, or {@link #UNKNOWN}
+	 */
+	public long getNanos(Phase phase) {
+		return durations[phase.ordinal()];
+	}
+
+	/**
+	 * @param phase
+	 * @return the duration of the phase in milliseconds, or {@link #UNKNOWN}
+	 */
+	public double getMillis(Phase phase) {
+		long nanos = durations[phase.ordinal()];
+		return nanos < 0 ? UNKNOWN : nanos / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * @return the sum of the known phases, in milliseconds
+	 */
+	public double getTotalMillis() {
+		long total = 0;
+		for (long nanos : durations) {
+			if (nanos > 0) {
+				total += nanos;
+			}
+		}
+		return total / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * @return the size of the request body in bytes, or {@link #UNKNOWN}
+	 */
+	public long getRequestSize() {
+		return requestSize;
+	}
+
+	public void setRequestSize(long requestSize) {
+		this.requestSize = requestSize;
+	}
+
+	/**
+	 * @return the size of the response body in bytes, or {@link #UNKNOWN}
+	 */
+	public long getResponseSize() {
+		return responseSize;
+	}
+
+	public void setResponseSize(long responseSize) {
+		this.responseSize = responseSize;
+	}
+
+	/**
+	 * Format a duration for display
+	 * @param millis in milliseconds
+	 * @return String, eg: "12.3 ms"
+	 */
+	public static String formatMillis(double millis) {
+		return String.format("%.1f ms", millis); //$NON-NLS-1$
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("RequestTimings ["); //$NON-NLS-1$
+		for (Phase phase : Phase.values()) {
+			sb.append(phase.name().toLowerCase()).append('=');
+			sb.append(getNanos(phase) < 0 ? "?" : formatMillis(getMillis(phase))).append(", "); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return sb.append("requestSize=").append(requestSize) //$NON-NLS-1$
+				.append(", responseSize=").append(responseSize).append(']').toString(); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,368 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Arrays;
+
+/**
+ * Receives the body of a web service response as it is read, so that
+ * large responses don't have to be held in memory as a whole.
+ *
+ * The content is kept in memory up to a threshold, and spooled to a
+ * temporary file beyond it. In both cases, only a bounded preview of the
+ * content is meant to be displayed (see {@link #getPreview(String)}); the
+ * whole content can be copied with {@link #writeTo(OutputStream)}.
+ *
+ * The spool also measures the transfer: number of bytes, time to first
+ * byte, transfer time and rate.
+ *
+ * The thresholds can be changed with the following system properties:
+ * <ul>
+ * <li><code>org.jboss.tools.ws.ui.tester.spoolThreshold</code> (in bytes, default: 1 MB)</li>
+ * <li><code>org.jboss.tools.ws.ui.tester.previewSize</code> (in bytes, default: 256 KB)</li>
+ * </ul>
+ */
+public class ResponseSpool extends OutputStream {
+
+	public static final String SPOOL_THRESHOLD_PROPERTY = "org.jboss.tools.ws.ui.tester.spoolThreshold"; //$NON-NLS-1$
+	public static final String PREVIEW_SIZE_PROPERTY = "org.jboss.tools.ws.ui.tester.previewSize"; //$NON-NLS-1$
+
+	private static final int DEFAULT_SPOOL_THRESHOLD = 1024 * 1024;
+	private static final int DEFAULT_PREVIEW_SIZE = 256 * 1024;
+	private static final int BUFFER_SIZE = 8192;
+	private static final int NANOS_PER_MILLI = 1000000;
+
+	private final int spoolThreshold;
+	private final int previewSize;
+
+	private final long startTime;
+	private long firstByteTime = -1;
+	private long endTime = -1;
+
+	private long size = 0;
+	private byte[] preview = new byte[0];
+	private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+	private File file = null;
+	private OutputStream fileStream = null;
+
+	/**
+	 * Constructor, with the default thresholds
+	 * @param startTime the time the request was sent, as given by
+	 * 	{@link System#nanoTime()}
+	 */
+	public ResponseSpool(long startTime) {
+		this(startTime, Integer.getInteger(SPOOL_THRESHOLD_PROPERTY, DEFAULT_SPOOL_THRESHOLD),
+				Integer.getInteger(PREVIEW_SIZE_PROPERTY, DEFAULT_PREVIEW_SIZE));
+	}
+
+	/**
+	 * Constructor
+	 * @param startTime the time the request was sent, as given by
+	 * 	{@link System#nanoTime()}
+	 * @param spoolThreshold the size in bytes above which the content is
+	 * 	written to a temporary file
+	 * @param previewSize the maximum size in bytes of the preview
+	 */
+	public ResponseSpool(long startTime, int spoolThreshold, int previewSize) {
+		this.startTime = startTime;
+		this.spoolThreshold = Math.max(0, spoolThreshold);
+		this.previewSize = Math.max(0, Math.min(previewSize, this.spoolThreshold));
+	}
+
+	/**
+	 * Record that the response started to arrive (ie: its status line and
+	 * headers were received). Otherwise, the time of the first write is used.
+	 */
+	public void markFirstByte() {
+		if (firstByteTime < 0) {
+			firstByteTime = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Copy the given stream into the spool, and close it
+	 * @param is
+	 * @throws IOException
+	 */
+	public void readFrom(InputStream is) throws IOException {
+		try {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read;
+			while ((read = is.read(buffer)) != -1) {
+				write(buffer, 0, read);
+			}
+		} finally {
+			is.close();
+		}
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] { (byte) b }, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return;
+		}
+		markFirstByte();
+		if (preview.length < previewSize) {
+			int previewLength = (int) Math.min(len, previewSize - preview.length);
+			int oldLength = preview.length;
+			preview = Arrays.copyOf(preview, oldLength + previewLength);
+			System.arraycopy(b, off, preview, oldLength, previewLength);
+		}
+		if (fileStream == null && size + len > spoolThreshold) {
+			file = File.createTempFile("wstester", ".response"); //$NON-NLS-1$ //$NON-NLS-2$
+			file.deleteOnExit();
+			fileStream = new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE);
+			memory.writeTo(fileStream);
+			memory = null;
+		}
+		if (fileStream != null) {
+			fileStream.write(b, off, len);
+		} else {
+			memory.write(b, off, len);
+		}
+		size += len;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (fileStream != null) {
+			fileStream.flush();
+		}
+	}
+
+	/**
+	 * Mark the end of the transfer
+	 */
+	@Override
+	public void close() throws IOException {
+		if (endTime < 0) {
+			endTime = System.nanoTime();
+		}
+		if (fileStream != null) {
+			fileStream.close();
+		}
+	}
+
+	/**
+	 * Delete the temporary file, if any
+	 */
+	public void dispose() {
+		try {
+			close();
+		} catch (IOException e) {
+			// ignore, the file is deleted anyway
+		}
+		if (file != null) {
+			file.delete();
+		}
+	}
+
+	/**
+	 * @return the number of bytes received
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * @return true if the content was written to a temporary file
+	 */
+	public boolean isSpooled() {
+		return file != null;
+	}
+
+	/**
+	 * @return the temporary file holding the content, or null if it is held in memory
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * @return true if the preview does not hold the whole content
+	 */
+	public boolean isTruncated() {
+		return size > preview.length;
+	}
+
+	/**
+	 * @param charset the charset of the content, or null for the platform default
+	 * @return the beginning of the content (the whole content if it is not
+	 * 	truncated), without the character cut by the end of the preview, if any
+	 */
+	public String getPreview(String charset) {
+		return toString(isTruncated() ? preview : getBytes(), getCharset(charset), isTruncated());
+	}
+
+	/**
+	 * Copy the whole content to the given stream (which is not closed)
+	 * @param out
+	 * @throws IOException
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		if (file == null) {
+			memory.writeTo(out);
+			return;
+		}
+		flush();
+		InputStream is = new FileInputStream(file);
+		try {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read;
+			while ((read = is.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+		} finally {
+			is.close();
+		}
+	}
+
+	/**
+	 * Search the whole content for the given text, without loading it in
+	 * memory when it was spooled
+	 * @param text
+	 * @param charset the charset of the content, or null for the platform default
+	 * @return true if the content contains the text
+	 * @throws IOException
+	 */
+	public boolean contains(String text, String charset) throws IOException {
+		if (text.length() == 0) {
+			return true;
+		}
+		InputStream is;
+		if (file == null) {
+			is = new ByteArrayInputStream(memory.toByteArray());
+		} else {
+			flush();
+			is = new FileInputStream(file);
+		}
+		Reader reader = new InputStreamReader(is, getCharset(charset));
+		try {
+			// the end of the previous chunk is kept, for a text read in two chunks
+			int overlap = text.length() - 1;
+			StringBuilder window = new StringBuilder();
+			char[] buffer = new char[BUFFER_SIZE];
+			int read;
+			while ((read = reader.read(buffer)) != -1) {
+				window.append(buffer, 0, read);
+				if (window.indexOf(text) >= 0) {
+					return true;
+				}
+				if (window.length() > overlap) {
+					window.delete(0, window.length() - overlap);
+				}
+			}
+			return false;
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * @return the time between the request and the first byte of the
+	 * 	response, in milliseconds (or -1 if nothing was received)
+	 */
+	public long getTimeToFirstByte() {
+		return firstByteTime < 0 ? -1 : (firstByteTime - startTime) / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * @return the time between the request and the end of the response,
+	 * 	in milliseconds
+	 */
+	public long getTotalTime() {
+		long end = endTime >= 0 ? endTime : System.nanoTime();
+		return (end - startTime) / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * @return the number of bytes received per second, from the first byte
+	 * 	to the end of the response
+	 */
+	public double getTransferRate() {
+		if (firstByteTime < 0) {
+			return 0;
+		}
+		long end = endTime >= 0 ? endTime : System.nanoTime();
+		long transferTime = end - firstByteTime;
+		return transferTime <= 0 ? size : size * 1e9 / transferTime;
+	}
+
+	/**
+	 * @param bytes
+	 * @return the given size, with a unit (ie: "12.3 MB")
+	 */
+	public static String formatSize(double bytes) {
+		if (bytes < 1024) {
+			return String.format("%.0f B", bytes); //$NON-NLS-1$
+		} else if (bytes < 1024 * 1024) {
+			return String.format("%.1f KB", bytes / 1024); //$NON-NLS-1$
+		}
+		return String.format("%.1f MB", bytes / (1024 * 1024)); //$NON-NLS-1$
+	}
+
+	private byte[] getBytes() {
+		return memory != null ? memory.toByteArray() : preview;
+	}
+
+	private static Charset getCharset(String charset) {
+		if (charset != null) {
+			try {
+				return Charset.forName(charset);
+			} catch (IllegalCharsetNameException e) {
+				// use the default charset
+			} catch (UnsupportedCharsetException e) {
+				// use the default charset
+			}
+		}
+		return Charset.defaultCharset();
+	}
+
+	/*
+	 * Decode the given bytes. When they are only the beginning of the
+	 * content, the bytes of a multibyte character cut at the end are dropped.
+	 */
+	private static String toString(byte[] bytes, Charset charset, boolean truncated) {
+		if (!truncated) {
+			return new String(bytes, charset);
+		}
+		CharsetDecoder decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		CharBuffer chars = CharBuffer.allocate((int) Math.ceil(bytes.length * (double) decoder.maxCharsPerByte()) + 1);
+		// not the end of the input: an incomplete character is left undecoded
+		decoder.decode(ByteBuffer.wrap(bytes), chars, false);
+		chars.flip();
+		return chars.toString();
+	}
+}
@@ -10,7 +10,6 @@
  ******************************************************************************/
 package org.jboss.tools.ws.ui.utils;
 
-import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URI;
@@ -20,13 +19,15 @@ import java.util.Collection;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Properties;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.wsdl.Binding;
 import javax.wsdl.BindingInput;
@@ -44,10 +45,9 @@ import javax.wsdl.WSDLException;
 import javax.wsdl.extensions.UnknownExtensibilityElement;
 import javax.wsdl.extensions.schema.Schema;
 import javax.wsdl.extensions.soap.SOAPHeader;
-import javax.wsdl.factory.WSDLFactory;
-import javax.wsdl.xml.WSDLReader;
 import javax.xml.namespace.QName;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.xsd.XSDDiagnostic;
 import org.eclipse.xsd.XSDDiagnosticSeverity;
@@ -56,15 +56,17 @@ import org.eclipse.xsd.XSDSchema;
 import org.eclipse.xsd.XSDSchemaContent;
 import org.eclipse.xsd.XSDSchemaDirective;
 import org.eclipse.xsd.impl.XSDSchemaImpl;
-import org.eclipse.xsd.util.XSDParser;
 import org.jdom.Element;
 import org.jdom.input.DOMBuilder;
 
-import com.ibm.wsdl.Constants;
-
 /**
  * Some of this code was borrowed from the org.eclipse.wst.ws.explorer Web Services Explorer
  * view from WTP. 
+ * 
+ * An instance generates the sample messages of one WSDL definition, and
+ * keeps them so that each sample is generated once. Instances can be used
+ * from several threads, for example to generate the samples of all the
+ * operations in the background with {@link #generateSamples(IProgressMonitor)}.
  * @author bfitzpat
  *
  */
@@ -92,20 +94,42 @@ public class SchemaUtils {
 	private static final String ANYURI_TYPE_NAME = "anyURI"; //$NON-NLS-1$
 	private static final String NOTATION_TYPE_NAME = "NOTATION"; //$NON-NLS-1$
 
-	private static Vector<XSDSchema> schemaList_;
 	private static Vector<QName> w3SchemaQNameList_;
 	private static Vector<XSDSchema> constantSchemaList_;
-	private static HashMap<String, String> namespacesAndPrefixes_;
-	private static String wsdlUrl_;
-	private static Vector<String> schemaURI_;
-	private static Definition definition_;
-	private static boolean rootIsQualified_ = false;
-	private static String rootURI_ = null;
-
-	private final static String DEF_FACTORY_PROPERTY_NAME =
-			"javax.wsdl.factory.DefinitionFactory"; //$NON-NLS-1$
-	private final static String PRIVATE_DEF_FACTORY_CLASS =
-			"org.apache.wsif.wsdl.WSIFWSDLFactoryImpl"; //$NON-NLS-1$
+
+	/*
+	 * The XSD models are shared (schemas are cached by WSDLDefinitionCache,
+	 * and the schemas for schemas are global) and updated while samples are
+	 * generated, so a single sample is generated at a time
+	 */
+	private static final Object GENERATION_LOCK = new Object();
+	private static final int MAX_INSTANCES = 8;
+	private static final String INPUT_KEY = "input"; //$NON-NLS-1$
+	private static final String HEADER_KEY = "header"; //$NON-NLS-1$
+	// memoized result of an operation without sample (distinct from any generated string)
+	private static final String NO_SAMPLE = new String();
+	private static final Map<Definition, SchemaUtils> instances =
+			new LinkedHashMap<Definition, SchemaUtils>(MAX_INSTANCES, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Definition, SchemaUtils> eldest) {
+			return size() > MAX_INSTANCES;
+		}
+	};
+
+	private final Definition definition_;
+	private final ConcurrentMap<String, String> samples_ = new ConcurrentHashMap<String, String>();
+	private Vector<XSDSchema> schemaList_;
+	private Vector<String> schemaErrors_;
+	private WSDLPartsToXSDTypeMapper mapper_;
+	private String wsdlUrl_;
+	private Vector<String> schemaURI_;
+
+	// state of the sample being generated
+	private HashMap<String, String> namespacesAndPrefixes_;
+	private boolean rootIsQualified_ = false;
+	private String rootURI_ = null;
 
 	public final static String SOAP_NS_URI = "http://schemas.xmlsoap.org/soap/envelope/"; //$NON-NLS-1$
 	public final static String SOAP12_ENVELOPE_NS_URI = "http://www.w3.org/2003/05/soap-envelope"; //$NON-NLS-1$
@@ -136,20 +160,64 @@ public class SchemaUtils {
 		constantSchemaList_.addElement(XSDSchemaImpl.getSchemaForSchema(FragmentConstants.NS_URI_1999_SCHEMA_XSD));
 		constantSchemaList_.addElement(XSDSchemaImpl.getSchemaForSchema(FragmentConstants.NS_URI_SOAP_ENC));
 		constantSchemaList_.addElement(XSDSchemaImpl.getSchemaForSchema(FragmentConstants.URI_WSDL));
-		
-		namespacesAndPrefixes_ = new HashMap<String, String>();
+	}
+
+	/**
+	 * Constructor
+	 * @param wsdlDefinition the WSDL the samples are generated for
+	 */
+	public SchemaUtils(Definition wsdlDefinition) {
+		this.definition_ = wsdlDefinition;
+	}
+
+	/**
+	 * Get the sample generator of a WSDL, which keeps the samples it
+	 * generated for the recently used definitions
+	 * @param wsdlDefinition
+	 * @return SchemaUtils
+	 */
+	public static SchemaUtils getInstance(Definition wsdlDefinition) {
+		synchronized (instances) {
+			SchemaUtils instance = instances.get(wsdlDefinition);
+			if (instance == null) {
+				instance = new SchemaUtils(wsdlDefinition);
+				instances.put(wsdlDefinition, instance);
+			}
+			return instance;
+		}
+	}
+
+	public Definition getDefinition() {
+		return definition_;
 	}
 
 	public static Vector<String> loadWSDL(Definition wsdlDefinition ) throws WSDLException
 	{
+		return getInstance(wsdlDefinition).getSchemaErrors();
+	}
 
+	/**
+	 * @return the errors found in the schemas of the WSDL
+	 */
+	public Vector<String> getSchemaErrors() {
+		synchronized (GENERATION_LOCK) {
+			return loadSchemas();
+		}
+	}
+
+	/*
+	 * Gather and validate the schemas of the WSDL, the first time they are needed
+	 */
+	private Vector<String> loadSchemas()
+	{
+		if (schemaErrors_ != null)
+			return schemaErrors_;
 		Vector<String> errorMessages = new Vector<String>();
-		definition_ = wsdlDefinition;
 		schemaList_ = new Vector<XSDSchema>();
 
 		if (definition_ != null)
 		{
-			wsdlUrl_ = wsdlDefinition.getDocumentBaseURI();
+			wsdlUrl_ = definition_.getDocumentBaseURI();
 			gatherSchemas(definition_, wsdlUrl_);
 			// Validate the schemas.
 			for (int i=0;i<schemaList_.size();i++)
@@ -181,18 +249,102 @@ public class SchemaUtils {
 				schemaList_.addElement(constantSchemaList_.elementAt(i));
 
 		}
+		mapper_ = new WSDLPartsToXSDTypeMapper();
+		mapper_.addSchemas(schemaList_);
+		schemaErrors_ = errorMessages;
 		return errorMessages;
 	}
 
 	public static String getSampleSOAPInputMessage ( Definition wsdlDefinition, String serviceName, String portName, String bindingName, String opName ) {
+		return getInstance(wsdlDefinition).getSampleInputMessage(serviceName, portName, bindingName, opName);
+	}
 
-		try {
-			loadWSDL (wsdlDefinition);
-		} catch (WSDLException e) {
-			e.printStackTrace();
+	/**
+	 * Get a sample of the body of the input message of an operation
+	 * @param serviceName
+	 * @param portName
+	 * @param bindingName
+	 * @param opName
+	 * @return the sample, or null if the operation isn't found
+	 */
+	public String getSampleInputMessage ( String serviceName, String portName, String bindingName, String opName ) {
+		return getSample(INPUT_KEY, serviceName, portName, bindingName, opName);
+	}
+
+	/**
+	 * Get a sample of the SOAP header of the input message of an operation
+	 * @param serviceName
+	 * @param portName
+	 * @param bindingName
+	 * @param opName
+	 * @return the sample, or null if the operation has no header
+	 */
+	public String getSampleMessageHeader ( String serviceName, String portName, String bindingName, String opName ) {
+		return getSample(HEADER_KEY, serviceName, portName, bindingName, opName);
+	}
+
+	/**
+	 * Generate the samples of all the operations of the WSDL, so that they
+	 * are available at once when they are asked for
+	 * @param monitor used for cancellation (may be null)
+	 */
+	public void generateSamples(IProgressMonitor monitor) {
+		Map<?, ?> services = definition_.getServices();
+		for (Iterator<?> it = services.values().iterator(); it.hasNext(); ) {
+			Service service = (Service) it.next();
+			for (Iterator<?> it2 = service.getPorts().values().iterator(); it2.hasNext(); ) {
+				Port port = (Port) it2.next();
+				Binding wsdlBinding = port.getBinding();
+				if (wsdlBinding == null || wsdlBinding.getQName() == null) {
+					continue;
+				}
+				List<?> operations = wsdlBinding.getBindingOperations();
+				for (Iterator<?> it3 = operations.iterator(); it3.hasNext(); ) {
+					if (monitor != null && monitor.isCanceled()) {
+						return;
+					}
+					BindingOperation operation = (BindingOperation) it3.next();
+					String serviceName = service.getQName().getLocalPart();
+					String bindingName = wsdlBinding.getQName().getLocalPart();
+					try {
+						getSampleInputMessage(serviceName, port.getName(), bindingName, operation.getName());
+						getSampleMessageHeader(serviceName, port.getName(), bindingName, operation.getName());
+					} catch (RuntimeException e) {
+						// the sample is generated again, and the error reported, if it is asked for
+					}
+				}
+			}
+		}
+	}
+
+	private String getSample ( String kind, String serviceName, String portName, String bindingName, String opName ) {
+		String key = kind + ' ' + serviceName + ' ' + portName + ' ' + bindingName + ' ' + opName;
+		String sample = samples_.get(key);
+		if (sample == null) {
+			synchronized (GENERATION_LOCK) {
+				sample = samples_.get(key);
+				if (sample == null) {
+					loadSchemas();
+					namespacesAndPrefixes_ = new HashMap<String, String>();
+					rootIsQualified_ = false;
+					rootURI_ = null;
+					if (HEADER_KEY.equals(kind)) {
+						sample = createSampleMessageHeader(serviceName, portName, bindingName, opName);
+					} else {
+						sample = createSampleInputMessage(serviceName, portName, bindingName, opName);
+					}
+					if (sample == null) {
+						sample = NO_SAMPLE;
+					}
+					samples_.put(key, sample);
+				}
+			}
 		}
-		namespacesAndPrefixes_ = new HashMap<String, String>();
-		Map<?, ?> services = wsdlDefinition.getServices();
+		return sample != NO_SAMPLE ? sample : null;
+	}
+
+	private String createSampleInputMessage ( String serviceName, String portName, String bindingName, String opName ) {
+		Map<?, ?> services = definition_.getServices();
 		Set<?> serviceKeys = services.keySet();
 		for( Iterator<?> it = serviceKeys.iterator(); it.hasNext(); ) {
 			QName serviceKey = (QName) it.next();
@@ -218,10 +370,7 @@ public class SchemaUtils {
 									if (part.getName().equalsIgnoreCase("header")) { //$NON-NLS-1$
 										continue;
 									}
-									WSDLPartsToXSDTypeMapper mapper = new WSDLPartsToXSDTypeMapper();
-									mapper.addSchemas(schemaList_);
-
-									buf.append(startProcessingPartXML(wsdlDefinition, part));
+									buf.append(startProcessingPartXML(definition_, part));
 								}
 								return buf.toString();
 							}
@@ -234,39 +383,15 @@ public class SchemaUtils {
 	}
 
 	public static Definition readWSDLURL(URL contextURL) throws WSDLException, NullPointerException {
-		Properties props = System.getProperties();
-		String oldPropValue = props.getProperty(DEF_FACTORY_PROPERTY_NAME);
-
-		wsdlUrl_ = contextURL.toExternalForm();
-		props.setProperty(DEF_FACTORY_PROPERTY_NAME, PRIVATE_DEF_FACTORY_CLASS);
-
-		WSDLFactory factory = WSDLFactory.newInstance();
-		WSDLReader wsdlReader = factory.newWSDLReader();
-		wsdlReader.setFeature(Constants.FEATURE_VERBOSE, false);
-		wsdlReader.setFeature("javax.wsdl.importDocuments", true); //$NON-NLS-1$
-		String context = null;
-		if (contextURL != null)
-			context = contextURL.toString();
-		Definition def = wsdlReader.readWSDL(context);
-
-		if (oldPropValue != null) {
-			props.setProperty(DEF_FACTORY_PROPERTY_NAME, oldPropValue);
-		} else {
-			props.remove(DEF_FACTORY_PROPERTY_NAME);
-		}
-		return def;
+		return WSDLDefinitionCache.getDefault().getDefinition(contextURL);
 	}
 
 	public static String getSampleSOAPMessageHeader ( Definition wsdlDefinition, String serviceName, String portName, String bindingName, String opName ) {
+		return getInstance(wsdlDefinition).getSampleMessageHeader(serviceName, portName, bindingName, opName);
+	}
 
-		try {
-			loadWSDL (wsdlDefinition);
-		} catch (WSDLException e) {
-			e.printStackTrace();
-		}
-
-		namespacesAndPrefixes_ = new HashMap<String, String>();
-		Map<?, ?> services = wsdlDefinition.getServices();
+	private String createSampleMessageHeader ( String serviceName, String portName, String bindingName, String opName ) {
+		Map<?, ?> services = definition_.getServices();
 		Set<?> serviceKeys = services.keySet();
 		for( Iterator<?> it = serviceKeys.iterator(); it.hasNext(); ) {
 			QName serviceKey = (QName) it.next();
@@ -291,9 +416,7 @@ public class SchemaUtils {
 										SOAPHeader header = (SOAPHeader) extension;
 										String part = header.getPart();
 										StringBuffer buf = new StringBuffer();
-										WSDLPartsToXSDTypeMapper mapper = new WSDLPartsToXSDTypeMapper();
-										mapper.addSchemas(schemaList_);
-										buf.append(startProcessingPartXML(wsdlDefinition, part, header.getMessage().getNamespaceURI()));
+										buf.append(startProcessingPartXML(definition_, part, header.getMessage().getNamespaceURI()));
 										return buf.toString();
 									}
 								}
@@ -306,7 +429,7 @@ public class SchemaUtils {
 		return null;
 	}
 
-	private static XSDSchema getSchemaForNamespace ( String namespaceURI ) {
+	private XSDSchema getSchemaForNamespace ( String namespaceURI ) {
 		Iterator<XSDSchema> iter = schemaList_.iterator();
 		while (iter.hasNext()) {
 			XSDSchema schema = (XSDSchema)iter.next();
@@ -317,7 +440,7 @@ public class SchemaUtils {
 		return null;
 	}
 
-	private static String getURIForNamespacePrefix ( String nsPrefix ) {
+	private String getURIForNamespacePrefix ( String nsPrefix ) {
 		Iterator<XSDSchema> iter = schemaList_.iterator();
 		while (iter.hasNext()) {
 			XSDSchema schema = (XSDSchema)iter.next();
@@ -330,7 +453,7 @@ public class SchemaUtils {
 		return null;
 	}
 
-	private final static void gatherSchemas(Definition definition, String definitionURL)
+	private void gatherSchemas(Definition definition, String definitionURL)
 	{
 		Types types = definition.getTypes();
 		if (types != null)
@@ -393,7 +516,7 @@ public class SchemaUtils {
 		return false;
 	}
 
-	private static boolean checkSchemaURI(String schemaURI){
+	private boolean checkSchemaURI(String schemaURI){
 		boolean found = false;
 
 		if (schemaURI != null) {
@@ -433,7 +556,7 @@ public class SchemaUtils {
 		}
 	}
 
-	private final static void gatherSchemaDirective(XSDSchema xsdSchema, String xsdSchemaURL)
+	private void gatherSchemaDirective(XSDSchema xsdSchema, String xsdSchemaURL)
 	{
 		if (xsdSchema != null)
 		{
@@ -483,20 +606,11 @@ public class SchemaUtils {
 		locURI = URLUtils.encodeURLString(locURI);
 		XSDSchema xsdSchema = XSDSchemaImpl.getSchemaForSchema(locURI);
 		if (xsdSchema == null)
-		{
-			@SuppressWarnings("deprecation")
-			XSDParser p = new XSDParser();
-			InputStream is = NetUtils.getURLInputStream(locURI);
-			if (is != null)
-			{
-				p.parse(is);
-				xsdSchema = p.getSchema();
-			}
-		}
+			xsdSchema = WSDLDefinitionCache.getDefault().getSchema(locURI);
 		return xsdSchema;
 	}
 
-	private final static void gatherImportedSchemas(Definition definition,Map<?, ?> imports)
+	private void gatherImportedSchemas(Definition definition,Map<?, ?> imports)
 	{
 		for (Iterator<?> iterator = imports.keySet().iterator();iterator.hasNext();)
 		{
@@ -527,7 +641,7 @@ public class SchemaUtils {
 		}
 	}
 
-	private final static void gatherSchema(String locURI)
+	private void gatherSchema(String locURI)
 	{
 		XSDSchema xsdSchema = getSchema(locURI);
 		if (xsdSchema != null)
@@ -537,7 +651,7 @@ public class SchemaUtils {
 		}
 	}
 
-	private static XSDSchema findFirstSchemaWithPartNameAsChild ( String partName ) {
+	private XSDSchema findFirstSchemaWithPartNameAsChild ( String partName ) {
 		for (Iterator<XSDSchema> schemaIter = schemaList_.iterator(); schemaIter.hasNext(); ) {
 			XSDSchema schema = schemaIter.next();
 			DOMBuilder domBuilder = new DOMBuilder();
@@ -576,7 +690,7 @@ public class SchemaUtils {
 		return null;
 	}
 
-	private static String startProcessingPartXML ( Definition wsdlDefinition, String partName, String partUri ) {
+	private String startProcessingPartXML ( Definition wsdlDefinition, String partName, String partUri ) {
 		
 		XSDSchema schema = findFirstSchemaWithPartNameAsChild(partName);
 		DOMBuilder domBuilder = new DOMBuilder();
@@ -620,11 +734,9 @@ public class SchemaUtils {
 		return buf.toString();
 	}
 
-	private static String startProcessingPartXML ( Definition wsdlDefinition, Part part ) {
+	private String startProcessingPartXML ( Definition wsdlDefinition, Part part ) {
 		DOMBuilder domBuilder = new DOMBuilder();
-		WSDLPartsToXSDTypeMapper mapper = new WSDLPartsToXSDTypeMapper();
-		mapper.addSchemas(schemaList_);
-		XSDNamedComponent xsdComponent = mapper.getXSDTypeFromSchema(part);
+		XSDNamedComponent xsdComponent = mapper_.getXSDTypeFromSchema(part);
 		if (xsdComponent == null) {
 			return "<error>Generating sample SOAP request</error>"; //$NON-NLS-1$
 		}
@@ -760,7 +872,7 @@ public class SchemaUtils {
 		return null;
 	}
 	
-	private static org.jdom.Element findJDOMElementInSchemaByName ( org.jdom.Element schemaElement, String typeName ) {
+	private org.jdom.Element findJDOMElementInSchemaByName ( org.jdom.Element schemaElement, String typeName ) {
 		if (schemaElement != null) {
 			List<?> kids = schemaElement.getChildren();
 			for (Iterator<?> kidsIter = kids.iterator(); kidsIter.hasNext(); ) {
@@ -798,7 +910,7 @@ public class SchemaUtils {
 		return null;
 	}
 
-	private static String handleAttributes ( org.jdom.Element element ) {
+	private String handleAttributes ( org.jdom.Element element ) {
 		StringBuffer buf = new StringBuffer();
 		List<?> kids = element.getChildren();
 		boolean isQualified = false;
@@ -850,7 +962,7 @@ public class SchemaUtils {
 		return buf.toString();
 	}
 	
-	private static boolean namespacePrefixListContainsURI ( String uri ) {
+	private boolean namespacePrefixListContainsURI ( String uri ) {
 		if (namespacesAndPrefixes_ != null) {
 			if (namespacesAndPrefixes_.containsValue(uri)) {
 				return true;
@@ -859,7 +971,7 @@ public class SchemaUtils {
 		return false;
 	}
 	
-	private static String makePrefixFromURI ( String uri ) {
+	private String makePrefixFromURI ( String uri ) {
 		
 		if (namespacePrefixListContainsURI(uri)) {
 			Iterator<Entry<String, String>> iter = namespacesAndPrefixes_.entrySet().iterator();
@@ -917,7 +1029,7 @@ public class SchemaUtils {
 		return rtnflag;
 	}
 	
-	private static String createXMLForJDOMElement2 ( org.jdom.Element schemaElement, org.jdom.Element element ) {
+	private String createXMLForJDOMElement2 ( org.jdom.Element schemaElement, org.jdom.Element element ) {
 		StringBuffer buf = new StringBuffer();
 		String nstypename = null;
 
@@ -1245,7 +1357,7 @@ public class SchemaUtils {
 		return null;
 	}
 
-	private static boolean isTypeBaseXSDOrSimple ( String uri, String type ) {
+	private boolean isTypeBaseXSDOrSimple ( String uri, String type ) {
 		
 		if (uri != null) {
 			XSDSchema schema = getSchemaForNamespace(uri);
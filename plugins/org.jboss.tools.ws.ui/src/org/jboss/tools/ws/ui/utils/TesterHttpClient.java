@@ -0,0 +1,416 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Proxy;
+import java.net.Socket;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
+
+import org.jboss.tools.ws.ui.utils.RequestTimings.Phase;
+
+/**
+ * HTTP client used by the WS Tester to call RESTful services.
+ *
+ * Connections are opened with {@link HttpURLConnection}, whose keep-alive
+ * cache is shared by the whole JVM: as long as the response body is read
+ * entirely and the stream is closed (rather than calling
+ * {@link HttpURLConnection#disconnect()}), the underlying socket is reused
+ * by the next request to the same host. All HTTPS connections use the same
+ * SSL socket factory, so that TLS sessions are resumed when a new socket is
+ * needed.
+ *
+ * When a {@link RequestTimings} is given, the phases of the request are
+ * measured: the host name is resolved before opening the connection (the
+ * result is then taken from the cache of the JVM), and the time at which
+ * the TLS layer is set up on the connected socket separates the TCP
+ * connection from the handshake.
+ *
+ * The number of simultaneous connections to a given host is limited, and
+ * the connect and read timeouts are configurable, either with the setters
+ * or with the following system properties:
+ * <ul>
+ * <li><code>org.jboss.tools.ws.ui.tester.connectTimeout</code> (in milliseconds, default: 30000)</li>
+ * <li><code>org.jboss.tools.ws.ui.tester.readTimeout</code> (in milliseconds, default: 60000)</li>
+ * <li><code>org.jboss.tools.ws.ui.tester.maxConnectionsPerHost</code> (default: 20)</li>
+ * </ul>
+ *
+ * Typical use:
+ * <pre>
+ * RequestTimings timings = new RequestTimings();
+ * HttpURLConnection connection = client.open(url, proxy, timings);
+ * boolean reusable = false;
+ * try {
+ *     // set the method and headers
+ *     ResponseSpool spool = new ResponseSpool(System.nanoTime());
+ *     client.send(connection, body, null, timings);
+ *     client.readBody(connection, spool, timings);
+ *     reusable = true;
+ * } finally {
+ *     client.release(connection, reusable);
+ * }
+ * </pre>
+ */
+public class TesterHttpClient {
+
+	public static final String CONNECT_TIMEOUT_PROPERTY = "org.jboss.tools.ws.ui.tester.connectTimeout"; //$NON-NLS-1$
+	public static final String READ_TIMEOUT_PROPERTY = "org.jboss.tools.ws.ui.tester.readTimeout"; //$NON-NLS-1$
+	public static final String MAX_CONNECTIONS_PER_HOST_PROPERTY = "org.jboss.tools.ws.ui.tester.maxConnectionsPerHost"; //$NON-NLS-1$
+
+	private static final int DEFAULT_CONNECT_TIMEOUT = 30000;
+	private static final int DEFAULT_READ_TIMEOUT = 60000;
+	private static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 20;
+
+	private static final TesterHttpClient instance = new TesterHttpClient(
+			Integer.getInteger(CONNECT_TIMEOUT_PROPERTY, DEFAULT_CONNECT_TIMEOUT),
+			Integer.getInteger(READ_TIMEOUT_PROPERTY, DEFAULT_READ_TIMEOUT),
+			Integer.getInteger(MAX_CONNECTIONS_PER_HOST_PROPERTY, DEFAULT_MAX_CONNECTIONS_PER_HOST));
+
+	private volatile int connectTimeout;
+	private volatile int readTimeout;
+	private final int maxConnectionsPerHost;
+
+	// wraps the default SSL socket factory, recreated if the default changes
+	private volatile TimingSSLSocketFactory sslSocketFactory;
+
+	// connection permits, by host
+	private final ConcurrentMap<String, Semaphore> hostPermits = new ConcurrentHashMap<String, Semaphore>();
+
+	// permits held by the open connections (the URL of a connection may change on redirects)
+	private final ConcurrentMap<HttpURLConnection, Semaphore> leases = new ConcurrentHashMap<HttpURLConnection, Semaphore>();
+
+	/**
+	 * Constructor
+	 * @param connectTimeout in milliseconds (0 for no timeout)
+	 * @param readTimeout in milliseconds (0 for no timeout)
+	 * @param maxConnectionsPerHost maximum number of simultaneous connections
+	 * 	to a given host
+	 */
+	public TesterHttpClient(int connectTimeout, int readTimeout, int maxConnectionsPerHost) {
+		this.connectTimeout = Math.max(0, connectTimeout);
+		this.readTimeout = Math.max(0, readTimeout);
+		this.maxConnectionsPerHost = Math.max(1, maxConnectionsPerHost);
+	}
+
+	/**
+	 * Return the client shared by the WS Tester
+	 * @return TesterHttpClient
+	 */
+	public static TesterHttpClient getDefault() {
+		return instance;
+	}
+
+	public int getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	public void setConnectTimeout(int connectTimeout) {
+		this.connectTimeout = Math.max(0, connectTimeout);
+	}
+
+	public int getReadTimeout() {
+		return readTimeout;
+	}
+
+	public void setReadTimeout(int readTimeout) {
+		this.readTimeout = Math.max(0, readTimeout);
+	}
+
+	public int getMaxConnectionsPerHost() {
+		return maxConnectionsPerHost;
+	}
+
+	/**
+	 * Open a connection to the given URL, waiting if the maximum number of
+	 * connections to its host is reached. The returned connection must be
+	 * given back with {@link #release(HttpURLConnection, boolean)}.
+	 * @param url
+	 * @param proxy may be null
+	 * @return HttpURLConnection, not connected yet
+	 * @throws IOException
+	 * @throws InterruptedException if the thread was interrupted while waiting
+	 */
+	public HttpURLConnection open(URL url, Proxy proxy) throws IOException, InterruptedException {
+		return open(url, proxy, null);
+	}
+
+	/**
+	 * Open a connection to the given URL, waiting if the maximum number of
+	 * connections to its host is reached. The returned connection must be
+	 * given back with {@link #release(HttpURLConnection, boolean)}.
+	 * @param url
+	 * @param proxy may be null
+	 * @param timings receives the resolution time of the host (may be null)
+	 * @return HttpURLConnection, not connected yet
+	 * @throws IOException
+	 * @throws InterruptedException if the thread was interrupted while waiting
+	 */
+	public HttpURLConnection open(URL url, Proxy proxy, RequestTimings timings) throws IOException, InterruptedException {
+		if (timings != null) {
+			timings.start();
+			// the proxy resolves the host itself
+			if (proxy == null || proxy.type() == Proxy.Type.DIRECT) {
+				InetAddress.getAllByName(url.getHost());
+				timings.end(Phase.RESOLVE);
+			}
+		}
+		Semaphore permits = getPermits(url);
+		permits.acquire();
+		try {
+			HttpURLConnection connection = (HttpURLConnection) (proxy == null ? url.openConnection() : url
+					.openConnection(proxy));
+			connection.setConnectTimeout(connectTimeout);
+			connection.setReadTimeout(readTimeout);
+			connection.setAllowUserInteraction(false);
+			if (connection instanceof HttpsURLConnection) {
+				// same factory for all connections, so that TLS sessions are resumed
+				((HttpsURLConnection) connection).setSSLSocketFactory(getSSLSocketFactory());
+			}
+			leases.put(connection, permits);
+			return connection;
+		} catch (IOException e) {
+			permits.release();
+			throw e;
+		} catch (RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Connect and send the request body, if any. Output is only enabled on
+	 * the connection when there is a body to send.
+	 * @param connection
+	 * @param body may be null
+	 * @param charset the charset of the body, or null for the platform default
+	 * @throws IOException
+	 */
+	public void send(HttpURLConnection connection, String body, String charset) throws IOException {
+		send(connection, body, charset, null);
+	}
+
+	/**
+	 * Connect and send the request body, if any. Output is only enabled on
+	 * the connection when there is a body to send.
+	 * @param connection
+	 * @param body may be null
+	 * @param charset the charset of the body, or null for the platform default
+	 * @param timings receives the connection, handshake and write times, and
+	 * 	the size of the body (may be null)
+	 * @throws IOException
+	 */
+	public void send(HttpURLConnection connection, String body, String charset, RequestTimings timings)
+			throws IOException {
+		byte[] bytes = null;
+		if (body != null) {
+			bytes = charset != null ? body.getBytes(charset) : body.getBytes();
+			connection.setDoOutput(true);
+			connection.setFixedLengthStreamingMode(bytes.length);
+		}
+		if (timings != null) {
+			timings.start();
+			TimingSSLSocketFactory.takeLayeringTime();
+		}
+		connection.connect();
+		if (timings != null) {
+			long connected = System.nanoTime();
+			long layered = TimingSSLSocketFactory.takeLayeringTime();
+			timings.end(Phase.CONNECT);
+			if (layered >= 0) {
+				timings.set(Phase.TLS, connected - layered);
+				timings.set(Phase.CONNECT, timings.getNanos(Phase.CONNECT) - (connected - layered));
+			} else if (connection instanceof HttpsURLConnection) {
+				// kept-alive connection, no handshake
+				timings.set(Phase.TLS, 0);
+			}
+			timings.setRequestSize(bytes != null ? bytes.length : 0);
+		}
+		if (bytes != null) {
+			OutputStream out = connection.getOutputStream();
+			try {
+				out.write(bytes);
+			} finally {
+				out.close();
+			}
+		}
+		if (timings != null) {
+			timings.end(Phase.SEND);
+		}
+	}
+
+	/**
+	 * Read the whole response body (from the error stream for error responses)
+	 * into the given spool, and close the stream, which gives the socket back
+	 * to the keep-alive cache.
+	 * @param connection
+	 * @param spool receives the response body, and is closed
+	 * @throws IOException
+	 */
+	public void readBody(HttpURLConnection connection, ResponseSpool spool) throws IOException {
+		readBody(connection, spool, null);
+	}
+
+	/**
+	 * Read the whole response body (from the error stream for error responses)
+	 * into the given spool, and close the stream, which gives the socket back
+	 * to the keep-alive cache.
+	 * @param connection
+	 * @param spool receives the response body, and is closed
+	 * @param timings receives the wait and read times, and the size of the
+	 * 	response body (may be null)
+	 * @throws IOException
+	 */
+	public void readBody(HttpURLConnection connection, ResponseSpool spool, RequestTimings timings)
+			throws IOException {
+		try {
+			InputStream is;
+			if (connection.getResponseCode() >= HttpURLConnection.HTTP_BAD_REQUEST) {
+				is = connection.getErrorStream();
+			} else {
+				is = connection.getInputStream();
+			}
+			spool.markFirstByte();
+			if (timings != null) {
+				timings.end(Phase.WAIT);
+			}
+			if (is != null) {
+				spool.readFrom(is);
+			}
+		} finally {
+			spool.close();
+		}
+		if (timings != null) {
+			timings.end(Phase.RECEIVE);
+			timings.setResponseSize(spool.getSize());
+		}
+	}
+
+	/**
+	 * Give a connection back. Its socket is kept alive for the next request
+	 * if it is reusable, otherwise the connection is closed.
+	 * @param connection
+	 * @param reusable true if the response was read entirely
+	 */
+	public void release(HttpURLConnection connection, boolean reusable) {
+		try {
+			if (!reusable) {
+				connection.disconnect();
+			}
+		} finally {
+			Semaphore permits = leases.remove(connection);
+			if (permits != null) {
+				permits.release();
+			}
+		}
+	}
+
+	private SSLSocketFactory getSSLSocketFactory() {
+		SSLSocketFactory defaultFactory = HttpsURLConnection.getDefaultSSLSocketFactory();
+		TimingSSLSocketFactory factory = sslSocketFactory;
+		if (factory == null || factory.delegate != defaultFactory) {
+			factory = new TimingSSLSocketFactory(defaultFactory);
+			sslSocketFactory = factory;
+		}
+		return factory;
+	}
+
+	private Semaphore getPermits(URL url) {
+		String key = url.getProtocol() + "://" + url.getHost() + ':' //$NON-NLS-1$
+				+ (url.getPort() != -1 ? url.getPort() : url.getDefaultPort());
+		Semaphore permits = hostPermits.get(key);
+		if (permits == null) {
+			Semaphore newPermits = new Semaphore(maxConnectionsPerHost, true);
+			permits = hostPermits.putIfAbsent(key, newPermits);
+			if (permits == null) {
+				permits = newPermits;
+			}
+		}
+		return permits;
+	}
+
+	/*
+	 * Delegates to the default SSL socket factory, and notes when the TLS
+	 * layer is set up on a connected socket: the handshake starts right after.
+	 * Connections are made by the thread sending the request, so the time is
+	 * kept for that thread.
+	 *
+	 * createSocket() is deliberately not overridden: the inherited one throws,
+	 * so HttpsURLConnection connects a plain socket first and then layers TLS
+	 * on it, which separates the connect and handshake times.
+	 */
+	private static class TimingSSLSocketFactory extends SSLSocketFactory {
+
+		private static final ThreadLocal<Long> layeringTime = new ThreadLocal<Long>();
+
+		private final SSLSocketFactory delegate;
+
+		TimingSSLSocketFactory(SSLSocketFactory delegate) {
+			this.delegate = delegate;
+		}
+
+		/*
+		 * Return (and forget) the time at which the last socket was layered
+		 * by the current thread, or -1
+		 */
+		static long takeLayeringTime() {
+			Long time = layeringTime.get();
+			layeringTime.remove();
+			return time != null ? time : -1;
+		}
+
+		@Override
+		public Socket createSocket(Socket s, String host, int port, boolean autoClose) throws IOException {
+			layeringTime.set(System.nanoTime());
+			return delegate.createSocket(s, host, port, autoClose);
+		}
+
+		@Override
+		public Socket createSocket(String host, int port) throws IOException {
+			return delegate.createSocket(host, port);
+		}
+
+		@Override
+		public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+			return delegate.createSocket(host, port, localHost, localPort);
+		}
+
+		@Override
+		public Socket createSocket(InetAddress host, int port) throws IOException {
+			return delegate.createSocket(host, port);
+		}
+
+		@Override
+		public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort)
+				throws IOException {
+			return delegate.createSocket(address, port, localAddress, localPort);
+		}
+
+		@Override
+		public String[] getDefaultCipherSuites() {
+			return delegate.getDefaultCipherSuites();
+		}
+
+		@Override
+		public String[] getSupportedCipherSuites() {
+			return delegate.getSupportedCipherSuites();
+		}
+	}
+}
@@ -63,45 +63,52 @@ public class TesterWSDLUtils {
 	public final static String SOAP12_PREFIX = "soap12"; //$NON-NLS-1$
 	public final static String SOAP_PREFIX = "soap"; //$NON-NLS-1$
 
-	public static Definition readWSDLURL(URL contextURL, String wsdlLoc) throws WSDLException {
-		Properties props = System.getProperties();
-		String oldPropValue = props.getProperty(DEF_FACTORY_PROPERTY_NAME);
-
-		props.setProperty(DEF_FACTORY_PROPERTY_NAME, PRIVATE_DEF_FACTORY_CLASS);
+	/**
+	 * Create a WSDL reader which reads the imported documents
+	 * @return WSDLReader
+	 * @throws WSDLException
+	 */
+	static WSDLReader newWSDLReader() throws WSDLException {
+		WSDLFactory factory;
+		synchronized (TesterWSDLUtils.class) {
+			Properties props = System.getProperties();
+			String oldPropValue = props.getProperty(DEF_FACTORY_PROPERTY_NAME);
 
-		WSDLFactory factory = WSDLFactory.newInstance();
+			props.setProperty(DEF_FACTORY_PROPERTY_NAME, PRIVATE_DEF_FACTORY_CLASS);
+			try {
+				factory = WSDLFactory.newInstance();
+			} finally {
+				if (oldPropValue != null) {
+					props.setProperty(DEF_FACTORY_PROPERTY_NAME, oldPropValue);
+				} else {
+					props.remove(DEF_FACTORY_PROPERTY_NAME);
+				}
+			}
+		}
 		WSDLReader wsdlReader = factory.newWSDLReader();
 		wsdlReader.setFeature(Constants.FEATURE_VERBOSE, false);
 		wsdlReader.setFeature("javax.wsdl.importDocuments", true); //$NON-NLS-1$
-		String context = null;
-		if (contextURL != null)
-			context = contextURL.toString();
-		Definition def = wsdlReader.readWSDL(context, wsdlLoc);
-
-		if (oldPropValue != null) {
-			props.setProperty(DEF_FACTORY_PROPERTY_NAME, oldPropValue);
-		} else {
-			props.remove(DEF_FACTORY_PROPERTY_NAME);
-		}
-		return def;
+		return wsdlReader;
 	}
 
-	public static IStatus isWSDLAccessible(URL contextURL) {
-		Properties props = System.getProperties();
-		String oldPropValue = props.getProperty(DEF_FACTORY_PROPERTY_NAME);
-
-		props.setProperty(DEF_FACTORY_PROPERTY_NAME, PRIVATE_DEF_FACTORY_CLASS);
-
-		WSDLFactory factory;
+	public static Definition readWSDLURL(URL contextURL, String wsdlLoc) throws WSDLException {
+		URL url;
 		try {
-			factory = WSDLFactory.newInstance();
-			WSDLReader wsdlReader = factory.newWSDLReader();
-			wsdlReader.setFeature(Constants.FEATURE_VERBOSE, false);
-			wsdlReader.setFeature("javax.wsdl.importDocuments", true); //$NON-NLS-1$
+			url = contextURL != null ? new URL(contextURL, wsdlLoc) : new URL(wsdlLoc);
+		} catch (MalformedURLException e) {
+			// let the reader resolve it
 			String context = null;
 			if (contextURL != null)
 				context = contextURL.toString();
-			wsdlReader.readWSDL(context);
+			return newWSDLReader().readWSDL(context, wsdlLoc);
+		}
+		return WSDLDefinitionCache.getDefault().getDefinition(url);
+	}
+
+	public static IStatus isWSDLAccessible(URL contextURL) {
+		try {
+			// the definition is cached for the reads which usually follow
+			WSDLDefinitionCache.getDefault().getDefinition(contextURL);
 		} catch (WSDLException e) {
 			if (contextURL.getProtocol().equalsIgnoreCase("https")) { //$NON-NLS-1$
 				return StatusUtils.warningStatus(JBossWSUIMessages.TesterWSDLUtils_WSDL_HTTPS_Secured_Inaccessible);
@@ -109,36 +116,19 @@ public class TesterWSDLUtils {
 				return StatusUtils.errorStatus(JBossWSUIMessages.TesterWSDLUtils_WSDL_Inaccessible, e);
 			}
 		}
-		
-		if (oldPropValue != null) {
-			props.setProperty(DEF_FACTORY_PROPERTY_NAME, oldPropValue);
-		} else {
-			props.remove(DEF_FACTORY_PROPERTY_NAME);
-		}
 		return Status.OK_STATUS;
 	}
 	
+	/**
+	 * Read a WSDL and the documents it imports, or get it from the
+	 * {@link WSDLDefinitionCache} if it did not change since it was last read
+	 * @param contextURL
+	 * @return Definition, which is shared and must not be modified
+	 * @throws WSDLException
+	 * @throws NullPointerException
+	 */
 	public static Definition readWSDLURL(URL contextURL) throws WSDLException, NullPointerException {
-		Properties props = System.getProperties();
-		String oldPropValue = props.getProperty(DEF_FACTORY_PROPERTY_NAME);
-
-		props.setProperty(DEF_FACTORY_PROPERTY_NAME, PRIVATE_DEF_FACTORY_CLASS);
-
-		WSDLFactory factory = WSDLFactory.newInstance();
-		WSDLReader wsdlReader = factory.newWSDLReader();
-		wsdlReader.setFeature(Constants.FEATURE_VERBOSE, false);
-		wsdlReader.setFeature("javax.wsdl.importDocuments", true); //$NON-NLS-1$
-		String context = null;
-		if (contextURL != null)
-			context = contextURL.toString();
-		Definition def = wsdlReader.readWSDL(context);
-
-		if (oldPropValue != null) {
-			props.setProperty(DEF_FACTORY_PROPERTY_NAME, oldPropValue);
-		} else {
-			props.remove(DEF_FACTORY_PROPERTY_NAME);
-		}
-		return def;
+		return WSDLDefinitionCache.getDefault().getDefinition(contextURL);
 	}
 
 	public static boolean isSOAP12 (Definition wsdlDefinition, String serviceName, String portName) {
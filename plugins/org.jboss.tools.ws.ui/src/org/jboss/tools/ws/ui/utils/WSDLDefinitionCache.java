@@ -0,0 +1,414 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.wsdl.Definition;
+import javax.wsdl.Import;
+import javax.wsdl.WSDLException;
+import javax.wsdl.xml.WSDLReader;
+
+import org.eclipse.xsd.XSDSchema;
+import org.eclipse.xsd.util.XSDParser;
+import org.xml.sax.InputSource;
+
+/**
+ * Parsed WSDL definitions and XSD schemas, shared by the WS Tester and its
+ * dialogs so that a WSDL and the documents it imports are not downloaded and
+ * parsed again each time they are needed.
+ *
+ * A cached document is checked before it is reused:
+ * <ul>
+ * <li>local files (and the local files a WSDL imports) by their timestamp and size,</li>
+ * <li>HTTP documents by a conditional request, if the server sent an ETag or
+ * 	a Last-Modified header,</li>
+ * <li>other documents are read again once they are older than the maximum age.</li>
+ * </ul>
+ * A document checked less than {@link #FRESH_TIME} ms ago is reused as is,
+ * as a single user action often reads the same WSDL several times.
+ *
+ * The size of the cache and the maximum age can be set with the
+ * org.jboss.tools.ws.ui.tester.wsdlCacheSize and
+ * org.jboss.tools.ws.ui.tester.wsdlCacheMaxAge (in ms) system properties.
+ */
+public class WSDLDefinitionCache {
+
+	public static final String SIZE_PROPERTY = "org.jboss.tools.ws.ui.tester.wsdlCacheSize"; //$NON-NLS-1$
+	public static final String MAX_AGE_PROPERTY = "org.jboss.tools.ws.ui.tester.wsdlCacheMaxAge"; //$NON-NLS-1$
+
+	/** time during which a document is reused without being checked, in ms */
+	public static final long FRESH_TIME = 2000;
+
+	private static final int DEFAULT_SIZE = 32;
+	private static final long DEFAULT_MAX_AGE = 60000;
+	private static final String WSDL_KIND = "wsdl "; //$NON-NLS-1$
+	private static final String XSD_KIND = "xsd "; //$NON-NLS-1$
+	private static final String FILE_PROTOCOL = "file"; //$NON-NLS-1$
+	private static final String ETAG = "ETag"; //$NON-NLS-1$
+	private static final String LAST_MODIFIED = "Last-Modified"; //$NON-NLS-1$
+
+	private static WSDLDefinitionCache instance;
+
+	/*
+	 * Reads a document from its content
+	 */
+	private interface Parser {
+		Object parse(String location, byte[] content) throws Exception;
+	}
+
+	/*
+	 * A cached document, with what is needed to check whether it changed
+	 */
+	private static class Entry {
+		Object value;
+		long loadTime;
+		long checkTime;
+		String etag;
+		String lastModified;
+		// timestamp and size of the local files the document was read from
+		Map<File, long[]> files;
+	}
+
+	private final int maxSize;
+	private final long maxAge;
+	private final Map<String, Entry> entries;
+
+	/**
+	 * @return the cache shared by the WS Tester
+	 */
+	public static synchronized WSDLDefinitionCache getDefault() {
+		if (instance == null) {
+			instance = new WSDLDefinitionCache(Integer.getInteger(SIZE_PROPERTY, DEFAULT_SIZE).intValue(),
+					Long.getLong(MAX_AGE_PROPERTY, DEFAULT_MAX_AGE).longValue());
+		}
+		return instance;
+	}
+
+	/**
+	 * Constructor
+	 * @param maxSize the number of documents kept, least recently used ones are dropped first
+	 * @param maxAge the time after which a document which can't be checked is
+	 * 	read again, in ms
+	 */
+	public WSDLDefinitionCache(int maxSize, long maxAge) {
+		this.maxSize = Math.max(1, maxSize);
+		this.maxAge = maxAge;
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > WSDLDefinitionCache.this.maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Get the definition of a WSDL, reading it only if it is not cached or changed
+	 * @param url
+	 * @return Definition, which is shared and must not be modified
+	 * @throws WSDLException if the WSDL can't be read or parsed
+	 */
+	public Definition getDefinition(URL url) throws WSDLException {
+		try {
+			return (Definition) lookup(WSDL_KIND, url, new Parser() {
+				public Object parse(String location, byte[] content) throws Exception {
+					WSDLReader reader = TesterWSDLUtils.newWSDLReader();
+					InputSource source = new InputSource(new ByteArrayInputStream(content));
+					source.setSystemId(location);
+					return reader.readWSDL(location, source);
+				}
+			});
+		} catch (WSDLException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new WSDLException(WSDLException.OTHER_ERROR, e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Get an XSD schema, reading it only if it is not cached or changed
+	 * @param location URL of the schema
+	 * @return XSDSchema, which is shared and must not be modified, or null if
+	 * 	the schema can't be read
+	 */
+	public XSDSchema getSchema(String location) {
+		try {
+			return (XSDSchema) lookup(XSD_KIND, new URL(location), new Parser() {
+				public Object parse(String location, byte[] content) throws Exception {
+					@SuppressWarnings("deprecation")
+					XSDParser p = new XSDParser();
+					p.parse(new ByteArrayInputStream(content));
+					XSDSchema schema = p.getSchema();
+					if (schema == null) {
+						throw new IOException("Not a schema: " + location); //$NON-NLS-1$
+					}
+					return schema;
+				}
+			});
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Drop the cached WSDL and schema read from a location, so that it is read
+	 * again the next time it is needed
+	 * @param location
+	 */
+	public void invalidate(String location) {
+		if (location == null) {
+			return;
+		}
+		synchronized (entries) {
+			entries.remove(WSDL_KIND + location);
+			entries.remove(XSD_KIND + location);
+		}
+	}
+
+	/**
+	 * Drop a cached WSDL, the documents it imports and the cached schemas, so
+	 * that they are read again the next time they are needed
+	 * @param url
+	 */
+	public void refresh(URL url) {
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(WSDL_KIND + url.toExternalForm());
+		}
+		Map<String, Definition> imported = new HashMap<String, Definition>();
+		if (entry != null) {
+			Definition def;
+			synchronized (entry) {
+				def = (Definition) entry.value;
+			}
+			if (def != null) {
+				collectImports(def, imported);
+			}
+		}
+		synchronized (entries) {
+			entries.remove(WSDL_KIND + url.toExternalForm());
+			for (String location : imported.keySet()) {
+				entries.remove(WSDL_KIND + location);
+			}
+			for (Iterator<String> iter = entries.keySet().iterator(); iter.hasNext();) {
+				if (iter.next().startsWith(XSD_KIND)) {
+					iter.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drop all cached documents
+	 */
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	/**
+	 * @return the number of cached documents
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/*
+	 * Return the cached document if it is still valid, or read it
+	 */
+	private Object lookup(String kind, URL url, Parser parser) throws Exception {
+		String key = kind + url.toExternalForm();
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(key);
+			if (entry == null) {
+				entry = new Entry();
+				entries.put(key, entry);
+			}
+		}
+		// concurrent lookups of a document wait for a single read
+		synchronized (entry) {
+			long now = System.currentTimeMillis();
+			if (entry.value != null) {
+				if (now - entry.checkTime < FRESH_TIME) {
+					return entry.value;
+				}
+				if (entry.files != null) {
+					if (!filesChanged(entry.files)) {
+						entry.checkTime = now;
+						return entry.value;
+					}
+				} else if (entry.etag == null && entry.lastModified == null && now - entry.loadTime < maxAge) {
+					return entry.value;
+				}
+			}
+
+			byte[] content;
+			try {
+				content = fetch(url, entry);
+			} catch (Exception e) {
+				drop(key, entry);
+				throw e;
+			}
+			if (content == null) {
+				// not modified
+				entry.checkTime = now;
+				return entry.value;
+			}
+			Object value;
+			try {
+				value = parser.parse(url.toExternalForm(), content);
+			} catch (Exception e) {
+				drop(key, entry);
+				throw e;
+			}
+			entry.value = value;
+			entry.loadTime = now;
+			entry.checkTime = now;
+			entry.files = null;
+			if (FILE_PROTOCOL.equalsIgnoreCase(url.getProtocol())) {
+				entry.files = new HashMap<File, long[]>();
+				addFile(entry.files, url);
+				if (value instanceof Definition) {
+					Map<String, Definition> imported = new HashMap<String, Definition>();
+					collectImports((Definition) value, imported);
+					for (String location : imported.keySet()) {
+						try {
+							addFile(entry.files, new URL(location));
+						} catch (IOException e) {
+							// not a local file, the entry is checked through its root document only
+						}
+					}
+				}
+			}
+			return value;
+		}
+	}
+
+	/*
+	 * Forget a document which could not be read, so that a stale copy is not
+	 * validated against the headers of the new one
+	 */
+	private void drop(String key, Entry entry) {
+		entry.value = null;
+		synchronized (entries) {
+			if (entries.get(key) == entry) {
+				entries.remove(key);
+			}
+		}
+	}
+
+	/*
+	 * Read the content of a document, or return null if it did not change
+	 * since the entry was read
+	 */
+	private static byte[] fetch(URL url, Entry entry) throws IOException {
+		URLConnection conn = NetUtils.getURLConnection(url.toExternalForm());
+		if (conn == null) {
+			throw new IOException("Unable to open " + url); //$NON-NLS-1$
+		}
+		if (conn instanceof HttpURLConnection) {
+			HttpURLConnection http = (HttpURLConnection) conn;
+			if (entry.value != null) {
+				if (entry.etag != null) {
+					http.setRequestProperty("If-None-Match", entry.etag); //$NON-NLS-1$
+				}
+				if (entry.lastModified != null) {
+					http.setRequestProperty("If-Modified-Since", entry.lastModified); //$NON-NLS-1$
+				}
+			}
+			if (http.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+				http.disconnect();
+				return null;
+			}
+			entry.etag = http.getHeaderField(ETAG);
+			entry.lastModified = http.getHeaderField(LAST_MODIFIED);
+		}
+		InputStream in = conn.getInputStream();
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int n;
+			while ((n = in.read(buffer)) != -1) {
+				out.write(buffer, 0, n);
+			}
+			return out.toByteArray();
+		} finally {
+			in.close();
+		}
+	}
+
+	private static void addFile(Map<File, long[]> files, URL url) throws IOException {
+		if (!FILE_PROTOCOL.equalsIgnoreCase(url.getProtocol())) {
+			throw new IOException("Not a file: " + url); //$NON-NLS-1$
+		}
+		File file;
+		try {
+			file = new File(url.toURI());
+		} catch (URISyntaxException e) {
+			file = new File(url.getPath());
+		} catch (IllegalArgumentException e) {
+			file = new File(url.getPath());
+		}
+		files.put(file, new long[] { file.lastModified(), file.length() });
+	}
+
+	private static boolean filesChanged(Map<File, long[]> files) {
+		Iterator<Map.Entry<File, long[]>> iter = files.entrySet().iterator();
+		while (iter.hasNext()) {
+			Map.Entry<File, long[]> file = iter.next();
+			if (file.getKey().lastModified() != file.getValue()[0]
+					|| file.getKey().length() != file.getValue()[1]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/*
+	 * Collect the definitions imported by a WSDL, directly or not, by location
+	 */
+	private static void collectImports(Definition def, Map<String, Definition> imported) {
+		Map<?, ?> imports = def.getImports();
+		if (imports == null) {
+			return;
+		}
+		for (Iterator<?> iter = imports.values().iterator(); iter.hasNext();) {
+			List<?> importList = (List<?>) iter.next();
+			for (int i = 0; i < importList.size(); i++) {
+				Definition importedDef = ((Import) importList.get(i)).getDefinition();
+				if (importedDef != null && importedDef.getDocumentBaseURI() != null
+						&& !imported.containsKey(importedDef.getDocumentBaseURI())) {
+					imported.put(importedDef.getDocumentBaseURI(), importedDef);
+					collectImports(importedDef, imported);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+/**
+ * Runs the same web service request repeatedly from several concurrent
+ * threads, and records the latency and outcome of each call in a
+ * {@link LoadTestResult}.
+ *
+ * The test stops when the total number of requests has been sent, when
+ * the duration has elapsed, or when the progress monitor is cancelled,
+ * whichever comes first. On cancellation, the requests in progress are
+ * aborted with {@link Request#abort()}, since interrupting the threads
+ * does not stop a blocked connection. The threads are started progressively during
+ * the ramp-up period, and each thread waits for the think time between
+ * two consecutive requests.
+ */
+public class WSLoadTester {
+
+	/**
+	 * A single request of the load test. Implementations are called
+	 * concurrently and must not share mutable state.
+	 */
+	public interface Request {
+
+		/**
+		 * Send the request
+		 * @param monitor the monitor of the whole load test
+		 * @return null if the request succeeded, or a short description of
+		 * 	the failure (eg: the HTTP status line)
+		 * @throws Exception if the request failed
+		 */
+		String invoke(IProgressMonitor monitor) throws Exception;
+
+		/**
+		 * Abort the invocations in progress, from any thread. Called once
+		 * when the load test is cancelled: the aborted invocations, and the
+		 * ones started later on, should throw an InterruptedException.
+		 */
+		void abort();
+	}
+
+	/**
+	 * Notified periodically while the load test runs.
+	 */
+	public interface Listener {
+
+		/**
+		 * @param result the current (or final) measurements
+		 */
+		void progress(LoadTestResult result);
+	}
+
+	private static final long DEFAULT_REPORT_INTERVAL = 500;
+
+	private int concurrency = 1;
+	private int totalRequests = 0;
+	private long duration = 0;
+	private long rampUp = 0;
+	private long thinkTime = 0;
+	private long reportInterval = DEFAULT_REPORT_INTERVAL;
+
+	/**
+	 * Constructor
+	 */
+	public WSLoadTester() {
+		// empty
+	}
+
+	/**
+	 * @param concurrency the number of concurrent threads sending requests
+	 */
+	public void setConcurrency(int concurrency) {
+		this.concurrency = Math.max(1, concurrency);
+	}
+
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	/**
+	 * @param totalRequests the total number of requests to send, or 0 if the
+	 * 	test is only limited by its duration
+	 */
+	public void setTotalRequests(int totalRequests) {
+		this.totalRequests = Math.max(0, totalRequests);
+	}
+
+	public int getTotalRequests() {
+		return totalRequests;
+	}
+
+	/**
+	 * @param duration the duration of the test in milliseconds, or 0 if the
+	 * 	test is only limited by its number of requests
+	 */
+	public void setDuration(long duration) {
+		this.duration = Math.max(0, duration);
+	}
+
+	public long getDuration() {
+		return duration;
+	}
+
+	/**
+	 * @param rampUp the time in milliseconds over which the threads are
+	 * 	started
+	 */
+	public void setRampUp(long rampUp) {
+		this.rampUp = Math.max(0, rampUp);
+	}
+
+	public long getRampUp() {
+		return rampUp;
+	}
+
+	/**
+	 * @param thinkTime the pause in milliseconds between two requests of
+	 * 	the same thread
+	 */
+	public void setThinkTime(long thinkTime) {
+		this.thinkTime = Math.max(0, thinkTime);
+	}
+
+	public long getThinkTime() {
+		return thinkTime;
+	}
+
+	/**
+	 * @param reportInterval the interval in milliseconds between two
+	 * 	notifications of the listener
+	 */
+	public void setReportInterval(long reportInterval) {
+		this.reportInterval = Math.max(1, reportInterval);
+	}
+
+	/**
+	 * Run the load test and wait for its completion
+	 * @param request the request to send
+	 * @param monitor progress monitor, used for cancellation (may be null)
+	 * @param listener notified periodically and once the test finished
+	 * 	(may be null)
+	 * @return the measurements
+	 * @throws InterruptedException if the calling thread was interrupted
+	 */
+	public LoadTestResult run(final Request request, IProgressMonitor monitor, Listener listener)
+			throws InterruptedException {
+		if (totalRequests == 0 && duration == 0) {
+			throw new IllegalStateException("A load test needs a number of requests or a duration"); //$NON-NLS-1$
+		}
+		final IProgressMonitor testMonitor = monitor != null ? monitor : new NullProgressMonitor();
+		final LoadTestResult result = new LoadTestResult();
+		final long deadline = duration > 0 ? System.currentTimeMillis() + duration : Long.MAX_VALUE;
+		final AtomicInteger issued = new AtomicInteger();
+
+		ExecutorService executor = Executors.newFixedThreadPool(concurrency, new ThreadFactory() {
+			private final AtomicInteger threadCount = new AtomicInteger();
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "WS Load Test " + threadCount.incrementAndGet()); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		for (int i = 0; i < concurrency; i++) {
+			final long startDelay = rampUp * i / concurrency;
+			executor.execute(new Runnable() {
+				public void run() {
+					try {
+						Thread.sleep(startDelay);
+						while (!testMonitor.isCanceled() && System.currentTimeMillis() < deadline) {
+							if (totalRequests > 0 && issued.incrementAndGet() > totalRequests) {
+								break;
+							}
+							long start = System.nanoTime();
+							String error;
+							try {
+								error = request.invoke(testMonitor);
+							} catch (InterruptedException e) {
+								throw e;
+							} catch (Exception e) {
+								error = e.toString();
+							}
+							result.record(System.nanoTime() - start, error);
+							if (thinkTime > 0) {
+								Thread.sleep(thinkTime);
+							}
+						}
+					} catch (InterruptedException e) {
+						// test cancelled
+					}
+				}
+			});
+		}
+		executor.shutdown();
+		try {
+			boolean aborted = false;
+			while (!executor.awaitTermination(reportInterval, TimeUnit.MILLISECONDS)) {
+				if (testMonitor.isCanceled() && !aborted) {
+					aborted = true;
+					executor.shutdownNow();
+					request.abort();
+				}
+				if (listener != null) {
+					listener.progress(result);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+			result.setFinished();
+		}
+		if (listener != null) {
+			listener.progress(result);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,272 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.utils;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * Runs the requests of the WS Tester (REST and SOAP) outside of the jobs
+ * which wait for them, with a deadline and immediate cancellation.
+ *
+ * A request is cancelled (or times out) by aborting it with
+ * {@link Request#abort()}, which closes its connection: the blocking read
+ * or write of the request fails at once, instead of when the server
+ * eventually answers. A cancelled request therefore doesn't keep holding a
+ * thread, and the progress monitor of the caller is polled frequently
+ * instead of between the steps of the request.
+ *
+ * The requests share a bounded pool of threads, and the timeout can be
+ * set with the <code>org.jboss.tools.ws.ui.tester.requestTimeout</code>
+ * system property (in milliseconds, default: 120000, 0 for no timeout).
+ */
+public class WSTestEngine {
+
+	/**
+	 * A request which can be aborted from another thread
+	 * @param <T> the result of the request
+	 */
+	public interface Request<T> {
+
+		/**
+		 * Send the request and wait for its response
+		 * @return the result
+		 * @throws Exception
+		 */
+		T execute() throws Exception;
+
+		/**
+		 * Abort the request, from any thread: {@link #execute()} should
+		 * return (or fail) as soon as possible
+		 */
+		void abort();
+	}
+
+	public static final String REQUEST_TIMEOUT_PROPERTY = "org.jboss.tools.ws.ui.tester.requestTimeout"; //$NON-NLS-1$
+	public static final String THREADS_PROPERTY = "org.jboss.tools.ws.ui.tester.threads"; //$NON-NLS-1$
+
+	private static final int DEFAULT_REQUEST_TIMEOUT = 120000;
+	private static final int DEFAULT_THREADS = 8;
+	private static final long POLL_INTERVAL = 50;
+
+	private static final WSTestEngine instance = new WSTestEngine(
+			Integer.getInteger(THREADS_PROPERTY, DEFAULT_THREADS),
+			Integer.getInteger(REQUEST_TIMEOUT_PROPERTY, DEFAULT_REQUEST_TIMEOUT));
+
+	private final ExecutorService executor;
+	private final ScheduledExecutorService timer;
+	private volatile long timeout;
+
+	/**
+	 * Constructor
+	 * @param threads maximum number of threads sending requests
+	 * @param timeout default timeout of the requests in milliseconds
+	 * 	(0 for no timeout)
+	 */
+	public WSTestEngine(int threads, long timeout) {
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads),
+				60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new EngineThreadFactory("WS Tester")); //$NON-NLS-1$
+		pool.allowCoreThreadTimeOut(true);
+		this.executor = pool;
+		this.timer = new ScheduledThreadPoolExecutor(1, new EngineThreadFactory("WS Tester Timeout")); //$NON-NLS-1$
+		this.timeout = Math.max(0, timeout);
+	}
+
+	/**
+	 * Return the engine shared by the WS Tester
+	 * @return WSTestEngine
+	 */
+	public static WSTestEngine getDefault() {
+		return instance;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	public void setTimeout(long timeout) {
+		this.timeout = Math.max(0, timeout);
+	}
+
+	/**
+	 * Start a request, with the default timeout
+	 * @param request
+	 * @return Future, whose cancellation aborts the request
+	 */
+	public <T> Future<T> submit(Request<T> request) {
+		return submit(request, timeout);
+	}
+
+	/**
+	 * Start a request
+	 * @param request
+	 * @param timeout in milliseconds (0 for no timeout); the request is
+	 * 	aborted once it is reached, and the future fails with a
+	 * 	{@link TimeoutException}
+	 * @return Future, whose cancellation aborts the request
+	 */
+	public <T> Future<T> submit(Request<T> request, long timeout) {
+		final RequestFuture<T> future = new RequestFuture<T>(request);
+		if (timeout > 0) {
+			future.expiry = timer.schedule(new Runnable() {
+				public void run() {
+					future.expire();
+				}
+			}, timeout, TimeUnit.MILLISECONDS);
+		}
+		executor.execute(future);
+		return future;
+	}
+
+	/**
+	 * Send a request, with the default timeout, and wait for its result
+	 * @param request
+	 * @param monitor cancels the request as soon as it is cancelled (may be null)
+	 * @return the result of the request
+	 * @throws InterruptedException if the request was cancelled
+	 * @throws TimeoutException if the request timed out
+	 * @throws Exception if the request failed
+	 */
+	public <T> T invoke(Request<T> request, IProgressMonitor monitor) throws Exception {
+		return await(submit(request), monitor);
+	}
+
+	/**
+	 * Wait for the result of a request
+	 * @param future returned by {@link #submit(Request, long)}
+	 * @param monitor cancels the request as soon as it is cancelled (may be null)
+	 * @return the result of the request
+	 * @throws InterruptedException if the request was cancelled
+	 * @throws TimeoutException if the request timed out
+	 * @throws Exception if the request failed
+	 */
+	public static <T> T await(Future<T> future, IProgressMonitor monitor) throws Exception {
+		try {
+			while (true) {
+				if (monitor != null && monitor.isCanceled()) {
+					future.cancel(true);
+				}
+				try {
+					return future.get(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					// still running, check the monitor again
+				}
+			}
+		} catch (CancellationException e) {
+			throw new InterruptedException();
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			throw e;
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Stop the threads of the engine, and abort the requests in progress
+	 */
+	public void shutdown() {
+		timer.shutdownNow();
+		executor.shutdownNow();
+	}
+
+	/*
+	 * Aborts its request when it is cancelled or expires
+	 */
+	private static class RequestFuture<T> extends FutureTask<T> {
+
+		private final Request<T> request;
+		private final AtomicBoolean aborted = new AtomicBoolean();
+		private volatile boolean expired = false;
+		private volatile Future<?> expiry;
+
+		RequestFuture(final Request<T> request) {
+			super(new Callable<T>() {
+				public T call() throws Exception {
+					return request.execute();
+				}
+			});
+			this.request = request;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+			if (cancelled) {
+				abort();
+			}
+			return cancelled;
+		}
+
+		void expire() {
+			if (!isDone()) {
+				expired = true;
+				setException(new TimeoutException());
+				abort();
+			}
+		}
+
+		@Override
+		protected void setException(Throwable t) {
+			// the failure of an expired request is a consequence of the timeout
+			super.setException(expired ? new TimeoutException() : t);
+		}
+
+		@Override
+		protected void done() {
+			Future<?> pendingExpiry = expiry;
+			if (pendingExpiry != null) {
+				pendingExpiry.cancel(false);
+			}
+		}
+
+		private void abort() {
+			if (aborted.compareAndSet(false, true)) {
+				request.abort();
+			}
+		}
+	}
+
+	private static class EngineThreadFactory implements ThreadFactory {
+
+		private final String name;
+		private final AtomicInteger threadCount = new AtomicInteger();
+
+		EngineThreadFactory(String name) {
+			this.name = name;
+		}
+
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, name + ' ' + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -57,12 +57,46 @@ public class WSTestUtils {
 		return outgoing;
 	}
 
-	public static IStatus saveTextToFile ( String text ) {
+	/*
+	 * Prompt for the file in which the response is saved
+	 */
+	private static String selectFile() {
 		FileDialog fd = new FileDialog(new Shell(Display.getCurrent()), SWT.SAVE);
 		fd.setText(JBossWSUIMessages.WSTestUtils_SaveResponseText_Title);
 		String[] filterExt = { "*.txt", "*.xml"}; //$NON-NLS-1$ //$NON-NLS-2$
 		fd.setFilterExtensions(filterExt);
-		String selected = fd.open();
+		return fd.open();
+	}
+
+	/**
+	 * Save the whole content of a response (which may be too large to be
+	 * held in a string) to a file selected by the user
+	 * @param response
+	 * @return IStatus
+	 */
+	public static IStatus saveResponseToFile ( ResponseSpool response ) {
+		String selected = selectFile();
+		if (selected != null) {
+			try {
+				FileOutputStream out = new FileOutputStream(selected);
+				try {
+					response.writeTo(out);
+				} finally {
+					out.close();
+				}
+				return Status.OK_STATUS;
+			} catch (IOException e) {
+				return new Status(IStatus.ERROR, 
+						JBossWSUIPlugin.PLUGIN_ID,
+						JBossWSUIMessages.WSTestUtils_SaveResponseText_Error_Msg,
+						e);
+			}
+		}
+		return Status.CANCEL_STATUS;
+	}
+
+	public static IStatus saveTextToFile ( String text ) {
+		String selected = selectFile();
 		if (selected != null) {
 			FileOutputStream out;
 			PrintStream p;
@@ -11,6 +11,8 @@
  ******************************************************************************/
 package org.jboss.tools.ws.ui.views;
 
+import java.util.HashMap;
+
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
@@ -540,6 +542,29 @@ public class DelimitedStringList extends Composite {
 		return new String[0];
 	}
 
+	/**
+	 * Parse a comma-delimited list of name=value pairs
+	 * 
+	 * @param pairs
+	 * @return the values, by name
+	 */
+	public static HashMap<String, String> parseNameValuePairs(String pairs) {
+		HashMap<String, String> map = new HashMap<String, String>();
+		if (pairs != null && pairs.length() > 0) {
+			String[] parsedList = parseString(pairs , ","); //$NON-NLS-1$
+			if (parsedList != null && parsedList.length > 0) {
+				for (int i = 0; i < parsedList.length; i++) {
+					String nameValuePair = parsedList[i];
+					String[] nameAndValue = parseString(nameValuePair, "="); //$NON-NLS-1$
+					if (nameAndValue != null && nameAndValue.length == 2) {
+						map.put(nameAndValue[0], nameAndValue[1]);
+					}
+				}
+			}
+		}
+		return map;
+	}
+
 	/**
 	 * Change the delimiter
 	 * 
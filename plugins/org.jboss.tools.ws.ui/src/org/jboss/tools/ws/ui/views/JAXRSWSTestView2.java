@@ -11,15 +11,20 @@
 package org.jboss.tools.ws.ui.views;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.TimeoutException;
 
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
@@ -52,6 +57,8 @@ import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IAction;
 import org.eclipse.jface.action.ToolBarManager;
+import org.eclipse.jface.dialogs.IDialogConstants;
+import org.eclipse.jface.dialogs.IMessageProvider;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.resource.ImageRegistry;
@@ -64,6 +71,7 @@ import org.eclipse.jface.viewers.TextCellEditor;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.window.Window;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.browser.Browser;
 import org.eclipse.swt.custom.SashForm;
@@ -82,6 +90,7 @@ import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.events.SelectionListener;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.layout.FillLayout;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
@@ -92,6 +101,7 @@ import org.eclipse.swt.widgets.CoolBar;
 import org.eclipse.swt.widgets.CoolItem;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.swt.widgets.List;
 import org.eclipse.swt.widgets.Listener;
 import org.eclipse.swt.widgets.Menu;
@@ -116,16 +126,23 @@ import org.eclipse.ui.forms.widgets.ScrolledPageBook;
 import org.eclipse.ui.forms.widgets.Section;
 import org.eclipse.ui.part.ViewPart;
 import org.jboss.tools.ws.ui.JBossWSUIPlugin;
+import org.jboss.tools.ws.ui.dialogs.LoadTestDialog;
 import org.jboss.tools.ws.ui.dialogs.WSTesterURLInputsDialog;
 import org.jboss.tools.ws.ui.messages.JBossWSUIMessages;
 import org.jboss.tools.ws.ui.utils.JAXRSTester;
+import org.jboss.tools.ws.ui.utils.JAXWSDispatchCache;
 import org.jboss.tools.ws.ui.utils.JAXWSTester2;
+import org.jboss.tools.ws.ui.utils.LoadTestResult;
+import org.jboss.tools.ws.ui.utils.RequestTimings;
+import org.jboss.tools.ws.ui.utils.ResponseSpool;
 import org.jboss.tools.ws.ui.utils.ResultsXMLStorage;
 import org.jboss.tools.ws.ui.utils.ResultsXMLStorageInput;
 import org.jboss.tools.ws.ui.utils.SOAPDOMParser;
 import org.jboss.tools.ws.ui.utils.SchemaUtils;
 import org.jboss.tools.ws.ui.utils.TesterWSDLUtils;
 import org.jboss.tools.ws.ui.utils.TreeParent;
+import org.jboss.tools.ws.ui.utils.WSLoadTester;
+import org.jboss.tools.ws.ui.utils.WSTestEngine;
 import org.jboss.tools.ws.ui.utils.WSTestUtils;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -149,6 +166,8 @@ public class JAXRSWSTestView2 extends ViewPart {
 	private static final String OPTIONS = "OPTIONS";//$NON-NLS-1$
 	private static final String JAX_WS = "JAX-WS"; //$NON-NLS-1$
 	private static final String JAX_RS = "JAX-RS"; //$NON-NLS-1$
+	private static final String HISTORY_FILE_NAME = "history." + TestCollection.FILE_EXTENSION; //$NON-NLS-1$
+	private static final int COLLECTION_PARALLELISM = 4;
 	private static final String EMPTY_STRING = ""; //$NON-NLS-1$
 	private static final String RESULT_HEADER_DELIMITER = "%";//$NON-NLS-1$
 	private static final String HTTPS_STRING = "https";//$NON-NLS-1$
@@ -167,6 +186,7 @@ public class JAXRSWSTestView2 extends ViewPart {
 	private Combo methodCombo;
 	private Text bodyText;
 	private List resultHeadersList;
+	private List resultTimingsList;
 
 	private TreeViewer treeRequestBody;
 	private ScrolledPageBook requestPageBook;
@@ -208,6 +228,7 @@ public class JAXRSWSTestView2 extends ViewPart {
 	
 	private TestHistory history = new TestHistory();
 	private TestHistoryEntry currentHistoryEntry = null;
+	private ResponseSpool currentResponse = null;
 	private Button useBasicAuthCB;
 	private boolean restoringFromHistoryEntry = false;
 
@@ -339,8 +360,13 @@ public class JAXRSWSTestView2 extends ViewPart {
 	class FileSaveAction extends Action {
 		@Override
 		public void run() {
-			IStatus status =
-				WSTestUtils.saveTextToFile(resultsText.getText());
+			IStatus status;
+			if (currentResponse != null && currentResponse.isTruncated()) {
+				// the results text only holds the beginning of the response
+				status = WSTestUtils.saveResponseToFile(currentResponse);
+			} else {
+				status = WSTestUtils.saveTextToFile(resultsText.getText());
+			}
 			if (status.getCode() == IStatus.ERROR) {
 				MessageDialog.openError(new Shell(Display.getCurrent()),
 						JBossWSUIMessages.JAXRSWSTestView2_SaveResponseText_Error,
@@ -558,6 +584,10 @@ public class JAXRSWSTestView2 extends ViewPart {
 					wbDialog.getOperationTextValue());
 			getCurrentHistoryEntry().setUrl(endpointURL);
 			
+			// the WSDL may have changed since the service was last called
+			JAXWSDispatchCache.getDefault().invalidate(wbDialog.getWSDLText());
+			JAXWSDispatchCache.getDefault().invalidate(endpointURL);
+			
 			String actionURL = TesterWSDLUtils.getActionURL(wsdlDef, 
 					wbDialog.getServiceTextValue(), 
 					wbDialog.getPortTextValue(), 
@@ -751,11 +781,60 @@ public class JAXRSWSTestView2 extends ViewPart {
 			}
 		});
 
-		startToolItem = new ToolItem(topToolBar, SWT.PUSH| SWT.FLAT);
+		startToolItem = new ToolItem(topToolBar, SWT.DROP_DOWN| SWT.FLAT);
 		startToolItem.setImage(mImageRegistry.get(IMG_DESC_START));
 		startToolItem.setToolTipText(JBossWSUIMessages.JAXRSWSTestView2_Go_Tooltip);
+		final Menu startMenu = new Menu(topToolBar.getShell(), SWT.POP_UP);
+		MenuItem invokeOnceMenuItem = new MenuItem(startMenu, SWT.PUSH);
+		invokeOnceMenuItem.setText(JBossWSUIMessages.JAXRSWSTestView2_Invoke_Once_Menu);
+		invokeOnceMenuItem.addSelectionListener(new SelectionListener() {
+			public void widgetSelected(SelectionEvent e) {
+				handleTest(getCurrentTestType());
+			}
+			public void widgetDefaultSelected(SelectionEvent e) {
+				widgetSelected(e);
+			}
+		});
+		MenuItem loadTestMenuItem = new MenuItem(startMenu, SWT.PUSH);
+		loadTestMenuItem.setText(JBossWSUIMessages.JAXRSWSTestView2_LoadTest_Menu);
+		loadTestMenuItem.addSelectionListener(new SelectionListener() {
+			public void widgetSelected(SelectionEvent e) {
+				handleTest(getCurrentTestType(), true);
+			}
+			public void widgetDefaultSelected(SelectionEvent e) {
+				widgetSelected(e);
+			}
+		});
+		new MenuItem(startMenu, SWT.SEPARATOR);
+		MenuItem runCollectionMenuItem = new MenuItem(startMenu, SWT.PUSH);
+		runCollectionMenuItem.setText(JBossWSUIMessages.JAXRSWSTestView2_RunCollection_Menu);
+		runCollectionMenuItem.addSelectionListener(new SelectionListener() {
+			public void widgetSelected(SelectionEvent e) {
+				handleRunCollection();
+			}
+			public void widgetDefaultSelected(SelectionEvent e) {
+				widgetSelected(e);
+			}
+		});
+		MenuItem saveCollectionMenuItem = new MenuItem(startMenu, SWT.PUSH);
+		saveCollectionMenuItem.setText(JBossWSUIMessages.JAXRSWSTestView2_SaveCollection_Menu);
+		saveCollectionMenuItem.addSelectionListener(new SelectionListener() {
+			public void widgetSelected(SelectionEvent e) {
+				handleSaveCollection();
+			}
+			public void widgetDefaultSelected(SelectionEvent e) {
+				widgetSelected(e);
+			}
+		});
 		startToolItem.addSelectionListener(new SelectionListener() {
 			public void widgetSelected(SelectionEvent e) {
+				if (e.detail == SWT.ARROW) {
+					Rectangle bounds = startToolItem.getBounds();
+					Point location = startToolItem.getParent().toDisplay(bounds.x, bounds.y + bounds.height);
+					startMenu.setLocation(location);
+					startMenu.setVisible(true);
+					return;
+				}
 				handleTest(getCurrentTestType());
 			}
 			public void widgetDefaultSelected(SelectionEvent e) {
@@ -1181,6 +1260,19 @@ public class JAXRSWSTestView2 extends ViewPart {
 		ec2.setLayoutData(gd6);
 		ec2.addExpansionListener(new FormExpansionAdapter());
 
+		ExpandableComposite ec5 = toolkit.createExpandableComposite(sectionClient2, 
+				ExpandableComposite.TREE_NODE| ExpandableComposite.TITLE_BAR |
+				ExpandableComposite.CLIENT_INDENT );
+		ec5.setText(JBossWSUIMessages.JAXRSWSTestView2_ResponseTiming_Section);
+		ec5.setLayout(new GridLayout());
+		resultTimingsList = new List(ec5, SWT.V_SCROLL | SWT.BORDER );
+		ec5.setClient(resultTimingsList);
+		GridData gd11 = new GridData(SWT.FILL, SWT.FILL, true, false);
+		gd11.heightHint = 1;
+		gd11.minimumHeight = 50;
+		ec5.setLayoutData(gd11);
+		ec5.addExpansionListener(new FormExpansionAdapter());
+
 		ExpandableComposite ec4 = toolkit.createExpandableComposite(sectionClient2, 
 				ExpandableComposite.TWISTIE| ExpandableComposite.TITLE_BAR |
 				ExpandableComposite.CLIENT_INDENT |
@@ -1370,10 +1462,13 @@ public class JAXRSWSTestView2 extends ViewPart {
 		setControlsForMethodType(methodCombo.getText());
 		setControlsForSelectedURL();
 		setMenusForCurrentState();
+		loadHistory();
 	}
 
 	@Override
 	public void dispose() {
+		saveHistory();
+		setCurrentResponse(null);
 		toolkit.dispose();
 		mImageRegistry.dispose();
 		super.dispose();
@@ -1494,7 +1589,9 @@ public class JAXRSWSTestView2 extends ViewPart {
 					}
 				}
 			}
+			showTimings(entry.getResultTimings(), null);
 			if (resultsText.isEnabled() && resultsBrowser.isEnabled()) {
+				setCurrentResponse(null);
 				resultsText.setText(entry.getResultText());
 				resultsBrowser.setText(entry.getResultText());
 			}
@@ -1609,6 +1706,14 @@ public class JAXRSWSTestView2 extends ViewPart {
 	 * Actually perform the test based on which type of activity it is 
 	 */
 	private void handleTest(final String wsTech) {
+		handleTest(wsTech, false);
+	}
+
+	/*
+	 * Actually perform the test (once, or as a load test) based on which
+	 * type of activity it is
+	 */
+	private void handleTest(final String wsTech, final boolean loadTest) {
 
 		String urlText = urlCombo.getText();
 		
@@ -1695,6 +1800,12 @@ public class JAXRSWSTestView2 extends ViewPart {
 		final String uid = tempUID;
 		final String pwd = tempPwd;
 
+		if (loadTest) {
+			handleLoadTest(wsTech, url, action, body, method, parms, headers, uid, pwd);
+			setMenusForCurrentState();
+			return;
+		}
+
 		Job aJob = new Job(JBossWSUIMessages.JAXRSWSTestView_Invoking_WS_Status) {
 			protected IStatus run(IProgressMonitor monitor) {
 				IStatus status = Status.OK_STATUS;
@@ -1705,6 +1816,9 @@ public class JAXRSWSTestView2 extends ViewPart {
 				else if (wsTech.equalsIgnoreCase(JAX_WS)) {
 					status = handleWSTest(monitor, url, action, body, uid, pwd);
 				}
+				if (status instanceof WSTestStatus) {
+					prettyPrintResults((WSTestStatus) status);
+				}
 				monitor.done();
 				return status;  
 			}
@@ -1721,13 +1835,14 @@ public class JAXRSWSTestView2 extends ViewPart {
 					final WSTestStatus status = (WSTestStatus) event.getResult();
 					PlatformUI.getWorkbench().getDisplay().syncExec(new Runnable() {
 						public void run() {
+							setCurrentResponse(status.getResponse());
+							// compare with the previous run of the same request
+							TestHistoryEntry previousEntry = history.findEntryByURL(urlCombo.getText());
+							showTimings(status.getTimings(),
+									previousEntry != null ? previousEntry.getResultTimings() : null);
+							getCurrentHistoryEntry().setResultTimings(status.getTimings());
 							if (status.getResultsText() != null) {
 								String results = status.getResultsText();
-								if (SOAPDOMParser.isValidXML(results)) {
-									results = SOAPDOMParser.prettyPrint(results);
-								} else {
-									results = SOAPDOMParser.prettyPrintJSON(results);
-								}
 								getCurrentHistoryEntry().setResultText(results);
 								getCurrentHistoryEntry().setUrl(urlCombo.getText());
 								JAXRSWSTestView2.this.resultsText.setText(results);
@@ -1784,42 +1899,428 @@ public class JAXRSWSTestView2 extends ViewPart {
 	}
 
 	/*
-	 * Actually call the WS and displays the result 
+	 * Pretty-print the results (in the job, rather than in the UI thread).
+	 * Truncated results are left as they are, since they can't be parsed
+	 */
+	private void prettyPrintResults(WSTestStatus status) {
+		String results = status.getResultsText();
+		if (results == null || (status.getResponse() != null && status.getResponse().isTruncated())) {
+			return;
+		}
+		if (SOAPDOMParser.isValidXML(results)) {
+			results = SOAPDOMParser.prettyPrint(results);
+		} else {
+			results = SOAPDOMParser.prettyPrintJSON(results);
+		}
+		status.setResultsText(results);
+	}
+
+	/*
+	 * Keep the response being displayed (and release the previous one), and
+	 * show the measures of its transfer
 	 */
-	private IStatus handleWSTest(final IProgressMonitor monitor, String url, String action, String body, String uid, String pwd) {
+	private void setCurrentResponse(ResponseSpool response) {
+		if (currentResponse != null && currentResponse != response) {
+			currentResponse.dispose();
+		}
+		currentResponse = response;
+		if (form == null || form.isDisposed()) {
+			return;
+		}
+		if (response == null) {
+			form.setMessage(null, IMessageProvider.NONE);
+			return;
+		}
+		String summary = NLS.bind(JBossWSUIMessages.JAXRSWSTestView2_Response_Summary, new Object[] {
+				ResponseSpool.formatSize(response.getSize()), response.getTotalTime(),
+				response.getTimeToFirstByte(), ResponseSpool.formatSize(response.getTransferRate()) });
+		if (response.isTruncated()) {
+			summary = summary + ' ' + JBossWSUIMessages.JAXRSWSTestView2_Response_Truncated;
+			form.setMessage(summary, IMessageProvider.WARNING);
+		} else {
+			form.setMessage(summary, IMessageProvider.INFORMATION);
+		}
+	}
+
+	/*
+	 * Show the time spent in each phase of a request, and the sizes of its
+	 * request and response bodies, next to the values of a previous run
+	 */
+	private void showTimings(RequestTimings timings, RequestTimings previous) {
+		if (resultTimingsList == null || resultTimingsList.isDisposed()) {
+			return;
+		}
+		resultTimingsList.removeAll();
+		if (timings == null) {
+			return;
+		}
+		for (RequestTimings.Phase phase : RequestTimings.Phase.values()) {
+			resultTimingsList.add(getTimingRow(getPhaseLabel(phase),
+					formatMillis(timings.getMillis(phase)),
+					previous != null ? formatMillis(previous.getMillis(phase)) : null));
+		}
+		resultTimingsList.add(getTimingRow(JBossWSUIMessages.JAXRSWSTestView2_Timing_Total,
+				formatMillis(timings.getTotalMillis()),
+				previous != null ? formatMillis(previous.getTotalMillis()) : null));
+		resultTimingsList.add(getTimingRow(JBossWSUIMessages.JAXRSWSTestView2_Timing_Request_Size,
+				formatSize(timings.getRequestSize()),
+				previous != null ? formatSize(previous.getRequestSize()) : null));
+		resultTimingsList.add(getTimingRow(JBossWSUIMessages.JAXRSWSTestView2_Timing_Response_Size,
+				formatSize(timings.getResponseSize()),
+				previous != null ? formatSize(previous.getResponseSize()) : null));
+	}
+
+	private static String getTimingRow(String label, String value, String previousValue) {
+		if (previousValue == null) {
+			return NLS.bind(JBossWSUIMessages.JAXRSWSTestView2_Timing_Row, label, value);
+		}
+		return NLS.bind(JBossWSUIMessages.JAXRSWSTestView2_Timing_Row_Compared, 
+				new Object[] { label, value, previousValue });
+	}
+
+	private static String getPhaseLabel(RequestTimings.Phase phase) {
+		switch (phase) {
+		case RESOLVE:
+			return JBossWSUIMessages.JAXRSWSTestView2_Timing_Resolve;
+		case CONNECT:
+			return JBossWSUIMessages.JAXRSWSTestView2_Timing_Connect;
+		case TLS:
+			return JBossWSUIMessages.JAXRSWSTestView2_Timing_TLS;
+		case SEND:
+			return JBossWSUIMessages.JAXRSWSTestView2_Timing_Send;
+		case WAIT:
+			return JBossWSUIMessages.JAXRSWSTestView2_Timing_Wait;
+		default:
+			return JBossWSUIMessages.JAXRSWSTestView2_Timing_Receive;
+		}
+	}
+
+	private static String formatMillis(double millis) {
+		return millis < 0 ? JBossWSUIMessages.JAXRSWSTestView2_Timing_Unknown : RequestTimings.formatMillis(millis);
+	}
+
+	private static String formatSize(long size) {
+		return size < 0 ? JBossWSUIMessages.JAXRSWSTestView2_Timing_Unknown : ResponseSpool.formatSize(size);
+	}
+
+	/*
+	 * The requests of the history are kept in the state location of the plug-in
+	 */
+	private File getHistoryFile() {
+		return JBossWSUIPlugin.getDefault().getStateLocation()
+				.append(HISTORY_FILE_NAME).toFile();
+	}
+
+	private void loadHistory() {
+		File file = getHistoryFile();
+		if (!file.exists()) {
+			return;
+		}
 		try {
+			history.load(file);
+		} catch (IOException e) {
+			JBossWSUIPlugin.log(e);
+			return;
+		}
+		java.util.List<String> urls = Arrays.asList(urlCombo.getItems());
+		Iterator<TestHistoryEntry> iter = history.getEntries().iterator();
+		while (iter.hasNext()) {
+			String url = iter.next().getUrl();
+			if (!urls.contains(url)) {
+				urlCombo.add(url);
+			}
+		}
+	}
 
-			envelope = null;
-			soapbody = null;
-			monitor.worked(10);
-			JAXWSTester2 tester = new JAXWSTester2();
-			boolean itRan = false;
-			serviceNSMessage = getCurrentHistoryEntry().getServiceNSMessage();
-			while (!monitor.isCanceled()) {
+	private void saveHistory() {
+		try {
+			history.save(getHistoryFile());
+		} catch (IOException e) {
+			JBossWSUIPlugin.log(e);
+		}
+	}
+
+	/*
+	 * Save the requests of the history to a collection file
+	 */
+	private void handleSaveCollection() {
+		FileDialog fd = new FileDialog(getSite().getShell(), SWT.SAVE);
+		fd.setText(JBossWSUIMessages.JAXRSWSTestView2_SaveCollection_Menu);
+		fd.setFilterExtensions(new String[] { "*." + TestCollection.FILE_EXTENSION }); //$NON-NLS-1$
+		fd.setOverwrite(true);
+		String selected = fd.open();
+		if (selected == null) {
+			return;
+		}
+		if (!selected.endsWith('.' + TestCollection.FILE_EXTENSION)) {
+			selected = selected + '.' + TestCollection.FILE_EXTENSION;
+		}
+		File file = new File(selected);
+		String name = file.getName().substring(0, file.getName().length() - TestCollection.FILE_EXTENSION.length() - 1);
+		try {
+			TestCollection.fromHistory(history, name).save(file);
+		} catch (IOException e) {
+			MessageDialog.openError(getSite().getShell(), JBossWSUIMessages.JAXRSWSTestView2_Collection_Title,
+					NLS.bind(JBossWSUIMessages.JAXRSWSTestView2_Collection_Save_Error, e.getLocalizedMessage()));
+		}
+	}
+
+	/*
+	 * Run the requests of a collection file, and display the report in the
+	 * response body while they run
+	 */
+	private void handleRunCollection() {
+		FileDialog fd = new FileDialog(getSite().getShell(), SWT.OPEN);
+		fd.setText(JBossWSUIMessages.JAXRSWSTestView2_RunCollection_Menu);
+		fd.setFilterExtensions(new String[] { "*." + TestCollection.FILE_EXTENSION }); //$NON-NLS-1$
+		String selected = fd.open();
+		if (selected == null) {
+			return;
+		}
+		final TestCollection collection;
+		try {
+			collection = TestCollection.load(new File(selected));
+		} catch (IOException e) {
+			MessageDialog.openError(getSite().getShell(), JBossWSUIMessages.JAXRSWSTestView2_Collection_Title,
+					NLS.bind(JBossWSUIMessages.JAXRSWSTestView2_Collection_Load_Error, e.getLocalizedMessage()));
+			return;
+		}
+		MessageDialog modeDialog = new MessageDialog(getSite().getShell(), 
+				JBossWSUIMessages.JAXRSWSTestView2_Collection_Title, null,
+				JBossWSUIMessages.JAXRSWSTestView2_Collection_Mode_Msg, MessageDialog.QUESTION,
+				new String[] { JBossWSUIMessages.JAXRSWSTestView2_Collection_Mode_Sequential,
+						JBossWSUIMessages.JAXRSWSTestView2_Collection_Mode_Parallel,
+						IDialogConstants.CANCEL_LABEL }, 0);
+		int mode = modeDialog.open();
+		if (mode != 0 && mode != 1) {
+			return;
+		}
+		final TestCollectionRunner runner = new TestCollectionRunner();
+		runner.setParallelism(mode == 0 ? 1 : COLLECTION_PARALLELISM);
+
+		setCurrentResponse(null);
+		showTimings(null, null);
+		resultHeadersList.removeAll();
+		browserAction.setChecked(false);
+		rawAction.setChecked(true);
+		pageBook.showPage(PAGE1_KEY);
+
+		Job aJob = new Job(JBossWSUIMessages.JAXRSWSTestView2_Collection_Job) {
+			protected IStatus run(IProgressMonitor monitor) {
+				monitor.beginTask(JBossWSUIMessages.JAXRSWSTestView2_Collection_Job, IProgressMonitor.UNKNOWN);
 				try {
-					if (!itRan && serviceNSMessage != null && serviceNSMessage.length == 3) { 
-						itRan = true;
-						// 	call the service
-						tester.doTest(monitor, url, action, serviceNSMessage[0], serviceNSMessage[1], serviceNSMessage[2], body, uid, pwd);
-					} else {
-						break;
+					TestCollectionResult result = runner.run(collection, monitor, new TestCollectionRunner.Listener() {
+						public void progress(TestCollectionResult current) {
+							final String report = current.toReport();
+							PlatformUI.getWorkbench().getDisplay().asyncExec(new Runnable() {
+								public void run() {
+									if (!JAXRSWSTestView2.this.resultsText.isDisposed()) {
+										JAXRSWSTestView2.this.resultsText.setText(report);
+									}
+								}
+							});
+						}
+					});
+					if (result.isCancelled()) {
+						return new WSTestStatus(IStatus.OK, JBossWSUIPlugin.PLUGIN_ID,
+								JBossWSUIMessages.JAXRSWSTestView_Message_Service_Invocation_Cancelled);
 					}
-				} catch (InterruptedException ie) {
-					monitor.setCanceled(true);
+					WSTestStatus status = new WSTestStatus(IStatus.OK, JBossWSUIPlugin.PLUGIN_ID, 
+							NLS.bind(JBossWSUIMessages.JAXRSWSTestView2_Collection_Success_Status,
+									result.getPassed(), result.getFailed()));
+					status.setResultsText(result.toReport());
+					return status;
+				} finally {
+					monitor.done();
 				}
 			}
-			if (monitor.isCanceled()) {
-				WSTestStatus status = new WSTestStatus(IStatus.OK, 
-						JBossWSUIPlugin.PLUGIN_ID, 
-						JBossWSUIMessages.JAXRSWSTestView_Message_Service_Invocation_Cancelled);
-				return status;
+		};
+		aJob.setUser(true);
+		aJob.schedule();
+	}
+
+	/*
+	 * Send the current request repeatedly, as configured in the load test
+	 * dialog, and display the statistics in the response body while the
+	 * test runs
+	 */
+	private void handleLoadTest(final String wsTech, final String url, final String action, final String body,
+			final String method, final String parms, final String headers, final String uid, final String pwd) {
+		LoadTestDialog dialog = new LoadTestDialog(getSite().getShell());
+		if (dialog.open() != Window.OK) {
+			return;
+		}
+		final WSLoadTester loadTester = new WSLoadTester();
+		dialog.configure(loadTester);
+
+		final WSLoadTester.Request request;
+		if (wsTech.equalsIgnoreCase(JAX_RS)) {
+			final String rsBody = method.equalsIgnoreCase(GET) || body.trim().length() == 0 ? null : body;
+			final HashMap<String, String> parameters = DelimitedStringList.parseNameValuePairs(parms);
+			final HashMap<String, String> headersMap = DelimitedStringList.parseNameValuePairs(headers);
+			request = new LoadTestRequest<JAXRSTester>() {
+				protected JAXRSTester createTester() {
+					return new JAXRSTester();
+				}
+
+				protected String invoke(JAXRSTester tester, IProgressMonitor monitor) throws Exception {
+					tester.doTest(url, parameters, headersMap, method, rsBody, null, -1, uid, pwd);
+					if (tester.getResultSpool() != null) {
+						tester.getResultSpool().dispose();
+					}
+					int statusCode = tester.getResultStatusCode();
+					return statusCode < 400 ? null : "HTTP " + statusCode; //$NON-NLS-1$
+				}
+
+				protected void abort(JAXRSTester tester) {
+					tester.abort();
+				}
+			};
+		} else {
+			final String[] nsMessage = getCurrentHistoryEntry().getServiceNSMessage();
+			if (nsMessage == null || nsMessage.length != 3) {
+				return;
+			}
+			request = new LoadTestRequest<JAXWSTester2>() {
+				protected JAXWSTester2 createTester() {
+					return new JAXWSTester2();
+				}
+
+				protected String invoke(JAXWSTester2 tester, IProgressMonitor monitor) throws Exception {
+					tester.doTest(monitor, url, action, nsMessage[0], nsMessage[1], nsMessage[2], body, uid, pwd);
+					if (tester.getResultSpool() != null) {
+						tester.getResultSpool().dispose();
+					}
+					return null;
+				}
+
+				protected void abort(JAXWSTester2 tester) {
+					tester.abort();
+				}
+			};
+		}
+
+		setCurrentResponse(null);
+		showTimings(null, null);
+		resultHeadersList.removeAll();
+		browserAction.setChecked(false);
+		rawAction.setChecked(true);
+		pageBook.showPage(PAGE1_KEY);
+
+		Job aJob = new Job(JBossWSUIMessages.JAXRSWSTestView2_LoadTest_Job) {
+			protected IStatus run(IProgressMonitor monitor) {
+				monitor.beginTask(JBossWSUIMessages.JAXRSWSTestView2_LoadTest_Job, IProgressMonitor.UNKNOWN);
+				try {
+					LoadTestResult result = loadTester.run(request, monitor, new WSLoadTester.Listener() {
+						public void progress(LoadTestResult current) {
+							final String report = current.toReport();
+							PlatformUI.getWorkbench().getDisplay().asyncExec(new Runnable() {
+								public void run() {
+									if (!JAXRSWSTestView2.this.resultsText.isDisposed()) {
+										JAXRSWSTestView2.this.resultsText.setText(report);
+									}
+								}
+							});
+						}
+					});
+					if (monitor.isCanceled()) {
+						return new WSTestStatus(IStatus.OK, JBossWSUIPlugin.PLUGIN_ID,
+								JBossWSUIMessages.JAXRSWSTestView_Message_Service_Invocation_Cancelled);
+					}
+					WSTestStatus status = new WSTestStatus(IStatus.OK, JBossWSUIPlugin.PLUGIN_ID, 
+							JBossWSUIMessages.JAXRSWSTestView2_LoadTest_Success_Status);
+					status.setResultsText(result.toReport());
+					return status;
+				} catch (InterruptedException e) {
+					return Status.CANCEL_STATUS;
+				} finally {
+					monitor.done();
+				}
+			}
+		};
+		aJob.setUser(true);
+		aJob.schedule();
+	}
+
+	/*
+	 * A request of a load test, which keeps its testers in progress so that
+	 * they can be aborted when the load test is cancelled (like the requests
+	 * of a TestCollectionRunner)
+	 */
+	private static abstract class LoadTestRequest<T> implements WSLoadTester.Request {
+
+		private final Set<T> testers = new HashSet<T>();
+
+		public String invoke(IProgressMonitor monitor) throws Exception {
+			T tester = createTester();
+			synchronized (testers) {
+				testers.add(tester);
 			}
-			if (!itRan) {
+			try {
+				// cancelled since the last check of the load tester
+				if (monitor.isCanceled()) {
+					throw new InterruptedException();
+				}
+				return invoke(tester, monitor);
+			} finally {
+				synchronized (testers) {
+					testers.remove(tester);
+				}
+			}
+		}
+
+		public void abort() {
+			java.util.List<T> running;
+			synchronized (testers) {
+				running = new ArrayList<T>(testers);
+			}
+			for (T tester : running) {
+				abort(tester);
+			}
+		}
+
+		protected abstract T createTester();
+
+		protected abstract String invoke(T tester, IProgressMonitor monitor) throws Exception;
+
+		protected abstract void abort(T tester);
+	}
+
+	/*
+	 * Actually call the WS and displays the result 
+	 */
+	private IStatus handleWSTest(final IProgressMonitor monitor, final String url, final String action, 
+			final String body, final String uid, final String pwd) {
+		try {
+
+			envelope = null;
+			soapbody = null;
+			monitor.worked(10);
+			final JAXWSTester2 tester = new JAXWSTester2();
+			serviceNSMessage = getCurrentHistoryEntry().getServiceNSMessage();
+			if (serviceNSMessage == null || serviceNSMessage.length != 3) {
 				WSTestStatus status = new WSTestStatus(IStatus.OK, 
 						JBossWSUIPlugin.PLUGIN_ID, 
 						JBossWSUIMessages.JAXRSWSTestView_Message_Unsuccessful_Test);
 				return status;
 			}
+			final String[] nsMessage = serviceNSMessage;
+			try {
+				// call the service, the engine aborts it as soon as the monitor is cancelled
+				WSTestEngine.getDefault().invoke(new WSTestEngine.Request<Object>() {
+					public Object execute() throws Exception {
+						tester.doTest(null, url, action, nsMessage[0], nsMessage[1], nsMessage[2], body, uid, pwd);
+						return null;
+					}
+					public void abort() {
+						tester.abort();
+					}
+				}, monitor);
+			} catch (InterruptedException ie) {
+				return getCancelledStatus();
+			} catch (TimeoutException te) {
+				return getTimedOutStatus();
+			}
 			monitor.worked(70);
 			String result = tester.getResultBody();
 			envelope = tester.getResultSOAP();
@@ -1830,6 +2331,8 @@ public class JAXRSWSTestView2 extends ViewPart {
 					JBossWSUIPlugin.PLUGIN_ID, 
 					JBossWSUIMessages.JAXRSWSTestView_JAXWS_Success_Status);
 			status.setResultsText(cleanedUp);
+			status.setResponse(tester.getResultSpool());
+			status.setTimings(tester.getResultTimings());
 			monitor.worked(10);
 
 			String listText = EMPTY_STRING;
@@ -1890,10 +2393,22 @@ public class JAXRSWSTestView2 extends ViewPart {
 		}
 	}
 
+	private static WSTestStatus getCancelledStatus() {
+		return new WSTestStatus(IStatus.OK, JBossWSUIPlugin.PLUGIN_ID,
+				JBossWSUIMessages.JAXRSWSTestView_Message_Service_Invocation_Cancelled);
+	}
+
+	private static WSTestStatus getTimedOutStatus() {
+		return new WSTestStatus(IStatus.OK, JBossWSUIPlugin.PLUGIN_ID,
+				NLS.bind(JBossWSUIMessages.JAXRSWSTestView2_Msg_Request_Timed_Out,
+						WSTestEngine.getDefault().getTimeout()));
+	}
+
 	/*
 	 * Actually call the RESTful WS to test it
 	 */
-	private IStatus handleRSTest(final IProgressMonitor monitor, String address, String method, String body, String parms, String headersStr, String uid, String pwd) {
+	private IStatus handleRSTest(final IProgressMonitor monitor, final String address, final String method, 
+			String body, String parms, String headersStr, final String uid, final String pwd) {
 
 		if (method.equalsIgnoreCase(GET))
 			body = EMPTY_STRING;
@@ -1904,43 +2419,28 @@ public class JAXRSWSTestView2 extends ViewPart {
 		monitor.worked(10);
 
 		// Process parameters for web service call
-		HashMap<String, String> parameters = new HashMap<String, String>();
-		if (parms != null && parms.length() > 0) {
-			String[] parsedList = DelimitedStringList.parseString(parms , ","); //$NON-NLS-1$
-			if (parsedList != null && parsedList.length > 0) {
-				for (int i = 0; i < parsedList.length; i++) {
-					String nameValuePair = parsedList[i];
-					String[] nameAndValue = DelimitedStringList.parseString(nameValuePair, "="); //$NON-NLS-1$
-					if (nameAndValue != null && nameAndValue.length == 2) {
-						parameters.put(nameAndValue[0], nameAndValue[1]);
-					}
-				}
-			}
-		}
+		final HashMap<String, String> parameters = DelimitedStringList.parseNameValuePairs(parms);
 
 		monitor.worked(10);
 		// Process headers for web service call
-		HashMap<String, String> headers = new HashMap<String, String>();
-		if (headersStr != null && headersStr.length() > 0) {
-			String[] parsedList = DelimitedStringList.parseString(headersStr , ","); //$NON-NLS-1$
-			if (parsedList != null && parsedList.length > 0) {
-				for (int i = 0; i < parsedList.length; i++) {
-					String nameValuePair = parsedList[i];
-					String[] nameAndValue = DelimitedStringList.parseString(nameValuePair, "="); //$NON-NLS-1$
-					if (nameAndValue != null && nameAndValue.length == 2) {
-						headers.put(nameAndValue[0], nameAndValue[1]);
-					}
-				}
-			}
-		}
+		final HashMap<String, String> headers = DelimitedStringList.parseNameValuePairs(headersStr);
 
-		JAXRSTester tester = new JAXRSTester();
+		final JAXRSTester tester = new JAXRSTester();
+		final String requestBody = body;
 
 		// now actually call it
 		try {
 
-			// call the service
-			tester.doTest(address, parameters, headers, method, body, null, -1, uid, pwd);
+			// call the service, the engine aborts it as soon as the monitor is cancelled
+			WSTestEngine.getDefault().invoke(new WSTestEngine.Request<Object>() {
+				public Object execute() throws Exception {
+					tester.doTest(address, parameters, headers, method, requestBody, null, -1, uid, pwd);
+					return null;
+				}
+				public void abort() {
+					tester.abort();
+				}
+			}, monitor);
 
 			String result = tester.getResultBody();
 
@@ -1951,6 +2451,8 @@ public class JAXRSWSTestView2 extends ViewPart {
 					JBossWSUIPlugin.PLUGIN_ID, 
 					JBossWSUIMessages.JAXRSWSTestView_JAXRS_Success_Status);
 			status.setResultsText(cleanedUp);
+			status.setResponse(tester.getResultSpool());
+			status.setTimings(tester.getResultTimings());
 
 			String listText = EMPTY_STRING;
 			if (tester.getResultHeaders() != null) {
@@ -1973,6 +2475,10 @@ public class JAXRSWSTestView2 extends ViewPart {
 			monitor.worked(10);
 			return status;
 
+		} catch (InterruptedException ie) {
+			return getCancelledStatus();
+		} catch (TimeoutException te) {
+			return getTimedOutStatus();
 		} catch (Exception e) {
 			String result = tester.getResultBody();
 			if (result.isEmpty()) 
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.views;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.jboss.tools.ws.ui.utils.ResponseSpool;
+
+/**
+ * Check made on the response of a request of a {@link TestCollection}
+ */
+public class TestAssertion {
+
+	public enum Type {
+
+		/** the status code is the expected one, ie: "200", or "2xx" for any success */
+		STATUS("status"), //$NON-NLS-1$
+
+		/** the response has the header, ie: "Content-Type" or "Content-Type: text/xml" */
+		HEADER("header"), //$NON-NLS-1$
+
+		/** the response body contains the expected text */
+		BODY("body"), //$NON-NLS-1$
+
+		/** the response was received within the expected number of milliseconds */
+		TIME("time"); //$NON-NLS-1$
+
+		private final String id;
+
+		private Type(String id) {
+			this.id = id;
+		}
+
+		/**
+		 * @return the name of the type in collection files
+		 */
+		public String getId() {
+			return id;
+		}
+
+		/**
+		 * @param id
+		 * @return the type with the given name, or null if there is none
+		 */
+		public static Type fromId(String id) {
+			for (Type type : values()) {
+				if (type.id.equalsIgnoreCase(id)) {
+					return type;
+				}
+			}
+			return null;
+		}
+	}
+
+	private final Type type;
+	private final String expected;
+
+	/**
+	 * Constructor
+	 * @param type
+	 * @param expected the expected value, whose format depends on the type
+	 */
+	public TestAssertion(Type type, String expected) {
+		this.type = type;
+		this.expected = expected != null ? expected.trim() : ""; //$NON-NLS-1$
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public String getExpected() {
+		return expected;
+	}
+
+	/**
+	 * Check a response
+	 * @param statusCode the HTTP status code, or -1 if it is unknown
+	 * @param headers the response headers (may be null)
+	 * @param body the response body (may be null)
+	 * @param time the response time in milliseconds
+	 * @return null if the response is as expected, or a description of the failure
+	 */
+	public String check(int statusCode, Map<?, ?> headers, String body, long time) {
+		switch (type) {
+		case STATUS:
+			String actual = Integer.toString(statusCode);
+			if (actual.length() == expected.length()) {
+				boolean matches = true;
+				for (int i = 0; i < expected.length() && matches; i++) {
+					char c = Character.toLowerCase(expected.charAt(i));
+					matches = c == 'x' || c == actual.charAt(i);
+				}
+				if (matches) {
+					return null;
+				}
+			}
+			return "status " + statusCode + ", expected " + expected; //$NON-NLS-1$ //$NON-NLS-2$
+		case HEADER:
+			int colon = expected.indexOf(':');
+			String name = colon < 0 ? expected : expected.substring(0, colon).trim();
+			String value = colon < 0 ? null : expected.substring(colon + 1).trim();
+			String headerValue = getHeader(headers, name);
+			if (headerValue == null) {
+				return "no " + name + " header"; //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			if (value != null && !headerValue.contains(value)) {
+				return name + ": " + headerValue + ", expected " + value; //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			return null;
+		case BODY:
+			if (body == null || !body.contains(expected)) {
+				return "body does not contain \"" + expected + '"'; //$NON-NLS-1$
+			}
+			return null;
+		case TIME:
+			try {
+				long maxTime = Long.parseLong(expected);
+				if (time > maxTime) {
+					return time + " ms, expected at most " + maxTime + " ms"; //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				return null;
+			} catch (NumberFormatException e) {
+				return "invalid time: " + expected; //$NON-NLS-1$
+			}
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Check a response, searching the whole body rather than its preview
+	 * @param statusCode the HTTP status code, or -1 if it is unknown
+	 * @param headers the response headers (may be null)
+	 * @param spool the response body
+	 * @param charset the charset of the body, or null for the platform default
+	 * @param time the response time in milliseconds
+	 * @return null if the response is as expected, or a description of the failure
+	 * @throws IOException if the spooled body can't be read
+	 */
+	public String check(int statusCode, Map<?, ?> headers, ResponseSpool spool, String charset, long time)
+			throws IOException {
+		if (type == Type.BODY && spool.isTruncated()) {
+			return check(statusCode, headers, spool.contains(expected, charset) ? expected : null, time);
+		}
+		return check(statusCode, headers, type == Type.BODY ? spool.getPreview(charset) : null, time);
+	}
+
+	/*
+	 * Header names are case insensitive, and the values of a multi-valued
+	 * header are joined
+	 */
+	private static String getHeader(Map<?, ?> headers, String name) {
+		if (headers == null) {
+			return null;
+		}
+		Iterator<?> iter = headers.entrySet().iterator();
+		while (iter.hasNext()) {
+			Entry<?, ?> entry = (Entry<?, ?>) iter.next();
+			if (entry.getKey() != null && entry.getKey().toString().equalsIgnoreCase(name)) {
+				Object value = entry.getValue();
+				if (value instanceof List<?>) {
+					StringBuilder sb = new StringBuilder();
+					for (Object part : (List<?>) value) {
+						if (sb.length() > 0) {
+							sb.append(", "); //$NON-NLS-1$
+						}
+						sb.append(part);
+					}
+					return sb.toString();
+				}
+				return value != null ? value.toString() : ""; //$NON-NLS-1$
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return type.getId() + ' ' + expected;
+	}
+}
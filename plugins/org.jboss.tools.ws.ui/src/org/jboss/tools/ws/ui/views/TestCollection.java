@@ -0,0 +1,310 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.views;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * A named list of requests of the WS Tester, with the checks to make on
+ * their responses, which can be saved to a file and replayed as a suite by
+ * {@link TestCollectionRunner}.
+ *
+ * Collections are saved as XML (*.wstests files):
+ * <pre>
+ * &lt;collection name="Orders API"&gt;
+ *   &lt;request tech="JAX-RS" method="GET" url="http://localhost:8080/orders"&gt;
+ *     &lt;headers&gt;Accept=application/json&lt;/headers&gt;
+ *     &lt;assert type="status"&gt;2xx&lt;/assert&gt;
+ *     &lt;assert type="header"&gt;Content-Type: application/json&lt;/assert&gt;
+ *     &lt;assert type="body"&gt;"id"&lt;/assert&gt;
+ *     &lt;assert type="time"&gt;500&lt;/assert&gt;
+ *   &lt;/request&gt;
+ *   &lt;request tech="JAX-WS" url="http://localhost:8080/quotes" action="urn:getQuote"&gt;
+ *     &lt;service namespace="urn:quotes" name="QuoteService" port="QuotePort"/&gt;
+ *     &lt;body&gt;&lt;![CDATA[&lt;soap:Envelope .../&gt;]]&gt;&lt;/body&gt;
+ *   &lt;/request&gt;
+ * &lt;/collection&gt;
+ * </pre>
+ */
+public class TestCollection {
+
+	/** extension of collection files */
+	public static final String FILE_EXTENSION = "wstests"; //$NON-NLS-1$
+
+	private static final String COLLECTION = "collection"; //$NON-NLS-1$
+	private static final String REQUEST = "request"; //$NON-NLS-1$
+	private static final String SERVICE = "service"; //$NON-NLS-1$
+	private static final String HEADERS = "headers"; //$NON-NLS-1$
+	private static final String PARAMETERS = "parameters"; //$NON-NLS-1$
+	private static final String BODY = "body"; //$NON-NLS-1$
+	private static final String ASSERT = "assert"; //$NON-NLS-1$
+	private static final String NAME = "name"; //$NON-NLS-1$
+	private static final String TECH = "tech"; //$NON-NLS-1$
+	private static final String METHOD = "method"; //$NON-NLS-1$
+	private static final String URL = "url"; //$NON-NLS-1$
+	private static final String ACTION = "action"; //$NON-NLS-1$
+	private static final String SOAP12 = "soap12"; //$NON-NLS-1$
+	private static final String NAMESPACE = "namespace"; //$NON-NLS-1$
+	private static final String PORT = "port"; //$NON-NLS-1$
+	private static final String TYPE = "type"; //$NON-NLS-1$
+
+	/**
+	 * A request of the collection
+	 */
+	public static class Item {
+
+		private final TestHistoryEntry entry;
+		private final List<TestAssertion> assertions = new ArrayList<TestAssertion>();
+
+		public Item(TestHistoryEntry entry) {
+			this.entry = entry;
+		}
+
+		/**
+		 * @return the request (its result fields are not used)
+		 */
+		public TestHistoryEntry getEntry() {
+			return entry;
+		}
+
+		public List<TestAssertion> getAssertions() {
+			return assertions;
+		}
+
+		public void addAssertion(TestAssertion assertion) {
+			assertions.add(assertion);
+		}
+	}
+
+	private String name;
+	private final List<Item> items = new ArrayList<Item>();
+
+	public TestCollection(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Create a collection holding the entries of the test history, oldest first
+	 * @param history
+	 * @param name
+	 * @return TestCollection
+	 */
+	public static TestCollection fromHistory(TestHistory history, String name) {
+		TestCollection collection = new TestCollection(name);
+		Iterator<TestHistoryEntry> iter = history.getEntries().iterator();
+		while (iter.hasNext()) {
+			collection.addItem(new Item(iter.next()));
+		}
+		return collection;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public List<Item> getItems() {
+		return items;
+	}
+
+	public void addItem(Item item) {
+		items.add(item);
+	}
+
+	/**
+	 * Save the collection to a file
+	 * @param file
+	 * @throws IOException
+	 */
+	public void save(File file) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			save(out);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Write the collection as XML
+	 * @param out (not closed)
+	 * @throws IOException
+	 */
+	public void save(OutputStream out) throws IOException {
+		try {
+			Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+			Element root = doc.createElement(COLLECTION);
+			setAttribute(root, NAME, name);
+			doc.appendChild(root);
+			for (Item item : items) {
+				TestHistoryEntry entry = item.getEntry();
+				Element request = doc.createElement(REQUEST);
+				setAttribute(request, TECH, entry.getWsTech());
+				setAttribute(request, METHOD, entry.getMethod());
+				setAttribute(request, URL, entry.getUrl());
+				setAttribute(request, ACTION, entry.getAction());
+				if (entry.isSOAP12()) {
+					request.setAttribute(SOAP12, Boolean.TRUE.toString());
+				}
+				String[] serviceNSMessage = entry.getServiceNSMessage();
+				if (serviceNSMessage != null && serviceNSMessage.length == 3) {
+					Element service = doc.createElement(SERVICE);
+					setAttribute(service, NAMESPACE, serviceNSMessage[0]);
+					setAttribute(service, NAME, serviceNSMessage[1]);
+					setAttribute(service, PORT, serviceNSMessage[2]);
+					request.appendChild(service);
+				}
+				appendText(request, HEADERS, entry.getHeaders());
+				appendText(request, PARAMETERS, entry.getParms());
+				if (entry.getBody() != null && entry.getBody().length() > 0) {
+					Element body = doc.createElement(BODY);
+					body.appendChild(doc.createCDATASection(entry.getBody()));
+					request.appendChild(body);
+				}
+				for (TestAssertion assertion : item.getAssertions()) {
+					// the expected value of an assertion is never null
+					Element element = appendText(request, ASSERT, assertion.getExpected());
+					element.setAttribute(TYPE, assertion.getType().getId());
+				}
+				root.appendChild(request);
+			}
+			Transformer transformer = TransformerFactory.newInstance().newTransformer();
+			transformer.setOutputProperty(OutputKeys.INDENT, "yes"); //$NON-NLS-1$
+			transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8"); //$NON-NLS-1$
+			transformer.transform(new DOMSource(doc), new StreamResult(out));
+		} catch (ParserConfigurationException e) {
+			throw new IOException(e.getMessage());
+		} catch (TransformerException e) {
+			throw new IOException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Read a collection from a file
+	 * @param file
+	 * @return TestCollection
+	 * @throws IOException if the file can't be read or isn't a collection
+	 */
+	public static TestCollection load(File file) throws IOException {
+		InputStream in = new FileInputStream(file);
+		try {
+			return load(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Read a collection written by {@link #save(OutputStream)}
+	 * @param in (not closed)
+	 * @return TestCollection
+	 * @throws IOException if the stream can't be read or isn't a collection
+	 */
+	public static TestCollection load(InputStream in) throws IOException {
+		Document doc;
+		try {
+			doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(in);
+		} catch (ParserConfigurationException e) {
+			throw new IOException(e.getMessage());
+		} catch (SAXException e) {
+			throw new IOException(e.getMessage());
+		}
+		Element root = doc.getDocumentElement();
+		if (!COLLECTION.equals(root.getTagName())) {
+			throw new IOException("Not a test collection: " + root.getTagName()); //$NON-NLS-1$
+		}
+		TestCollection collection = new TestCollection(getAttribute(root, NAME));
+		NodeList requests = root.getElementsByTagName(REQUEST);
+		for (int i = 0; i < requests.getLength(); i++) {
+			Element request = (Element) requests.item(i);
+			TestHistoryEntry entry = new TestHistoryEntry();
+			entry.setWsTech(getAttribute(request, TECH));
+			entry.setMethod(getAttribute(request, METHOD));
+			entry.setUrl(getAttribute(request, URL));
+			entry.setAction(getAttribute(request, ACTION));
+			entry.setSOAP12(Boolean.parseBoolean(request.getAttribute(SOAP12)));
+			Item item = new Item(entry);
+			for (Node node = request.getFirstChild(); node != null; node = node.getNextSibling()) {
+				if (!(node instanceof Element)) {
+					continue;
+				}
+				Element child = (Element) node;
+				String tag = child.getTagName();
+				if (SERVICE.equals(tag)) {
+					entry.setServiceNSMessage(new String[] { getAttribute(child, NAMESPACE),
+							getAttribute(child, NAME), getAttribute(child, PORT) });
+				} else if (HEADERS.equals(tag)) {
+					entry.setHeaders(child.getTextContent());
+				} else if (PARAMETERS.equals(tag)) {
+					entry.setParms(child.getTextContent());
+				} else if (BODY.equals(tag)) {
+					entry.setBody(child.getTextContent());
+				} else if (ASSERT.equals(tag)) {
+					TestAssertion.Type type = TestAssertion.Type.fromId(child.getAttribute(TYPE));
+					if (type == null) {
+						throw new IOException("Unknown assertion type: " + child.getAttribute(TYPE)); //$NON-NLS-1$
+					}
+					item.addAssertion(new TestAssertion(type, child.getTextContent()));
+				}
+			}
+			collection.addItem(item);
+		}
+		return collection;
+	}
+
+	private static void setAttribute(Element element, String name, String value) {
+		if (value != null) {
+			element.setAttribute(name, value);
+		}
+	}
+
+	private static String getAttribute(Element element, String name) {
+		return element.hasAttribute(name) ? element.getAttribute(name) : null;
+	}
+
+	/*
+	 * Append an element holding the given text, if it is not null
+	 */
+	private static Element appendText(Element parent, String name, String text) {
+		Element element = parent.getOwnerDocument().createElement(name);
+		if (text != null) {
+			element.setTextContent(text);
+			parent.appendChild(element);
+		}
+		return element;
+	}
+}
@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.views;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.tools.ws.ui.utils.RequestTimings;
+import org.jboss.tools.ws.ui.utils.ResponseSpool;
+
+/**
+ * Outcome of the run of a {@link TestCollection}: for each request, its
+ * status, timings and failed assertions.
+ */
+public class TestCollectionResult {
+
+	/**
+	 * Outcome of a single request
+	 */
+	public static class ItemResult {
+
+		private final TestCollection.Item item;
+		private int statusCode = -1;
+		private long time = -1;
+		private long timeToFirstByte = -1;
+		private long size = -1;
+		private RequestTimings timings;
+		private String error;
+		private final List<String> failures = new ArrayList<String>();
+
+		public ItemResult(TestCollection.Item item) {
+			this.item = item;
+		}
+
+		public TestCollection.Item getItem() {
+			return item;
+		}
+
+		public int getStatusCode() {
+			return statusCode;
+		}
+
+		public void setStatusCode(int statusCode) {
+			this.statusCode = statusCode;
+		}
+
+		/**
+		 * @return the response time in milliseconds
+		 */
+		public long getTime() {
+			return time;
+		}
+
+		public void setTime(long time) {
+			this.time = time;
+		}
+
+		/**
+		 * @return the time to the first byte of the response in
+		 * 	milliseconds, or -1 if it is unknown
+		 */
+		public long getTimeToFirstByte() {
+			return timeToFirstByte;
+		}
+
+		public void setTimeToFirstByte(long timeToFirstByte) {
+			this.timeToFirstByte = timeToFirstByte;
+		}
+
+		/**
+		 * @return the size of the response body in bytes, or -1 if it is unknown
+		 */
+		public long getSize() {
+			return size;
+		}
+
+		public void setSize(long size) {
+			this.size = size;
+		}
+
+		/**
+		 * @return the time spent in each phase of the request, or null
+		 * 	if it is unknown
+		 */
+		public RequestTimings getTimings() {
+			return timings;
+		}
+
+		public void setTimings(RequestTimings timings) {
+			this.timings = timings;
+		}
+
+		/**
+		 * @return the reason why the request failed, or null if a response
+		 * 	was received
+		 */
+		public String getError() {
+			return error;
+		}
+
+		public void setError(String error) {
+			this.error = error;
+		}
+
+		/**
+		 * @return the descriptions of the failed assertions
+		 */
+		public List<String> getFailures() {
+			return failures;
+		}
+
+		public void addFailure(String failure) {
+			failures.add(failure);
+		}
+
+		public boolean isPassed() {
+			return error == null && failures.isEmpty();
+		}
+	}
+
+	private final TestCollection collection;
+	private final ItemResult[] results;
+	private final long startTime = System.currentTimeMillis();
+	private long endTime = -1;
+	private boolean cancelled = false;
+
+	public TestCollectionResult(TestCollection collection) {
+		this.collection = collection;
+		this.results = new ItemResult[collection.getItems().size()];
+	}
+
+	public TestCollection getCollection() {
+		return collection;
+	}
+
+	/**
+	 * Record the outcome of a request
+	 * @param index the index of the request in the collection
+	 * @param result
+	 */
+	public synchronized void setResult(int index, ItemResult result) {
+		results[index] = result;
+	}
+
+	/**
+	 * @return the outcomes of the requests run so far, in the order of the collection
+	 */
+	public synchronized List<ItemResult> getResults() {
+		List<ItemResult> list = new ArrayList<ItemResult>();
+		for (ItemResult result : results) {
+			if (result != null) {
+				list.add(result);
+			}
+		}
+		return list;
+	}
+
+	public synchronized int getPassed() {
+		int passed = 0;
+		for (ItemResult result : results) {
+			if (result != null && result.isPassed()) {
+				passed++;
+			}
+		}
+		return passed;
+	}
+
+	public synchronized int getFailed() {
+		int failed = 0;
+		for (ItemResult result : results) {
+			if (result != null && !result.isPassed()) {
+				failed++;
+			}
+		}
+		return failed;
+	}
+
+	public synchronized void setFinished(boolean cancelled) {
+		this.endTime = System.currentTimeMillis();
+		this.cancelled = cancelled;
+	}
+
+	public synchronized boolean isFinished() {
+		return endTime >= 0;
+	}
+
+	public synchronized boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * @return the time since the start of the run, or its duration once it
+	 * 	is finished, in milliseconds
+	 */
+	public synchronized long getElapsedTime() {
+		return (endTime >= 0 ? endTime : System.currentTimeMillis()) - startTime;
+	}
+
+	/**
+	 * @return a text report, with a line per request
+	 */
+	public String toReport() {
+		StringBuilder sb = new StringBuilder();
+		if (collection.getName() != null) {
+			sb.append(collection.getName()).append('\n').append('\n');
+		}
+		sb.append(String.format("%-4s %-6s %6s %9s %9s %10s  %s%n", //$NON-NLS-1$
+				"#", "Result", "Status", "Time(ms)", "TTFB(ms)", "Size", "Request")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+		List<TestCollection.Item> items = collection.getItems();
+		for (int i = 0; i < items.size(); i++) {
+			ItemResult result;
+			synchronized (this) {
+				result = results[i];
+			}
+			TestHistoryEntry entry = items.get(i).getEntry();
+			String request = (entry.getMethod() != null ? entry.getMethod() + ' ' : "") + entry.getUrl(); //$NON-NLS-1$
+			if (result == null) {
+				sb.append(String.format("%-4d %-6s %6s %9s %9s %10s  %s%n", //$NON-NLS-1$
+						i + 1, "-", "", "", "", "", request)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+				continue;
+			}
+			sb.append(String.format("%-4d %-6s %6s %9s %9s %10s  %s%n", //$NON-NLS-1$
+					i + 1,
+					result.isPassed() ? "PASS" : "FAIL", //$NON-NLS-1$ //$NON-NLS-2$
+					result.getStatusCode() >= 0 ? Integer.toString(result.getStatusCode()) : "", //$NON-NLS-1$
+					result.getTime() >= 0 ? Long.toString(result.getTime()) : "", //$NON-NLS-1$
+					result.getTimeToFirstByte() >= 0 ? Long.toString(result.getTimeToFirstByte()) : "", //$NON-NLS-1$
+					result.getSize() >= 0 ? ResponseSpool.formatSize(result.getSize()) : "", //$NON-NLS-1$
+					request));
+			if (result.getError() != null) {
+				sb.append("     ! ").append(result.getError()).append('\n'); //$NON-NLS-1$
+			}
+			for (String failure : result.getFailures()) {
+				sb.append("     - ").append(failure).append('\n'); //$NON-NLS-1$
+			}
+		}
+		sb.append('\n');
+		sb.append(String.format("Passed: %d, failed: %d, not run: %d, total time: %d ms%s%n", //$NON-NLS-1$
+				getPassed(), getFailed(), items.size() - getPassed() - getFailed(), getElapsedTime(),
+				isCancelled() ? " (cancelled)" : "")); //$NON-NLS-1$ //$NON-NLS-2$
+		return sb.toString();
+	}
+}
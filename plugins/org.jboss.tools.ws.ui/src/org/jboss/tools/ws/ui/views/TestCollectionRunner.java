@@ -0,0 +1,256 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.views;
+
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.osgi.util.NLS;
+import org.jboss.tools.ws.ui.messages.JBossWSUIMessages;
+import org.jboss.tools.ws.ui.utils.JAXRSTester;
+import org.jboss.tools.ws.ui.utils.JAXWSTester2;
+import org.jboss.tools.ws.ui.utils.RequestTimings;
+import org.jboss.tools.ws.ui.utils.ResponseSpool;
+import org.jboss.tools.ws.ui.utils.WSTestEngine;
+
+/**
+ * Sends the requests of a {@link TestCollection}, one after the other or
+ * several at a time, and checks their responses against the assertions of
+ * the collection.
+ */
+public class TestCollectionRunner {
+
+	/**
+	 * Notified each time a request of the collection completes
+	 */
+	public interface Listener {
+
+		/**
+		 * @param result the outcome of the requests run so far
+		 */
+		void progress(TestCollectionResult result);
+	}
+
+	private static final String JAX_WS = "JAX-WS"; //$NON-NLS-1$
+	private static final String GET = "GET"; //$NON-NLS-1$
+	private static final long NANOS_PER_MILLI = 1000000;
+
+	private final WSTestEngine engine;
+	private int parallelism = 1;
+
+	/**
+	 * Constructor, using the engine of the WS Tester
+	 */
+	public TestCollectionRunner() {
+		this(WSTestEngine.getDefault());
+	}
+
+	/**
+	 * Constructor
+	 * @param engine sends the requests
+	 */
+	public TestCollectionRunner(WSTestEngine engine) {
+		this.engine = engine;
+	}
+
+	/**
+	 * @param parallelism the number of requests sent at the same time
+	 * 	(1 to run the collection sequentially)
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Run the collection and wait for its completion
+	 * @param collection
+	 * @param monitor used for cancellation (may be null)
+	 * @param listener notified of each completed request (may be null)
+	 * @return the outcome of the requests, which is partial if the run was cancelled
+	 */
+	public TestCollectionResult run(TestCollection collection, IProgressMonitor monitor, Listener listener) {
+		TestCollectionResult result = new TestCollectionResult(collection);
+		List<TestCollection.Item> items = collection.getItems();
+		LinkedList<Integer> pendingIndexes = new LinkedList<Integer>();
+		LinkedList<Future<TestCollectionResult.ItemResult>> pending =
+			new LinkedList<Future<TestCollectionResult.ItemResult>>();
+		boolean cancelled = false;
+		try {
+			for (int i = 0; i <= items.size() && !cancelled; i++) {
+				// wait for a slot, or for the remaining requests once all are sent
+				while (!pending.isEmpty() && (pending.size() >= parallelism || i == items.size())) {
+					int index = pendingIndexes.removeFirst();
+					Future<TestCollectionResult.ItemResult> future = pending.removeFirst();
+					try {
+						result.setResult(index, WSTestEngine.await(future, monitor));
+					} catch (InterruptedException e) {
+						cancelled = true;
+						break;
+					} catch (TimeoutException e) {
+						TestCollectionResult.ItemResult timedOut = new TestCollectionResult.ItemResult(items.get(index));
+						timedOut.setError(NLS.bind(JBossWSUIMessages.TestCollectionRunner_No_Response, engine.getTimeout()));
+						result.setResult(index, timedOut);
+					} catch (Exception e) {
+						// requests report their own failures, this is unexpected
+						TestCollectionResult.ItemResult failed = new TestCollectionResult.ItemResult(items.get(index));
+						failed.setError(e.toString());
+						result.setResult(index, failed);
+					}
+					if (listener != null) {
+						listener.progress(result);
+					}
+				}
+				if (i < items.size() && !cancelled) {
+					pendingIndexes.addLast(i);
+					pending.addLast(engine.submit(new ItemRequest(items.get(i))));
+				}
+			}
+		} finally {
+			for (Future<TestCollectionResult.ItemResult> future : pending) {
+				future.cancel(true);
+			}
+			result.setFinished(cancelled);
+		}
+		if (listener != null) {
+			listener.progress(result);
+		}
+		return result;
+	}
+
+	/*
+	 * Sends a request of the collection and checks its response
+	 */
+	private static class ItemRequest implements WSTestEngine.Request<TestCollectionResult.ItemResult> {
+
+		private final TestCollection.Item item;
+		private volatile JAXRSTester rsTester;
+		private volatile JAXWSTester2 wsTester;
+		private volatile boolean aborted = false;
+
+		ItemRequest(TestCollection.Item item) {
+			this.item = item;
+		}
+
+		public TestCollectionResult.ItemResult execute() throws Exception {
+			TestCollectionResult.ItemResult result = new TestCollectionResult.ItemResult(item);
+			TestHistoryEntry entry = item.getEntry();
+			int statusCode = -1;
+			Map<?, ?> headers = null;
+			String body = null;
+			String charset = null;
+			ResponseSpool spool = null;
+			RequestTimings timings = null;
+			long start = System.nanoTime();
+			try {
+				if (JAX_WS.equalsIgnoreCase(entry.getWsTech())) {
+					String[] nsMessage = entry.getServiceNSMessage();
+					if (nsMessage == null || nsMessage.length != 3) {
+						result.setError(JBossWSUIMessages.TestCollectionRunner_No_Service_Port);
+						return result;
+					}
+					wsTester = new JAXWSTester2();
+					if (aborted) {
+						throw new InterruptedException();
+					}
+					wsTester.doTest(null, entry.getUrl(), entry.getAction(), nsMessage[0], nsMessage[1],
+							nsMessage[2], entry.getBody());
+					headers = wsTester.getResultHeaders();
+					body = wsTester.getResultBody();
+					spool = wsTester.getResultSpool();
+					timings = wsTester.getResultTimings();
+					// a SOAP response without status line is a success, faults are thrown
+					statusCode = JAXRSTester.getStatusCode(headers);
+					if (statusCode < 0) {
+						statusCode = 200;
+					}
+				} else {
+					String method = entry.getMethod() != null ? entry.getMethod() : GET;
+					String requestBody = entry.getBody();
+					if (GET.equalsIgnoreCase(method) || requestBody == null || requestBody.trim().length() == 0) {
+						requestBody = null;
+					}
+					rsTester = new JAXRSTester();
+					if (aborted) {
+						throw new InterruptedException();
+					}
+					rsTester.doTest(entry.getUrl(), DelimitedStringList.parseNameValuePairs(entry.getParms()),
+							DelimitedStringList.parseNameValuePairs(entry.getHeaders()), method, requestBody,
+							null, -1, null, null);
+					headers = rsTester.getResultHeaders();
+					body = rsTester.getResultBody();
+					spool = rsTester.getResultSpool();
+					charset = rsTester.getResultCharset();
+					timings = rsTester.getResultTimings();
+					statusCode = rsTester.getResultStatusCode();
+				}
+			} catch (InterruptedException e) {
+				throw e;
+			} catch (Exception e) {
+				Throwable cause = e;
+				while (cause.getCause() != null) {
+					cause = cause.getCause();
+				}
+				result.setError(cause.toString());
+				result.setTime((System.nanoTime() - start) / NANOS_PER_MILLI);
+				return result;
+			}
+
+			long time = (System.nanoTime() - start) / NANOS_PER_MILLI;
+			if (spool != null) {
+				time = spool.getTotalTime();
+				result.setTimeToFirstByte(spool.getTimeToFirstByte());
+				result.setSize(spool.getSize());
+			}
+			result.setStatusCode(statusCode);
+			result.setTime(time);
+			result.setTimings(timings);
+			try {
+				for (TestAssertion assertion : item.getAssertions()) {
+					// the body is searched whole, not only its preview
+					String failure = spool != null
+							? assertion.check(statusCode, headers, spool, charset, time)
+							: assertion.check(statusCode, headers, body, time);
+					if (failure != null) {
+						result.addFailure(failure);
+					}
+				}
+			} catch (IOException e) {
+				result.setError(e.toString());
+			} finally {
+				if (spool != null) {
+					spool.dispose();
+				}
+			}
+			return result;
+		}
+
+		public void abort() {
+			aborted = true;
+			JAXRSTester rs = rsTester;
+			if (rs != null) {
+				rs.abort();
+			}
+			JAXWSTester2 ws = wsTester;
+			if (ws != null) {
+				ws.abort();
+			}
+		}
+	}
+}
@@ -1,5 +1,7 @@
 package org.jboss.tools.ws.ui.views;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Iterator;
 import java.util.Stack;
 
@@ -37,6 +39,30 @@ public class TestHistory {
 		}
 	}
 
+	/**
+	 * Save the requests of the history (not their results), so that it
+	 * survives a restart
+	 * @param file
+	 * @throws IOException
+	 */
+	public void save ( File file ) throws IOException {
+		TestCollection.fromHistory(this, null).save(file);
+	}
+
+	/**
+	 * Add the requests saved by {@link #save(File)}
+	 * @param file
+	 * @throws IOException
+	 */
+	public void load ( File file ) throws IOException {
+		TestCollection collection = TestCollection.load(file);
+		for (TestCollection.Item item : collection.getItems()) {
+			if (item.getEntry().getUrl() != null) {
+				addEntry(item.getEntry());
+			}
+		}
+	}
+
 	@Override
 	public String toString() {
 		String result = "TestHistory [entries= \n";  //$NON-NLS-1$
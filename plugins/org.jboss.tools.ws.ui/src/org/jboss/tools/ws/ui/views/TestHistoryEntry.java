@@ -8,6 +8,7 @@ import javax.wsdl.Definition;
 import javax.wsdl.WSDLException;
 
 import org.jboss.tools.ws.ui.JBossWSUIPlugin;
+import org.jboss.tools.ws.ui.utils.RequestTimings;
 import org.jboss.tools.ws.ui.utils.TesterWSDLUtils;
 
 public class TestHistoryEntry implements Cloneable{
@@ -28,6 +29,7 @@ public class TestHistoryEntry implements Cloneable{
 	private Definition wsdlDef = null;
 	private String[] serviceNSMessage = null;
 	private boolean isSOAP12 = false;
+	private RequestTimings resultTimings = null;
 	
 	public TestHistoryEntry() {
 		// empty
@@ -163,6 +165,19 @@ public class TestHistoryEntry implements Cloneable{
 		return isSOAP12;
 	}
 
+	/**
+	 * Set the time spent in each phase of the last run of the request,
+	 * to compare it with the next one
+	 * @param resultTimings
+	 */
+	public void setResultTimings(RequestTimings resultTimings) {
+		this.resultTimings = resultTimings;
+	}
+
+	public RequestTimings getResultTimings() {
+		return resultTimings;
+	}
+
 	@Override
 	public String toString() {
 		return "TestHistoryEntry [url=" + url  //$NON-NLS-1$
@@ -181,6 +196,7 @@ public class TestHistoryEntry implements Cloneable{
 				+ ", wsdlDef=" + wsdlDef  //$NON-NLS-1$
 				+ ", serviceNSMessage=" + Arrays.toString(serviceNSMessage)  //$NON-NLS-1$
 				+ ", isSOAP12=" + isSOAP12 //$NON-NLS-1$
+				+ ", resultTimings=" + resultTimings //$NON-NLS-1$
 				+ "]"; //$NON-NLS-1$
 	}
 
@@ -197,6 +213,7 @@ public class TestHistoryEntry implements Cloneable{
 		newEntry.setPortName(this.getPortName());
 		newEntry.setResultHeadersList(this.getResultHeadersList());
 		newEntry.setResultText(this.getResultText());
+		newEntry.setResultTimings(this.getResultTimings());
 		newEntry.setServiceName(this.getServiceName());
 		newEntry.setServiceNSMessage(this.getServiceNSMessage());
 		newEntry.setSOAP12(this.isSOAP12());
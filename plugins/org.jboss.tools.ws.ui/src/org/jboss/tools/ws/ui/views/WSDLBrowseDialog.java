@@ -38,6 +38,7 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.dialogs.ErrorDialog;
 import org.eclipse.jface.dialogs.IDialogConstants;
 import org.eclipse.jface.dialogs.IMessageProvider;
@@ -71,7 +72,10 @@ import org.eclipse.ui.model.WorkbenchLabelProvider;
 import org.jboss.tools.ws.core.utils.StatusUtils;
 import org.jboss.tools.ws.ui.JBossWSUIPlugin;
 import org.jboss.tools.ws.ui.messages.JBossWSUIMessages;
+import org.jboss.tools.ws.ui.utils.JAXWSDispatchCache;
+import org.jboss.tools.ws.ui.utils.SchemaUtils;
 import org.jboss.tools.ws.ui.utils.TesterWSDLUtils;
+import org.jboss.tools.ws.ui.utils.WSDLDefinitionCache;
 
 /**
  * @author bfitzpat
@@ -84,6 +88,7 @@ public class WSDLBrowseDialog extends TitleAreaDialog {
 	private Button workspaceBrowseButton = null;
 	private Button fsBrowseButton = null;
 	private Button urlBrowseButton = null;
+	private Button refreshButton = null;
 	
 	private static String wsdlTextValue = null;
 	private static String[] oldValues = null;
@@ -105,6 +110,10 @@ public class WSDLBrowseDialog extends TitleAreaDialog {
 
 	private Timer timer;
 
+	// generates the samples of the WSDL being browsed
+	private Job samplesJob = null;
+	private Definition samplesDefinition = null;
+
 	public WSDLBrowseDialog(Shell parentShell) {
 		super(parentShell);
 		setShellStyle(SWT.DIALOG_TRIM | SWT.RESIZE );
@@ -384,6 +393,34 @@ public class WSDLBrowseDialog extends TitleAreaDialog {
 			}
 		});
 		
+		refreshButton = new Button(buttonBar, SWT.NONE);
+		refreshButton.setText(JBossWSUIMessages.WSDLBrowseDialog_Refresh);
+		refreshButton.setToolTipText(JBossWSUIMessages.WSDLBrowseDialog_Refresh_Tooltip);
+		refreshButton.addSelectionListener(new SelectionListener() {
+			public void widgetSelected(SelectionEvent arg0) {
+				widgetDefaultSelected(arg0);
+			}
+			public void widgetDefaultSelected(SelectionEvent arg0) {
+				try {
+					final URL testURL = new URL(locationCombo.getText());
+					// read the WSDL and its imports again instead of using the cached copies
+					WSDLDefinitionCache.getDefault().refresh(testURL);
+					JAXWSDispatchCache.getDefault().invalidate(testURL.toExternalForm());
+					IStatus status = parseWSDLFromURL(testURL, true);
+					if (status != null && !status.isOK()) {
+						setMessage(status.getMessage(), IMessageProvider.WARNING);
+					} else {
+						setMessage(JBossWSUIMessages.WSDLBrowseDialog_Message);
+						if (showServicePortOperaton) {
+							updateServiceCombo();
+						}
+					}
+				} catch (MalformedURLException e) {
+					setMessage(JBossWSUIMessages.WSDLBrowseDialog_Status_Invalid_URL, IMessageProvider.WARNING);
+				}
+			}
+		});
+		
 		if (this.showServicePortOperaton) {
 			group = new Group(mainComposite, SWT.NONE);
 			group.setText(JBossWSUIMessages.WSDLBrowseDialog_Group_Title);
@@ -599,6 +636,44 @@ public class WSDLBrowseDialog extends TitleAreaDialog {
 		}
 	}
 	
+	@Override
+	public boolean close() {
+		cancelSamples();
+		return super.close();
+	}
+
+	/*
+	 * Generate the sample requests of the WSDL in the background, while the
+	 * user picks an operation. The generation of the samples of the previous
+	 * WSDL, if any, is cancelled.
+	 */
+	private void generateSamples(final Definition definition) {
+		if (samplesJob != null && samplesDefinition == definition) {
+			return;
+		}
+		cancelSamples();
+		Job job = new Job(JBossWSUIMessages.WSDLBrowseDialog_Status_Generating_Samples) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				SchemaUtils.getInstance(definition).generateSamples(monitor);
+				return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		job.setPriority(Job.DECORATE);
+		samplesJob = job;
+		samplesDefinition = definition;
+		job.schedule();
+	}
+
+	private void cancelSamples() {
+		if (samplesJob != null) {
+			samplesJob.cancel();
+			samplesJob = null;
+			samplesDefinition = null;
+		}
+	}
+
 	private void updateServiceCombo () {
 		serviceCombo.setEnabled(true);
 		portCombo.setEnabled(true);
@@ -620,8 +695,10 @@ public class WSDLBrowseDialog extends TitleAreaDialog {
 				serviceTextValue = serviceCombo.getText();
 			}
 			updatePortCombo();
+			generateSamples(wsdlDefinition);
 		} else {
 			// no services
+			cancelSamples();
 			serviceCombo.add(JBossWSUIMessages.WSDLBrowseDialog_No_Services_Available);
 			serviceCombo.select(0);
 			setMessage(JBossWSUIMessages.WSDLBrowseDialog_No_Services_Available_Warning, IMessageProvider.WARNING);
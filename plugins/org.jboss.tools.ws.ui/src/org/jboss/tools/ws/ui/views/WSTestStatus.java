@@ -1,11 +1,15 @@
 package org.jboss.tools.ws.ui.views;
 
 import org.eclipse.core.runtime.Status;
+import org.jboss.tools.ws.ui.utils.RequestTimings;
+import org.jboss.tools.ws.ui.utils.ResponseSpool;
 
 public class WSTestStatus extends Status {
 
 	private String resultsText;
 	private String headersList;
+	private ResponseSpool response;
+	private RequestTimings timings;
 	
 	public WSTestStatus(int severity, String pluginId, String message) {
 		super(severity, pluginId, message);
@@ -26,4 +30,20 @@ public class WSTestStatus extends Status {
 	public void setHeadersList(String headersList) {
 		this.headersList = headersList;
 	}
+
+	public ResponseSpool getResponse() {
+		return response;
+	}
+
+	public void setResponse(ResponseSpool response) {
+		this.response = response;
+	}
+
+	public RequestTimings getTimings() {
+		return timings;
+	}
+
+	public void setTimings(RequestTimings timings) {
+		this.timings = timings;
+	}
 }
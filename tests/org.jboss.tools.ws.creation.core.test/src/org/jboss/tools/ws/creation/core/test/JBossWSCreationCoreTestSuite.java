@@ -19,7 +19,13 @@ import org.jboss.tools.ws.creation.core.test.command.JBossWSClientCommandTest;
 import org.jboss.tools.ws.creation.core.test.command.JBossWSClientSampleCreationCommandTest;
 import org.jboss.tools.ws.creation.core.test.command.JBossWSJavaFirstCommandTest;
 import org.jboss.tools.ws.creation.core.test.command.JBossWSMergeWebXMLCommandTest;
+import org.jboss.tools.ws.creation.core.test.command.JBossWSToolsRunnerTest;
+import org.jboss.tools.ws.creation.core.test.command.WSDL2JavaBatchCommandTest;
 import org.jboss.tools.ws.creation.core.test.command.JBossWSTopDownCommandTest;
+import org.jboss.tools.ws.creation.core.test.util.GenerationManifestTest;
+import org.jboss.tools.ws.creation.core.test.util.ProcessOutputCollectorTest;
+import org.jboss.tools.ws.creation.core.test.util.ProcessTreeKillerTest;
+import org.jboss.tools.ws.creation.core.test.util.WSDLImportResolverTest;
 
 public class JBossWSCreationCoreTestSuite extends TestCase {
 	public static final String PLUGIN_ID = "org.jboss.tools.ws.creation.core.test";
@@ -31,6 +37,12 @@ public class JBossWSCreationCoreTestSuite extends TestCase {
 		suite.addTestSuite(JBossWSClientCommandTest.class);
 		suite.addTestSuite(JBossWSMergeWebXMLCommandTest.class);
 		suite.addTestSuite(JBossWSClientSampleCreationCommandTest.class);
+		suite.addTestSuite(WSDLImportResolverTest.class);
+		suite.addTestSuite(GenerationManifestTest.class);
+		suite.addTestSuite(ProcessOutputCollectorTest.class);
+		suite.addTestSuite(ProcessTreeKillerTest.class);
+		suite.addTestSuite(JBossWSToolsRunnerTest.class);
+		suite.addTestSuite(WSDL2JavaBatchCommandTest.class);
 
 		return suite;
 	}
@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+
+package org.jboss.tools.ws.creation.core.test.command;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import junit.framework.TestCase;
+
+import org.jboss.tools.ws.creation.core.commands.JBossWSToolsRunner;
+import org.jboss.tools.ws.creation.core.utils.ProcessOutputCollector;
+import org.jboss.wsf.spi.tools.WSContractConsumer;
+import org.jboss.wsf.spi.tools.WSContractProvider;
+
+/**
+ * Tests the in-process generation against fakes of the SPI, without any
+ * JBossWS runtime.
+ */
+public class JBossWSToolsRunnerTest extends TestCase {
+
+	private File dir;
+
+	@Override
+	protected void setUp() throws Exception {
+		WSContractConsumer.calls.clear();
+		WSContractConsumer.blocking = false;
+		WSContractProvider.calls.clear();
+		dir = File.createTempFile("toolsrunner", ""); //$NON-NLS-1$ //$NON-NLS-2$
+		dir.delete();
+		dir.mkdirs();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		WSContractConsumer.blocking = false;
+		JBossWSToolsRunner.clearCache();
+		delete(dir);
+	}
+
+	public void testConsumerArguments() throws Exception {
+		File wsdl = new File(dir, "hello.wsdl"); //$NON-NLS-1$
+		List<String> args = Arrays.asList("-k", "-e", "-b", "a.xml", "-b", "b.xml", "-c", "catalog.xml", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+				"-p", "org.hello", "-w", "urn:location", "-t", "2.1", "-s", "src", "-o", "bin", "-v", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$ //$NON-NLS-11$
+				wsdl.getPath());
+		JBossWSToolsRunner.Result result = JBossWSToolsRunner.run(JBossWSToolsRunner.Tool.CONSUME, getClass()
+				.getClassLoader(), args);
+		assertEquals(0, result.getExitValue());
+		assertEquals("parsing WSDL...\t\rgenerating code...\t\r", result.getOutput()); //$NON-NLS-1$
+		assertEquals(Arrays.asList("generateSource=true", "extension=true", "catalog=" + new File("catalog.xml"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				"targetPackage=org.hello", "wsdlLocation=urn:location", "target=2.1", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				"sourceDirectory=" + new File("src"), "outputDirectory=" + new File("bin"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				"bindingFiles=" + Arrays.asList(new File("a.xml"), new File("b.xml")), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				"consume=" + wsdl.toURI().toURL()), WSContractConsumer.calls); //$NON-NLS-1$
+	}
+
+	public void testConsumerCompilesAgainstTheJarsOfTheClassLoader() throws Exception {
+		File jar = new File(dir, "jbossws-spi.jar"); //$NON-NLS-1$
+		File toolsJar = new File(dir, "tools.jar"); //$NON-NLS-1$
+		// the fake SPI is still loaded by the parent
+		ClassLoader loader = new URLClassLoader(new URL[] { jar.toURI().toURL(), toolsJar.toURI().toURL() },
+				getClass().getClassLoader());
+		JBossWSToolsRunner.run(JBossWSToolsRunner.Tool.CONSUME, loader, Arrays.asList("-k", "hello.wsdl")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(WSContractConsumer.calls.toString(), WSContractConsumer.calls.contains("additionalCompilerClassPath=" //$NON-NLS-1$
+				+ Arrays.asList(jar.getPath(), toolsJar.getPath())));
+
+		// nothing to compile
+		WSContractConsumer.calls.clear();
+		JBossWSToolsRunner.run(JBossWSToolsRunner.Tool.CONSUME, loader, Arrays.asList("-n", "hello.wsdl")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse(WSContractConsumer.calls.toString(), WSContractConsumer.calls.toString().indexOf(
+				"additionalCompilerClassPath=") >= 0); //$NON-NLS-1$
+	}
+
+	public void testProviderArguments() throws Exception {
+		String classpath = "bin;" + new File("lib", "a.jar").getPath() + File.pathSeparator + " ;"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		List<String> args = Arrays.asList("-k", "-w", "-r", "wsdl", "-s", "src", "-o", "bin", "org.hello.Hello", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$
+				"-c", classpath, "-t"); //$NON-NLS-1$ //$NON-NLS-2$
+		JBossWSToolsRunner.Result result = JBossWSToolsRunner.run(JBossWSToolsRunner.Tool.PROVIDE, getClass()
+				.getClassLoader(), args);
+		assertEquals(0, result.getExitValue());
+		assertEquals("Generating WSDL...\t\r", result.getOutput()); //$NON-NLS-1$
+		// the classpath is split on both separators
+		assertEquals(Arrays.asList("generateSource=true", "generateWsdl=true", "resourceDirectory=" + new File("wsdl"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				"sourceDirectory=" + new File("src"), "outputDirectory=" + new File("bin"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				"classLoader=" + Arrays.asList(new File("bin").toURI().toURL(), new File("lib", "a.jar").toURI().toURL()), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				"provide=org.hello.Hello"), WSContractProvider.calls); //$NON-NLS-1$
+	}
+
+	public void testUnsupportedArgumentsFallBackToTheScript() throws Exception {
+		// no SPI equivalent
+		assertUnsupported(JBossWSToolsRunner.Tool.CONSUME, "-x", "hello.wsdl"); //$NON-NLS-1$ //$NON-NLS-2$
+		// no setter in the runtime
+		assertUnsupported(JBossWSToolsRunner.Tool.CONSUME, "-a", "hello.wsdl"); //$NON-NLS-1$ //$NON-NLS-2$
+		// missing value
+		assertUnsupported(JBossWSToolsRunner.Tool.CONSUME, "hello.wsdl", "-p"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertUnsupported(JBossWSToolsRunner.Tool.CONSUME, "-k"); //$NON-NLS-1$
+		assertUnsupported(JBossWSToolsRunner.Tool.PROVIDE, "-a", "org.hello.Hello"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertUnsupported(JBossWSToolsRunner.Tool.PROVIDE, "org.hello.Hello", "org.hello.Other"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse(WSContractConsumer.calls.toString(), WSContractConsumer.calls.toString().indexOf("consume=") >= 0); //$NON-NLS-1$
+		assertFalse(WSContractProvider.calls.toString(), WSContractProvider.calls.toString().indexOf("provide=") >= 0); //$NON-NLS-1$
+
+		// runtime without the SPI
+		try {
+			JBossWSToolsRunner.run(JBossWSToolsRunner.Tool.CONSUME, Object.class.getClassLoader(), Collections
+					.singletonList("hello.wsdl")); //$NON-NLS-1$
+			fail();
+		} catch (JBossWSToolsRunner.UnsupportedException e) {
+			// expected
+		}
+	}
+
+	public void testAbortsTheTool() throws Exception {
+		WSContractConsumer.blocking = true;
+		final List<String> lines = Collections.synchronizedList(new ArrayList<String>());
+		JBossWSToolsRunner.Execution execution = new JBossWSToolsRunner.Execution(JBossWSToolsRunner.Tool.CONSUME,
+				getClass().getClassLoader(), Arrays.asList("-k", "hello.wsdl"), //$NON-NLS-1$ //$NON-NLS-2$
+				new ProcessOutputCollector.LineListener() {
+					public void lineRead(String line) {
+						lines.add(line);
+					}
+				});
+		execution.start();
+		for (int i = 0; i < 500 && lines.size() < 3; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(Arrays.asList("parsing WSDL...", "generating code...", "waiting"), lines.subList(0, 3)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertFalse(execution.hasEnded());
+		execution.abort();
+		assertTrue(execution.join(5000));
+		assertNull(execution.getResult());
+	}
+
+	public void testClassLoadersAreCachedUntilTheJarsChange() throws Exception {
+		File jar = new File(dir, "tools.jar"); //$NON-NLS-1$
+		jar.createNewFile();
+		jar.setLastModified(1000000000L);
+		List<String> jars = Collections.singletonList(jar.getPath());
+		ClassLoader loader = JBossWSToolsRunner.getClassLoader(jars);
+		assertSame(loader, JBossWSToolsRunner.getClassLoader(new ArrayList<String>(jars)));
+
+		jar.setLastModified(2000000000L);
+		ClassLoader modified = JBossWSToolsRunner.getClassLoader(jars);
+		assertNotSame(loader, modified);
+		assertSame(modified, JBossWSToolsRunner.getClassLoader(jars));
+
+		JBossWSToolsRunner.clearCache();
+		assertNotSame(modified, JBossWSToolsRunner.getClassLoader(jars));
+	}
+
+	public void testStaleClassLoadersAreClosed() throws Exception {
+		File jar = new File(dir, "runtime.jar"); //$NON-NLS-1$
+		ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar));
+		try {
+			out.putNextEntry(new ZipEntry("runtime.properties")); //$NON-NLS-1$
+			out.closeEntry();
+		} finally {
+			out.close();
+		}
+		jar.setLastModified(1000000000L);
+		List<String> jars = Collections.singletonList(jar.getPath());
+		ClassLoader loader = JBossWSToolsRunner.getClassLoader(jars);
+		assertNotNull(loader.getResource("runtime.properties")); //$NON-NLS-1$
+
+		jar.setLastModified(2000000000L);
+		ClassLoader modified = JBossWSToolsRunner.getClassLoader(jars);
+		assertNotNull(modified.getResource("runtime.properties")); //$NON-NLS-1$
+		if (hasClose()) {
+			// a closed class loader finds nothing
+			assertNull(loader.getResource("runtime.properties")); //$NON-NLS-1$
+		}
+		JBossWSToolsRunner.clearCache();
+		if (hasClose()) {
+			assertNull(modified.getResource("runtime.properties")); //$NON-NLS-1$
+		}
+	}
+
+	public void testOnlyUsesTheToolsJarOfAJDK() throws Exception {
+		File jre = new File(dir, "jre"); //$NON-NLS-1$
+		new File(jre, "lib").mkdirs(); //$NON-NLS-1$
+		assertNull(JBossWSToolsRunner.getToolsJar(jre.getPath()));
+		File toolsJar = new File(dir, "lib" + File.separator + "tools.jar"); //$NON-NLS-1$ //$NON-NLS-2$
+		toolsJar.getParentFile().mkdirs();
+		toolsJar.createNewFile();
+		assertEquals(toolsJar.getAbsolutePath(), JBossWSToolsRunner.getToolsJar(jre.getPath()));
+
+		assertTrue(JBossWSToolsRunner.isCompiling(JBossWSToolsRunner.Tool.CONSUME, Arrays.asList("-k", "a.wsdl"))); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse(JBossWSToolsRunner.isCompiling(JBossWSToolsRunner.Tool.CONSUME, Arrays.asList("-n", "a.wsdl"))); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse(JBossWSToolsRunner.isCompiling(JBossWSToolsRunner.Tool.PROVIDE, Arrays.asList("-k", "a.Hello"))); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private void assertUnsupported(JBossWSToolsRunner.Tool tool, String... args) {
+		try {
+			JBossWSToolsRunner.run(tool, getClass().getClassLoader(), Arrays.asList(args));
+			fail(Arrays.asList(args).toString());
+		} catch (JBossWSToolsRunner.UnsupportedException e) {
+			// expected
+		}
+	}
+
+	private static boolean hasClose() {
+		try {
+			URLClassLoader.class.getMethod("close"); //$NON-NLS-1$
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+}
@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+
+package org.jboss.tools.ws.creation.core.test.command;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.core.JavaCore;
+import org.jboss.tools.ws.creation.core.commands.WSDL2JavaBatchCommand;
+import org.jboss.tools.ws.creation.core.commands.WSDL2JavaCommand;
+import org.jboss.tools.ws.creation.core.data.ServiceModel;
+
+/**
+ * Tests the scheduling of the batch generation, with generations which only
+ * record when they run, so that no JBossWS runtime is needed.
+ */
+public class WSDL2JavaBatchCommandTest extends TestCase {
+
+	private File folder;
+	private IProject project;
+	private ServiceModel model;
+
+	/** The WSDLs being generated. */
+	private final Set<String> running = Collections.synchronizedSet(new HashSet<String>());
+	/** The pairs of WSDLs generated at the same time, as "a.wsdl+b.wsdl". */
+	private final Set<String> overlapping = Collections.synchronizedSet(new HashSet<String>());
+	/** The WSDLs whose generation ended. */
+	private final Set<String> ended = Collections.synchronizedSet(new HashSet<String>());
+	private String failing;
+	/** The monitor of the batch, cancelled by the failing generation if set. */
+	private IProgressMonitor cancelledOnFailure;
+
+	private class RecordingBatchCommand extends WSDL2JavaBatchCommand {
+
+		RecordingBatchCommand(List<String> wsdls) {
+			super(model, wsdls);
+		}
+
+		@Override
+		protected WSDL2JavaCommand createCommand(final ServiceModel wsdlModel) {
+			return new WSDL2JavaCommand(wsdlModel) {
+				@Override
+				public IStatus execute(IProgressMonitor monitor, IAdaptable info) throws ExecutionException {
+					String name = new File(wsdlModel.getWsdlURI()).getName();
+					if (name.equals(failing)) {
+						if (cancelledOnFailure != null) {
+							cancelledOnFailure.setCanceled(true);
+							try {
+								// let the batch notice the cancellation
+								Thread.sleep(600);
+							} catch (InterruptedException e) {
+								// fail anyway
+							}
+						}
+						throw new LinkageError(name);
+					}
+					synchronized (running) {
+						for (String other : running) {
+							overlapping.add(other.compareTo(name) < 0 ? other + '+' + name : name + '+' + other);
+						}
+						running.add(name);
+					}
+					try {
+						Thread.sleep(300);
+					} catch (InterruptedException e) {
+						return Status.CANCEL_STATUS;
+					} finally {
+						running.remove(name);
+					}
+					ended.add(name);
+					return Status.OK_STATUS;
+				}
+			};
+		}
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		folder = File.createTempFile("batch", ""); //$NON-NLS-1$ //$NON-NLS-2$
+		folder.delete();
+		folder.mkdirs();
+		// a and b define the same schema namespace (the same package)
+		write("a.wsdl", wsdl("urn:a", "<wsdl:types>" + schema("urn:shared") + "</wsdl:types>")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		write("b.wsdl", wsdl("urn:b", "<wsdl:types>" + schema("urn:shared") + "</wsdl:types>")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		write("c.wsdl", wsdl("urn:c", "<wsdl:types>" + schema("urn:other") + "</wsdl:types>")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+
+		project = ResourcesPlugin.getWorkspace().getRoot().getProject("BatchTest"); //$NON-NLS-1$
+		if (!project.exists()) {
+			project.create(null);
+		}
+		project.open(null);
+		model = new ServiceModel();
+		model.setJavaProject(JavaCore.create(project));
+		model.setCustomPackage(""); //$NON-NLS-1$
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		project.delete(true, null);
+		delete(folder);
+	}
+
+	public void testGeneratesWSDLsOfTheSameNamespacesOneAfterTheOther() throws Exception {
+		WSDL2JavaBatchCommand command = new RecordingBatchCommand(getWSDLs());
+		command.setMaxWorkers(2);
+		IStatus status = command.execute(null, null);
+		assertEquals(status.getMessage(), IStatus.OK, status.getSeverity());
+		assertEquals(3, status.getChildren().length);
+		assertEquals(new HashSet<String>(Arrays.asList("a.wsdl", "b.wsdl", "c.wsdl")), ended); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertFalse(overlapping.toString(), overlapping.contains("a.wsdl+b.wsdl")); //$NON-NLS-1$
+		// c is generated with a or b
+		assertTrue(overlapping.toString(), overlapping.contains("a.wsdl+c.wsdl") //$NON-NLS-1$
+				|| overlapping.contains("b.wsdl+c.wsdl")); //$NON-NLS-1$
+		List<WSDL2JavaBatchCommand.WSDLResult> results = command.getResults();
+		assertEquals(3, results.size());
+		for (WSDL2JavaBatchCommand.WSDLResult result : results) {
+			assertTrue(result.getWsdlURI(), result.isSuccessful());
+		}
+	}
+
+	public void testAllWSDLsOfACustomPackageAreGeneratedOneAfterTheOther() throws Exception {
+		model.setCustomPackage("org.batch"); //$NON-NLS-1$
+		WSDL2JavaBatchCommand command = new RecordingBatchCommand(getWSDLs());
+		command.setMaxWorkers(3);
+		command.execute(null, null);
+		assertEquals(3, ended.size());
+		assertTrue(overlapping.toString(), overlapping.isEmpty());
+	}
+
+	public void testReportsAFailureAndGeneratesTheRestOfItsGroup() throws Exception {
+		failing = "a.wsdl"; //$NON-NLS-1$
+		WSDL2JavaBatchCommand command = new RecordingBatchCommand(getWSDLs());
+		command.setMaxWorkers(2);
+		IStatus status = command.execute(null, null);
+		// the error of a is recorded, and b (in the same group) is still generated
+		assertEquals(new HashSet<String>(Arrays.asList("b.wsdl", "c.wsdl")), ended); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(running.isEmpty());
+		assertEquals(IStatus.ERROR, status.getSeverity());
+		assertEquals(IStatus.ERROR, status.getChildren()[0].getSeverity());
+		assertFalse(command.getResults().get(0).isSuccessful());
+		assertTrue(command.getResults().get(1).isSuccessful());
+	}
+
+	public void testReportsTheSkippedWSDLsWithoutHidingTheFailures() throws Exception {
+		failing = "a.wsdl"; //$NON-NLS-1$
+		model.setCustomPackage("org.batch"); //$NON-NLS-1$
+		WSDL2JavaBatchCommand command = new RecordingBatchCommand(getWSDLs());
+		// cancelled while a is failing: b and c, in the same group, are skipped
+		cancelledOnFailure = new NullProgressMonitor();
+		IStatus status = command.execute(cancelledOnFailure, null);
+		assertEquals(IStatus.ERROR, status.getSeverity());
+		IStatus[] children = status.getChildren();
+		assertEquals(IStatus.ERROR, children[0].getSeverity());
+		assertEquals(IStatus.WARNING, children[1].getSeverity());
+		assertEquals(IStatus.WARNING, children[2].getSeverity());
+		assertTrue(ended.isEmpty());
+	}
+
+	private List<String> getWSDLs() throws IOException {
+		List<String> wsdls = WSDL2JavaBatchCommand.findWSDLs(folder);
+		assertEquals(3, wsdls.size());
+		return wsdls;
+	}
+
+	private static String wsdl(String namespace, String content) {
+		return "<wsdl:definitions xmlns:wsdl=\"http://schemas.xmlsoap.org/wsdl/\" targetNamespace=\"" + namespace //$NON-NLS-1$
+				+ "\">" + content + "</wsdl:definitions>"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private static String schema(String namespace) {
+		return "<xsd:schema xmlns:xsd=\"http://www.w3.org/2001/XMLSchema\" targetNamespace=\"" + namespace + "\"/>"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private void write(String name, String content) throws IOException {
+		FileOutputStream out = new FileOutputStream(new File(folder, name));
+		try {
+			out.write(content.getBytes("UTF-8")); //$NON-NLS-1$
+		} finally {
+			out.close();
+		}
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+}
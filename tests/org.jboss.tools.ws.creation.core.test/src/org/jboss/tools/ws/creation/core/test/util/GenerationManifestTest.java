@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+
+package org.jboss.tools.ws.creation.core.test.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import junit.framework.TestCase;
+
+import org.jboss.tools.ws.creation.core.utils.GenerationManifest;
+
+public class GenerationManifestTest extends TestCase {
+
+	private File folder;
+	private File staging;
+	private File source;
+	private Map<String, File> roots;
+
+	@Override
+	protected void setUp() throws Exception {
+		folder = File.createTempFile("manifest", ""); //$NON-NLS-1$ //$NON-NLS-2$
+		folder.delete();
+		staging = new File(folder, "staging"); //$NON-NLS-1$
+		source = new File(folder, "src"); //$NON-NLS-1$
+		source.mkdirs();
+		roots = Collections.singletonMap("src", source); //$NON-NLS-1$
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		delete(folder);
+	}
+
+	public void testUnchangedInputs() throws IOException {
+		write(staging, "org/acme/Orders.java", "interface Orders {}"); //$NON-NLS-1$ //$NON-NLS-2$
+		write(staging, "org/acme/Order.java", "class Order {}"); //$NON-NLS-1$ //$NON-NLS-2$
+		GenerationManifest manifest = new GenerationManifest("v1"); //$NON-NLS-1$
+		assertEquals(2, manifest.synchronize("src", staging, source, null)); //$NON-NLS-1$
+		File manifestFile = new File(folder, "manifest.properties"); //$NON-NLS-1$
+		manifest.save(manifestFile);
+
+		GenerationManifest loaded = GenerationManifest.load(manifestFile);
+		assertEquals("v1", loaded.getInputs()); //$NON-NLS-1$
+		assertEquals(manifest.getFiles(), loaded.getFiles());
+		assertEquals(2, loaded.getFiles("src", source).size()); //$NON-NLS-1$
+		assertTrue(loaded.isUpToDate("v1", roots)); //$NON-NLS-1$
+		assertFalse(loaded.isUpToDate("v2", roots)); //$NON-NLS-1$
+		// the generated files must still be there, unmodified
+		write(source, "org/acme/Order.java", "class Order { int id; }"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse(loaded.isUpToDate("v1", roots)); //$NON-NLS-1$
+		assertNull(GenerationManifest.load(new File(folder, "missing.properties"))); //$NON-NLS-1$
+	}
+
+	public void testOnlyChangedFilesAreWritten() throws IOException {
+		write(staging, "org/acme/Orders.java", "interface Orders {}"); //$NON-NLS-1$ //$NON-NLS-2$
+		write(staging, "org/acme/Order.java", "class Order {}"); //$NON-NLS-1$ //$NON-NLS-2$
+		write(staging, "org/acme/Obsolete.java", "class Obsolete {}"); //$NON-NLS-1$ //$NON-NLS-2$
+		write(staging, "org/acme/Edited.java", "class Edited {}"); //$NON-NLS-1$ //$NON-NLS-2$
+		GenerationManifest previous = new GenerationManifest("v1"); //$NON-NLS-1$
+		previous.synchronize("src", staging, source, null); //$NON-NLS-1$
+		File orders = new File(source, "org/acme/Orders.java"); //$NON-NLS-1$
+		orders.setLastModified(1000);
+		write(source, "org/acme/Edited.java", "class Edited { /* by hand */ }"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		delete(staging);
+		write(staging, "org/acme/Orders.java", "interface Orders {}"); //$NON-NLS-1$ //$NON-NLS-2$
+		write(staging, "org/acme/Order.java", "class Order { int id; }"); //$NON-NLS-1$ //$NON-NLS-2$
+		GenerationManifest manifest = new GenerationManifest("v2"); //$NON-NLS-1$
+		// Order is rewritten, Obsolete is deleted, Orders is left as is
+		assertEquals(2, manifest.synchronize("src", staging, source, previous)); //$NON-NLS-1$
+		assertEquals(1000, orders.lastModified());
+		assertFalse(new File(source, "org/acme/Obsolete.java").exists()); //$NON-NLS-1$
+		// the files modified since the previous generation are kept
+		assertTrue(new File(source, "org/acme/Edited.java").exists()); //$NON-NLS-1$
+		assertEquals(2, manifest.getFiles().size());
+		assertTrue(manifest.isUpToDate("v2", roots)); //$NON-NLS-1$
+	}
+
+	public void testSharedFiles() throws IOException {
+		write(staging, "org/acme/ObjectFactory.java", "class ObjectFactory { Order order; }"); //$NON-NLS-1$ //$NON-NLS-2$
+		write(staging, "org/acme/Order.java", "class Order {}"); //$NON-NLS-1$ //$NON-NLS-2$
+		write(staging, "org/acme/Obsolete.java", "class Obsolete {}"); //$NON-NLS-1$ //$NON-NLS-2$
+		GenerationManifest orders = new GenerationManifest("orders"); //$NON-NLS-1$
+		orders.synchronize("src", staging, source, null); //$NON-NLS-1$
+
+		// another WSDL generated into the same package
+		delete(staging);
+		write(staging, "org/acme/ObjectFactory.java", "class ObjectFactory { Invoice invoice; }"); //$NON-NLS-1$ //$NON-NLS-2$
+		write(staging, "org/acme/Invoice.java", "class Invoice {}"); //$NON-NLS-1$ //$NON-NLS-2$
+		write(staging, "org/acme/Obsolete.java", "class Obsolete {}"); //$NON-NLS-1$ //$NON-NLS-2$
+		GenerationManifest invoices = new GenerationManifest("invoices"); //$NON-NLS-1$
+		invoices.synchronize("src", staging, source, null, Collections.singletonList(orders)); //$NON-NLS-1$
+		assertFalse(orders.isUpToDate("orders", roots)); //$NON-NLS-1$
+		assertTrue(orders.update(invoices));
+		assertTrue(orders.isUpToDate("orders", roots)); //$NON-NLS-1$
+		assertTrue(invoices.isUpToDate("invoices", roots)); //$NON-NLS-1$
+
+		Map<String, GenerationManifest> manifests = new TreeMap<String, GenerationManifest>();
+		manifests.put("orders", orders); //$NON-NLS-1$
+		manifests.put("invoices", invoices); //$NON-NLS-1$
+		File manifestFile = new File(folder, "package.properties"); //$NON-NLS-1$
+		GenerationManifest.saveShared(manifestFile, manifests);
+		Map<String, GenerationManifest> loaded = GenerationManifest.loadShared(manifestFile);
+		assertEquals(manifests.keySet(), loaded.keySet());
+		assertEquals(orders.getFiles(), loaded.get("orders").getFiles()); //$NON-NLS-1$
+		assertEquals("invoices", loaded.get("invoices").getInputs()); //$NON-NLS-1$ //$NON-NLS-2$
+
+		// a file still generated for the other WSDL is not deleted
+		delete(staging);
+		write(staging, "org/acme/ObjectFactory.java", "class ObjectFactory { Invoice invoice; }"); //$NON-NLS-1$ //$NON-NLS-2$
+		write(staging, "org/acme/Invoice.java", "class Invoice {}"); //$NON-NLS-1$ //$NON-NLS-2$
+		GenerationManifest manifest = new GenerationManifest("invoices2"); //$NON-NLS-1$
+		manifest.synchronize("src", staging, source, invoices, Collections.singletonList(orders)); //$NON-NLS-1$
+		assertTrue(new File(source, "org/acme/Obsolete.java").exists()); //$NON-NLS-1$
+
+		GenerationManifest.saveShared(manifestFile, new TreeMap<String, GenerationManifest>());
+		assertFalse(manifestFile.exists());
+		assertTrue(GenerationManifest.loadShared(manifestFile).isEmpty());
+	}
+
+	private static void write(File root, String path, String content) throws IOException {
+		File file = new File(root, path);
+		file.getParentFile().mkdirs();
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(content.getBytes("UTF-8")); //$NON-NLS-1$
+		} finally {
+			out.close();
+		}
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+}
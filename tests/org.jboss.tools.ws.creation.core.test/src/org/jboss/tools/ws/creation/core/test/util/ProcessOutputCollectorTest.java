@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+
+package org.jboss.tools.ws.creation.core.test.util;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.jboss.tools.ws.creation.core.utils.ProcessOutputCollector;
+
+public class ProcessOutputCollectorTest extends TestCase {
+
+	private static final String[] MARKERS = { "error:" }; //$NON-NLS-1$
+
+	public void testSmallOutputIsKeptInMemory() throws Exception {
+		final List<String> read = new ArrayList<String>();
+		ProcessOutputCollector collector = new ProcessOutputCollector(10, MARKERS, null,
+				new ProcessOutputCollector.LineListener() {
+					public void lineRead(String line) {
+						read.add(line);
+					}
+				});
+		collector.drain(new ByteArrayInputStream("parsing WSDL...\ngenerating code...\n".getBytes())); //$NON-NLS-1$
+		assertTrue(collector.await(5000));
+		assertEquals("parsing WSDL...\t\rgenerating code...\t\r", collector.getText()); //$NON-NLS-1$
+		assertEquals(2, read.size());
+		assertNull(collector.getLogFile());
+	}
+
+	public void testLargeOutputSpillsToLogFile() throws Exception {
+		StringBuffer output = new StringBuffer();
+		for (int i = 0; i < 100; i++) {
+			output.append(i == 5 ? "error: line 5" : "line " + i).append('\n'); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		File logFolder = File.createTempFile("logs", ""); //$NON-NLS-1$ //$NON-NLS-2$
+		logFolder.delete();
+		ProcessOutputCollector collector = new ProcessOutputCollector(10, MARKERS, logFolder, null);
+		collector.drain(new ByteArrayInputStream(output.toString().getBytes()));
+		assertTrue(collector.await(5000));
+		assertEquals(100, collector.getLineCount());
+		String text = collector.getText();
+		// the marked line is kept, with the last lines only
+		assertTrue(text.startsWith("error: line 5\t\r... 90 more lines, see ")); //$NON-NLS-1$
+		assertTrue(text.endsWith("line 90\t\rline 91\t\rline 92\t\rline 93\t\rline 94\t\rline 95\t\rline 96\t\rline 97\t\rline 98\t\rline 99\t\r")); //$NON-NLS-1$
+		assertFalse(text.indexOf("line 89") >= 0); //$NON-NLS-1$
+		// the log file has the whole output
+		File logFile = collector.getLogFile();
+		assertEquals(logFolder, logFile.getParentFile());
+		assertEquals(100, countLines(logFile));
+		logFile.delete();
+		logFolder.delete();
+	}
+
+	public void testLogIsCompleteWhenTheStreamEndsAfterTheTimeout() throws Exception {
+		File logFolder = createFolder();
+		PipedOutputStream process = new PipedOutputStream();
+		ProcessOutputCollector collector = new ProcessOutputCollector(10, MARKERS, logFolder, null);
+		collector.drain(new PipedInputStream(process));
+		for (int i = 0; i < 20; i++) {
+			process.write(("line " + i + '\n').getBytes()); //$NON-NLS-1$
+		}
+		assertFalse(collector.await(100));
+		process.write("last line\n".getBytes()); //$NON-NLS-1$
+		process.close();
+		for (int i = 0; i < 500 && collector.getLogFile() != null && countLines(collector.getLogFile()) < 21; i++) {
+			Thread.sleep(10);
+		}
+		// closed, hence flushed, by the draining thread
+		assertEquals(21, countLines(collector.getLogFile()));
+		delete(logFolder);
+	}
+
+	public void testOnlyTheLastLogFilesAreKept() throws Exception {
+		File logFolder = createFolder();
+		logFolder.mkdirs();
+		File other = new File(logFolder, "other.txt"); //$NON-NLS-1$
+		other.createNewFile();
+		for (int i = 0; i < ProcessOutputCollector.MAX_LOG_FILES; i++) {
+			File log = new File(logFolder, "output" + i + ".log"); //$NON-NLS-1$ //$NON-NLS-2$
+			log.createNewFile();
+			log.setLastModified(1000000000L + i * 1000L);
+		}
+		StringBuffer output = new StringBuffer();
+		for (int i = 0; i < 20; i++) {
+			output.append("line ").append(i).append('\n'); //$NON-NLS-1$
+		}
+		ProcessOutputCollector collector = new ProcessOutputCollector(10, MARKERS, logFolder, null);
+		collector.drain(new ByteArrayInputStream(output.toString().getBytes()));
+		assertTrue(collector.await(5000));
+		// the log pointed to by the text stays after the run
+		assertTrue(collector.getLogFile().isFile());
+		assertFalse(new File(logFolder, "output0.log").exists()); //$NON-NLS-1$
+		assertTrue(new File(logFolder, "output1.log").exists()); //$NON-NLS-1$
+		assertTrue(other.exists());
+		assertEquals(ProcessOutputCollector.MAX_LOG_FILES + 1, logFolder.list().length);
+		delete(logFolder);
+	}
+
+	private static File createFolder() throws IOException {
+		File folder = File.createTempFile("logs", ""); //$NON-NLS-1$ //$NON-NLS-2$
+		folder.delete();
+		return folder;
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	private static int countLines(File file) throws IOException {
+		BufferedReader reader = new BufferedReader(new FileReader(file));
+		try {
+			int count = 0;
+			while (reader.readLine() != null) {
+				count++;
+			}
+			return count;
+		} finally {
+			reader.close();
+		}
+	}
+
+}
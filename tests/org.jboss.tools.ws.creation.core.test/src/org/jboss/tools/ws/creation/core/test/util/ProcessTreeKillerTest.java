@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+
+package org.jboss.tools.ws.creation.core.test.util;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+
+import junit.framework.TestCase;
+
+import org.jboss.tools.ws.creation.core.utils.ProcessTreeKiller;
+
+public class ProcessTreeKillerTest extends TestCase {
+
+	public void testKillsTheProcessesStartedByTheProcess() throws Exception {
+		if (System.getProperty("os.name").toLowerCase().indexOf("win") >= 0) { //$NON-NLS-1$ //$NON-NLS-2$
+			// no sh to start a child
+			return;
+		}
+		// like a script starting a VM
+		Process script = new ProcessBuilder("sh", "-c", "sleep 60 & echo $!; wait").start(); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		BufferedReader reader = new BufferedReader(new InputStreamReader(script.getInputStream()));
+		String child = reader.readLine().trim();
+		assertTrue(isRunning(child));
+
+		assertTrue(ProcessTreeKiller.destroyTree(script));
+		script.waitFor();
+		for (int i = 0; i < 50 && isRunning(child); i++) {
+			Thread.sleep(100);
+		}
+		assertFalse(isRunning(child));
+	}
+
+	/**
+	 * @return true if the process exists and is not a zombie
+	 */
+	private static boolean isRunning(String pid) throws Exception {
+		Process ps = new ProcessBuilder("ps", "-o", "stat=", "-p", pid).start(); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		BufferedReader reader = new BufferedReader(new InputStreamReader(ps.getInputStream()));
+		String state = reader.readLine();
+		reader.close();
+		ps.waitFor();
+		return state != null && state.trim().length() > 0 && !state.trim().startsWith("Z"); //$NON-NLS-1$
+	}
+}
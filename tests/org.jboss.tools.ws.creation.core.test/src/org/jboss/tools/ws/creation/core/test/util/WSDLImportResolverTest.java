@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+
+package org.jboss.tools.ws.creation.core.test.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.jboss.tools.ws.creation.core.commands.WSDL2JavaBatchCommand;
+import org.jboss.tools.ws.creation.core.utils.WSDLImportResolver;
+
+public class WSDLImportResolverTest extends TestCase {
+
+	private File folder;
+
+	@Override
+	protected void setUp() throws Exception {
+		folder = File.createTempFile("wsdls", ""); //$NON-NLS-1$ //$NON-NLS-2$
+		folder.delete();
+		new File(folder, "schemas").mkdirs(); //$NON-NLS-1$
+		write("schemas/common.xsd", schema("urn:common", "<xsd:include schemaLocation=\"types.xsd\"/>")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		write("schemas/types.xsd", schema("urn:common", "")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		write("orders.wsdl", wsdl("urn:orders", "<wsdl:import namespace=\"urn:base\" location=\"base.wsdl\"/>")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		write("base.wsdl", wsdl("urn:base", "<wsdl:types>" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ schema("urn:base", "<xsd:import namespace=\"urn:common\" schemaLocation=\"schemas/common.xsd\"/>") //$NON-NLS-1$ //$NON-NLS-2$
+				+ "</wsdl:types>")); //$NON-NLS-1$
+		write("schemas/invoices.wsdl", wsdl("urn:invoices", "")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		delete(folder);
+	}
+
+	public void testTransitiveImports() throws IOException {
+		WSDLImportResolver resolver = new WSDLImportResolver();
+		List<String> imports = resolver.getImports(new File(folder, "orders.wsdl").getAbsolutePath()); //$NON-NLS-1$
+		assertEquals(3, imports.size());
+		assertTrue(imports.get(0).endsWith("/base.wsdl")); //$NON-NLS-1$
+		assertTrue(imports.get(1).endsWith("/schemas/common.xsd")); //$NON-NLS-1$
+		assertTrue(imports.get(2).endsWith("/schemas/types.xsd")); //$NON-NLS-1$
+		assertEquals("urn:orders", resolver.getTargetNamespace(new File(folder, "orders.wsdl").getAbsolutePath())); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(resolver.getUnresolvedImports().isEmpty());
+		assertTrue(resolver.getImports(new File(folder, "schemas/invoices.wsdl").getAbsolutePath()).isEmpty()); //$NON-NLS-1$
+		// the inline schemas, and the schema documents
+		assertEquals(Collections.singletonList("urn:base"), resolver.getSchemaNamespaces(imports.get(0))); //$NON-NLS-1$
+		assertEquals(Collections.singletonList("urn:common"), resolver.getSchemaNamespaces(imports.get(1))); //$NON-NLS-1$
+		assertTrue(resolver.getSchemaNamespaces(new File(folder, "orders.wsdl").getAbsolutePath()).isEmpty()); //$NON-NLS-1$
+	}
+
+	public void testUnresolvedImports() throws IOException {
+		write("broken.wsdl", wsdl("urn:broken", "<wsdl:import namespace=\"urn:x\" location=\"missing.wsdl\"/>")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		WSDLImportResolver resolver = new WSDLImportResolver();
+		assertEquals(1, resolver.getImports(new File(folder, "broken.wsdl").getAbsolutePath()).size()); //$NON-NLS-1$
+		assertEquals(1, resolver.getUnresolvedImports().size());
+		try {
+			resolver.getImports(new File(folder, "missing.wsdl").getAbsolutePath()); //$NON-NLS-1$
+			fail("The WSDL does not exist"); //$NON-NLS-1$
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	public void testCancellation() throws IOException {
+		WSDLImportResolver resolver = new WSDLImportResolver();
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		monitor.setCanceled(true);
+		try {
+			resolver.getImports(new File(folder, "orders.wsdl").getAbsolutePath(), monitor); //$NON-NLS-1$
+			fail("The monitor is canceled"); //$NON-NLS-1$
+		} catch (OperationCanceledException e) {
+			// expected
+		}
+		// the documents read before the cancellation are kept
+		assertEquals(3, resolver.getImports(new File(folder, "orders.wsdl").getAbsolutePath()).size()); //$NON-NLS-1$
+	}
+
+	public void testCatalog() throws IOException {
+		write("local.xsd", schema("urn:common", "")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		write("remote.wsdl", wsdl("urn:remote", "<wsdl:import namespace=\"urn:base\" location=\"http://acme.org/wsdl/base.wsdl\"/>")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		write("schemas/catalog.xml", "<catalog xmlns=\"urn:oasis:names:tc:entity:xmlns:xml:catalog\">" //$NON-NLS-1$ //$NON-NLS-2$
+				+ "<system systemId=\"schemas/common.xsd\" uri=\"../local.xsd\"/>" //$NON-NLS-1$
+				+ "<nextCatalog catalog=\"next.xml\"/></catalog>"); //$NON-NLS-1$
+		write("schemas/next.xml", "<catalog xmlns=\"urn:oasis:names:tc:entity:xmlns:xml:catalog\">" //$NON-NLS-1$ //$NON-NLS-2$
+				+ "<rewriteSystem systemIdStartString=\"http://acme.org/wsdl/\" rewritePrefix=\"../\"/></catalog>"); //$NON-NLS-1$
+		WSDLImportResolver resolver = new WSDLImportResolver(new File(folder, "schemas/catalog.xml").getAbsolutePath()); //$NON-NLS-1$
+		assertEquals(2, resolver.getCatalogs().size());
+		List<String> imports = resolver.getImports(new File(folder, "remote.wsdl").getAbsolutePath()); //$NON-NLS-1$
+		// the remote WSDL is rewritten to base.wsdl, and its schema is mapped
+		assertEquals(2, imports.size());
+		assertEquals(new File(folder, "base.wsdl").toURI().toURL().toExternalForm(), imports.get(0)); //$NON-NLS-1$
+		assertEquals(new File(folder, "local.xsd").toURI().toURL().toExternalForm(), imports.get(1)); //$NON-NLS-1$
+		assertTrue(resolver.getUnresolvedImports().isEmpty());
+	}
+
+	public void testFindWSDLs() throws IOException {
+		List<String> wsdls = WSDL2JavaBatchCommand.findWSDLs(folder);
+		assertEquals(3, wsdls.size());
+		assertTrue(wsdls.get(0).endsWith("base.wsdl")); //$NON-NLS-1$
+		assertTrue(wsdls.get(2).endsWith("invoices.wsdl")); //$NON-NLS-1$
+		write("catalog.xml", "<catalog xmlns=\"urn:oasis:names:tc:entity:xmlns:xml:catalog\">" //$NON-NLS-1$ //$NON-NLS-2$
+				+ "<uri name=\"urn:orders\" uri=\"orders.wsdl\"/><uri name=\"urn:common\" uri=\"schemas/common.xsd\"/>" //$NON-NLS-1$
+				+ "</catalog>"); //$NON-NLS-1$
+		wsdls = WSDL2JavaBatchCommand.findWSDLs(new File(folder, "catalog.xml")); //$NON-NLS-1$
+		assertEquals(1, wsdls.size());
+		assertEquals(new File(folder, "orders.wsdl").getAbsolutePath(), wsdls.get(0)); //$NON-NLS-1$
+	}
+
+	private static String wsdl(String namespace, String content) {
+		return "<wsdl:definitions xmlns:wsdl=\"http://schemas.xmlsoap.org/wsdl/\" targetNamespace=\"" + namespace //$NON-NLS-1$
+				+ "\">" + content + "</wsdl:definitions>"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private static String schema(String namespace, String content) {
+		return "<xsd:schema xmlns:xsd=\"http://www.w3.org/2001/XMLSchema\" targetNamespace=\"" + namespace //$NON-NLS-1$
+				+ "\">" + content + "</xsd:schema>"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private void write(String path, String content) throws IOException {
+		FileOutputStream out = new FileOutputStream(new File(folder, path));
+		try {
+			out.write(content.getBytes("UTF-8")); //$NON-NLS-1$
+		} finally {
+			out.close();
+		}
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+}
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+
+package org.jboss.wsf.spi.tools;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fake of the wsconsume SPI of the JBossWS runtimes, recording the calls of
+ * the JBossWSToolsRunner. It has no setter for the additional headers.
+ */
+public class WSContractConsumer {
+
+	public static final List<String> calls = new ArrayList<String>();
+
+	/** While true, the generation writes messages until it is aborted. */
+	public static volatile boolean blocking = false;
+
+	private PrintStream messageStream;
+
+	public static WSContractConsumer newInstance(ClassLoader loader) {
+		return new WSContractConsumer();
+	}
+
+	public void setMessageStream(PrintStream messageStream) {
+		this.messageStream = messageStream;
+	}
+
+	public void setGenerateSource(boolean generateSource) {
+		calls.add("generateSource=" + generateSource); //$NON-NLS-1$
+	}
+
+	public void setNoCompile(boolean noCompile) {
+		calls.add("noCompile=" + noCompile); //$NON-NLS-1$
+	}
+
+	public void setExtension(boolean extension) {
+		calls.add("extension=" + extension); //$NON-NLS-1$
+	}
+
+	public void setBindingFiles(List<File> bindingFiles) {
+		calls.add("bindingFiles=" + bindingFiles); //$NON-NLS-1$
+	}
+
+	public void setCatalog(File catalog) {
+		calls.add("catalog=" + catalog); //$NON-NLS-1$
+	}
+
+	public void setTargetPackage(String targetPackage) {
+		calls.add("targetPackage=" + targetPackage); //$NON-NLS-1$
+	}
+
+	public void setWsdlLocation(String wsdlLocation) {
+		calls.add("wsdlLocation=" + wsdlLocation); //$NON-NLS-1$
+	}
+
+	public void setTarget(String target) {
+		calls.add("target=" + target); //$NON-NLS-1$
+	}
+
+	public void setSourceDirectory(File sourceDirectory) {
+		calls.add("sourceDirectory=" + sourceDirectory); //$NON-NLS-1$
+	}
+
+	public void setOutputDirectory(File outputDirectory) {
+		calls.add("outputDirectory=" + outputDirectory); //$NON-NLS-1$
+	}
+
+	public void setAdditionalCompilerClassPath(List<String> classPath) {
+		calls.add("additionalCompilerClassPath=" + classPath); //$NON-NLS-1$
+	}
+
+	public void consume(URL wsdl) throws Exception {
+		calls.add("consume=" + wsdl); //$NON-NLS-1$
+		messageStream.println("parsing WSDL..."); //$NON-NLS-1$
+		messageStream.println("generating code..."); //$NON-NLS-1$
+		while (blocking) {
+			messageStream.println("waiting"); //$NON-NLS-1$
+			Thread.sleep(10);
+		}
+	}
+}
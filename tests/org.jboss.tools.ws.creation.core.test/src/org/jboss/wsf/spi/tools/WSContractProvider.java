@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+
+package org.jboss.wsf.spi.tools;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fake of the wsprovide SPI of the JBossWS runtimes, recording the calls of
+ * the JBossWSToolsRunner.
+ */
+public class WSContractProvider {
+
+	public static final List<String> calls = new ArrayList<String>();
+
+	private PrintStream messageStream;
+
+	public static WSContractProvider newInstance(ClassLoader loader) {
+		return new WSContractProvider();
+	}
+
+	public void setMessageStream(PrintStream messageStream) {
+		this.messageStream = messageStream;
+	}
+
+	public void setGenerateSource(boolean generateSource) {
+		calls.add("generateSource=" + generateSource); //$NON-NLS-1$
+	}
+
+	public void setGenerateWsdl(boolean generateWsdl) {
+		calls.add("generateWsdl=" + generateWsdl); //$NON-NLS-1$
+	}
+
+	public void setExtension(boolean extension) {
+		calls.add("extension=" + extension); //$NON-NLS-1$
+	}
+
+	public void setResourceDirectory(File resourceDirectory) {
+		calls.add("resourceDirectory=" + resourceDirectory); //$NON-NLS-1$
+	}
+
+	public void setSourceDirectory(File sourceDirectory) {
+		calls.add("sourceDirectory=" + sourceDirectory); //$NON-NLS-1$
+	}
+
+	public void setOutputDirectory(File outputDirectory) {
+		calls.add("outputDirectory=" + outputDirectory); //$NON-NLS-1$
+	}
+
+	public void setClassLoader(ClassLoader loader) {
+		calls.add("classLoader=" + Arrays.asList(((URLClassLoader) loader).getURLs())); //$NON-NLS-1$
+	}
+
+	public void provide(String endpointClass) {
+		calls.add("provide=" + endpointClass); //$NON-NLS-1$
+		messageStream.println("Generating WSDL..."); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.benchmark;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The measurements of a benchmark: the duration of each measured iteration, and the memory allocated during all
+ * measured iterations.
+ */
+public class BenchmarkResult {
+
+	/** CSV header matching the lines returned by {@link BenchmarkResult#toCsv()}. */
+	public static final String CSV_HEADER = "benchmark,iterations,operations,mean_ms,p50_ms,p90_ms,p99_ms,max_ms,ops_per_sec,bytes_per_op,mb_per_sec"; //$NON-NLS-1$
+
+	private final String name;
+
+	/** the number of operations performed during each iteration. */
+	private final int operationsPerIteration;
+
+	/** the sorted durations of the measured iterations, in nanoseconds. */
+	private final long[] durations;
+
+	/** the bytes allocated during the measured iterations, or -1 if the JVM cannot tell. */
+	private final long allocatedBytes;
+
+	public BenchmarkResult(final String name, final int operationsPerIteration, final long[] durations,
+			final long allocatedBytes) {
+		this.name = name;
+		this.operationsPerIteration = operationsPerIteration;
+		this.durations = durations.clone();
+		Arrays.sort(this.durations);
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	/**
+	 * @return the name of the benchmark
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the number of measured iterations
+	 */
+	public int getIterations() {
+		return durations.length;
+	}
+
+	/**
+	 * @return the total number of measured operations
+	 */
+	public long getOperations() {
+		return (long) durations.length * operationsPerIteration;
+	}
+
+	/**
+	 * @return the total duration of the measured iterations, in nanoseconds
+	 */
+	public long getTotalDuration() {
+		long total = 0;
+		for (long duration : durations) {
+			total += duration;
+		}
+		return total;
+	}
+
+	/**
+	 * @return the mean duration of an iteration, in milliseconds
+	 */
+	public double getMean() {
+		return durations.length == 0 ? 0 : toMillis(getTotalDuration()) / durations.length;
+	}
+
+	/**
+	 * @param percentile
+	 *            the percentile, between 0 and 100
+	 * @return the iteration duration at the given percentile (nearest rank), in milliseconds
+	 */
+	public double getPercentile(final double percentile) {
+		if (durations.length == 0) {
+			return 0;
+		}
+		final int rank = (int) Math.ceil(percentile / 100 * durations.length);
+		return toMillis(durations[Math.min(durations.length - 1, Math.max(0, rank - 1))]);
+	}
+
+	/**
+	 * @return the number of operations per second
+	 */
+	public double getThroughput() {
+		final long totalDuration = getTotalDuration();
+		return totalDuration == 0 ? 0 : getOperations() * 1e9 / totalDuration;
+	}
+
+	/**
+	 * @return the number of bytes allocated per operation, or -1 if unknown
+	 */
+	public long getAllocatedBytesPerOperation() {
+		final long operations = getOperations();
+		return (allocatedBytes < 0 || operations == 0) ? -1 : allocatedBytes / operations;
+	}
+
+	/**
+	 * @return the allocation rate, in MB per second, or -1 if unknown
+	 */
+	public double getAllocationRate() {
+		final long totalDuration = getTotalDuration();
+		return (allocatedBytes < 0 || totalDuration == 0) ? -1 : (allocatedBytes / (1024d * 1024d))
+				/ (totalDuration / 1e9);
+	}
+
+	/**
+	 * @return the results as a line of CSV, matching the {@link BenchmarkResult#CSV_HEADER}
+	 */
+	public String toCsv() {
+		// Locale.ROOT: the decimal separator must not clash with the CSV one
+		return String.format(Locale.ROOT, "%s,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.1f,%d,%.1f", name, getIterations(),
+				getOperations(), getMean(), getPercentile(50), getPercentile(90), getPercentile(99), getPercentile(100),
+				getThroughput(), getAllocatedBytesPerOperation(), getAllocationRate());
+	}
+
+	@Override
+	public String toString() {
+		return String.format(Locale.ROOT,
+				"%s: %.1f ops/s, mean=%.3fms, p50=%.3fms, p90=%.3fms, p99=%.3fms, max=%.3fms, %d bytes/op (%.1f MB/s)",
+				name, getThroughput(), getMean(), getPercentile(50), getPercentile(90), getPercentile(99),
+				getPercentile(100), getAllocatedBytesPerOperation(), getAllocationRate());
+	}
+
+	private static double toMillis(final long nanos) {
+		return nanos / 1e6;
+	}
+
+}
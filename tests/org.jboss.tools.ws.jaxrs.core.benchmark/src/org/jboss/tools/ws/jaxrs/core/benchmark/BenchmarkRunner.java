@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Minimal benchmark harness, in the spirit of JMH but running inside the OSGi test runtime (which JMH cannot do, since
+ * it forks its own JVMs): each benchmark runs a number of warmup iterations, followed by a number of measured
+ * iterations whose durations and allocated memory are recorded. Results are logged and appended to a CSV report, and
+ * may be compared with a baseline report to detect regressions.
+ * <p>
+ * The runner is configured with the following system properties:
+ * <ul>
+ * <li><code>org.jboss.tools.ws.jaxrs.benchmark.warmup</code>: number of warmup iterations (default: 5)</li>
+ * <li><code>org.jboss.tools.ws.jaxrs.benchmark.iterations</code>: number of measured iterations (default: 20)</li>
+ * <li><code>org.jboss.tools.ws.jaxrs.benchmark.reportFile</code>: the CSV file to which results are appended</li>
+ * <li><code>org.jboss.tools.ws.jaxrs.benchmark.baseline</code>: a CSV report of a previous run to compare with</li>
+ * <li><code>org.jboss.tools.ws.jaxrs.benchmark.tolerance</code>: the accepted p50 latency increase over the baseline,
+ * in percent (default: 20)</li>
+ * </ul>
+ */
+public class BenchmarkRunner {
+
+	public static final String PROPERTY_PREFIX = "org.jboss.tools.ws.jaxrs.benchmark."; //$NON-NLS-1$
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BenchmarkRunner.class);
+
+	/**
+	 * A benchmarked operation.
+	 */
+	public interface Operation {
+
+		/**
+		 * Performs the operation once.
+		 *
+		 * @throws Exception
+		 */
+		void run() throws Exception;
+	}
+
+	private final int warmupIterations = Integer.getInteger(PROPERTY_PREFIX + "warmup", 5);
+
+	private final int measuredIterations = Integer.getInteger(PROPERTY_PREFIX + "iterations", 20);
+
+	private final String reportFile = System.getProperty(PROPERTY_PREFIX + "reportFile");
+
+	private final String baselineFile = System.getProperty(PROPERTY_PREFIX + "baseline");
+
+	private final int tolerance = Integer.getInteger(PROPERTY_PREFIX + "tolerance", 20);
+
+	/**
+	 * Runs the warmup and measured iterations of the given operation.
+	 *
+	 * @param name
+	 *            the benchmark name
+	 * @param operationsPerIteration
+	 *            the number of operations performed by each call to the given operation (for throughput and
+	 *            allocation rates)
+	 * @param operation
+	 *            the operation
+	 * @return the measurements
+	 * @throws Exception
+	 */
+	public BenchmarkResult run(final String name, final int operationsPerIteration, final Operation operation)
+			throws Exception {
+		LOGGER.info("Running benchmark '{}' ({} warmup and {} measured iterations)...", new Object[] { name,
+				warmupIterations, measuredIterations });
+		for (int i = 0; i < warmupIterations; i++) {
+			operation.run();
+		}
+		System.gc();
+		final long[] durations = new long[measuredIterations];
+		final long allocatedBytesBefore = getAllocatedBytes();
+		for (int i = 0; i < measuredIterations; i++) {
+			final long start = System.nanoTime();
+			operation.run();
+			durations[i] = System.nanoTime() - start;
+		}
+		final long allocatedBytesAfter = getAllocatedBytes();
+		final long allocatedBytes = (allocatedBytesBefore < 0 || allocatedBytesAfter < 0) ? -1 : allocatedBytesAfter
+				- allocatedBytesBefore;
+		final BenchmarkResult result = new BenchmarkResult(name, operationsPerIteration, durations, allocatedBytes);
+		LOGGER.info(result.toString());
+		report(result);
+		return result;
+	}
+
+	/**
+	 * Compares the given result with the same benchmark in the baseline report, if any.
+	 *
+	 * @param result
+	 *            the result to check
+	 * @return an error message if the median latency regressed more than the accepted tolerance, null otherwise.
+	 * @throws IOException
+	 */
+	public String checkAgainstBaseline(final BenchmarkResult result) throws IOException {
+		if (baselineFile == null) {
+			return null;
+		}
+		final Double baseline = readBaseline(new File(baselineFile)).get(result.getName());
+		if (baseline == null) {
+			LOGGER.info("No baseline for benchmark '{}'", result.getName());
+			return null;
+		}
+		final double limit = baseline * (100 + tolerance) / 100;
+		if (result.getPercentile(50) > limit) {
+			return String.format(Locale.ROOT, "Benchmark '%s' regressed: p50=%.3fms, baseline=%.3fms (tolerance: %d%%)",
+					result.getName(), result.getPercentile(50), baseline, tolerance);
+		}
+		return null;
+	}
+
+	/**
+	 * Appends the given result to the CSV report file, if configured.
+	 *
+	 * @param result
+	 * @throws IOException
+	 */
+	private void report(final BenchmarkResult result) throws IOException {
+		if (reportFile == null) {
+			return;
+		}
+		final File file = new File(reportFile);
+		final boolean newFile = !file.exists();
+		if (newFile && file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+		final PrintWriter writer = new PrintWriter(new FileWriter(file, true));
+		try {
+			if (newFile) {
+				writer.println(BenchmarkResult.CSV_HEADER);
+			}
+			writer.println(result.toCsv());
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * @return the p50 latencies of the given CSV report, indexed by benchmark name (the last line wins if a
+	 *         benchmark appears several times)
+	 * @throws IOException
+	 */
+	private static Map<String, Double> readBaseline(final File file) throws IOException {
+		final Map<String, Double> baseline = new HashMap<String, Double>();
+		final BufferedReader reader = new BufferedReader(new FileReader(file));
+		try {
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				final String[] columns = line.split(",");
+				if (columns.length > 4 && !line.equals(BenchmarkResult.CSV_HEADER)) {
+					baseline.put(columns[0], Double.valueOf(columns[4]));
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		return baseline;
+	}
+
+	/**
+	 * @return the number of bytes allocated so far by the current thread, or -1 if the JVM does not support it
+	 *         (this relies on the <code>com.sun.management.ThreadMXBean</code> extension, which is accessed
+	 *         reflectively).
+	 */
+	private static long getAllocatedBytes() {
+		final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		try {
+			final Method method = threadMXBean.getClass().getMethod("getThreadAllocatedBytes", long.class);
+			method.setAccessible(true);
+			return (Long) method.invoke(threadMXBean, Thread.currentThread().getId());
+		} catch (Exception e) {
+			return -1;
+		}
+	}
+
+}
@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.benchmark;
+
+import static org.eclipse.jdt.core.IJavaElementDelta.CHANGED;
+import static org.jboss.tools.ws.jaxrs.core.benchmark.BenchmarkRunner.PROPERTY_PREFIX;
+import static org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.JaxrsElementDelta.F_CONSUMED_MEDIATYPES_VALUE;
+import static org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.JaxrsElementDelta.F_HTTP_METHOD_VALUE;
+import static org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.JaxrsElementDelta.F_PATH_VALUE;
+import static org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.JaxrsElementDelta.F_PRODUCED_MEDIATYPES_VALUE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceDescription;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.jboss.tools.ws.jaxrs.core.JBossJaxrsCorePlugin;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.JaxrsMetamodelChangedProcessor;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.ResourceChangedProcessor;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.ResourceDelta;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsElementFactory;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsEndpoint;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain.JaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.jdt.CompilationUnitsRepository;
+import org.jboss.tools.ws.jaxrs.core.metamodel.IJaxrsEndpoint;
+import org.jboss.tools.ws.jaxrs.core.metamodel.JaxrsMetamodelDelta;
+import org.jboss.tools.ws.jaxrs.core.metamodel.JaxrsMetamodelLocator;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Benchmarks of the JAX-RS Metamodel build pipeline on a generated project (see {@link SyntheticProjectGenerator}),
+ * whose size is configured with the following system properties:
+ * <ul>
+ * <li><code>org.jboss.tools.ws.jaxrs.benchmark.resources</code> (default: 50)</li>
+ * <li><code>org.jboss.tools.ws.jaxrs.benchmark.methods</code> (default: 8)</li>
+ * <li><code>org.jboss.tools.ws.jaxrs.benchmark.locators</code> (default: 2)</li>
+ * <li><code>org.jboss.tools.ws.jaxrs.benchmark.providers</code> (default: 10)</li>
+ * </ul>
+ * The processors are invoked directly (rather than through the builder and its jobs), so that only the metamodel
+ * computation is measured. See {@link BenchmarkRunner} for the other options.
+ */
+public class JaxrsMetamodelBuildBenchmark {
+
+	private static final String PROJECT_NAME = "org.jboss.tools.ws.jaxrs.benchmark.project"; //$NON-NLS-1$
+
+	private static final int RESOURCES = Integer.getInteger(PROPERTY_PREFIX + "resources", 50);
+
+	private static final int METHODS = Integer.getInteger(PROPERTY_PREFIX + "methods", 8);
+
+	private static final int LOCATORS = Integer.getInteger(PROPERTY_PREFIX + "locators", 2);
+
+	private static final int PROVIDERS = Integer.getInteger(PROPERTY_PREFIX + "providers", 10);
+
+	private static final SyntheticProjectGenerator generator = new SyntheticProjectGenerator(RESOURCES, METHODS,
+			LOCATORS, PROVIDERS);
+
+	private static IProject project;
+
+	private static IJavaProject javaProject;
+
+	/** The auto-building setting of the workspace before the benchmarks, restored afterwards. */
+	private static boolean autoBuilding;
+
+	private final BenchmarkRunner runner = new BenchmarkRunner();
+
+	@BeforeClass
+	public static void generateProject() throws CoreException {
+		// the benchmarks invoke the processors directly: no builder, no listener
+		JBossJaxrsCorePlugin.getDefault().unregisterListeners();
+		autoBuilding = ResourcesPlugin.getWorkspace().isAutoBuilding();
+		setAutoBuilding(false);
+		project = generator.generate(PROJECT_NAME);
+		javaProject = JavaCore.create(project);
+		CompilationUnitsRepository.getInstance().clear();
+		build(true);
+		assertEquals(generator.getExpectedEndpoints(), getMetamodel().getAllEndpoints().size());
+	}
+
+	@AfterClass
+	public static void deleteProject() throws CoreException {
+		try {
+			CompilationUnitsRepository.getInstance().clear();
+			if (project != null) {
+				project.delete(true, true, new NullProgressMonitor());
+			}
+		} finally {
+			setAutoBuilding(autoBuilding);
+			JBossJaxrsCorePlugin.getDefault().registerListeners();
+		}
+	}
+
+	private static void setAutoBuilding(final boolean enabled) throws CoreException {
+		final IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		if (workspace.isAutoBuilding() != enabled) {
+			final IWorkspaceDescription description = workspace.getDescription();
+			description.setAutoBuilding(enabled);
+			workspace.setDescription(description);
+		}
+	}
+
+	private static JaxrsMetamodel getMetamodel() throws CoreException {
+		final JaxrsMetamodel metamodel = JaxrsMetamodelLocator.get(project);
+		assertNotNull("Metamodel not built", metamodel);
+		return metamodel;
+	}
+
+	/**
+	 * Builds the metamodel of the project, either entirely or after a change in the given resource.
+	 */
+	private static void build(final boolean withReset, final ResourceDelta... resourceDeltas) throws CoreException {
+		final List<ResourceDelta> events = new ArrayList<ResourceDelta>(Arrays.asList(resourceDeltas));
+		if (events.isEmpty()) {
+			events.add(new ResourceDelta(project, CHANGED, 0));
+		}
+		final JaxrsMetamodelDelta metamodelDelta = new ResourceChangedProcessor().processAffectedResources(project,
+				withReset, events, new NullProgressMonitor());
+		new JaxrsMetamodelChangedProcessor().processAffectedMetamodel(metamodelDelta, new NullProgressMonitor());
+	}
+
+	private void check(final BenchmarkResult result) throws Exception {
+		assertNull(runner.checkAgainstBaseline(result));
+	}
+
+	@Test
+	public void fullBuild() throws Exception {
+		check(runner.run("fullBuild", 1, new BenchmarkRunner.Operation() {
+			@Override
+			public void run() throws Exception {
+				build(true);
+			}
+		}));
+		assertEquals(generator.getExpectedEndpoints(), getMetamodel().getAllEndpoints().size());
+	}
+
+	@Test
+	public void incrementalEdit() throws Exception {
+		final IFile file = project.getFile("src/" + SyntheticProjectGenerator.PACKAGE_NAME.replace('.', '/')
+				+ "/Resource0.java");
+		final int[] edits = new int[1];
+		check(runner.run("incrementalEdit", 1, new BenchmarkRunner.Operation() {
+			@Override
+			public void run() throws Exception {
+				// alternatively change the path of all resource methods of the resource, so that the endpoints
+				// need to be refreshed each time
+				SyntheticProjectGenerator.setContent(file, generator.generateResource(0, (edits[0]++ % 2 == 0) ? "v2"
+						: ""));
+				build(false, new ResourceDelta(file, CHANGED, 0));
+			}
+		}));
+		assertEquals(generator.getExpectedEndpoints(), getMetamodel().getAllEndpoints().size());
+	}
+
+	@Test
+	public void elementFactory() throws Exception {
+		final JaxrsMetamodel metamodel = getMetamodel();
+		final List<IType> types = new ArrayList<IType>();
+		for (int i = 0; i < RESOURCES; i++) {
+			types.add(javaProject.findType(SyntheticProjectGenerator.PACKAGE_NAME + ".Resource" + i));
+		}
+		final JaxrsElementFactory factory = new JaxrsElementFactory();
+		check(runner.run("elementFactory.createResource", RESOURCES, new BenchmarkRunner.Operation() {
+			@Override
+			public void run() throws Exception {
+				for (IType type : types) {
+					final CompilationUnit ast = CompilationUnitsRepository.getInstance().getAST(
+							type.getCompilationUnit());
+					factory.createResource(type, ast, metamodel);
+				}
+			}
+		}));
+	}
+
+	@Test
+	public void endpointRefresh() throws Exception {
+		final List<IJaxrsEndpoint> endpoints = getMetamodel().getAllEndpoints();
+		final int flags = F_HTTP_METHOD_VALUE | F_PATH_VALUE | F_CONSUMED_MEDIATYPES_VALUE
+				| F_PRODUCED_MEDIATYPES_VALUE;
+		check(runner.run("endpointRefresh", endpoints.size(), new BenchmarkRunner.Operation() {
+			@Override
+			public void run() throws Exception {
+				for (IJaxrsEndpoint endpoint : endpoints) {
+					final JaxrsEndpoint jaxrsEndpoint = (JaxrsEndpoint) endpoint;
+					jaxrsEndpoint.refresh(jaxrsEndpoint.getResourceMethods().getLast(), flags);
+				}
+			}
+		}));
+	}
+
+}
@@ -0,0 +1,282 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.launching.JavaRuntime;
+import org.jboss.tools.ws.jaxrs.core.configuration.ProjectNatureUtils;
+import org.osgi.framework.Bundle;
+
+/**
+ * Generates a Java project with a configurable number of JAX-RS elements:
+ * <ul>
+ * <li>a JAX-RS application (annotated with <code>@ApplicationPath</code>),</li>
+ * <li><code>resources</code> root resources, each with <code>methods</code> resource methods (alternatively GET, POST,
+ * PUT and DELETE, with path, path params and query params) and <code>locators</code> subresource locators returning a
+ * subresource with <code>methods</code> subresource methods,</li>
+ * <li><code>providers</code> exception mappers.</li>
+ * </ul>
+ * The JAX-RS API library is shipped in the <code>lib</code> folder of this bundle.
+ */
+public class SyntheticProjectGenerator {
+
+	public static final String PACKAGE_NAME = "org.jboss.tools.ws.jaxrs.benchmark"; //$NON-NLS-1$
+
+	private static final String BUNDLE_ID = "org.jboss.tools.ws.jaxrs.core.benchmark"; //$NON-NLS-1$
+
+	private static final String JAXRS_API_LIBRARY = "lib/jaxrs-api-2.0.1.GA.jar"; //$NON-NLS-1$
+
+	private static final String[] HTTP_METHODS = new String[] { "GET", "POST", "PUT", "DELETE" };
+
+	private final int resources;
+
+	private final int methods;
+
+	private final int locators;
+
+	private final int providers;
+
+	/**
+	 * Full constructor.
+	 *
+	 * @param resources
+	 *            the number of root resources
+	 * @param methods
+	 *            the number of resource methods per resource (and of subresource methods per subresource)
+	 * @param locators
+	 *            the number of subresource locators per resource
+	 * @param providers
+	 *            the number of providers
+	 */
+	public SyntheticProjectGenerator(final int resources, final int methods, final int locators, final int providers) {
+		this.resources = resources;
+		this.methods = methods;
+		this.locators = locators;
+		this.providers = providers;
+	}
+
+	/**
+	 * @return the number of endpoints that the JAX-RS metamodel of the generated project should have.
+	 */
+	public int getExpectedEndpoints() {
+		return resources * (methods + locators * methods);
+	}
+
+	/**
+	 * Creates the project in the current workspace (replacing any existing project with the same name), with the Java
+	 * and JAX-RS natures.
+	 *
+	 * @param projectName
+	 *            the project name
+	 * @return the project
+	 * @throws CoreException
+	 */
+	public IProject generate(final String projectName) throws CoreException {
+		final IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		final IProject project = workspace.getRoot().getProject(projectName);
+		workspace.run(new IWorkspaceRunnable() {
+			@Override
+			public void run(final IProgressMonitor monitor) throws CoreException {
+				if (project.exists()) {
+					project.delete(true, true, monitor);
+				}
+				project.create(monitor);
+				project.open(monitor);
+				final IProjectDescription description = project.getDescription();
+				description.setNatureIds(new String[] { JavaCore.NATURE_ID });
+				project.setDescription(description, monitor);
+				final IJavaProject javaProject = JavaCore.create(project);
+				final IFolder sourceFolder = project.getFolder("src");
+				sourceFolder.create(true, true, monitor);
+				javaProject.setRawClasspath(new IClasspathEntry[] {
+						JavaCore.newSourceEntry(sourceFolder.getFullPath()),
+						JavaRuntime.getDefaultJREContainerEntry(),
+						JavaCore.newLibraryEntry(new Path(getJaxrsApiLibrary().getAbsolutePath()), null, null) },
+						project.getFolder("bin").getFullPath(), monitor);
+				final IFolder packageFolder = createFolders(sourceFolder, PACKAGE_NAME.replace('.', '/'), monitor);
+				createFile(packageFolder, "BenchmarkApplication.java", generateApplication(), monitor);
+				for (int i = 0; i < resources; i++) {
+					createFile(packageFolder, "Resource" + i + ".java", generateResource(i, ""), monitor);
+					createFile(packageFolder, "Subresource" + i + ".java", generateSubresource(i), monitor);
+				}
+				for (int i = 0; i < providers; i++) {
+					createFile(packageFolder, "Provider" + i + ".java", generateProvider(i), monitor);
+				}
+			}
+		}, new NullProgressMonitor());
+		ProjectNatureUtils.installProjectNature(project, ProjectNatureUtils.JAXRS_NATURE_ID);
+		return project;
+	}
+
+	/**
+	 * @return the source code of the JAX-RS application.
+	 */
+	public String generateApplication() {
+		final StringBuilder source = new StringBuilder();
+		source.append("package ").append(PACKAGE_NAME).append(";\n\n");
+		source.append("import javax.ws.rs.ApplicationPath;\n");
+		source.append("import javax.ws.rs.core.Application;\n\n");
+		source.append("@ApplicationPath(\"/rest\")\n");
+		source.append("public class BenchmarkApplication extends Application {\n}\n");
+		return source.toString();
+	}
+
+	/**
+	 * @param index
+	 *            the resource index
+	 * @param pathSuffix
+	 *            a suffix appended to the path of the resource methods (to simulate edits)
+	 * @return the source code of the root resource with the given index.
+	 */
+	public String generateResource(final int index, final String pathSuffix) {
+		final StringBuilder source = new StringBuilder();
+		appendHeader(source);
+		source.append("@Path(\"/resource").append(index).append("\")\n");
+		source.append("@Produces(\"application/json\")\n");
+		source.append("public class Resource").append(index).append(" {\n\n");
+		for (int i = 0; i < methods; i++) {
+			final String httpMethod = HTTP_METHODS[i % HTTP_METHODS.length];
+			source.append("\t@").append(httpMethod).append("\n");
+			source.append("\t@Path(\"method").append(i).append(pathSuffix).append("/{id}\")\n");
+			if (!"GET".equals(httpMethod) && !"DELETE".equals(httpMethod)) {
+				source.append("\t@Consumes(\"application/xml\")\n");
+			}
+			source.append("\tpublic String method").append(i)
+					.append("(@PathParam(\"id\") String id, @QueryParam(\"q\") String query) {\n");
+			source.append("\t\treturn id;\n\t}\n\n");
+		}
+		for (int i = 0; i < locators; i++) {
+			source.append("\t@Path(\"locator").append(i).append("\")\n");
+			source.append("\tpublic Subresource").append(index).append(" locator").append(i).append("() {\n");
+			source.append("\t\treturn new Subresource").append(index).append("();\n\t}\n\n");
+		}
+		source.append("}\n");
+		return source.toString();
+	}
+
+	/**
+	 * @param index
+	 *            the resource index
+	 * @return the source code of the subresource returned by the locators of the root resource with the given
+	 *         index.
+	 */
+	public String generateSubresource(final int index) {
+		final StringBuilder source = new StringBuilder();
+		appendHeader(source);
+		source.append("public class Subresource").append(index).append(" {\n\n");
+		for (int i = 0; i < methods; i++) {
+			source.append("\t@").append(HTTP_METHODS[i % HTTP_METHODS.length]).append("\n");
+			source.append("\t@Path(\"item").append(i).append("\")\n");
+			source.append("\tpublic String item").append(i).append("(@MatrixParam(\"m\") String matrix) {\n");
+			source.append("\t\treturn matrix;\n\t}\n\n");
+		}
+		source.append("}\n");
+		return source.toString();
+	}
+
+	/**
+	 * @param index
+	 *            the provider index
+	 * @return the source code of the provider with the given index.
+	 */
+	public String generateProvider(final int index) {
+		final StringBuilder source = new StringBuilder();
+		source.append("package ").append(PACKAGE_NAME).append(";\n\n");
+		source.append("import javax.ws.rs.core.Response;\n");
+		source.append("import javax.ws.rs.ext.ExceptionMapper;\n");
+		source.append("import javax.ws.rs.ext.Provider;\n\n");
+		source.append("@Provider\n");
+		source.append("public class Provider").append(index).append(" implements ExceptionMapper<Provider")
+				.append(index).append(".Failure> {\n\n");
+		source.append("\tpublic static class Failure extends RuntimeException {\n");
+		source.append("\t\tprivate static final long serialVersionUID = 1L;\n\t}\n\n");
+		source.append("\tpublic Response toResponse(Failure failure) {\n");
+		source.append("\t\treturn Response.serverError().build();\n\t}\n\n");
+		source.append("}\n");
+		return source.toString();
+	}
+
+	private static void appendHeader(final StringBuilder source) {
+		source.append("package ").append(PACKAGE_NAME).append(";\n\n");
+		source.append("import javax.ws.rs.*;\n\n");
+	}
+
+	/**
+	 * Replaces the content of the given file.
+	 *
+	 * @param file
+	 *            the file
+	 * @param content
+	 *            the new content
+	 * @throws CoreException
+	 */
+	public static void setContent(final IFile file, final String content) throws CoreException {
+		file.setContents(toStream(content), IResource.FORCE, new NullProgressMonitor());
+	}
+
+	private static IFolder createFolders(final IFolder parent, final String path, final IProgressMonitor monitor)
+			throws CoreException {
+		IFolder folder = parent;
+		for (String segment : path.split("/")) {
+			folder = folder.getFolder(segment);
+			if (!folder.exists()) {
+				folder.create(true, true, monitor);
+			}
+		}
+		return folder;
+	}
+
+	private static void createFile(final IFolder folder, final String name, final String content,
+			final IProgressMonitor monitor) throws CoreException {
+		folder.getFile(name).create(toStream(content), true, monitor);
+	}
+
+	private static ByteArrayInputStream toStream(final String content) {
+		try {
+			return new ByteArrayInputStream(content.getBytes("UTF-8"));
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static File getJaxrsApiLibrary() {
+		final Bundle bundle = Platform.getBundle(BUNDLE_ID);
+		try {
+			final URL url = FileLocator.toFileURL(bundle.getEntry(JAXRS_API_LIBRARY));
+			return new File(url.getPath());
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to locate the JAX-RS API library in bundle " + BUNDLE_ID, e);
+		}
+	}
+
+}
@@ -37,6 +37,7 @@ import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.ui.dialogs.IOverwriteQuery;
 import org.eclipse.ui.internal.ide.filesystem.FileSystemStructureProvider;
 import org.eclipse.ui.wizards.datatransfer.ImportOperation;
+import org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder.ResourceChangedBuildJob;
 import org.junit.Assert;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -161,6 +162,7 @@ public class WorkbenchTasks {
 			OperationCanceledException, InterruptedException {
 		ResourcesPlugin.getWorkspace().build(IncrementalProjectBuilder.AUTO_BUILD, progressMonitor);
 		Job.getJobManager().join(ResourcesPlugin.FAMILY_AUTO_BUILD, null);
+		Job.getJobManager().join(ResourceChangedBuildJob.FAMILY, null);
 	}
 
 	public static void buildProject(final IProject project, final IProgressMonitor progressMonitor)
@@ -173,6 +175,7 @@ public class WorkbenchTasks {
 		project.refreshLocal(IResource.DEPTH_INFINITE, progressMonitor);
 		project.build(buildKind, progressMonitor);
 		Job.getJobManager().join(ResourcesPlugin.FAMILY_MANUAL_BUILD, null);
+		Job.getJobManager().join(ResourceChangedBuildJob.FAMILY, null);
 	}
 
 	public static IPackageFragmentRoot addClasspathEntry(IJavaProject javaProject, String name,
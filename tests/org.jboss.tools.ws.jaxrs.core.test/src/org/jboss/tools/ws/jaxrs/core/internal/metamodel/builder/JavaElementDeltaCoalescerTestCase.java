@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder;
+
+import static org.eclipse.jdt.core.ElementChangedEvent.POST_RECONCILE;
+import static org.eclipse.jdt.core.IJavaElementDelta.ADDED;
+import static org.eclipse.jdt.core.IJavaElementDelta.CHANGED;
+import static org.eclipse.jdt.core.IJavaElementDelta.REMOVED;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JavaElementDeltaCoalescerTestCase {
+
+	private final JavaElementDeltaCoalescer coalescer = new JavaElementDeltaCoalescer();
+
+	private IMethod fooMethod;
+
+	private IMethod barMethod;
+
+	private CompilationUnit firstAST;
+
+	private CompilationUnit secondAST;
+
+	@Before
+	public void setup() {
+		final ICompilationUnit compilationUnit = mock(ICompilationUnit.class);
+		when(compilationUnit.getHandleIdentifier()).thenReturn("=p/src<com.acme{Resource.java");
+		fooMethod = createMethod(compilationUnit, "foo");
+		barMethod = createMethod(compilationUnit, "bar");
+		firstAST = AST.newAST(AST.JLS4).newCompilationUnit();
+		secondAST = AST.newAST(AST.JLS4).newCompilationUnit();
+	}
+
+	private static IMethod createMethod(final ICompilationUnit compilationUnit, final String name) {
+		final IMethod method = mock(IMethod.class);
+		when(method.getHandleIdentifier()).thenReturn(compilationUnit.getHandleIdentifier() + "[Resource~" + name);
+		when(method.getCompilationUnit()).thenReturn(compilationUnit);
+		return method;
+	}
+
+	private static JavaElementDelta createDelta(IMethod method, int deltaKind, CompilationUnit ast, int flags) {
+		return new JavaElementDelta(method, deltaKind, POST_RECONCILE, ast, flags);
+	}
+
+	@Test
+	public void shouldMergeSuccessiveChangesOnSameElement() {
+		// operation
+		final List<JavaElementDelta> deltas = coalescer.coalesce(Arrays.asList(
+				createDelta(fooMethod, CHANGED, firstAST, 1), createDelta(fooMethod, CHANGED, secondAST, 2)));
+		// verifications
+		assertThat(deltas, hasSize(1));
+		assertThat(deltas.get(0).getDeltaKind(), equalTo(CHANGED));
+		assertThat(deltas.get(0).getFlags(), equalTo(3));
+		assertThat(deltas.get(0).getCompilationUnitAST(), equalTo(secondAST));
+	}
+
+	@Test
+	public void shouldDiscardElementAddedThenRemoved() {
+		// operation
+		final List<JavaElementDelta> deltas = coalescer.coalesce(Arrays.asList(
+				createDelta(fooMethod, ADDED, firstAST, 0), createDelta(barMethod, CHANGED, firstAST, 1),
+				createDelta(fooMethod, REMOVED, null, 0)));
+		// verifications
+		assertThat(deltas, hasSize(1));
+		assertThat(deltas.get(0).getElement(), equalTo((Object) barMethod));
+	}
+
+	@Test
+	public void shouldReportElementChangedThenRemovedAsRemoved() {
+		// operation
+		final List<JavaElementDelta> deltas = coalescer.coalesce(Arrays.asList(
+				createDelta(fooMethod, CHANGED, firstAST, 1), createDelta(fooMethod, REMOVED, null, 0)));
+		// verifications
+		assertThat(deltas, hasSize(1));
+		assertThat(deltas.get(0).getDeltaKind(), equalTo(REMOVED));
+	}
+
+	@Test
+	public void shouldKeepElementRemovedThenAdded() {
+		// operation
+		final List<JavaElementDelta> deltas = coalescer.coalesce(Arrays.asList(
+				createDelta(fooMethod, REMOVED, null, 0), createDelta(fooMethod, ADDED, secondAST, 0)));
+		// verifications
+		assertThat(deltas, hasSize(2));
+		assertThat(deltas.get(0).getDeltaKind(), equalTo(REMOVED));
+		assertThat(deltas.get(1).getDeltaKind(), equalTo(ADDED));
+	}
+
+	@Test
+	public void shouldBindDeltasToLatestAST() {
+		// operation
+		final List<JavaElementDelta> deltas = coalescer.coalesce(Arrays.asList(
+				createDelta(fooMethod, ADDED, firstAST, 0), createDelta(barMethod, CHANGED, secondAST, 1)));
+		// verifications
+		assertThat(deltas, hasSize(2));
+		assertThat(deltas.get(0).getElement(), equalTo((Object) fooMethod));
+		assertThat(deltas.get(0).getCompilationUnitAST(), equalTo(secondAST));
+		assertThat(deltas.get(1).getCompilationUnitAST(), equalTo(secondAST));
+	}
+
+}
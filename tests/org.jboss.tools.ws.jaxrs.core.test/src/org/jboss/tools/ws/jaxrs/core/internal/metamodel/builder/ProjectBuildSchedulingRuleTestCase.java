@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.builder;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.jboss.tools.ws.jaxrs.core.AbstractCommonTestCase;
+import org.junit.Test;
+
+public class ProjectBuildSchedulingRuleTestCase extends AbstractCommonTestCase {
+
+	@Test
+	public void shouldConflictWithRuleOnSameProject() {
+		// pre-conditions
+		final ProjectBuildSchedulingRule rule = new ProjectBuildSchedulingRule(project);
+		final ProjectBuildSchedulingRule otherRule = new ProjectBuildSchedulingRule(project);
+		// operation & verifications
+		assertThat(rule.isConflicting(otherRule), is(true));
+		assertThat(otherRule.isConflicting(rule), is(true));
+		assertThat(rule.contains(otherRule), is(true));
+	}
+
+	@Test
+	public void shouldNotConflictWithRuleOnUnrelatedProject() {
+		// pre-conditions
+		final IProject otherProject = ResourcesPlugin.getWorkspace().getRoot().getProject("unrelated");
+		final ProjectBuildSchedulingRule rule = new ProjectBuildSchedulingRule(project);
+		final ProjectBuildSchedulingRule otherRule = new ProjectBuildSchedulingRule(otherProject);
+		// operation & verifications
+		assertThat(rule.isConflicting(otherRule), is(false));
+		assertThat(otherRule.isConflicting(rule), is(false));
+		assertThat(rule.contains(otherRule), is(false));
+	}
+
+	@Test
+	public void shouldConflictWithRulesOnDependentProjects() throws CoreException {
+		// pre-conditions: 'dependent' references the project, and 'transitive' references 'dependent'
+		final IProject dependentProject = createProject("dependent", project);
+		final IProject transitiveProject = createProject("transitive", dependentProject);
+		try {
+			final ProjectBuildSchedulingRule rule = new ProjectBuildSchedulingRule(project);
+			final ProjectBuildSchedulingRule dependentRule = new ProjectBuildSchedulingRule(dependentProject);
+			final ProjectBuildSchedulingRule transitiveRule = new ProjectBuildSchedulingRule(transitiveProject);
+			final ProjectBuildSchedulingRule unrelatedRule = new ProjectBuildSchedulingRule(ResourcesPlugin
+					.getWorkspace().getRoot().getProject("unrelated"));
+			// operation & verifications
+			assertThat(rule.isConflicting(dependentRule), is(true));
+			assertThat(dependentRule.isConflicting(rule), is(true));
+			assertThat(rule.isConflicting(transitiveRule), is(true));
+			assertThat(transitiveRule.isConflicting(rule), is(true));
+			assertThat(dependentRule.isConflicting(transitiveRule), is(true));
+			assertThat(dependentRule.isConflicting(unrelatedRule), is(false));
+			assertThat(transitiveRule.isConflicting(unrelatedRule), is(false));
+			assertThat(rule.contains(dependentRule), is(false));
+			assertThat(dependentRule.contains(rule), is(false));
+		} finally {
+			transitiveProject.delete(true, null);
+			dependentProject.delete(true, null);
+		}
+	}
+
+	@Test
+	public void shouldNotConflictWithOtherRules() {
+		// pre-conditions
+		final ProjectBuildSchedulingRule rule = new ProjectBuildSchedulingRule(project);
+		// operation & verifications
+		assertThat(rule.isConflicting(project), is(false));
+		assertThat(rule.isConflicting(ResourcesPlugin.getWorkspace().getRoot()), is(false));
+	}
+
+	private static IProject createProject(final String name, final IProject referencedProject) throws CoreException {
+		final IProject newProject = ResourcesPlugin.getWorkspace().getRoot().getProject(name);
+		if (!newProject.exists()) {
+			newProject.create(null);
+		}
+		newProject.open(null);
+		final IProjectDescription description = newProject.getDescription();
+		description.setReferencedProjects(new IProject[] { referencedProject });
+		newProject.setDescription(description, null);
+		return newProject;
+	}
+
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.internal.metamodel.domain;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.eclipse.core.runtime.CoreException;
+import org.jboss.tools.ws.jaxrs.core.builder.AbstractMetamodelBuilderTestCase;
+import org.jboss.tools.ws.jaxrs.core.metamodel.JaxrsMetamodelLocator;
+import org.junit.Test;
+
+public class JaxrsMetamodelSnapshotTestCase extends AbstractMetamodelBuilderTestCase {
+
+	@Test
+	public void shouldRestoreMetamodelFromSnapshot() throws CoreException {
+		// pre-conditions
+		final int applications = metamodel.getAllApplications().size();
+		final int httpMethods = metamodel.getAllHttpMethods().size();
+		final int resources = metamodel.getAllResources().size();
+		JaxrsMetamodelSnapshot.save(metamodel);
+		metamodel.remove();
+		assertThat(JaxrsMetamodelLocator.get(project), nullValue());
+		// operation
+		final JaxrsMetamodelSnapshot snapshot = JaxrsMetamodelSnapshot.restore(project);
+		// verifications
+		assertThat(snapshot, notNullValue());
+		assertThat(JaxrsMetamodelLocator.get(project), equalTo(snapshot.getMetamodel()));
+		assertThat(snapshot.getMetamodel().getAllApplications(), hasSize(applications));
+		assertThat(snapshot.getMetamodel().getAllHttpMethods(), hasSize(httpMethods));
+		assertThat(snapshot.getMetamodel().getAllResources(), hasSize(resources));
+		assertThat(snapshot.getChangedResources(), hasSize(0));
+		assertThat(snapshot.getRemovedResources(), hasSize(0));
+	}
+
+	@Test
+	public void shouldNotRestoreMetamodelWithoutSnapshot() throws CoreException {
+		// pre-conditions
+		JaxrsMetamodelSnapshot.discard(project);
+		// operation
+		final JaxrsMetamodelSnapshot snapshot = JaxrsMetamodelSnapshot.restore(project);
+		// verifications
+		assertThat(snapshot, nullValue());
+	}
+
+}
@@ -227,6 +227,43 @@ public class JaxrsMetamodelTestCase extends AbstractMetamodelBuilderTestCase {
 		assertThat(httpMethods.get(6).getHttpVerb(), equalTo("FOO"));
 		
 	}
+
+	@Test
+	public void shouldGetHttpMethodByQualifiedName() throws CoreException {
+		assertThat(metamodel.getHttpMethod("org.jboss.tools.ws.jaxrs.sample.services.FOO"), notNullValue());
+		assertThat(metamodel.getHttpMethod("javax.ws.rs.GET"), notNullValue());
+	}
+
+	@Test
+	public void shouldGetSubresourceLocatorsByReturnedType() throws CoreException {
+		final IType objectType = JdtUtils.resolveType(Object.class.getName(), javaProject, progressMonitor);
+		final IType locatorType = getType("org.jboss.tools.ws.jaxrs.sample.services.ProductResourceLocator", javaProject);
+		final IMethod locatorMethod = getMethod(locatorType, "getProductResourceLocator");
+		final List<JaxrsResourceMethod> subresourceLocators = metamodel.getSubresourceLocators(objectType);
+		assertThat(subresourceLocators, hasSize(1));
+		assertThat(subresourceLocators.get(0).getJavaElement(), equalTo(locatorMethod));
+	}
+
+	@Test
+	public void shouldGetEndpointsByResourceMethod() throws CoreException {
+		final IType bookType = getType("org.jboss.tools.ws.jaxrs.sample.services.BookResource", javaProject);
+		final IMethod bookMethod = getMethod(bookType, "getProduct");
+		final IJaxrsResourceMethod bookResourceMethod = (IJaxrsResourceMethod) metamodel.getElement(bookMethod);
+		final List<JaxrsEndpoint> endpoints = metamodel.getEndpoints(bookResourceMethod);
+		assertThat(endpoints, hasSize(1));
+		assertThat(endpoints.get(0).match(bookResourceMethod), equalTo(true));
+	}
+
+	@Test
+	public void shouldShareResourcesSnapshotUntilResourcesChange() throws CoreException {
+		final List<IJaxrsResource> resources = metamodel.getAllResources();
+		assertThat(metamodel.getAllResources() == resources, equalTo(true));
+		final JaxrsResource bookResource = metamodel.getResource(getType(
+				"org.jboss.tools.ws.jaxrs.sample.services.BookResource", javaProject));
+		metamodel.remove(bookResource);
+		assertThat(metamodel.getAllResources() == resources, equalTo(false));
+		assertThat(metamodel.getAllResources(), hasSize(resources.size() - 1));
+	}
 	
 
 }
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.core.internal.utils;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.core.resources.IProject;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.BuildMetrics.Counter;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.BuildMetrics.Phase;
+import org.jboss.tools.ws.jaxrs.core.internal.utils.BuildMetrics.ProjectMetrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BuildMetricsTestCase {
+
+	private final BuildMetrics metrics = BuildMetrics.getInstance();
+
+	private IProject project;
+
+	@Before
+	public void setup() {
+		metrics.reset();
+		project = mock(IProject.class);
+		when(project.getName()).thenReturn("foo");
+	}
+
+	@After
+	public void tearDown() {
+		metrics.reset();
+	}
+
+	@Test
+	public void shouldAttributeCountersToProjectBeingBuilt() {
+		// operation
+		metrics.startBuild(project);
+		metrics.increment(Counter.JDT_SEARCHES);
+		metrics.add(Counter.ELEMENTS_ADDED, 3);
+		metrics.endBuild();
+		metrics.increment(Counter.AST_PARSES);
+		// verifications
+		final ProjectMetrics projectMetrics = metrics.getMetrics("foo");
+		assertThat(projectMetrics.getBuilds(), equalTo(1L));
+		assertThat(projectMetrics.getCount(Counter.JDT_SEARCHES), equalTo(1L));
+		assertThat(projectMetrics.getCount(Counter.ELEMENTS_ADDED), equalTo(3L));
+		assertThat(projectMetrics.getCount(Counter.AST_PARSES), equalTo(0L));
+		assertThat(metrics.getMetrics(BuildMetrics.NO_PROJECT).getCount(Counter.AST_PARSES), equalTo(1L));
+	}
+
+	@Test
+	public void shouldAttributeCountersToBoundProjectWithoutCountingABuild() {
+		// operation
+		metrics.bindProject(project);
+		metrics.increment(Counter.AST_PARSES);
+		metrics.record(Phase.DELTA_SCAN, System.nanoTime());
+		metrics.unbindProject();
+		metrics.increment(Counter.AST_PARSES);
+		// verifications
+		final ProjectMetrics projectMetrics = metrics.getMetrics("foo");
+		assertThat(projectMetrics.getBuilds(), equalTo(0L));
+		assertThat(projectMetrics.getCount(Counter.AST_PARSES), equalTo(1L));
+		assertThat(projectMetrics.getCount(Phase.DELTA_SCAN), equalTo(1L));
+		assertThat(metrics.getMetrics(BuildMetrics.NO_PROJECT).getCount(Counter.AST_PARSES), equalTo(1L));
+	}
+
+	@Test
+	public void shouldRecordPhaseDurations() throws InterruptedException {
+		// operation
+		metrics.startBuild(project);
+		final long startTime = System.nanoTime();
+		Thread.sleep(20);
+		metrics.record(Phase.DELTA_SCAN, startTime);
+		metrics.record(Phase.DELTA_SCAN, System.nanoTime());
+		metrics.endBuild();
+		// verifications
+		final ProjectMetrics projectMetrics = metrics.getMetrics("foo");
+		assertThat(projectMetrics.getCount(Phase.DELTA_SCAN), equalTo(2L));
+		assertThat(projectMetrics.getMaxTime(Phase.DELTA_SCAN) >= 20, equalTo(true));
+		assertThat(projectMetrics.getTotalTime(Phase.DELTA_SCAN) >= projectMetrics.getMaxTime(Phase.DELTA_SCAN),
+				equalTo(true));
+		assertThat(projectMetrics.getCount(Phase.PUBLISHING), equalTo(0L));
+	}
+
+	@Test
+	public void shouldReturnSnapshots() {
+		// pre-conditions
+		metrics.startBuild(project);
+		metrics.increment(Counter.AST_CACHE_HITS);
+		final ProjectMetrics snapshot = metrics.getMetrics("foo");
+		// operation
+		metrics.increment(Counter.AST_CACHE_HITS);
+		metrics.endBuild();
+		// verifications
+		assertThat(snapshot.getCount(Counter.AST_CACHE_HITS), equalTo(1L));
+		assertThat(metrics.getMetrics("foo").getCount(Counter.AST_CACHE_HITS), equalTo(2L));
+		assertThat(metrics.getMetrics("bar"), nullValue());
+	}
+
+	@Test
+	public void shouldDumpMetrics() throws Exception {
+		// pre-conditions
+		metrics.startBuild(project);
+		metrics.increment(Counter.JDT_SEARCHES);
+		metrics.endBuild();
+		final File file = File.createTempFile("metrics", ".txt");
+		file.deleteOnExit();
+		// operation
+		metrics.dump(file);
+		// verifications
+		final String content = FileUtils.readFileToString(file);
+		assertThat(content, notNullValue());
+		assertThat(content, containsString("foo: builds=1"));
+		assertThat(content, containsString("jdt_searches=1"));
+	}
+}
@@ -12,7 +12,9 @@ package org.jboss.tools.ws.jaxrs.core.jdt;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -33,6 +35,8 @@ import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.jboss.tools.ws.jaxrs.core.AbstractCommonTestCase;
 import org.jboss.tools.ws.jaxrs.core.WorkbenchUtils;
+import org.jboss.tools.ws.jaxrs.core.jdt.CompilationUnitsRepository.Statistics;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -42,6 +46,8 @@ public class CompilationUnitsRepositoryTestCase extends AbstractCommonTestCase {
 
 	private CompilationUnitsRepository repository = null;
 
+	private long memoryBudget;
+
 	private IType getType(String typeName) throws CoreException {
 		return JdtUtils.resolveType(typeName, javaProject, progressMonitor);
 	}
@@ -53,6 +59,12 @@ public class CompilationUnitsRepositoryTestCase extends AbstractCommonTestCase {
 	@Before
 	public void setup() {
 		repository = CompilationUnitsRepository.getInstance();
+		memoryBudget = repository.getStatistics().getMemoryBudget();
+	}
+
+	@After
+	public void restoreMemoryBudget() {
+		repository.setMemoryBudget(memoryBudget);
 	}
 	
 	@Test
@@ -75,6 +87,48 @@ public class CompilationUnitsRepositoryTestCase extends AbstractCommonTestCase {
 		assertThat(ast, notNullValue());
 	}
 
+	@Test
+	public void shouldGetASTFromCache() throws CoreException {
+		// pre-conditions
+		final IType type = getType("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource");
+		final CompilationUnit ast = repository.getAST(type.getCompilationUnit());
+		final Statistics statistics = repository.getStatistics();
+		// operation
+		final CompilationUnit cachedAST = repository.getAST(type.getCompilationUnit());
+		// verification
+		assertThat(cachedAST, sameInstance(ast));
+		assertThat(repository.getStatistics().getHits(), equalTo(statistics.getHits() + 1));
+		assertThat(repository.getStatistics().getMisses(), equalTo(statistics.getMisses()));
+	}
+
+	@Test
+	public void shouldEvictLeastRecentlyUsedASTsWhenMemoryBudgetIsExceeded() throws CoreException {
+		// pre-conditions
+		repository.setMemoryBudget(0);
+		final IType customerType = getType("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource");
+		final IType bookType = getType("org.jboss.tools.ws.jaxrs.sample.services.BookResource");
+		final long evictions = repository.getStatistics().getEvictions();
+		// operation
+		repository.getAST(customerType.getCompilationUnit());
+		repository.getAST(bookType.getCompilationUnit());
+		// verification
+		assertThat(repository.getStatistics().getEvictions(), greaterThan(evictions));
+		assertThat(repository.getStatistics().getCachedASTs(), equalTo(1));
+		// evicted AST can still be retrieved
+		assertThat(repository.getAST(customerType.getCompilationUnit()), notNullValue());
+	}
+
+	@Test
+	public void shouldClearProjectEntries() throws CoreException {
+		// pre-conditions
+		final IType type = getType("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource");
+		repository.getAST(type.getCompilationUnit());
+		// operation
+		repository.clear(project);
+		// verification
+		assertThat(repository.getStatistics().getCachedASTs(), equalTo(0));
+	}
+
 	@Test
 	public void shouldMergeASTWithDiffComputation() throws CoreException {
 		// pre-conditions
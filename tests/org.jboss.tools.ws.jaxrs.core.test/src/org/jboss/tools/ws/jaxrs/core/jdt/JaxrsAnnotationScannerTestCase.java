@@ -101,6 +101,33 @@ public class JaxrsAnnotationScannerTestCase extends AbstractCommonTestCase {
 		assertThat(resourceMethods.size(), equalTo(1));
 	}
 
+	@Test
+	public void shouldRetrieveAllJaxrsTypesInProjectWithSingleSearch() throws CoreException {
+		// pre-conditions
+		// operation
+		final JaxrsTypesSearchResultCollector jaxrsTypes = JaxrsAnnotationsScanner.findJaxrsTypes(javaProject,
+				new NullProgressMonitor());
+		// verifications
+		assertThat(jaxrsTypes.getApplicationTypes().size(), equalTo(1));
+		assertThat(jaxrsTypes.getHttpMethodTypes().size(), equalTo(1));
+		assertThat(jaxrsTypes.getResourceTypes().size(), equalTo(7));
+	}
+
+	@Test
+	public void shouldRetrieveOneResourceInTypeWithSingleSearch() throws CoreException {
+		// pre-conditions
+		IType customerType = JdtUtils.resolveType("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource",
+				javaProject, null);
+		assertThat(customerType, notNullValue());
+		// operation
+		final JaxrsTypesSearchResultCollector jaxrsTypes = JaxrsAnnotationsScanner.findJaxrsTypes(customerType,
+				new NullProgressMonitor());
+		// verifications
+		assertThat(jaxrsTypes.getApplicationTypes().size(), equalTo(0));
+		assertThat(jaxrsTypes.getHttpMethodTypes().size(), equalTo(0));
+		assertThat(jaxrsTypes.getResourceTypes().size(), equalTo(1));
+	}
+
 	@Test
 	@Ignore("Providers are not supported yet")
 	public void shouldRetrieveProviders() {
@@ -16,9 +16,11 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.isOneOf;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.jboss.tools.ws.jaxrs.core.WorkbenchUtils.resolveAnnotation;
 import static org.jboss.tools.ws.jaxrs.core.jdt.EnumJaxrsClassname.CONSUMES;
 import static org.jboss.tools.ws.jaxrs.core.jdt.EnumJaxrsClassname.ENCODED;
@@ -932,6 +934,33 @@ public class JdtUtilsTestCase extends AbstractCommonTestCase {
 		assertThat(range.getOffset(), lessThan(annotationRange.getOffset() + annotationRange.getLength()));
 	}
 	
+	@Test
+	public void shouldReuseAnnotationsIndexOfSameAST() throws CoreException {
+		// preconditions
+		final IType type = getType("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource");
+		final CompilationUnit ast = JdtUtils.parse(type, progressMonitor);
+		// operation
+		final JavaAnnotationsIndex index = JavaAnnotationsIndex.getIndex(ast);
+		// verification
+		assertThat(JavaAnnotationsIndex.getIndex(ast), sameInstance(index));
+		assertThat(JavaAnnotationsIndex.getIndex(JdtUtils.parse(type, progressMonitor)), not(sameInstance(index)));
+	}
+
+	@Test
+	public void shouldResolveDistinctAnnotationInstancesFromIndex() throws CoreException {
+		// preconditions
+		final IType type = getType("org.jboss.tools.ws.jaxrs.sample.services.CustomerResource");
+		final IMethod method = getMethod(type, "getCustomer");
+		final CompilationUnit ast = JdtUtils.parse(type, progressMonitor);
+		// operation
+		final Annotation annotation = JdtUtils.resolveAnnotation(method, ast, PATH.qualifiedName);
+		final Annotation otherAnnotation = JdtUtils.resolveAnnotation(method, ast, PATH.qualifiedName);
+		// verification
+		assertThat(annotation, notNullValue());
+		assertThat(otherAnnotation, equalTo(annotation));
+		assertThat(otherAnnotation, not(sameInstance(annotation)));
+	}
+
 	@Test
 	public void shouldReturnNullWhenRetrievingElementAtLocationOnNullCompilationUnit() throws JavaModelException {
 		// preconditions
@@ -10,14 +10,28 @@
  ******************************************************************************/
 package org.jboss.tools.ws.jaxrs.core.pubsub;
 
+import static org.eclipse.jdt.core.IJavaElementDelta.ADDED;
+import static org.eclipse.jdt.core.IJavaElementDelta.CHANGED;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EventObject;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.core.resources.IProject;
+import org.jboss.tools.ws.jaxrs.core.metamodel.IJaxrsMetamodel;
+import org.jboss.tools.ws.jaxrs.core.metamodel.JaxrsMetamodelDelta;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -35,6 +49,39 @@ public class PubSubServiceTestCase {
 		}
 	}
 
+	/**
+	 * Subscriber that records the events it receives, and that waits until it is released before processing the first
+	 * one.
+	 */
+	public class BlockingSubscriber implements Subscriber {
+
+		final CountDownLatch released = new CountDownLatch(1);
+
+		final CountDownLatch informed;
+
+		final List<EventObject> events = Collections.synchronizedList(new ArrayList<EventObject>());
+
+		public BlockingSubscriber(int expectedEvents) {
+			this.informed = new CountDownLatch(expectedEvents);
+		}
+
+		@Override
+		public void inform(EventObject event) {
+			try {
+				released.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			events.add(event);
+			informed.countDown();
+		}
+
+		@Override
+		public String getId() {
+			return "BlockingSubscriber";
+		}
+	}
+
 	private final EventService eventService = EventService.getInstance();
 
 	private final Subscriber subscriber = spy(new MockSubscriber());
@@ -46,7 +93,17 @@ public class PubSubServiceTestCase {
 
 	@After
 	public void tearDown() {
+		eventService.resetSubscribers();
+	}
+
+	private static EventObject createMetamodelEvent(IJaxrsMetamodel metamodel, int deltaKind) {
+		return new EventObject(new JaxrsMetamodelDelta(metamodel, deltaKind));
+	}
 
+	private static IJaxrsMetamodel createMetamodel(IProject project) {
+		final IJaxrsMetamodel metamodel = mock(IJaxrsMetamodel.class);
+		when(metamodel.getProject()).thenReturn(project);
+		return metamodel;
 	}
 
 	@Test
@@ -62,4 +119,60 @@ public class PubSubServiceTestCase {
 		assertThat(eventService.unsubscribe(subscriber), equalTo(true));
 	}
 
+	@Test
+	public void shouldOnlyReceiveEventsAcceptedByFilter() {
+		// pre-conditions
+		final IProject project = mock(IProject.class);
+		final IProject otherProject = mock(IProject.class);
+		eventService.subscribe(subscriber, new JaxrsMetamodelDeltaFilter(project));
+		// operation
+		eventService.publish(new EventObject(new Object()));
+		eventService.publish(createMetamodelEvent(createMetamodel(otherProject), CHANGED));
+		// verification
+		verify(subscriber, never()).inform(any(EventObject.class));
+		// operation
+		eventService.publish(createMetamodelEvent(createMetamodel(project), CHANGED));
+		// verification
+		verify(subscriber).inform(any(EventObject.class));
+	}
+
+	@Test
+	public void shouldNotBlockPublisherWhenInformingAsynchronously() throws InterruptedException {
+		// pre-conditions
+		final BlockingSubscriber blockingSubscriber = new BlockingSubscriber(1);
+		eventService.subscribe(blockingSubscriber, new NullEventFilter(), true);
+		// operation: would wait for 5s if the subscriber was informed in this thread
+		final long start = System.currentTimeMillis();
+		eventService.publish(new EventObject(new Object()));
+		// verification
+		assertThat(System.currentTimeMillis() - start < 1000, equalTo(true));
+		blockingSubscriber.released.countDown();
+		assertThat(blockingSubscriber.informed.await(5, TimeUnit.SECONDS), equalTo(true));
+	}
+
+	@Test
+	public void shouldCoalescePendingEventsOfSameMetamodel() throws InterruptedException {
+		// pre-conditions
+		final IJaxrsMetamodel metamodel = createMetamodel(mock(IProject.class));
+		final IJaxrsMetamodel otherMetamodel = createMetamodel(mock(IProject.class));
+		final BlockingSubscriber blockingSubscriber = new BlockingSubscriber(3);
+		eventService.subscribe(blockingSubscriber, new JaxrsMetamodelDeltaFilter(), true);
+		// operation: the first event keeps the subscriber busy while the others are queued
+		eventService.publish(createMetamodelEvent(metamodel, CHANGED));
+		Thread.sleep(200);
+		eventService.publish(createMetamodelEvent(metamodel, ADDED));
+		eventService.publish(createMetamodelEvent(otherMetamodel, CHANGED));
+		eventService.publish(createMetamodelEvent(metamodel, CHANGED));
+		blockingSubscriber.released.countDown();
+		// verification
+		assertThat(blockingSubscriber.informed.await(5, TimeUnit.SECONDS), equalTo(true));
+		Thread.sleep(200);
+		assertThat(blockingSubscriber.events, hasSize(3));
+		final JaxrsMetamodelDelta coalescedDelta = (JaxrsMetamodelDelta) blockingSubscriber.events.get(1).getSource();
+		assertThat(coalescedDelta.getMetamodel(), equalTo(metamodel));
+		assertThat(coalescedDelta.getDeltaKind(), equalTo(ADDED));
+		final JaxrsMetamodelDelta otherDelta = (JaxrsMetamodelDelta) blockingSubscriber.events.get(2).getSource();
+		assertThat(otherDelta.getMetamodel(), equalTo(otherMetamodel));
+	}
+
 }
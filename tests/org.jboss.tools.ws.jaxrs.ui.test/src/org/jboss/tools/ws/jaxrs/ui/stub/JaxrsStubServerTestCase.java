@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.jaxrs.ui.stub;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JaxrsStubServerTestCase {
+
+	private JaxrsStubServer server;
+
+	@Before
+	public void setup() throws IOException {
+		final List<StubEndpoint> endpoints = new ArrayList<StubEndpoint>();
+		endpoints.add(new StubEndpoint("GET", "/app/customers/{id:[0-9]+};lang={lang:String}", null, Arrays
+				.asList("application/xml", "application/json")));
+		endpoints.add(new StubEndpoint("GET", "/app/customers/search?name={name:String}", null, Collections
+				.singletonList("text/plain")));
+		endpoints.add(new StubEndpoint("POST", "/app/customers", Collections.singletonList("application/xml"), null));
+		endpoints.add(new StubEndpoint("GET", "/app/customers?start={start:int=0}", null, Collections
+				.singletonList("application/json")));
+		final Properties properties = new Properties();
+		properties.setProperty("payloadSize", "100");
+		properties.setProperty("endpoint.1.method", "POST");
+		properties.setProperty("endpoint.1.path", "/app/customers");
+		properties.setProperty("endpoint.1.status", "201");
+		properties.setProperty("endpoint.1.latency", "100");
+		properties.setProperty("endpoint.1.body", "<created/>");
+		properties.setProperty("endpoint.1.contentType", "application/xml");
+		server = new JaxrsStubServer(endpoints, StubConfiguration.load(properties));
+		server.start();
+	}
+
+	@After
+	public void tearDown() {
+		server.stop();
+	}
+
+	@Test
+	public void shouldMatchPathTemplates() {
+		final StubEndpoint endpoint = new StubEndpoint("GET", "/app/customers/{id:[0-9]+};lang={lang:String}", null,
+				null);
+		assertThat(endpoint.getPath(), equalTo("/app/customers/{id:[0-9]+}"));
+		assertThat(endpoint.matches("/app/customers/12"), equalTo(true));
+		assertThat(endpoint.matches("/app/customers/12;lang=fr"), equalTo(true));
+		assertThat(endpoint.matches("/app/customers/12/"), equalTo(true));
+		assertThat(endpoint.matches("/app/customers/abc"), equalTo(false));
+		assertThat(endpoint.matches("/app/customers"), equalTo(false));
+		assertThat(endpoint.getResponseMediaType("text/html"), nullValue());
+		assertThat(new StubEndpoint("GET", "/app/{path:.*}", null, null).matches("/app/a/b"), equalTo(true));
+	}
+
+	@Test
+	public void shouldKeepTemplateParametersWhole() {
+		// the '?' and the unbalanced brace of the regular expression are not the query
+		final StubEndpoint endpoint = new StubEndpoint("GET", "/app/{code:[^}]{2}?}/items?start={start:int=0}",
+				null, null);
+		assertThat(endpoint.getPath(), equalTo("/app/{code:[^}]{2}?}/items"));
+		assertThat(endpoint.matches("/app/ab/items"), equalTo(true));
+		assertThat(endpoint.matches("/app/abc/items"), equalTo(false));
+		assertThat(new StubEndpoint("GET", "/app/{name:a\\}?b}/x", null, null).getPath(),
+				equalTo("/app/{name:a\\}?b}/x"));
+	}
+
+	@Test
+	public void shouldReplyWithGeneratedBodies() throws IOException {
+		HttpURLConnection connection = open("/app/customers/12;lang=fr", "GET");
+		connection.setRequestProperty("Accept", "application/json");
+		assertThat(connection.getResponseCode(), equalTo(200));
+		assertThat(connection.getContentType(), equalTo("application/json"));
+		final String body = read(connection.getInputStream());
+		assertThat(body.length(), equalTo(100));
+		assertThat(body, containsString("\"path\":\"/app/customers/{id:[0-9]+}\""));
+		// literal paths are more specific than templates
+		connection = open("/app/customers/search?name=foo", "GET");
+		assertThat(connection.getResponseCode(), equalTo(200));
+		assertThat(connection.getHeaderField("X-Stub-Endpoint"),
+				equalTo("GET /app/customers/search?name={name:String}"));
+		// the responses are deterministic
+		connection = open("/app/customers/12", "GET");
+		connection.setRequestProperty("Accept", "application/json");
+		assertThat(read(connection.getInputStream()), equalTo(body));
+	}
+
+	@Test
+	public void shouldReplyToHeadRequestsWithoutBody() throws IOException {
+		final HttpURLConnection connection = open("/app/customers/12", "HEAD");
+		connection.setRequestProperty("Accept", "application/xml");
+		assertThat(connection.getResponseCode(), equalTo(200));
+		assertThat(connection.getContentType(), equalTo("application/xml"));
+		assertThat(connection.getContentLength(), equalTo(100));
+		assertThat(read(connection.getInputStream()), equalTo(""));
+		// the connection is still usable
+		final HttpURLConnection next = open("/app/customers/12", "GET");
+		next.setRequestProperty("Accept", "application/xml");
+		assertThat(read(next.getInputStream()).length(), equalTo(100));
+	}
+
+	@Test
+	public void shouldReplyWithConfiguredResponses() throws IOException {
+		final HttpURLConnection connection = open("/app/customers", "POST");
+		connection.setRequestProperty("Content-Type", "application/xml");
+		connection.setDoOutput(true);
+		final OutputStream out = connection.getOutputStream();
+		out.write("<customer/>".getBytes());
+		out.close();
+		final long start = System.currentTimeMillis();
+		assertThat(connection.getResponseCode(), equalTo(201));
+		assertThat(System.currentTimeMillis() - start, greaterThanOrEqualTo(100L));
+		assertThat(read(connection.getInputStream()), equalTo("<created/>"));
+	}
+
+	@Test
+	public void shouldRejectUnmatchedRequests() throws IOException {
+		assertThat(open("/app/orders", "GET").getResponseCode(), equalTo(404));
+		final HttpURLConnection connection = open("/app/customers/12", "DELETE");
+		assertThat(connection.getResponseCode(), equalTo(405));
+		assertThat(connection.getHeaderField("Allow"), equalTo("GET"));
+		final HttpURLConnection unsupported = open("/app/customers", "POST");
+		unsupported.setRequestProperty("Content-Type", "application/json");
+		unsupported.setDoOutput(true);
+		unsupported.getOutputStream().close();
+		assertThat(unsupported.getResponseCode(), equalTo(415));
+		final HttpURLConnection notAcceptable = open("/app/customers/12", "GET");
+		notAcceptable.setRequestProperty("Accept", "text/html");
+		assertThat(notAcceptable.getResponseCode(), equalTo(406));
+		assertThat(server.getRequestCount(), equalTo(4L));
+	}
+
+	@Test
+	public void shouldCloseKeptAliveConnectionsWhenOtherConnectionsWait() throws IOException {
+		// pre-conditions: a single thread, held by a kept-alive connection
+		final Properties properties = new Properties();
+		properties.setProperty("threads", "1");
+		properties.setProperty("payloadSize", "100");
+		final JaxrsStubServer singleThreadServer = new JaxrsStubServer(server.getEndpoints(),
+				StubConfiguration.load(properties));
+		singleThreadServer.start();
+		final Socket first = new Socket("localhost", singleThreadServer.getPort());
+		Socket second = null;
+		try {
+			first.setSoTimeout(JaxrsStubServer.KEEP_ALIVE_TIMEOUT * 2);
+			final String response = exchange(first);
+			assertThat(response, containsString("Connection: keep-alive"));
+			// operation
+			final long start = System.currentTimeMillis();
+			second = new Socket("localhost", singleThreadServer.getPort());
+			second.setSoTimeout(JaxrsStubServer.KEEP_ALIVE_TIMEOUT * 2);
+			final String otherResponse = exchange(second);
+			// verifications: the idle connection gave its thread back instead of waiting for the keep-alive timeout
+			assertThat(otherResponse, containsString("HTTP/1.1 200 OK"));
+			assertThat(System.currentTimeMillis() - start < JaxrsStubServer.KEEP_ALIVE_TIMEOUT, equalTo(true));
+			assertThat(first.getInputStream().read(), equalTo(-1));
+		} finally {
+			first.close();
+			if (second != null) {
+				second.close();
+			}
+			singleThreadServer.stop();
+		}
+	}
+
+	/**
+	 * Sends a GET request on the given socket and reads the response headers and its 100 bytes body.
+	 */
+	private static String exchange(final Socket socket) throws IOException {
+		final OutputStream out = socket.getOutputStream();
+		out.write(("GET /app/customers/12 HTTP/1.1\r\nHost: localhost\r\nAccept: application/xml\r\n\r\n")
+				.getBytes("ISO-8859-1"));
+		out.flush();
+		final InputStream in = socket.getInputStream();
+		final StringBuilder response = new StringBuilder();
+		while (!response.toString().endsWith("\r\n\r\n")) {
+			final int b = in.read();
+			if (b == -1) {
+				break;
+			}
+			response.append((char) b);
+		}
+		for (int i = 0; i < 100 && in.read() != -1; i++) {
+			// body
+		}
+		return response.toString();
+	}
+
+	private HttpURLConnection open(final String path, final String method) throws IOException {
+		final HttpURLConnection connection = (HttpURLConnection) new URL(server.getBaseURL() + path)
+				.openConnection();
+		connection.setRequestMethod(method);
+		return connection;
+	}
+
+	private static String read(final InputStream in) throws IOException {
+		try {
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[4096];
+			int n;
+			while ((n = in.read(buffer)) != -1) {
+				out.write(buffer, 0, n);
+			}
+			return new String(out.toByteArray(), "UTF-8");
+		} finally {
+			in.close();
+		}
+	}
+
+}
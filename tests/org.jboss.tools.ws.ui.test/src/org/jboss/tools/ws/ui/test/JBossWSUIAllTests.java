@@ -12,7 +12,15 @@
 package org.jboss.tools.ws.ui.test;
 
 import org.jboss.tools.ws.ui.test.preferences.JBossWSRuntimePreferencePageTest;
+import org.jboss.tools.ws.ui.test.utils.JAXRSTesterTest;
+import org.jboss.tools.ws.ui.test.utils.JAXWSDispatchCacheTest;
+import org.jboss.tools.ws.ui.test.utils.ResponseSpoolTest;
+import org.jboss.tools.ws.ui.test.utils.SchemaUtilsTest;
 import org.jboss.tools.ws.ui.test.utils.TesterWSDLUtilsTest;
+import org.jboss.tools.ws.ui.test.utils.WSDLDefinitionCacheTest;
+import org.jboss.tools.ws.ui.test.utils.WSLoadTesterTest;
+import org.jboss.tools.ws.ui.test.utils.WSTestEngineTest;
+import org.jboss.tools.ws.ui.test.views.TestCollectionTest;
 
 import junit.framework.Test;
 import junit.framework.TestCase;
@@ -27,6 +35,14 @@ public class JBossWSUIAllTests extends TestCase {
 	public static Test suite() {
 		TestSuite suite = new TestSuite(JBossWSUIAllTests.class.getName());
 		suite.addTestSuite(JBossWSRuntimePreferencePageTest.class);
+		suite.addTestSuite(WSLoadTesterTest.class);
+		suite.addTestSuite(JAXRSTesterTest.class);
+		suite.addTestSuite(ResponseSpoolTest.class);
+		suite.addTestSuite(WSTestEngineTest.class);
+		suite.addTestSuite(TestCollectionTest.class);
+		suite.addTestSuite(WSDLDefinitionCacheTest.class);
+		suite.addTestSuite(JAXWSDispatchCacheTest.class);
+		suite.addTestSuite(SchemaUtilsTest.class);
 		// needs to be rewritten for updated utility class
 //		suite.addTestSuite(TesterWSDLUtilsTest.class);
 
@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.test.utils;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+
+import junit.framework.TestCase;
+
+import org.jboss.tools.ws.ui.utils.JAXRSTester;
+import org.jboss.tools.ws.ui.utils.RequestTimings;
+import org.jboss.tools.ws.ui.utils.RequestTimings.Phase;
+import org.jboss.tools.ws.ui.utils.TesterHttpClient;
+import org.jboss.tools.ws.ui.utils.WSTestEngine;
+
+/**
+ * Tests for the HTTP connection handling of the JAX-RS tester
+ */
+public class JAXRSTesterTest extends TestCase {
+
+	private TestHttpServer server;
+	private String baseURL;
+	private final Set<Integer> clientPorts = new HashSet<Integer>();
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+
+	@Override
+	protected void setUp() throws Exception {
+		server = new TestHttpServer(new TestHttpServer.Handler() {
+			public void handle(TestHttpServer.Exchange exchange) throws Exception {
+				int current = inFlight.incrementAndGet();
+				try {
+					synchronized (clientPorts) {
+						clientPorts.add(exchange.getRemotePort());
+					}
+					int max = maxInFlight.get();
+					while (current > max && !maxInFlight.compareAndSet(max, current)) {
+						max = maxInFlight.get();
+					}
+					boolean missing = exchange.getPath().endsWith("missing"); //$NON-NLS-1$
+					if (exchange.getPath().endsWith("slow")) { //$NON-NLS-1$
+						Thread.sleep(100);
+					} else if (exchange.getPath().endsWith("hang")) { //$NON-NLS-1$
+						Thread.sleep(3000);
+					}
+					exchange.setStatus(missing ? 404 : 200);
+					exchange.setResponseBody(missing ? "not found" : exchange.getMethod()); //$NON-NLS-1$
+				} finally {
+					inFlight.decrementAndGet();
+				}
+			}
+		});
+		baseURL = server.getBaseURL();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		server.stop();
+	}
+
+	public void testReusesConnections() throws Exception {
+		TesterHttpClient client = new TesterHttpClient(5000, 5000, 5);
+		for (int i = 0; i < 3; i++) {
+			JAXRSTester tester = new JAXRSTester(client);
+			tester.doTest(baseURL + "resource", new HashMap<String, String>(), null, "GET", null); //$NON-NLS-1$ //$NON-NLS-2$
+			assertEquals(200, tester.getResultStatusCode());
+			assertEquals("GET", tester.getResultBody()); //$NON-NLS-1$
+		}
+		JAXRSTester tester = new JAXRSTester(client);
+		tester.doTest(baseURL + "resource", new HashMap<String, String>(), null, "POST", "<a/>"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertEquals("POST", tester.getResultBody()); //$NON-NLS-1$
+		assertEquals(1, clientPorts.size());
+	}
+
+	public void testReadsErrorResponses() throws Exception {
+		TesterHttpClient client = new TesterHttpClient(5000, 5000, 5);
+		JAXRSTester tester = new JAXRSTester(client);
+		tester.doTest(baseURL + "missing", new HashMap<String, String>(), null, "GET", null); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(404, tester.getResultStatusCode());
+		assertEquals("not found", tester.getResultBody()); //$NON-NLS-1$
+		tester = new JAXRSTester(client);
+		tester.doTest(baseURL + "resource", new HashMap<String, String>(), null, "GET", null); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(200, tester.getResultStatusCode());
+		assertEquals(1, clientPorts.size());
+	}
+
+	public void testReadsTheCharsetOfTheContentType() {
+		assertEquals("ISO-8859-1", JAXRSTester.getCharset("text/plain; charset=ISO-8859-1")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("UTF-16", JAXRSTester.getCharset("application/xml;Charset=\"UTF-16\"")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNull(JAXRSTester.getCharset("application/json")); //$NON-NLS-1$
+		assertNull(JAXRSTester.getCharset("text/plain; charset=unknown")); //$NON-NLS-1$
+		assertNull(JAXRSTester.getCharset(null));
+	}
+
+	public void testMeasuresPhases() throws Exception {
+		TesterHttpClient client = new TesterHttpClient(5000, 5000, 5);
+		JAXRSTester tester = new JAXRSTester(client);
+		tester.doTest(baseURL + "slow", new HashMap<String, String>(), null, "POST", "<a/>"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		RequestTimings timings = tester.getResultTimings();
+		assertNotNull(timings);
+		assertTrue(timings.getNanos(Phase.RESOLVE) >= 0);
+		assertTrue(timings.getNanos(Phase.CONNECT) >= 0);
+		assertEquals(RequestTimings.UNKNOWN, timings.getNanos(Phase.TLS));
+		assertTrue(timings.getNanos(Phase.SEND) >= 0);
+		assertTrue(timings.getMillis(Phase.WAIT) >= 100);
+		assertTrue(timings.getNanos(Phase.RECEIVE) >= 0);
+		assertTrue(timings.getTotalMillis() >= timings.getMillis(Phase.WAIT));
+		assertEquals(4, timings.getRequestSize());
+		assertEquals(4, timings.getResponseSize());
+
+		// a GET has no body
+		tester = new JAXRSTester(client);
+		tester.doTest(baseURL + "resource", new HashMap<String, String>(), null, "GET", null); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(0, tester.getResultTimings().getRequestSize());
+		assertEquals(3, tester.getResultTimings().getResponseSize());
+
+		// over HTTPS, the handshake is measured apart from the connection
+		SSLContext context = TestHttpServer.createSSLContext();
+		TestHttpServer httpsServer = new TestHttpServer(new TestHttpServer.Handler() {
+			public void handle(TestHttpServer.Exchange exchange) throws Exception {
+				exchange.setResponseBody(exchange.getMethod());
+			}
+		}, context);
+		SSLSocketFactory defaultFactory = HttpsURLConnection.getDefaultSSLSocketFactory();
+		HttpsURLConnection.setDefaultSSLSocketFactory(context.getSocketFactory());
+		try {
+			client = new TesterHttpClient(5000, 5000, 5);
+			tester = new JAXRSTester(client);
+			tester.doTest(httpsServer.getBaseURL() + "resource", new HashMap<String, String>(), null, "GET", null); //$NON-NLS-1$ //$NON-NLS-2$
+			assertEquals("GET", tester.getResultBody()); //$NON-NLS-1$
+			timings = tester.getResultTimings();
+			assertTrue(timings.getNanos(Phase.CONNECT) >= 0);
+			assertTrue(timings.getNanos(Phase.TLS) > 0);
+
+			// the connection is kept alive, there is no handshake
+			tester = new JAXRSTester(client);
+			tester.doTest(httpsServer.getBaseURL() + "resource", new HashMap<String, String>(), null, "GET", null); //$NON-NLS-1$ //$NON-NLS-2$
+			assertEquals("GET", tester.getResultBody()); //$NON-NLS-1$
+			assertEquals(0, tester.getResultTimings().getNanos(Phase.TLS));
+		} finally {
+			HttpsURLConnection.setDefaultSSLSocketFactory(defaultFactory);
+			httpsServer.stop();
+		}
+	}
+
+	public void testLimitsConnectionsPerHost() throws Exception {
+		final TesterHttpClient client = new TesterHttpClient(5000, 5000, 1);
+		final AtomicInteger failures = new AtomicInteger();
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread() {
+				public void run() {
+					try {
+						new JAXRSTester(client).doTest(baseURL + "slow", new HashMap<String, String>(), null, //$NON-NLS-1$
+								"GET", null); //$NON-NLS-1$
+					} catch (Exception e) {
+						failures.incrementAndGet();
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(0, failures.get());
+		assertEquals(1, maxInFlight.get());
+	}
+
+	public void testAbortsRequestOnTimeout() throws Exception {
+		final JAXRSTester tester = new JAXRSTester(new TesterHttpClient(5000, 5000, 5));
+		WSTestEngine engine = new WSTestEngine(2, 200);
+		long start = System.currentTimeMillis();
+		try {
+			engine.invoke(new WSTestEngine.Request<Object>() {
+				public Object execute() throws Exception {
+					tester.doTest(baseURL + "hang", new HashMap<String, String>(), null, "GET", null); //$NON-NLS-1$ //$NON-NLS-2$
+					return null;
+				}
+				public void abort() {
+					tester.abort();
+				}
+			}, null);
+			fail("The request should have timed out"); //$NON-NLS-1$
+		} catch (TimeoutException e) {
+			assertTrue(System.currentTimeMillis() - start < 2000);
+		} finally {
+			engine.shutdown();
+		}
+	}
+}
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.test.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+import javax.xml.soap.SOAPMessage;
+import javax.xml.ws.BindingProvider;
+import javax.xml.ws.Dispatch;
+import javax.xml.ws.Service;
+
+import junit.framework.TestCase;
+
+import org.jboss.tools.ws.ui.utils.JAXWSDispatchCache;
+import org.jboss.tools.ws.ui.utils.WSDLDefinitionCache;
+
+/**
+ * Tests for the cache of JAX-WS dispatches
+ */
+public class JAXWSDispatchCacheTest extends TestCase {
+
+	private static final String NS = "http://webservices.samples.jboss.org/"; //$NON-NLS-1$
+	private static final QName SERVICE = new QName(NS, "HelloWorldService"); //$NON-NLS-1$
+	private static final QName PORT = new QName(NS, "HelloWorldPort"); //$NON-NLS-1$
+
+	/*
+	 * Creates dispatches which only have a request context, so that no
+	 * JAX-WS runtime (nor endpoint) is needed
+	 */
+	private static class TestDispatchCache extends JAXWSDispatchCache {
+		int created = 0;
+
+		TestDispatchCache(int maxServices) {
+			super(maxServices, new WSDLDefinitionCache(8, 60000));
+		}
+
+		@Override
+		protected Service createService(URL wsdlURL, QName serviceQName) {
+			return null;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		protected Dispatch<SOAPMessage> createDispatch(Service service, QName portQName) {
+			created++;
+			final Map<String, Object> context = new HashMap<String, Object>();
+			return (Dispatch<SOAPMessage>) Proxy.newProxyInstance(getClass().getClassLoader(),
+					new Class<?>[] { Dispatch.class }, new InvocationHandler() {
+						public Object invoke(Object proxy, Method method, Object[] args) {
+							if ("getRequestContext".equals(method.getName())) { //$NON-NLS-1$
+								return context;
+							}
+							if ("equals".equals(method.getName())) { //$NON-NLS-1$
+								return Boolean.valueOf(proxy == args[0]);
+							}
+							if ("hashCode".equals(method.getName())) { //$NON-NLS-1$
+								return Integer.valueOf(System.identityHashCode(proxy));
+							}
+							throw new UnsupportedOperationException(method.getName());
+						}
+					});
+		}
+	}
+
+	private File dir;
+	private URL wsdl;
+
+	@Override
+	protected void setUp() throws Exception {
+		dir = File.createTempFile("dispatchcache", ""); //$NON-NLS-1$ //$NON-NLS-2$
+		dir.delete();
+		dir.mkdirs();
+		wsdl = copy("/jbide6558/x.wsdl", "x.wsdl"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		File[] files = dir.listFiles();
+		for (int i = 0; i < files.length; i++) {
+			files[i].delete();
+		}
+		dir.delete();
+	}
+
+	public void testReusesReleasedDispatches() throws Exception {
+		TestDispatchCache cache = new TestDispatchCache(8);
+		Dispatch<SOAPMessage> first = cache.acquire(wsdl, SERVICE, PORT);
+		Dispatch<SOAPMessage> second = cache.acquire(wsdl, SERVICE, PORT);
+		assertNotSame(first, second);
+		assertEquals(2, cache.created);
+
+		first.getRequestContext().put(BindingProvider.SOAPACTION_URI_PROPERTY, "urn:action"); //$NON-NLS-1$
+		first.getRequestContext().put(BindingProvider.USERNAME_PROPERTY, "user"); //$NON-NLS-1$
+		first.getRequestContext().put(BindingProvider.PASSWORD_PROPERTY, "password"); //$NON-NLS-1$
+		cache.release(first, true);
+		Dispatch<SOAPMessage> reused = cache.acquire(wsdl, SERVICE, PORT);
+		assertSame(first, reused);
+		assertEquals(2, cache.created);
+		assertNull(reused.getRequestContext().get(BindingProvider.SOAPACTION_URI_PROPERTY));
+		assertNull(reused.getRequestContext().get(BindingProvider.USERNAME_PROPERTY));
+		assertNull(reused.getRequestContext().get(BindingProvider.PASSWORD_PROPERTY));
+	}
+
+	public void testDropsFailedDispatches() throws Exception {
+		TestDispatchCache cache = new TestDispatchCache(8);
+		Dispatch<SOAPMessage> failed = cache.acquire(wsdl, SERVICE, PORT);
+		cache.release(failed, false);
+		assertNotSame(failed, cache.acquire(wsdl, SERVICE, PORT));
+		assertEquals(2, cache.created);
+	}
+
+	public void testInvalidatesServices() throws Exception {
+		TestDispatchCache cache = new TestDispatchCache(8);
+		Dispatch<SOAPMessage> idle = cache.acquire(wsdl, SERVICE, PORT);
+		Dispatch<SOAPMessage> leased = cache.acquire(wsdl, SERVICE, PORT);
+		cache.release(idle, true);
+		cache.invalidate(wsdl.toExternalForm() + "?wsdl"); //$NON-NLS-1$
+
+		// neither the idle dispatch nor the one in use at the time are reused
+		cache.release(leased, true);
+		Dispatch<SOAPMessage> dispatch = cache.acquire(wsdl, SERVICE, PORT);
+		assertNotSame(idle, dispatch);
+		assertNotSame(leased, dispatch);
+		assertEquals(3, cache.created);
+	}
+
+	public void testEvictsLeastRecentlyUsedServices() throws Exception {
+		URL other = copy("/jbide6558/x.wsdl", "other.wsdl"); //$NON-NLS-1$ //$NON-NLS-2$
+		TestDispatchCache cache = new TestDispatchCache(1);
+		Dispatch<SOAPMessage> first = cache.acquire(wsdl, SERVICE, PORT);
+		cache.release(first, true);
+		Dispatch<SOAPMessage> second = cache.acquire(other, SERVICE, PORT);
+		cache.release(second, true);
+		assertSame(second, cache.acquire(other, SERVICE, PORT));
+		assertNotSame(first, cache.acquire(wsdl, SERVICE, PORT));
+		assertEquals(3, cache.created);
+	}
+
+	public void testRecreatesServicesOfChangedWSDLs() throws Exception {
+		TestDispatchCache cache = new TestDispatchCache(8);
+		Dispatch<SOAPMessage> first = cache.acquire(wsdl, SERVICE, PORT);
+		cache.release(first, true);
+		Thread.sleep(WSDLDefinitionCache.FRESH_TIME + 100);
+		Dispatch<SOAPMessage> unchanged = cache.acquire(wsdl, SERVICE, PORT);
+		assertSame(first, unchanged);
+		cache.release(unchanged, true);
+
+		// the service is redeployed
+		File file = new File(dir, "x.wsdl"); //$NON-NLS-1$
+		long lastModified = file.lastModified();
+		OutputStream out = new FileOutputStream(file, true);
+		out.write("\n".getBytes()); //$NON-NLS-1$
+		out.close();
+		file.setLastModified(lastModified + 10000);
+		Thread.sleep(WSDLDefinitionCache.FRESH_TIME + 100);
+		assertNotSame(first, cache.acquire(wsdl, SERVICE, PORT));
+		assertEquals(2, cache.created);
+	}
+
+	private URL copy(String resource, String name) throws Exception {
+		InputStream in = getClass().getResourceAsStream(resource);
+		assertNotNull(resource, in);
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4096];
+		int n;
+		while ((n = in.read(buffer)) != -1) {
+			content.write(buffer, 0, n);
+		}
+		in.close();
+		File file = new File(dir, name);
+		OutputStream out = new FileOutputStream(file);
+		out.write(content.toByteArray());
+		out.close();
+		return file.toURI().toURL();
+	}
+}
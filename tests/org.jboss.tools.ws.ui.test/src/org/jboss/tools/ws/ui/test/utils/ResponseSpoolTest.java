@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.test.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.jboss.tools.ws.ui.utils.ResponseSpool;
+
+/**
+ * Tests for the spooling of large web service responses
+ */
+public class ResponseSpoolTest extends TestCase {
+
+	public void testKeepsSmallResponsesInMemory() throws Exception {
+		ResponseSpool spool = new ResponseSpool(System.nanoTime(), 1024, 512);
+		spool.readFrom(new ByteArrayInputStream("<hello/>".getBytes("UTF-8"))); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(8, spool.getSize());
+		assertFalse(spool.isSpooled());
+		assertFalse(spool.isTruncated());
+		assertEquals("<hello/>", spool.getPreview("UTF-8")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(spool.getTimeToFirstByte() >= 0);
+		assertTrue(spool.getTotalTime() >= spool.getTimeToFirstByte());
+	}
+
+	public void testSpoolsLargeResponsesToFile() throws Exception {
+		byte[] content = new byte[10000];
+		Arrays.fill(content, (byte) 'a');
+		ResponseSpool spool = new ResponseSpool(System.nanoTime(), 1024, 100);
+		spool.readFrom(new ByteArrayInputStream(content));
+		assertEquals(10000, spool.getSize());
+		assertTrue(spool.isSpooled());
+		assertTrue(spool.isTruncated());
+		assertEquals(100, spool.getPreview(null).length());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		spool.writeTo(out);
+		assertTrue(Arrays.equals(content, out.toByteArray()));
+
+		File file = spool.getFile();
+		assertTrue(file.exists());
+		spool.dispose();
+		assertFalse(file.exists());
+	}
+
+	public void testTruncatesPreviewOfResponsesKeptInMemory() throws Exception {
+		byte[] content = new byte[600];
+		Arrays.fill(content, (byte) 'b');
+		ResponseSpool spool = new ResponseSpool(System.nanoTime(), 1024, 512);
+		spool.write(content, 0, 300);
+		spool.write(content, 300, 300);
+		spool.close();
+		assertFalse(spool.isSpooled());
+		assertTrue(spool.isTruncated());
+		assertEquals(512, spool.getPreview(null).length());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		spool.writeTo(out);
+		assertEquals(600, out.size());
+	}
+
+	public void testPreviewDoesNotCutCharacters() throws Exception {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 300; i++) {
+			text.append('\u00e9');
+		}
+		byte[] content = text.toString().getBytes("UTF-8"); //$NON-NLS-1$
+		ResponseSpool spool = new ResponseSpool(System.nanoTime(), 1024, 511);
+		spool.readFrom(new ByteArrayInputStream(content));
+		assertTrue(spool.isTruncated());
+		// 511 bytes hold 255 characters and the first byte of the next one
+		String preview = spool.getPreview("UTF-8"); //$NON-NLS-1$
+		assertEquals(255, preview.length());
+		assertEquals(-1, preview.indexOf('\ufffd'));
+	}
+
+	public void testSearchesTheWholeSpooledContent() throws Exception {
+		byte[] content = new byte[10000];
+		Arrays.fill(content, (byte) 'c');
+		byte[] end = "<end/>".getBytes("UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$
+		System.arraycopy(end, 0, content, content.length - end.length, end.length);
+		ResponseSpool spool = new ResponseSpool(System.nanoTime(), 1024, 100);
+		// written in small chunks, so that the text spans two of them
+		for (int i = 0; i < content.length; i += 7) {
+			spool.write(content, i, Math.min(7, content.length - i));
+		}
+		spool.close();
+		assertTrue(spool.isSpooled());
+		assertEquals(-1, spool.getPreview("UTF-8").indexOf("<end/>")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(spool.contains("<end/>", "UTF-8")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse(spool.contains("<start/>", "UTF-8")); //$NON-NLS-1$ //$NON-NLS-2$
+		spool.dispose();
+	}
+}
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.test.utils;
+
+import javax.wsdl.Definition;
+
+import junit.framework.TestCase;
+
+import org.jboss.tools.ws.ui.utils.SchemaUtils;
+
+/**
+ * Tests for the generation of sample messages
+ */
+public class SchemaUtilsTest extends TestCase {
+
+	private static final String WSDL = "/jbide8770/parts.wsdl"; //$NON-NLS-1$
+	private static final String SERVICE = "basic"; //$NON-NLS-1$
+	private static final String PORT = "minusPort"; //$NON-NLS-1$
+	private static final String BINDING = "minusSOAP"; //$NON-NLS-1$
+	private static final String OPERATION = "minusOperation"; //$NON-NLS-1$
+
+	public void testSampleMessagesAreMemoized() throws Exception {
+		Definition def = SchemaUtils.readWSDLURL(getClass().getResource(WSDL));
+		final SchemaUtils utils = SchemaUtils.getInstance(def);
+		assertSame(utils, SchemaUtils.getInstance(def));
+		assertSame(def, utils.getDefinition());
+
+		// concurrent requests for a sample share a single generation
+		final String[] samples = new String[4];
+		Thread[] threads = new Thread[samples.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int index = i;
+			threads[i] = new Thread() {
+				public void run() {
+					samples[index] = utils.getSampleInputMessage(SERVICE, PORT, BINDING, OPERATION);
+				}
+			};
+			threads[i].start();
+		}
+		for (int i = 0; i < threads.length; i++) {
+			threads[i].join();
+		}
+		assertTrue(samples[0], samples[0].contains("<a>?</a>")); //$NON-NLS-1$
+		for (int i = 1; i < samples.length; i++) {
+			assertSame(samples[0], samples[i]);
+		}
+		assertSame(samples[0], SchemaUtils.getSampleSOAPInputMessage(def, SERVICE, PORT, BINDING, OPERATION));
+		assertNull(utils.getSampleInputMessage(SERVICE, PORT, BINDING, "noSuchOperation")); //$NON-NLS-1$
+	}
+
+	public void testGeneratesAllSamples() throws Exception {
+		Definition def = SchemaUtils.readWSDLURL(getClass().getResource(WSDL));
+		SchemaUtils utils = new SchemaUtils(def);
+		utils.generateSamples(null);
+		String header = utils.getSampleMessageHeader(SERVICE, PORT, BINDING, OPERATION);
+		assertTrue(header, header.contains("<timestamp>?</timestamp>")); //$NON-NLS-1$
+		assertSame(header, utils.getSampleMessageHeader(SERVICE, PORT, BINDING, OPERATION));
+	}
+}
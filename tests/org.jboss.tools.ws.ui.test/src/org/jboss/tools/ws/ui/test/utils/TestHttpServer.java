@@ -0,0 +1,371 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.test.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.security.KeyStore;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.net.ServerSocketFactory;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+
+/**
+ * Minimal HTTP/1.1 server for the tests, built on a plain {@link ServerSocket}
+ * so that it runs on any execution environment. Connections are kept alive,
+ * and each one is served by its own thread, so that requests on different
+ * connections are handled concurrently. HTTPS is served with the
+ * self-signed certificate of localhost, see {@link #createSSLContext()}.
+ */
+public class TestHttpServer {
+
+	private static final String KEYSTORE = "/ssl/localhost.jks"; //$NON-NLS-1$
+	private static final char[] KEYSTORE_PASSWORD = "changeit".toCharArray(); //$NON-NLS-1$
+
+	/**
+	 * Handles the requests
+	 */
+	public interface Handler {
+		void handle(Exchange exchange) throws Exception;
+	}
+
+	/**
+	 * A request, and the response to send back (200 with an empty body by
+	 * default)
+	 */
+	public static class Exchange {
+
+		private final String method;
+		private final String path;
+		private final Map<String, String> requestHeaders;
+		private final byte[] requestBody;
+		private final int remotePort;
+		private int status = 200;
+		private final Map<String, String> responseHeaders = new LinkedHashMap<String, String>();
+		private byte[] responseBody = new byte[0];
+
+		Exchange(String method, String target, Map<String, String> requestHeaders, byte[] requestBody, int remotePort) {
+			this.method = method;
+			int query = target.indexOf('?');
+			this.path = query >= 0 ? target.substring(0, query) : target;
+			this.requestHeaders = requestHeaders;
+			this.requestBody = requestBody;
+			this.remotePort = remotePort;
+		}
+
+		public String getMethod() {
+			return method;
+		}
+
+		public String getPath() {
+			return path;
+		}
+
+		public String getRequestHeader(String name) {
+			return requestHeaders.get(name.toLowerCase(Locale.ENGLISH));
+		}
+
+		public byte[] getRequestBody() {
+			return requestBody;
+		}
+
+		public int getRemotePort() {
+			return remotePort;
+		}
+
+		public void setStatus(int status) {
+			this.status = status;
+		}
+
+		public void addResponseHeader(String name, String value) {
+			responseHeaders.put(name, value);
+		}
+
+		public void setResponseBody(byte[] responseBody) {
+			this.responseBody = responseBody;
+		}
+
+		public void setResponseBody(String responseBody) {
+			try {
+				this.responseBody = responseBody.getBytes("UTF-8"); //$NON-NLS-1$
+			} catch (UnsupportedEncodingException e) {
+				throw new IllegalStateException(e.getMessage());
+			}
+		}
+	}
+
+	private final Handler handler;
+	private final ServerSocket serverSocket;
+	private final String baseURL;
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private final Set<Socket> sockets = Collections.synchronizedSet(new HashSet<Socket>());
+
+	/**
+	 * Start a plain HTTP server on a free port of localhost
+	 * @param handler
+	 * @throws IOException
+	 */
+	public TestHttpServer(Handler handler) throws IOException {
+		this(handler, null);
+	}
+
+	/**
+	 * Start a server on a free port of localhost
+	 * @param handler
+	 * @param sslContext the context of the HTTPS server, or null for HTTP
+	 * @throws IOException
+	 */
+	public TestHttpServer(Handler handler, SSLContext sslContext) throws IOException {
+		this.handler = handler;
+		ServerSocketFactory factory = sslContext != null ? sslContext.getServerSocketFactory() : ServerSocketFactory
+				.getDefault();
+		serverSocket = factory.createServerSocket(0, 50, InetAddress.getByName("localhost")); //$NON-NLS-1$
+		baseURL = (sslContext != null ? "https" : "http") + "://localhost:" + serverSocket.getLocalPort() + "/"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		executor.execute(new Runnable() {
+			public void run() {
+				accept();
+			}
+		});
+	}
+
+	/**
+	 * Create an SSL context with the self-signed certificate of localhost,
+	 * usable both by the server and by the clients which must trust it
+	 * @return SSLContext
+	 * @throws Exception
+	 */
+	public static SSLContext createSSLContext() throws Exception {
+		KeyStore keyStore = KeyStore.getInstance("JKS"); //$NON-NLS-1$
+		InputStream in = TestHttpServer.class.getResourceAsStream(KEYSTORE);
+		try {
+			keyStore.load(in, KEYSTORE_PASSWORD);
+		} finally {
+			in.close();
+		}
+		KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+		keyManagers.init(keyStore, KEYSTORE_PASSWORD);
+		TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory
+				.getDefaultAlgorithm());
+		trustManagers.init(keyStore);
+		SSLContext context = SSLContext.getInstance("TLS"); //$NON-NLS-1$
+		context.init(keyManagers.getKeyManagers(), trustManagers.getTrustManagers(), null);
+		return context;
+	}
+
+	/**
+	 * @return the URL of the root of the server, ending with a slash
+	 */
+	public String getBaseURL() {
+		return baseURL;
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Close the server and all its connections
+	 */
+	public void stop() {
+		try {
+			serverSocket.close();
+		} catch (IOException e) {
+			// already closed
+		}
+		synchronized (sockets) {
+			for (Socket socket : sockets) {
+				close(socket);
+			}
+		}
+		executor.shutdownNow();
+	}
+
+	private void accept() {
+		while (!serverSocket.isClosed()) {
+			final Socket socket;
+			try {
+				socket = serverSocket.accept();
+			} catch (IOException e) {
+				return;
+			}
+			sockets.add(socket);
+			try {
+				executor.execute(new Runnable() {
+					public void run() {
+						serve(socket);
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				close(socket);
+				return;
+			}
+		}
+	}
+
+	private void serve(Socket socket) {
+		try {
+			InputStream in = new BufferedInputStream(socket.getInputStream());
+			OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+			boolean keepAlive = true;
+			while (keepAlive) {
+				String requestLine = readLine(in);
+				if (requestLine == null) {
+					return;
+				}
+				if (requestLine.length() == 0) {
+					continue;
+				}
+				String[] parts = requestLine.split(" "); //$NON-NLS-1$
+				Map<String, String> headers = new HashMap<String, String>();
+				for (String line = readLine(in); line != null && line.length() > 0; line = readLine(in)) {
+					int colon = line.indexOf(':');
+					if (colon > 0) {
+						headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ENGLISH), line.substring(
+								colon + 1).trim());
+					}
+				}
+				Exchange exchange = new Exchange(parts[0], parts[1], headers, readBody(in, headers), socket.getPort());
+				try {
+					handler.handle(exchange);
+				} catch (Exception e) {
+					exchange.setStatus(500);
+					exchange.setResponseBody(String.valueOf(e));
+				}
+				keepAlive = parts.length > 2 && "HTTP/1.1".equals(parts[2]) //$NON-NLS-1$
+						&& !"close".equalsIgnoreCase(headers.get("connection")); //$NON-NLS-1$ //$NON-NLS-2$
+				write(exchange, keepAlive, out);
+			}
+		} catch (IOException e) {
+			// the connection was closed
+		} finally {
+			close(socket);
+			sockets.remove(socket);
+		}
+	}
+
+	private static byte[] readBody(InputStream in, Map<String, String> headers) throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		if ("chunked".equalsIgnoreCase(headers.get("transfer-encoding"))) { //$NON-NLS-1$ //$NON-NLS-2$
+			while (true) {
+				String size = readLine(in);
+				if (size == null) {
+					throw new IOException("Unexpected end of chunked body"); //$NON-NLS-1$
+				}
+				int extension = size.indexOf(';');
+				int length = Integer.parseInt((extension >= 0 ? size.substring(0, extension) : size).trim(), 16);
+				if (length == 0) {
+					// trailers
+					for (String line = readLine(in); line != null && line.length() > 0; line = readLine(in)) {
+						// ignored
+					}
+					return body.toByteArray();
+				}
+				copy(in, body, length);
+				readLine(in);
+			}
+		}
+		String contentLength = headers.get("content-length"); //$NON-NLS-1$
+		if (contentLength != null) {
+			copy(in, body, Integer.parseInt(contentLength));
+		}
+		return body.toByteArray();
+	}
+
+	private static void write(Exchange exchange, boolean keepAlive, OutputStream out) throws IOException {
+		boolean hasBody = exchange.status != 204 && exchange.status != 304 && !"HEAD".equals(exchange.method); //$NON-NLS-1$
+		StringBuilder head = new StringBuilder();
+		head.append("HTTP/1.1 ").append(exchange.status).append(' ').append(getReason(exchange.status)).append("\r\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		for (Map.Entry<String, String> header : exchange.responseHeaders.entrySet()) {
+			head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		if (hasBody) {
+			head.append("Content-Length: ").append(exchange.responseBody.length).append("\r\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		head.append("Connection: ").append(keepAlive ? "keep-alive" : "close").append("\r\n\r\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		out.write(head.toString().getBytes("ISO-8859-1")); //$NON-NLS-1$
+		if (hasBody) {
+			out.write(exchange.responseBody);
+		}
+		out.flush();
+	}
+
+	private static String getReason(int status) {
+		switch (status) {
+		case 200:
+			return "OK"; //$NON-NLS-1$
+		case 304:
+			return "Not Modified"; //$NON-NLS-1$
+		case 404:
+			return "Not Found"; //$NON-NLS-1$
+		case 500:
+			return "Internal Server Error"; //$NON-NLS-1$
+		default:
+			return "Status"; //$NON-NLS-1$
+		}
+	}
+
+	/*
+	 * Read a line ending with LF (the CR before it is dropped), or return null
+	 * at the end of the stream
+	 */
+	private static String readLine(InputStream in) throws IOException {
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		int b = in.read();
+		if (b == -1) {
+			return null;
+		}
+		while (b != -1 && b != '\n') {
+			line.write(b);
+			b = in.read();
+		}
+		String text = line.toString("ISO-8859-1"); //$NON-NLS-1$
+		return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text; //$NON-NLS-1$
+	}
+
+	private static void copy(InputStream in, OutputStream out, int length) throws IOException {
+		byte[] buffer = new byte[4096];
+		while (length > 0) {
+			int n = in.read(buffer, 0, Math.min(buffer.length, length));
+			if (n == -1) {
+				throw new IOException("Unexpected end of body"); //$NON-NLS-1$
+			}
+			out.write(buffer, 0, n);
+			length -= n;
+		}
+	}
+
+	private static void close(Socket socket) {
+		try {
+			socket.close();
+		} catch (IOException e) {
+			// already closed
+		}
+	}
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.test.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.wsdl.Definition;
+
+import junit.framework.TestCase;
+
+import org.jboss.tools.ws.ui.utils.WSDLDefinitionCache;
+
+/**
+ * Tests for the cache of parsed WSDLs
+ */
+public class WSDLDefinitionCacheTest extends TestCase {
+
+	private File dir;
+
+	@Override
+	protected void setUp() throws Exception {
+		dir = File.createTempFile("wsdlcache", ""); //$NON-NLS-1$ //$NON-NLS-2$
+		dir.delete();
+		dir.mkdirs();
+		copy("/jbide6497/original.wsdl", "original.wsdl"); //$NON-NLS-1$ //$NON-NLS-2$
+		copy("/jbide6497/imported.wsdl", "imported.wsdl"); //$NON-NLS-1$ //$NON-NLS-2$
+		copy("/jbide6497/schema.xsd", "schema.xsd"); //$NON-NLS-1$ //$NON-NLS-2$
+		copy("/jbide6558/x.wsdl", "x.wsdl"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		File[] files = dir.listFiles();
+		for (int i = 0; i < files.length; i++) {
+			files[i].delete();
+		}
+		dir.delete();
+	}
+
+	public void testReusesUnchangedFiles() throws Exception {
+		WSDLDefinitionCache cache = new WSDLDefinitionCache(8, 60000);
+		URL url = new File(dir, "original.wsdl").toURI().toURL(); //$NON-NLS-1$
+		Definition def = cache.getDefinition(url);
+		assertFalse(def.getImports().isEmpty());
+		assertSame(def, cache.getDefinition(url));
+
+		Thread.sleep(WSDLDefinitionCache.FRESH_TIME + 100);
+		assertSame(def, cache.getDefinition(url));
+
+		// a change to an imported WSDL is detected
+		File imported = new File(dir, "imported.wsdl"); //$NON-NLS-1$
+		long lastModified = imported.lastModified();
+		OutputStream out = new FileOutputStream(imported, true);
+		out.write("\n".getBytes()); //$NON-NLS-1$
+		out.close();
+		imported.setLastModified(lastModified + 10000);
+		Thread.sleep(WSDLDefinitionCache.FRESH_TIME + 100);
+		Definition changed = cache.getDefinition(url);
+		assertNotSame(def, changed);
+		assertSame(changed, cache.getDefinition(url));
+	}
+
+	public void testRefreshesAndBoundsEntries() throws Exception {
+		WSDLDefinitionCache cache = new WSDLDefinitionCache(1, 60000);
+		URL original = new File(dir, "original.wsdl").toURI().toURL(); //$NON-NLS-1$
+		URL other = new File(dir, "x.wsdl").toURI().toURL(); //$NON-NLS-1$
+		Definition def = cache.getDefinition(original);
+		cache.refresh(original);
+		assertEquals(0, cache.size());
+		Definition refreshed = cache.getDefinition(original);
+		assertNotSame(def, refreshed);
+
+		cache.getDefinition(other);
+		assertEquals(1, cache.size());
+		assertNotSame(refreshed, cache.getDefinition(original));
+
+		assertNotNull(cache.getSchema(new File(dir, "schema.xsd").toURI().toURL().toExternalForm())); //$NON-NLS-1$
+		assertNull(cache.getSchema(new File(dir, "missing.xsd").toURI().toURL().toExternalForm())); //$NON-NLS-1$
+	}
+
+	public void testRevalidatesWithETag() throws Exception {
+		final byte[] wsdl = read("/jbide6558/x.wsdl"); //$NON-NLS-1$
+		final String[] etag = new String[] { "\"1\"" }; //$NON-NLS-1$
+		final AtomicInteger downloads = new AtomicInteger();
+		final AtomicInteger notModified = new AtomicInteger();
+		TestHttpServer server = new TestHttpServer(new TestHttpServer.Handler() {
+			public void handle(TestHttpServer.Exchange exchange) {
+				String current = etag[0];
+				exchange.addResponseHeader("ETag", current); //$NON-NLS-1$
+				if (current.equals(exchange.getRequestHeader("If-None-Match"))) { //$NON-NLS-1$
+					notModified.incrementAndGet();
+					exchange.setStatus(304);
+					return;
+				}
+				downloads.incrementAndGet();
+				exchange.addResponseHeader("Content-Type", "text/xml"); //$NON-NLS-1$ //$NON-NLS-2$
+				exchange.setResponseBody(wsdl);
+			}
+		});
+		try {
+			URL url = new URL(server.getBaseURL() + "x?wsdl"); //$NON-NLS-1$
+			WSDLDefinitionCache cache = new WSDLDefinitionCache(8, 60000);
+			Definition def = cache.getDefinition(url);
+			assertSame(def, cache.getDefinition(url));
+			assertEquals(1, downloads.get());
+			assertEquals(0, notModified.get());
+
+			Thread.sleep(WSDLDefinitionCache.FRESH_TIME + 100);
+			assertSame(def, cache.getDefinition(url));
+			assertEquals(1, downloads.get());
+			assertEquals(1, notModified.get());
+
+			etag[0] = "\"2\""; //$NON-NLS-1$
+			Thread.sleep(WSDLDefinitionCache.FRESH_TIME + 100);
+			assertNotSame(def, cache.getDefinition(url));
+			assertEquals(2, downloads.get());
+		} finally {
+			server.stop();
+		}
+	}
+
+	private void copy(String resource, String name) throws IOException {
+		OutputStream out = new FileOutputStream(new File(dir, name));
+		try {
+			out.write(read(resource));
+		} finally {
+			out.close();
+		}
+	}
+
+	private static byte[] read(String resource) throws IOException {
+		InputStream in = WSDLDefinitionCacheTest.class.getResourceAsStream(resource);
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int n;
+			while ((n = in.read(buffer)) != -1) {
+				out.write(buffer, 0, n);
+			}
+			return out.toByteArray();
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.test.utils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.jboss.tools.ws.ui.utils.LoadTestResult;
+import org.jboss.tools.ws.ui.utils.WSLoadTester;
+
+/**
+ * Tests for the load test engine of the WS Tester
+ */
+public class WSLoadTesterTest extends TestCase {
+
+	private static final long MILLI = 1000000;
+
+	public void testPercentilesAndErrorRate() {
+		LoadTestResult result = new LoadTestResult();
+		for (int i = 1; i <= 100; i++) {
+			result.record(i * MILLI, i % 10 == 0 ? "HTTP 500" : null); //$NON-NLS-1$
+		}
+		result.setFinished();
+		assertEquals(100, result.getCount());
+		assertEquals(10, result.getErrors());
+		assertEquals(10.0, result.getErrorRate(), 0.001);
+		assertEquals(50.0, result.getPercentile(50), 0.001);
+		assertEquals(95.0, result.getPercentile(95), 0.001);
+		assertEquals(99.0, result.getPercentile(99), 0.001);
+		assertEquals(100.0, result.getMax(), 0.001);
+		assertEquals(Integer.valueOf(10), result.getErrorsByCause().get("HTTP 500")); //$NON-NLS-1$
+
+		int[] histogram = result.getHistogram(10);
+		int total = 0;
+		for (int count : histogram) {
+			assertTrue(count > 0);
+			total += count;
+		}
+		assertEquals(100, total);
+		assertTrue(result.toReport().contains("p95=95.0")); //$NON-NLS-1$
+	}
+
+	public void testRunsTotalRequests() throws Exception {
+		final AtomicInteger calls = new AtomicInteger();
+		WSLoadTester loadTester = new WSLoadTester();
+		loadTester.setConcurrency(4);
+		loadTester.setTotalRequests(50);
+		LoadTestResult result = loadTester.run(new WSLoadTester.Request() {
+			public String invoke(IProgressMonitor monitor) throws Exception {
+				if (calls.incrementAndGet() % 5 == 0) {
+					throw new IllegalStateException("failure"); //$NON-NLS-1$
+				}
+				return null;
+			}
+
+			public void abort() {
+				// nothing to abort
+			}
+		}, null, null);
+		assertEquals(50, calls.get());
+		assertEquals(50, result.getCount());
+		assertEquals(10, result.getErrors());
+		assertTrue(result.isFinished());
+	}
+
+	public void testStopsAfterDuration() throws Exception {
+		WSLoadTester loadTester = new WSLoadTester();
+		loadTester.setConcurrency(2);
+		loadTester.setDuration(300);
+		loadTester.setThinkTime(10);
+		long start = System.currentTimeMillis();
+		LoadTestResult result = loadTester.run(new WSLoadTester.Request() {
+			public String invoke(IProgressMonitor monitor) throws Exception {
+				return null;
+			}
+
+			public void abort() {
+				// nothing to abort
+			}
+		}, null, null);
+		assertTrue(System.currentTimeMillis() - start < 5000);
+		assertTrue(result.getCount() > 0);
+		assertEquals(0, result.getErrors());
+	}
+
+	public void testCancelAbortsTheRequestsInProgress() throws Exception {
+		final CountDownLatch started = new CountDownLatch(2);
+		final CountDownLatch aborted = new CountDownLatch(1);
+		final NullProgressMonitor monitor = new NullProgressMonitor();
+		WSLoadTester loadTester = new WSLoadTester();
+		loadTester.setConcurrency(2);
+		loadTester.setTotalRequests(10);
+		loadTester.setReportInterval(50);
+		new Thread() {
+			public void run() {
+				try {
+					started.await();
+				} catch (InterruptedException e) {
+					// cancel anyway
+				}
+				monitor.setCanceled(true);
+			}
+		}.start();
+		long start = System.currentTimeMillis();
+		LoadTestResult result = loadTester.run(new WSLoadTester.Request() {
+			public String invoke(IProgressMonitor requestMonitor) throws Exception {
+				started.countDown();
+				// like a blocked connection, which ignores the interruptions
+				while (aborted.getCount() > 0) {
+					try {
+						aborted.await();
+					} catch (InterruptedException e) {
+						// still blocked
+					}
+				}
+				throw new InterruptedException();
+			}
+
+			public void abort() {
+				aborted.countDown();
+			}
+		}, monitor, null);
+		assertTrue(System.currentTimeMillis() - start < 5000);
+		assertEquals(0, result.getCount());
+		assertTrue(result.isFinished());
+	}
+}
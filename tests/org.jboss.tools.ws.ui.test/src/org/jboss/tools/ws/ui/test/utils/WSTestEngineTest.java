@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.test.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.jboss.tools.ws.ui.utils.WSTestEngine;
+
+/**
+ * Tests for the request engine of the WS Tester
+ */
+public class WSTestEngineTest extends TestCase {
+
+	private WSTestEngine engine;
+
+	@Override
+	protected void setUp() throws Exception {
+		engine = new WSTestEngine(4, 0);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		engine.shutdown();
+	}
+
+	public void testReturnsResult() throws Exception {
+		String result = engine.invoke(new WSTestEngine.Request<String>() {
+			public String execute() throws Exception {
+				return "done"; //$NON-NLS-1$
+			}
+			public void abort() {
+			}
+		}, null);
+		assertEquals("done", result); //$NON-NLS-1$
+	}
+
+	public void testCancelsWithMonitor() throws Exception {
+		BlockingRequest request = new BlockingRequest();
+		final NullProgressMonitor monitor = new NullProgressMonitor();
+		new Thread() {
+			public void run() {
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					// cancel now
+				}
+				monitor.setCanceled(true);
+			}
+		}.start();
+		long start = System.currentTimeMillis();
+		try {
+			engine.invoke(request, monitor);
+			fail("The request should have been cancelled"); //$NON-NLS-1$
+		} catch (InterruptedException e) {
+			assertTrue(System.currentTimeMillis() - start < 2000);
+		}
+		assertTrue(request.aborted.await(1, TimeUnit.SECONDS));
+	}
+
+	public void testTimesOut() throws Exception {
+		BlockingRequest request = new BlockingRequest();
+		Future<String> future = engine.submit(request, 100);
+		long start = System.currentTimeMillis();
+		try {
+			WSTestEngine.await(future, null);
+			fail("The request should have timed out"); //$NON-NLS-1$
+		} catch (TimeoutException e) {
+			assertTrue(System.currentTimeMillis() - start < 2000);
+		}
+		assertTrue(request.aborted.await(1, TimeUnit.SECONDS));
+	}
+
+	public void testRunsRequestsConcurrently() throws Exception {
+		final CountDownLatch started = new CountDownLatch(4);
+		List<Future<String>> futures = new ArrayList<Future<String>>();
+		for (int i = 0; i < 4; i++) {
+			futures.add(engine.submit(new WSTestEngine.Request<String>() {
+				public String execute() throws Exception {
+					started.countDown();
+					// only returns if all the requests are in progress at the same time
+					return started.await(2, TimeUnit.SECONDS) ? "ok" : "blocked"; //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				public void abort() {
+				}
+			}));
+		}
+		for (Future<String> future : futures) {
+			assertEquals("ok", WSTestEngine.await(future, null)); //$NON-NLS-1$
+		}
+	}
+
+	/*
+	 * A request which only ends when it is aborted
+	 */
+	private static class BlockingRequest implements WSTestEngine.Request<String> {
+
+		private final CountDownLatch aborted = new CountDownLatch(1);
+
+		public String execute() throws Exception {
+			aborted.await();
+			throw new IllegalStateException("aborted"); //$NON-NLS-1$
+		}
+
+		public void abort() {
+			aborted.countDown();
+		}
+	}
+}
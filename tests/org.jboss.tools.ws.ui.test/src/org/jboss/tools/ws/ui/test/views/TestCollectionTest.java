@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2012 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package org.jboss.tools.ws.ui.test.views;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.jboss.tools.ws.ui.test.utils.TestHttpServer;
+import org.jboss.tools.ws.ui.utils.WSTestEngine;
+import org.jboss.tools.ws.ui.views.TestAssertion;
+import org.jboss.tools.ws.ui.views.TestCollection;
+import org.jboss.tools.ws.ui.views.TestCollectionResult;
+import org.jboss.tools.ws.ui.views.TestCollectionRunner;
+import org.jboss.tools.ws.ui.views.TestHistoryEntry;
+
+/**
+ * Tests for the test collections of the WS Tester
+ */
+public class TestCollectionTest extends TestCase {
+
+	private TestHttpServer server;
+	private String baseURL;
+
+	@Override
+	protected void setUp() throws Exception {
+		server = new TestHttpServer(new TestHttpServer.Handler() {
+			public void handle(TestHttpServer.Exchange exchange) {
+				boolean missing = exchange.getPath().endsWith("missing"); //$NON-NLS-1$
+				exchange.addResponseHeader("Content-Type", "application/json"); //$NON-NLS-1$ //$NON-NLS-2$
+				exchange.setStatus(missing ? 404 : 200);
+				exchange.setResponseBody(missing ? "not found" : "{\"id\":1}"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		});
+		baseURL = server.getBaseURL();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		server.stop();
+	}
+
+	public void testSavesAndLoadsCollections() throws Exception {
+		TestCollection collection = new TestCollection("API"); //$NON-NLS-1$
+		TestCollection.Item rest = createItem("POST", baseURL + "orders", "<order/>"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		rest.getEntry().setHeaders("Accept=application/xml"); //$NON-NLS-1$
+		rest.addAssertion(new TestAssertion(TestAssertion.Type.STATUS, "2xx")); //$NON-NLS-1$
+		rest.addAssertion(new TestAssertion(TestAssertion.Type.BODY, "<ok/>")); //$NON-NLS-1$
+		collection.addItem(rest);
+		TestCollection.Item soap = createItem(null, baseURL + "quotes", "<soap:Envelope/>"); //$NON-NLS-1$ //$NON-NLS-2$
+		soap.getEntry().setWsTech("JAX-WS"); //$NON-NLS-1$
+		soap.getEntry().setAction("urn:getQuote"); //$NON-NLS-1$
+		soap.getEntry().setServiceNSMessage(new String[] { "urn:quotes", "QuoteService", "QuotePort" }); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		soap.getEntry().setSOAP12(true);
+		collection.addItem(soap);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		collection.save(out);
+		TestCollection loaded = TestCollection.load(new ByteArrayInputStream(out.toByteArray()));
+
+		assertEquals("API", loaded.getName()); //$NON-NLS-1$
+		assertEquals(2, loaded.getItems().size());
+		TestHistoryEntry loadedRest = loaded.getItems().get(0).getEntry();
+		assertEquals("POST", loadedRest.getMethod()); //$NON-NLS-1$
+		assertEquals("<order/>", loadedRest.getBody()); //$NON-NLS-1$
+		assertEquals("Accept=application/xml", loadedRest.getHeaders()); //$NON-NLS-1$
+		List<TestAssertion> assertions = loaded.getItems().get(0).getAssertions();
+		assertEquals(2, assertions.size());
+		assertEquals(TestAssertion.Type.STATUS, assertions.get(0).getType());
+		assertEquals("2xx", assertions.get(0).getExpected()); //$NON-NLS-1$
+		TestHistoryEntry loadedSoap = loaded.getItems().get(1).getEntry();
+		assertEquals("JAX-WS", loadedSoap.getWsTech()); //$NON-NLS-1$
+		assertEquals("QuotePort", loadedSoap.getServiceNSMessage()[2]); //$NON-NLS-1$
+		assertTrue(loadedSoap.isSOAP12());
+	}
+
+	public void testChecksAssertions() {
+		Map<String, List<String>> headers = Collections.singletonMap("Content-Type", //$NON-NLS-1$
+				Collections.singletonList("text/xml; charset=UTF-8")); //$NON-NLS-1$
+		assertNull(new TestAssertion(TestAssertion.Type.STATUS, "2xx").check(204, headers, null, 10)); //$NON-NLS-1$
+		assertNotNull(new TestAssertion(TestAssertion.Type.STATUS, "200").check(500, headers, null, 10)); //$NON-NLS-1$
+		assertNull(new TestAssertion(TestAssertion.Type.HEADER, "content-type: text/xml").check(200, headers, null, 10)); //$NON-NLS-1$
+		assertNotNull(new TestAssertion(TestAssertion.Type.HEADER, "ETag").check(200, headers, null, 10)); //$NON-NLS-1$
+		assertNull(new TestAssertion(TestAssertion.Type.BODY, "<a>").check(200, headers, "<a></a>", 10)); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNotNull(new TestAssertion(TestAssertion.Type.TIME, "100").check(200, headers, null, 150)); //$NON-NLS-1$
+	}
+
+	public void testRunsCollection() throws Exception {
+		TestCollection collection = new TestCollection("API"); //$NON-NLS-1$
+		for (int i = 0; i < 5; i++) {
+			TestCollection.Item item = createItem("GET", baseURL + "orders/" + i, null); //$NON-NLS-1$ //$NON-NLS-2$
+			item.addAssertion(new TestAssertion(TestAssertion.Type.STATUS, "200")); //$NON-NLS-1$
+			item.addAssertion(new TestAssertion(TestAssertion.Type.HEADER, "Content-Type: json")); //$NON-NLS-1$
+			item.addAssertion(new TestAssertion(TestAssertion.Type.BODY, "\"id\"")); //$NON-NLS-1$
+			collection.addItem(item);
+		}
+		TestCollection.Item missing = createItem("GET", baseURL + "missing", null); //$NON-NLS-1$ //$NON-NLS-2$
+		missing.addAssertion(new TestAssertion(TestAssertion.Type.STATUS, "2xx")); //$NON-NLS-1$
+		collection.addItem(missing);
+
+		WSTestEngine engine = new WSTestEngine(4, 5000);
+		try {
+			for (int parallelism = 1; parallelism <= 3; parallelism += 2) {
+				TestCollectionRunner runner = new TestCollectionRunner(engine);
+				runner.setParallelism(parallelism);
+				TestCollectionResult result = runner.run(collection, null, null);
+				assertTrue(result.isFinished());
+				assertEquals(5, result.getPassed());
+				assertEquals(1, result.getFailed());
+				List<TestCollectionResult.ItemResult> results = result.getResults();
+				assertEquals(6, results.size());
+				assertEquals(404, results.get(5).getStatusCode());
+				assertEquals(1, results.get(5).getFailures().size());
+				assertTrue(results.get(0).getTime() >= 0);
+				assertTrue(result.toReport().contains("Passed: 5, failed: 1")); //$NON-NLS-1$
+			}
+		} finally {
+			engine.shutdown();
+		}
+	}
+
+	private static TestCollection.Item createItem(String method, String url, String body) {
+		TestHistoryEntry entry = new TestHistoryEntry();
+		entry.setWsTech("JAX-RS"); //$NON-NLS-1$
+		entry.setMethod(method);
+		entry.setUrl(url);
+		entry.setBody(body);
+		return new TestCollection.Item(entry);
+	}
+}